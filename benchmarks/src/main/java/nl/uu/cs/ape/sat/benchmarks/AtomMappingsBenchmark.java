@@ -0,0 +1,101 @@
+package nl.uu.cs.ape.sat.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import nl.uu.cs.ape.sat.automaton.State;
+import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
+import nl.uu.cs.ape.sat.models.AtomMappings;
+import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
+import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * Benchmarks of {@link AtomMappings#add}, covering both the insertion of new
+ * atoms and the lookup of the already mapped ones.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class AtomMappingsBenchmark {
+
+	/** Length of the automaton whose states are used as atom arguments. */
+	private static final int LENGTH = 5;
+
+	@org.openjdk.jmh.annotations.State(Scope.Thread)
+	public static class MappingsState {
+
+		List<TaxonomyPredicate> predicates;
+		List<State> states;
+		AtomMappings populated;
+		int next;
+
+		@Setup(Level.Trial)
+		public void setup(DomainState domain) {
+			predicates = new ArrayList<TaxonomyPredicate>(domain.getDomainSetup().getAllTypes().getTypes());
+			TypeAutomaton typeAutomaton = new TypeAutomaton(LENGTH, domain.getConfig().getMax_no_tool_inputs(),
+					domain.getConfig().getMax_no_tool_outputs());
+			states = typeAutomaton.getAllStates();
+			populated = new AtomMappings();
+			for (TaxonomyPredicate predicate : predicates) {
+				for (State state : states) {
+					populated.add(predicate, state, WorkflowElement.MEMORY_TYPE);
+				}
+			}
+		}
+	}
+
+	/** Lookup of an atom that was already mapped. */
+	@Benchmark
+	public Integer lookup(MappingsState state) {
+		int i = state.next++;
+		if (state.next == state.predicates.size() * state.states.size()) {
+			state.next = 0;
+		}
+		return state.populated.add(state.predicates.get(i / state.states.size()),
+				state.states.get(i % state.states.size()), WorkflowElement.MEMORY_TYPE);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public Integer lookupParallel(MappingsState state) {
+		return lookup(state);
+	}
+
+	/** Mapping of all the atoms into a new, empty set of mappings. */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public void insertAll(MappingsState state, Blackhole blackhole) {
+		AtomMappings mappings = new AtomMappings();
+		for (TaxonomyPredicate predicate : state.predicates) {
+			for (State automatonState : state.states) {
+				blackhole.consume(mappings.add(predicate, automatonState, WorkflowElement.MEMORY_TYPE));
+			}
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public void insertAllParallel(MappingsState state, Blackhole blackhole) {
+		insertAll(state, blackhole);
+	}
+}
@@ -0,0 +1,95 @@
+package nl.uu.cs.ape.sat.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.sat.utils.APEUtils;
+import nl.uu.cs.ape.sat.utils.DomainGenerator;
+
+/**
+ * The {@code BenchmarkDomain} class provides the domains (taxonomy, tool
+ * annotations and configuration) that are used as fixtures by the benchmarks.
+ * The domains are generated using the {@link DomainGenerator} and are
+ * deterministic for a given set of parameters, which makes the measurements
+ * comparable between runs.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public final class BenchmarkDomain {
+
+	private static final int TAXONOMY_DEPTH = 3;
+	private static final long SEED = 42;
+
+	/** Configuration generated together with the domain. */
+	private final JSONObject configuration;
+
+	/** Private constructor, use {@link #generate(int, int)} instead. */
+	private BenchmarkDomain(JSONObject configuration) {
+		this.configuration = configuration;
+	}
+
+	/**
+	 * Generate a domain with the given number of tools, where both taxonomies have
+	 * the given branching factor. The files are written to a new temporary folder.
+	 *
+	 * @param noTools   - number of annotated tools
+	 * @param branching - number of subclasses of each abstract taxonomy class
+	 * @return The generated domain.
+	 * @throws IOException error in writing the domain files
+	 */
+	public static BenchmarkDomain generate(int noTools, int branching) throws IOException {
+		JSONObject generatorConfig = new JSONObject();
+		generatorConfig.put("seed", SEED);
+		generatorConfig.put("tools", noTools);
+		generatorConfig.put("types", (int) Math.pow(branching, TAXONOMY_DEPTH));
+		generatorConfig.put("taxonomy_depth", TAXONOMY_DEPTH);
+		generatorConfig.put("taxonomy_fanout", branching);
+		return generate(generatorConfig);
+	}
+
+	/**
+	 * Generate a domain using the given {@link DomainGenerator} configuration. The
+	 * files are written to a new temporary folder.
+	 *
+	 * @param generatorConfig - configuration of the domain generator
+	 * @return The generated domain.
+	 * @throws IOException error in writing the domain files
+	 */
+	public static BenchmarkDomain generate(JSONObject generatorConfig) throws IOException {
+		File folder = Files.createTempDirectory("ape-bench").toFile();
+		folder.deleteOnExit();
+		if (!new DomainGenerator(generatorConfig).generate(folder)) {
+			throw new IOException("Domain generation failed.");
+		}
+		String content = APEUtils.readFile(new File(folder, DomainGenerator.CONFIGURATION_FILE).getPath(),
+				Charset.defaultCharset());
+		return new BenchmarkDomain(new JSONObject(content));
+	}
+
+	/**
+	 * @return Core configuration object that corresponds to the domain.
+	 */
+	public JSONObject getCoreConfig() {
+		return new JSONObject(configuration.toString());
+	}
+
+	/**
+	 * @param sharedMemory - {@code true} if the shared memory model should be used,
+	 *                     {@code false} for the message passing model
+	 * @param maxLength    - maximum length of the solutions
+	 * @param maxSolutions - maximum number of solutions
+	 * @return Run configuration object that corresponds to the domain.
+	 */
+	public JSONObject getRunConfig(boolean sharedMemory, int maxLength, int maxSolutions) {
+		JSONObject config = new JSONObject(configuration.toString());
+		config.put("shared_memory", sharedMemory);
+		config.put("solution_max_length", maxLength);
+		config.put("max_solutions", maxSolutions);
+		return config;
+	}
+}
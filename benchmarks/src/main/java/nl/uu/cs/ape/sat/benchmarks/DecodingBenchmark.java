@@ -0,0 +1,118 @@
+package nl.uu.cs.ape.sat.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.reader.DimacsReader;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IProblem;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.TimeoutException;
+
+import guru.nidi.graphviz.attribute.RankDir;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionGraph;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+
+/**
+ * Benchmarks of the decoding of SAT models into {@link SolutionWorkflow}
+ * objects and of the generation and rendering of their graphical
+ * representations. Rendering to PNG requires a Graphviz engine to be available
+ * (e.g. the {@code dot} command on the path).
+ *
+ * @author Vedran Kasalica
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class DecodingBenchmark {
+
+	/** Maximum number of models that are decoded in rotation. */
+	private static final int MAX_MODELS = 100;
+
+	@State(Scope.Thread)
+	public static class ModelsState {
+
+		EncodedState encoded;
+		List<int[]> models;
+		int next;
+
+		/** Enumerate the models of the encoded problem directly using the solver. */
+		@Setup(Level.Trial)
+		public void setup(EncodedState encoded)
+				throws IOException, ContradictionException, TimeoutException, org.sat4j.reader.ParseFormatException {
+			this.encoded = encoded;
+			this.models = new ArrayList<int[]>();
+			ISolver solver = SolverFactory.newDefault();
+			IProblem problem = new DimacsReader(solver).parseInstance(encoded.newInput());
+			while (models.size() < MAX_MODELS && problem.isSatisfiable()) {
+				int[] model = problem.model();
+				models.add(model);
+				int[] blocking = new int[model.length];
+				for (int i = 0; i < model.length; i++) {
+					blocking[i] = -model[i];
+				}
+				solver.addClause(new VecInt(blocking));
+			}
+			if (models.isEmpty()) {
+				throw new IllegalStateException("The benchmark problem has no solutions.");
+			}
+		}
+
+		int[] nextModel() {
+			int[] model = models.get(next++);
+			if (next == models.size()) {
+				next = 0;
+			}
+			return model;
+		}
+	}
+
+	@Benchmark
+	public SolutionWorkflow decode(ModelsState state) {
+		return new SolutionWorkflow(state.nextModel(), state.encoded.engine);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public SolutionWorkflow decodeParallel(ModelsState state) {
+		return decode(state);
+	}
+
+	@Benchmark
+	public SolutionGraph dataflowGraph(ModelsState state) {
+		return new SolutionWorkflow(state.nextModel(), state.encoded.engine).getDataflowGraph("Benchmark",
+				RankDir.TOP_TO_BOTTOM);
+	}
+
+	@Benchmark
+	public SolutionGraph controlflowGraph(ModelsState state) {
+		return new SolutionWorkflow(state.nextModel(), state.encoded.engine).getControlflowGraph("Benchmark",
+				RankDir.LEFT_TO_RIGHT);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Object renderPNG(ModelsState state) {
+		return new SolutionWorkflow(state.nextModel(), state.encoded.engine)
+				.getDataflowGraph("Benchmark", RankDir.TOP_TO_BOTTOM).getPNGImage();
+	}
+}
@@ -0,0 +1,102 @@
+package nl.uu.cs.ape.sat.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.uu.cs.ape.sat.models.Module;
+import nl.uu.cs.ape.sat.utils.APEConfig;
+import nl.uu.cs.ape.sat.utils.APEDomainSetup;
+import nl.uu.cs.ape.sat.utils.APEUtils;
+import nl.uu.cs.ape.sat.utils.OWLReader;
+
+/**
+ * Benchmarks of reading the domain, i.e. {@link OWLReader#readOntology()} and
+ * {@link APEUtils#readModuleJson(String, APEDomainSetup)}.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class DomainLoadingBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class DomainFiles {
+
+		@Param({ "50", "500" })
+		public int noTools;
+
+		@Param({ "2", "4" })
+		public int branching;
+
+		APEConfig config;
+
+		@Setup(Level.Trial)
+		public void setup() throws IOException {
+			config = new APEConfig(BenchmarkDomain.generate(noTools, branching).getCoreConfig());
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class EmptyDomain {
+
+		APEDomainSetup domainSetup;
+
+		@Setup(Level.Invocation)
+		public void setup(DomainFiles files) {
+			domainSetup = new APEDomainSetup(files.config);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class OntologyDomain {
+
+		APEDomainSetup domainSetup;
+
+		@Setup(Level.Invocation)
+		public void setup(DomainFiles files) {
+			domainSetup = new APEDomainSetup(files.config);
+			new OWLReader(domainSetup, files.config.getOntology_path()).readOntology();
+		}
+	}
+
+	@Benchmark
+	public boolean readOntology(DomainFiles files, EmptyDomain domain) {
+		return new OWLReader(domain.domainSetup, files.config.getOntology_path()).readOntology();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean readOntologyParallel(DomainFiles files, EmptyDomain domain) {
+		return readOntology(files, domain);
+	}
+
+	@Benchmark
+	public List<Module> readModuleJson(DomainFiles files, OntologyDomain domain) {
+		return APEUtils.readModuleJson(files.config.getTool_annotations_path(), domain.domainSetup);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public List<Module> readModuleJsonParallel(DomainFiles files, OntologyDomain domain) {
+		return readModuleJson(files, domain);
+	}
+}
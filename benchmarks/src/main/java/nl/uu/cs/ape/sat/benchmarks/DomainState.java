@@ -0,0 +1,76 @@
+package nl.uu.cs.ape.sat.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import org.json.JSONObject;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import nl.uu.cs.ape.sat.APE;
+import nl.uu.cs.ape.sat.utils.APEConfig;
+import nl.uu.cs.ape.sat.utils.APEDomainSetup;
+import nl.uu.cs.ape.sat.utils.APEUtils;
+
+/**
+ * The {@code DomainState} class holds a fully set up APE instance over a
+ * generated {@link BenchmarkDomain}. The state is thread scoped, as the domain
+ * model and the atom mappings are not thread safe, so that multi-threaded
+ * benchmarks measure independent synthesis instances running side by side.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+@State(Scope.Thread)
+public class DomainState {
+
+	/** Number of annotated tools in the domain. */
+	@Param({ "50", "500" })
+	public int noTools;
+
+	/** Branching factor of the tool and type taxonomies. */
+	@Param({ "2", "4" })
+	public int branching;
+
+	/** {@code true} for the shared memory model, {@code false} for message passing. */
+	@Param({ "true", "false" })
+	public boolean sharedMemory;
+
+	/**
+	 * Path to a {@link nl.uu.cs.ape.sat.utils.DomainGenerator} configuration file.
+	 * When provided, it is used instead of {@link #noTools} and {@link #branching}.
+	 */
+	@Param({ "" })
+	public String domainConfig;
+
+	/** Maximum length of the workflows used in the run configuration. */
+	static final int MAX_LENGTH = 10;
+	/** Maximum number of solutions used in the run configuration. */
+	static final int MAX_SOLUTIONS = 1000;
+
+	BenchmarkDomain domain;
+	APE ape;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		if (domainConfig.isEmpty()) {
+			domain = BenchmarkDomain.generate(noTools, branching);
+		} else {
+			domain = BenchmarkDomain.generate(new JSONObject(APEUtils.readFile(domainConfig, Charset.defaultCharset())));
+		}
+		ape = new APE(domain.getCoreConfig());
+		ape.getConfig().setupRunConfiguration(domain.getRunConfig(sharedMemory, MAX_LENGTH, MAX_SOLUTIONS));
+	}
+
+	APEConfig getConfig() {
+		return ape.getConfig();
+	}
+
+	APEDomainSetup getDomainSetup() {
+		return ape.getDomainSetup();
+	}
+}
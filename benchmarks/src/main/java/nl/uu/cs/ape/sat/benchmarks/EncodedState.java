@@ -0,0 +1,49 @@
+package nl.uu.cs.ape.sat.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import nl.uu.cs.ape.sat.core.implSAT.SAT_SynthesisEngine;
+import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.utils.APEUtils;
+
+/**
+ * The {@code EncodedState} class holds a synthesis engine whose problem was
+ * already encoded, together with the corresponding DIMACS input, so that the
+ * solving and decoding phases can be measured in isolation.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+@State(Scope.Thread)
+public class EncodedState {
+
+	/** Length of the encoded workflows. */
+	@Param({ "4" })
+	public int length;
+
+	SAT_SynthesisEngine engine;
+	/** CNF encoding of the problem in DIMACS format. */
+	String dimacs;
+
+	@Setup(Level.Trial)
+	public void setup(DomainState domain) throws IOException {
+		engine = new SAT_SynthesisEngine(domain.getDomainSetup(), new SATsolutionsList(domain.getConfig()),
+				domain.getConfig(), length);
+		engine.synthesisEncoding();
+		String cnf = engine.getCnfEncoding();
+		dimacs = "p cnf " + engine.getMappings().getSize() + " " + APEUtils.countNewLines(cnf) + "\n" + cnf;
+	}
+
+	/** @return New input stream over the DIMACS encoding of the problem. */
+	InputStream newInput() throws IOException {
+		return IOUtils.toInputStream(dimacs, "UTF-8");
+	}
+}
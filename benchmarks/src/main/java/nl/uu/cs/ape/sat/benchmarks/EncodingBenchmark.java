@@ -0,0 +1,67 @@
+package nl.uu.cs.ape.sat.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.uu.cs.ape.sat.core.implSAT.SAT_SynthesisEngine;
+import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+
+/**
+ * Benchmarks of {@link SAT_SynthesisEngine#synthesisEncoding()}, i.e. the
+ * generation of the CNF encoding of the synthesis problem for a single
+ * workflow length.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class EncodingBenchmark {
+
+	@State(Scope.Thread)
+	public static class EncodingState {
+
+		/** Length of the workflow that is encoded. */
+		@Param({ "3", "6" })
+		public int length;
+
+		SAT_SynthesisEngine engine;
+
+		/** Each invocation encodes the problem using a fresh engine. */
+		@Setup(Level.Invocation)
+		public void newEngine(DomainState domain) {
+			engine = new SAT_SynthesisEngine(domain.getDomainSetup(), new SATsolutionsList(domain.getConfig()),
+					domain.getConfig(), length);
+		}
+	}
+
+	@Benchmark
+	public SAT_SynthesisEngine encode(EncodingState state) throws IOException {
+		state.engine.synthesisEncoding();
+		return state.engine;
+	}
+
+	@Benchmark
+	@Threads(4)
+	public SAT_SynthesisEngine encodeParallel(EncodingState state) throws IOException {
+		state.engine.synthesisEncoding();
+		return state.engine;
+	}
+}
@@ -0,0 +1,55 @@
+package nl.uu.cs.ape.sat.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.uu.cs.ape.sat.core.implSAT.SAT_SynthesisEngine;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+
+/**
+ * Benchmarks of {@link SAT_SynthesisEngine#runMiniSAT}, i.e. the enumeration of
+ * the solutions of an already encoded problem (including their decoding into
+ * {@link SolutionWorkflow} objects).
+ *
+ * @author Vedran Kasalica
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+public class SolvingBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class EnumerationParams {
+		/** Number of solutions enumerated per invocation. */
+		@Param({ "10", "100" })
+		public int noSolutions;
+	}
+
+	@Benchmark
+	public List<SolutionWorkflow> enumerate(EncodedState state, EnumerationParams params) throws IOException {
+		return state.engine.runMiniSAT(state.newInput(), 0, params.noSolutions);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public List<SolutionWorkflow> enumerateParallel(EncodedState state, EnumerationParams params)
+			throws IOException {
+		return enumerate(state, params);
+	}
+}
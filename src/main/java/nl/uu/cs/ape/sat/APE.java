@@ -3,17 +3,16 @@
  */
 package nl.uu.cs.ape.sat;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
+import org.apache.commons.io.FileUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -24,21 +23,43 @@ import guru.nidi.graphviz.engine.Renderer;
 import guru.nidi.graphviz.model.Graph;
 import nl.uu.cs.ape.sat.constraints.ConstraintFactory;
 import nl.uu.cs.ape.sat.constraints.ConstraintTemplate;
+import nl.uu.cs.ape.sat.core.RunControl;
+import nl.uu.cs.ape.sat.core.SynthesisCancelledException;
+import nl.uu.cs.ape.sat.core.implSAT.CubeCoordinator;
+import nl.uu.cs.ape.sat.core.implSAT.PartitionedEnumerator;
 import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.core.implSAT.SAT_CountingEngine;
 import nl.uu.cs.ape.sat.core.implSAT.SAT_SynthesisEngine;
-import nl.uu.cs.ape.sat.core.implSAT.SAT_solution;
+import nl.uu.cs.ape.sat.core.implSAT.SolutionsCount;
 import nl.uu.cs.ape.sat.core.solutionStructure.SolutionGraph;
 import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.models.enums.AnnotationFormat;
+import nl.uu.cs.ape.sat.models.enums.ExecutionStatus;
+import nl.uu.cs.ape.sat.models.enums.GraphType;
+import nl.uu.cs.ape.sat.rendering.BackgroundGraphRenderer;
+import nl.uu.cs.ape.sat.rendering.GraphExporter;
+import nl.uu.cs.ape.sat.rendering.GraphRenderer;
+import nl.uu.cs.ape.sat.events.SynthesisEventDispatcher;
+import nl.uu.cs.ape.sat.events.SynthesisListener;
+import nl.uu.cs.ape.sat.execution.ExecutionResult;
+import nl.uu.cs.ape.sat.execution.StepCache;
+import nl.uu.cs.ape.sat.execution.WorkflowExecutor;
+import nl.uu.cs.ape.sat.io.ArchivedSolutionsList;
+import nl.uu.cs.ape.sat.io.SolutionArchive;
+import nl.uu.cs.ape.sat.io.SolutionArchiveWriter;
+import nl.uu.cs.ape.sat.io.SolutionWriter;
+import nl.uu.cs.ape.sat.metrics.PhaseTimings;
+import nl.uu.cs.ape.sat.metrics.RunMetrics;
 import nl.uu.cs.ape.sat.models.AllModules;
 import nl.uu.cs.ape.sat.models.AllTypes;
 import nl.uu.cs.ape.sat.models.ConstraintData;
-import nl.uu.cs.ape.sat.models.Module;
 import nl.uu.cs.ape.sat.models.TaxonomyPredicateHelper;
 import nl.uu.cs.ape.sat.models.Type;
 import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 import nl.uu.cs.ape.sat.utils.APEConfig;
 import nl.uu.cs.ape.sat.utils.APEDomainSetup;
 import nl.uu.cs.ape.sat.utils.APEUtils;
+import nl.uu.cs.ape.sat.utils.AnnotationWatcher;
 import nl.uu.cs.ape.sat.utils.OWLReader;
 
 /**
@@ -52,6 +73,30 @@ public class APE {
 	private final APEConfig config;
 	/** Object containing general APE encoding */
 	private APEDomainSetup apeDomainSetup;
+	/** Timings of the domain setup. */
+	private PhaseTimings domainTimings;
+	/** Metrics of the last synthesis run, {@code null} if no run was executed. */
+	private RunMetrics runMetrics;
+	/** Dispatcher of the synthesis events to the registered listeners. */
+	private final SynthesisEventDispatcher events = new SynthesisEventDispatcher();
+	/** {@code true} if the domain was successfully loaded. */
+	private boolean domainLoaded;
+	/** Time budget and cancellation handle of the last synthesis run. */
+	private RunControl runControl;
+	/** Renderer of the solution graphs, created on the first use. */
+	private GraphRenderer graphRenderer;
+	/** Listener that rendered the graphs during the last synthesis run, {@code null} if none. */
+	private BackgroundGraphRenderer backgroundRendering;
+	/** Writer that appended the solutions of the last synthesis run as they were found, {@code null} if none. */
+	private SolutionWriter solutionStream;
+	/** Solutions of the run that were streamed by the {@link #solutionStream}. */
+	private SATsolutionsList streamedSolutions;
+	/** Writer that archived the solutions of the last synthesis run as they were found, {@code null} if none. */
+	private SolutionArchiveWriter archiveStream;
+	/** Coordinator of the worker processes of the last synthesis run, {@code null} if none. */
+	private CubeCoordinator cubeCoordinator;
+	/** Threads that enumerate the partitions of the search space in the last synthesis run, {@code null} if none. */
+	private PartitionedEnumerator partitionedEnumerator;
 	
 	
 	
@@ -107,6 +152,75 @@ public class APE {
 	public APEDomainSetup getDomainSetup() {
 		return apeDomainSetup;
 	}
+
+	/**
+	 * Register a listener that observes the progress of the synthesis. The events
+	 * are delivered asynchronously by a dispatcher thread, in the order in which
+	 * they occurred. As the domain is loaded when the APE instance is created, a
+	 * listener registered afterwards immediately receives the
+	 * {@link SynthesisListener#domainLoaded} event.
+	 * 
+	 * @param listener - listener that should receive the synthesis events
+	 */
+	public void addSynthesisListener(SynthesisListener listener) {
+		events.addListener(listener);
+		if (listener != null && domainLoaded) {
+			events.domainLoaded(listener, apeDomainSetup);
+		}
+	}
+
+	/**
+	 * Remove a registered synthesis listener.
+	 * 
+	 * @param listener - listener that should not receive the events anymore
+	 * @return {@code true} if the listener was registered, {@code false}
+	 *         otherwise.
+	 */
+	public boolean removeSynthesisListener(SynthesisListener listener) {
+		return events.removeListener(listener);
+	}
+
+	/**
+	 * Block until all the synthesis events fired so far were delivered to the
+	 * registered listeners.
+	 * 
+	 * @return {@code true} if the events were delivered, {@code false} if the
+	 *         waiting was interrupted.
+	 */
+	public boolean flushSynthesisEvents() {
+		return events.flush();
+	}
+
+	/**
+	 * Return the metrics of the last synthesis run, including the timings of the
+	 * domain setup, the metrics of each explored length and the timings of
+	 * writing, rendering and executing the solutions.
+	 * 
+	 * @return the field {@link runMetrics}, {@code null} if no synthesis run was
+	 *         executed.
+	 */
+	public RunMetrics getRunMetrics() {
+		return runMetrics;
+	}
+
+	/**
+	 * Return the JSON report of the metrics of the last synthesis run, or only of
+	 * the domain setup in case that no synthesis run was executed.
+	 * 
+	 * @return {@link JSONObject} representing the metrics.
+	 */
+	public JSONObject getMetricsReport() {
+		JSONObject report;
+		if (runMetrics == null) {
+			report = new JSONObject().put("domain", domainTimings.toJSON());
+		} else {
+			report = runMetrics.toJSON();
+		}
+		if (graphRenderer != null) {
+			report.put("rendering", graphRenderer.toJSON());
+		}
+		return report;
+	}
 	
 	/**
 	 * Method used to setup the domain using the configuration file and the corresponding annotation and constraints files.
@@ -116,14 +230,17 @@ public class APE {
 	public boolean setupDomain() throws ExceptionInInitializerError {
 		/** Variable that describes a successful run of the program. */
 		boolean succRun = true;
+		domainLoaded = false;
 		/*
 		 * Encode the taxonomies as objects - generate the list of all types / modules
 		 * occurring in the taxonomies defining their submodules/subtypes
 		 */
 		apeDomainSetup = new APEDomainSetup(config);
+		domainTimings = new PhaseTimings(false);
 
 		OWLReader owlReader = new OWLReader(apeDomainSetup, config.getOntology_path());
 		Boolean ontologyRead = owlReader.readOntology();
+		domainTimings.lap("Ontology load");
 
 		if (ontologyRead == false) {
 			System.out.println("Error occured while reading the provided ontology.");
@@ -139,18 +256,48 @@ public class APE {
 		/*
 		 * Update allModules and allTypes sets based on the module.json file
 		 */
-		APEUtils.readModuleJson(config.getTool_annotations_path(), apeDomainSetup);
+		if (config.getTool_annotations_format() == AnnotationFormat.BIOTOOLS) {
+			APEUtils.readBioToolsJson(config.getTool_annotations_path(), apeDomainSetup,
+					config.getConverted_annotations_path());
+		} else {
+			APEUtils.readModuleJson(config.getTool_annotations_path(), apeDomainSetup);
+		}
+		domainTimings.lap("Annotation load");
 		
 		succRun &= apeDomainSetup.trimTaxonomy();
+		domainTimings.lap("Taxonomy trimming");
 		
 		/*
 		 * Define set of all constraint formats
 		 */
 		apeDomainSetup.initializeConstraints();
+		domainTimings.lap("Constraint templates");
 		
+		domainLoaded = succRun;
+		if (succRun) {
+			events.domainLoaded(apeDomainSetup);
+		}
 		return succRun;
 	}
 	
+	/**
+	 * Watch the tool annotation file of the domain, and apply its changes to the
+	 * domain whenever it is saved, without reloading the domain (see
+	 * {@link AnnotationWatcher}). The changes are applied between the runs.
+	 * 
+	 * @return The watcher, that should be closed to stop watching the file, or
+	 *         {@code null} if the domain was not loaded.
+	 * @throws IOException if the file cannot be read or watched
+	 */
+	public AnnotationWatcher watchToolAnnotations() throws IOException {
+		if (!domainLoaded) {
+			System.err.println("The domain has to be loaded before its tool annotations are watched.");
+			return null;
+		}
+		return new AnnotationWatcher(apeDomainSetup, config.getTool_annotations_path(),
+				config.getTool_annotations_format());
+	}
+
 	/**
 	 * Function used to return all the elements of one data type dimension (e.g. all data types or all data formats).
 	 * @param dimensionRootID - root of the data taxonomy subtree that corresponds to the list of elements that should be returned.
@@ -176,11 +323,30 @@ public class APE {
 	 * @throws JSONException
 	 */
 	public SATsolutionsList runSynthesis(JSONObject configObject) throws IOException, JSONException {
+		return runSynthesis(configObject, new RunControl());
+	}
+
+	/**
+	 * Setup a new run instance of the APE solver and run the synthesis algorithm
+	 * under the given control. Cancelling the control, or expiring its time budget
+	 * (or the one given by the configuration), stops the run, in which case the
+	 * solutions found so far are returned.
+	 * 
+	 * @param configObject - JSON object that contains run configurations
+	 * @param control      - time budget and cancellation handle of the run
+	 * @return The list of all the solutions.
+	 * @throws JSONException
+	 */
+	public SATsolutionsList runSynthesis(JSONObject configObject, RunControl control)
+			throws IOException, JSONException {
 		config.setupRunConfiguration(configObject);
 		if (config == null || config.getRunConfigJsonObj() == null) {
 			throw new JSONException("Run configuration failed. Error in configuration object.");
 		}
-		SATsolutionsList solutions = executeSynthesis();
+		SATsolutionsList solutions;
+		synchronized (apeDomainSetup) {
+			solutions = executeSynthesis(control);
+		}
 		
 		return solutions;
 	}
@@ -192,28 +358,167 @@ public class APE {
 	 * @throws JSONException
 	 */
 	public SATsolutionsList runSynthesis(String configPath) throws IOException, JSONException {
+		return runSynthesis(configPath, new RunControl());
+	}
+
+	/**
+	 * Setup a new run instance of the APE solver and run the synthesis algorithm
+	 * under the given control. Cancelling the control, or expiring its time budget
+	 * (or the one given by the configuration), stops the run, in which case the
+	 * solutions found so far are returned.
+	 * 
+	 * @param configPath - path to the JSON that contains run configurations
+	 * @param control    - time budget and cancellation handle of the run
+	 * @return The list of all the solutions.
+	 * @throws JSONException
+	 */
+	public SATsolutionsList runSynthesis(String configPath, RunControl control) throws IOException, JSONException {
 		config.setupRunConfiguration(configPath);
 		if (config == null || config.getRunConfigJsonObj() == null) {
 			throw new JSONException("Run configuration failed. Error in configuration file.");
 		}
-		SATsolutionsList solutions = executeSynthesis();
+		SATsolutionsList solutions;
+		synchronized (apeDomainSetup) {
+			solutions = executeSynthesis(control);
+		}
 		
 		return solutions;
 	}
+	/**
+	 * Setup a new run instance of the APE solver and count the solutions of each
+	 * workflow length, without generating them (see {@link SAT_CountingEngine}).
+	 * All the lengths between the min and max length of the configuration are
+	 * counted, regardless of the max number of solutions.
+	 * 
+	 * @param configObject - JSON object that contains run configurations
+	 * @return The number of solutions of each counted length.
+	 * @throws JSONException
+	 */
+	public List<SolutionsCount> countSolutions(JSONObject configObject) throws IOException, JSONException {
+		return countSolutions(configObject, new RunControl());
+	}
+
+	/**
+	 * Setup a new run instance of the APE solver and count the solutions of each
+	 * workflow length under the given control. Cancelling the control, or
+	 * expiring its time budget (or the one given by the configuration), stops the
+	 * counting, in which case the counts of the explored lengths are returned.
+	 * 
+	 * @param configObject - JSON object that contains run configurations
+	 * @param control      - time budget and cancellation handle of the run
+	 * @return The number of solutions of each counted length, {@code null} in
+	 *         case of an error in the problem encoding.
+	 * @throws JSONException
+	 */
+	public List<SolutionsCount> countSolutions(JSONObject configObject, RunControl control)
+			throws IOException, JSONException {
+		config.setupRunConfiguration(configObject);
+		if (config == null || config.getRunConfigJsonObj() == null) {
+			throw new JSONException("Run configuration failed. Error in configuration object.");
+		}
+		synchronized (apeDomainSetup) {
+			return executeCounting(control);
+		}
+	}
+
+	/**
+	 * Setup a new run instance of the APE solver and count the solutions of each
+	 * workflow length, see {@link #countSolutions(JSONObject)}.
+	 * 
+	 * @param configPath - path to the JSON that contains run configurations
+	 * @return The number of solutions of each counted length, {@code null} in
+	 *         case of an error in the problem encoding.
+	 * @throws JSONException
+	 */
+	public List<SolutionsCount> countSolutions(String configPath) throws IOException, JSONException {
+		config.setupRunConfiguration(configPath);
+		if (config == null || config.getRunConfigJsonObj() == null) {
+			throw new JSONException("Run configuration failed. Error in configuration file.");
+		}
+		synchronized (apeDomainSetup) {
+			return executeCounting(new RunControl());
+		}
+	}
+
+	/**
+	 * Count the solutions of each workflow length of the given workflow
+	 * specification.
+	 * 
+	 * @param control - time budget and cancellation handle of the run
+	 * @return The number of solutions of each counted length, {@code null} in
+	 *         case of an error in the problem encoding.
+	 * @throws IOException error in case of not providing a proper configuration file.
+	 */
+	private List<SolutionsCount> executeCounting(RunControl control) throws IOException {
+		if (config.getTimeout_sec() > 0) {
+			control.restrictTimeout(config.getTimeout_sec() * 1000L);
+		}
+		APEUtils.readConstraints(config.getConstraints_path(), apeDomainSetup);
+		Random random = new Random(config.getRandom_seed());
+		List<SolutionsCount> counts = new ArrayList<SolutionsCount>();
+		for (int length = config.getSolution_min_length(); length <= config.getSolution_max_length(); length++) {
+			if (control.isStopped()) {
+				System.err.println("Counting was stopped before exploring length " + length + ".");
+				break;
+			}
+			SAT_CountingEngine countingEngine = new SAT_CountingEngine(apeDomainSetup, config, length, random);
+			countingEngine.setRunControl(control);
+			APEUtils.printHeader(length, "Workflow counting - length");
+			try {
+				if (!countingEngine.synthesisEncoding()) {
+					System.err.println("Internal error in problem encoding.");
+					return null;
+				}
+			} catch (SynthesisCancelledException e) {
+				System.err.println(e.getMessage());
+				break;
+			}
+			countingEngine.synthesisExecution();
+			counts.add(countingEngine.getCount());
+		}
+		return counts;
+	}
+
 	/**
 	 * Run the synthesis for the given workflow specification.
 	 * 
+	 * @param control - time budget and cancellation handle of the run
 	 * @return The list of all the solutions.
 	 * @throws IOException error in case of not providing a proper configuration file.
 	 */
-	private SATsolutionsList executeSynthesis() throws IOException {
+	private SATsolutionsList executeSynthesis(RunControl control) throws IOException {
+		runControl = control;
+		if (config.getTimeout_sec() > 0) {
+			control.restrictTimeout(config.getTimeout_sec() * 1000L);
+		}
 		/**
 		 * List of all the solutions
 		 */
 		SATsolutionsList allSolutions = new SATsolutionsList(config);
-
+		runMetrics = new RunMetrics(domainTimings, config.getDebug_mode());
+		if (config.getMetrics_path() != null) {
+			runMetrics.startExport(new File(config.getMetrics_path()), config.getMetrics_export_interval());
+		}
 		
 		APEUtils.readConstraints(config.getConstraints_path(), apeDomainSetup);
+		runMetrics.lap("Constraints load");
+
+		/* Render the data-flow graphs of the solutions as soon as they are found. */
+		events.removeListener(backgroundRendering);
+		backgroundRendering = null;
+		if (config.getRender_during_synthesis() && config.getSolution_graphs_folder() != null
+				&& config.getNo_graphs() != null && config.getNo_graphs() > 0) {
+			deleteGraphFiles(config.getSolution_graphs_folder());
+			backgroundRendering = new BackgroundGraphRenderer(getGraphRenderer(),
+					new File(config.getSolution_graphs_folder()), config.getNo_graphs(), GraphType.DATA_FLOW,
+					RankDir.TOP_TO_BOTTOM);
+			events.addListener(backgroundRendering);
+		}
+
+		/* Append the solutions to the solutions file as soon as they are found. */
+		openSolutionStream(allSolutions);
+		openArchiveStream();
+		openParallelSolvers();
 		
 		/** Print the setup information when necessary. */
 		APEUtils.debugPrintout(config.getDebug_mode(), apeDomainSetup);
@@ -222,94 +527,319 @@ public class APE {
 		 * Loop over different lengths of the workflow until either, max workflow length
 		 * or max number of solutions has been found.
 		 */
-		String globalTimerID = "globalTimer";
-		APEUtils.timerStart(globalTimerID, true);
 		int solutionLength = config.getSolution_min_length();
 		while (allSolutions.getNumberOfSolutions() < allSolutions.getMaxNumberOfSolutions()
 				&& solutionLength <= config.getSolution_max_length()) {
+			if (control.isStopped()) {
+				System.err.println("Synthesis run was stopped before exploring length " + solutionLength + ".");
+				allSolutions.setPartial(true);
+				break;
+			}
 
 			SAT_SynthesisEngine implSATsynthesis = new SAT_SynthesisEngine(apeDomainSetup, allSolutions, config, solutionLength);
+			implSATsynthesis.setEventDispatcher(events);
+			implSATsynthesis.setRunControl(control);
+			implSATsynthesis.setCubeCoordinator(cubeCoordinator);
+			implSATsynthesis.setPartitionedEnumerator(partitionedEnumerator);
+			runMetrics.addLength(implSATsynthesis.getMetrics());
+			events.lengthStarted(solutionLength);
 
 			APEUtils.printHeader(implSATsynthesis.getSolutionSize(), "Workflow discovery - length");
 
-			/** Encoding of the synthesis problem */
-			if (!implSATsynthesis.synthesisEncoding()) {
-				System.err.println("Internal error in problem encoding.");
-				return null;
+			try {
+				/** Encoding of the synthesis problem */
+				if (!implSATsynthesis.synthesisEncoding()) {
+					System.err.println("Internal error in problem encoding.");
+					runMetrics.finish();
+					runMetrics.stopExport();
+					events.runFinished(null);
+					closeSolutionStream();
+					closeArchiveStream();
+					closeParallelSolvers();
+					return null;
+				}
+			} catch (SynthesisCancelledException e) {
+				System.err.println(e.getMessage());
+				allSolutions.setPartial(true);
+				break;
 			}
 			/** Execution of the synthesis */
 			implSATsynthesis.synthesisExecution();
 
 			if ((allSolutions.getNumberOfSolutions() >= allSolutions.getMaxNumberOfSolutions() - 1)
 					|| solutionLength == config.getSolution_max_length()) {
-				APEUtils.timerPrintSolutions(globalTimerID, allSolutions.getNumberOfSolutions());
+				System.out.println("\nAPE found " + allSolutions.getNumberOfSolutions()
+						+ " solutions. Total solving time: " + (runMetrics.getRunningTime() / 1000F) + " sec.");
 			}
 
 			/** Increase the size of the workflow for the next depth iteration */
 			solutionLength++;
 		}
-
+		runMetrics.finish();
+		runMetrics.stopExport();
+		events.runFinished(allSolutions);
+		closeSolutionStream();
+		closeArchiveStream();
+		closeParallelSolvers();
 		
 		return allSolutions;
 	}
 	
 	/**
-	 * Write textual "human readable" version on workflow solutions to a file.
-	 * @param allSolutions 
-	 * @param allSolutions
+	 * Open the writer that appends the solutions of the run to the solutions file
+	 * as they are found. In case of an error the solutions are not streamed and
+	 * can still be written using {@link #writeSolutionToFile(SATsolutionsList)}.
+	 * 
+	 * @param allSolutions - list that will contain the solutions of the run
+	 */
+	private void openSolutionStream(SATsolutionsList allSolutions) {
+		events.removeListener(solutionStream);
+		solutionStream = null;
+		streamedSolutions = null;
+		try {
+			solutionStream = new SolutionWriter(new File(config.getSolution_path()), config.getSolutions_format(),
+					config.getSolutions_compressed(), config.getSolutions_sync_interval());
+			streamedSolutions = allSolutions;
+			events.addListener(solutionStream);
+		} catch (IOException e) {
+			System.err.println("Solutions file '" + config.getSolution_path() + "' could not be opened: "
+					+ e.getMessage() + " The solutions will not be written during the synthesis.");
+		}
+	}
+
+	/**
+	 * Wait for the writer to receive all the solutions found in the run and
+	 * close it.
+	 */
+	private void closeSolutionStream() {
+		if (solutionStream == null) {
+			return;
+		}
+		events.flush();
+		events.removeListener(solutionStream);
+		solutionStream.finish();
+	}
+
+	/**
+	 * Open the writer that archives the solutions of the run as they are found,
+	 * if an archive is given by the configuration.
+	 */
+	private void openArchiveStream() {
+		events.removeListener(archiveStream);
+		archiveStream = null;
+		if (config.getSolutions_archive_path() == null) {
+			return;
+		}
+		try {
+			archiveStream = new SolutionArchiveWriter(new File(config.getSolutions_archive_path()),
+					SolutionArchive.fingerprint(apeDomainSetup), config.getMax_no_tool_inputs(),
+					config.getMax_no_tool_outputs());
+			events.addListener(archiveStream);
+		} catch (IOException e) {
+			System.err.println("Solution archive '" + config.getSolutions_archive_path() + "' could not be opened: "
+					+ e.getMessage());
+		}
+	}
+
+	/**
+	 * Wait for the archive writer to receive all the solutions found in the run
+	 * and finish the archive.
+	 */
+	private void closeArchiveStream() {
+		if (archiveStream == null) {
+			return;
+		}
+		events.flush();
+		events.removeListener(archiveStream);
+		archiveStream.finish();
+	}
+
+	/**
+	 * Start the worker processes that solve the cubes of the search space, or the
+	 * threads that enumerate its partitions, if they are requested by the
+	 * configuration. The worker processes take precedence over the threads. In
+	 * case of an error each length is solved by a single solver.
+	 */
+	private void openParallelSolvers() {
+		closeParallelSolvers();
+		boolean workers = config.getCube_workers() != null && config.getCube_workers() > 0;
+		boolean threads = config.getSolver_threads() != null && config.getSolver_threads() > 1;
+		if (!workers && !threads) {
+			return;
+		}
+		if (config.getCost_optimization() || config.getDiverse_solutions() || config.getSample_size() > 0) {
+			System.err.println("Cube workers and solver threads are not used when the solutions are ordered by cost,"
+					+ " diverse or sampled.");
+			return;
+		}
+		if (!workers) {
+			partitionedEnumerator = new PartitionedEnumerator(config.getSolver_threads());
+			return;
+		}
+		try {
+			cubeCoordinator = new CubeCoordinator(config.getCube_workers());
+		} catch (IOException e) {
+			System.err.println(e.getMessage() + " Each length will be solved by a single solver.");
+		}
+	}
+
+	/**
+	 * Stop the worker processes and the solver threads of the run.
+	 */
+	private void closeParallelSolvers() {
+		if (cubeCoordinator != null) {
+			cubeCoordinator.close();
+			cubeCoordinator = null;
+		}
+		if (partitionedEnumerator != null) {
+			partitionedEnumerator.close();
+			partitionedEnumerator = null;
+		}
+	}
+
+	/**
+	 * Write the workflow solutions to a binary solution archive, which can be
+	 * opened later using {@link #loadSolutionArchive(File)}.
+	 * 
+	 * @param allSolutions - solutions that should be archived
+	 * @param file         - the archive file
 	 * @return {@code true} if the writing was successfully performed, {@code false} otherwise.
 	 */
-	public boolean writeSolutionToFile(SATsolutionsList allSolutions) {
-		StringBuilder solutions2write = new StringBuilder();
+	public boolean writeSolutionArchive(SATsolutionsList allSolutions, File file) {
+		long startTime = System.currentTimeMillis();
+		boolean written;
+		try (SolutionArchiveWriter writer = new SolutionArchiveWriter(file, SolutionArchive.fingerprint(apeDomainSetup),
+				config.getMax_no_tool_inputs(), config.getMax_no_tool_outputs())) {
+			written = writer.writeAll(allSolutions) && writer.finish();
+		} catch (IOException e) {
+			System.err.println("Solution archive '" + file.getPath() + "' could not be opened: " + e.getMessage());
+			written = false;
+		}
+		if (runMetrics != null) {
+			runMetrics.add("Archiving solutions", System.currentTimeMillis() - startTime);
+		}
+		return written;
+	}
 
-		for (int i = 0; i < allSolutions.size(); i++) {
-			solutions2write = solutions2write.append(allSolutions.get(i).getnativeSATsolution().getRelevantSolution())
-					.append("\n");
+	/**
+	 * Open the solutions stored in a binary solution archive, without solving the
+	 * synthesis problem again. The archive has to be created using the same domain
+	 * as the one loaded by this APE instance. The returned list can be used to
+	 * write, render or execute the solutions.
+	 * 
+	 * @param file - the archive file
+	 * @return The list of the archived solutions, or {@code null} if the archive
+	 *         could not be opened.
+	 */
+	public SATsolutionsList loadSolutionArchive(File file) {
+		try {
+			SolutionArchive archive = SolutionArchive.open(file);
+			if (!archive.matches(apeDomainSetup)) {
+				System.err.println("Solution archive '" + file.getPath() + "' was created using a different domain.");
+				return null;
+			}
+			return new ArchivedSolutionsList(archive, apeDomainSetup);
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			return null;
 		}
-		return APEUtils.write2file(solutions2write.toString(), new File(config.getSolution_path()), false);
 	}
 
 	/**
-	 * TODO: This feature is not fully functioning yet.
-	 * Generating scripts that represent executable versions of the workflow solutions and executing them. 
-	 * @param allSolutions
-	 * @param allModules
+	 * Write the workflow solutions to the solutions file, in the format given by
+	 * the configuration. Solutions that were already appended to the file during
+	 * the synthesis run are not written again.
+	 * @param allSolutions - solutions that should be written
+	 * @return {@code true} if the writing was successfully performed, {@code false} otherwise.
+	 */
+	public boolean writeSolutionToFile(SATsolutionsList allSolutions) {
+		long startTime = System.currentTimeMillis();
+		boolean written;
+		if (solutionStream != null && streamedSolutions == allSolutions && !solutionStream.hasFailed()
+				&& solutionStream.getWritten() == allSolutions.size()) {
+			written = true;
+		} else {
+			try (SolutionWriter writer = new SolutionWriter(new File(config.getSolution_path()),
+					config.getSolutions_format(), config.getSolutions_compressed(), -1)) {
+				written = writer.writeAll(allSolutions) && writer.finish();
+			} catch (IOException e) {
+				System.err.println("Solutions file '" + config.getSolution_path() + "' could not be opened: "
+						+ e.getMessage());
+				written = false;
+			}
+		}
+		if (runMetrics != null) {
+			runMetrics.add("Writing solutions", System.currentTimeMillis() - startTime);
+		}
+		return written;
+	}
+
+	/**
+	 * Generate the scripts that represent executable versions of the first
+	 * workflow solutions and execute them, using a {@link WorkflowExecutor} that
+	 * runs the number of workflows given by the configuration concurrently. When
+	 * step slots are configured, the independent steps of a workflow are executed
+	 * concurrently as well. When a cache folder is configured, the outputs of the
+	 * steps are memoized in a {@link StepCache}, so the steps shared by several
+	 * workflows (e.g. a common prefix) are executed only once. Each
+	 * workflow is executed in its own working directory within the execution
+	 * scripts folder, where its output is captured. The outcome and wall time of
+	 * each workflow are written to the execution report.
+	 * 
+	 * @param allSolutions - the workflow solutions
 	 * @return {@code true} if the execution was successfully performed, {@code false} otherwise.
-	 * @throws IOException
+	 * @throws IOException error in writing the execution report
 	 */
 	public boolean executeWorkflows(SATsolutionsList allSolutions) throws IOException {
 		String executionsFolder = config.getExecution_scripts_folder();
 		Integer noExecutions = config.getNo_executions();
-		if (executionsFolder == null || noExecutions == null || noExecutions == 0 || allSolutions.isEmpty()) {
+		if (executionsFolder == null || noExecutions == null || noExecutions == 0 || allSolutions.isEmpty()
+				|| isRunStopped()) {
 			return false;
 		}
 		APEUtils.printHeader(null, "Executing first " + noExecutions + " solution");
-		APEUtils.timerStart("executingWorkflows", true);
-
-		Arrays.stream(
-				new File(executionsFolder).listFiles((dir, name) -> name.toLowerCase().startsWith("workflowSolution_")))
-				.forEach(File::delete);
-		System.out.print("Loading");
-		for (int i = 0; i < noExecutions && i < allSolutions.size(); i++) {
-
-			PrintWriter out = new PrintWriter(
-					new BufferedWriter(new FileWriter(executionsFolder + "/workflowSolution_" + i + ".sh", false)));
-			out.println("");
-			out.close();
-			SAT_solution currSol = allSolutions.get(i).getnativeSATsolution();
-			currSol.getRelevantSolutionModules(apeDomainSetup.getAllModules());
-			for (Module curr : currSol.getRelevantSolutionModules(apeDomainSetup.getAllModules())) {
-				if (curr.getModuleExecution() != null) {
-					curr.getModuleExecution()
-							.run(config.getExecution_scripts_folder() + "/workflowSolution_" + i + ".sh");
+		long startTime = System.currentTimeMillis();
+
+		File folder = new File(executionsFolder);
+		Arrays.stream(folder.listFiles((dir, name) -> name.startsWith(WorkflowExecutor.WORKFLOW_PREFIX)
+				|| name.equals(WorkflowExecutor.REPORT_FILE))).forEach(FileUtils::deleteQuietly);
+		StepCache cache = null;
+		if (config.getExecution_cache_folder() != null) {
+			try {
+				cache = new StepCache(new File(config.getExecution_cache_folder()),
+						config.getExecution_cache_size_mb() * 1024L * 1024L);
+				List<File> inputData = new ArrayList<File>();
+				for (String path : config.getExecution_input_data()) {
+					inputData.add(new File(path));
 				}
+				cache.setInputData(inputData);
+			} catch (IOException e) {
+				cache = null;
+				System.err.println("Step cache could not be opened, the steps will not be cached: " + e.getMessage());
 			}
-			System.out.print(".");
-			if (i > 0 && i % 60 == 0) {
-				System.out.println();
+		}
+		List<ExecutionResult> results;
+		try (WorkflowExecutor executor = new WorkflowExecutor(config.getExecution_threads(),
+				config.getExecution_timeout_sec() > 0 ? config.getExecution_timeout_sec() * 1000L : -1,
+				config.getExecution_step_slots(), cache)) {
+			results = executor.execute(allSolutions, noExecutions, folder, runControl);
+			if (!executor.writeReport(results, System.currentTimeMillis() - startTime,
+					new File(folder, WorkflowExecutor.REPORT_FILE))) {
+				throw new IOException("Execution report could not be written.");
 			}
 		}
-		APEUtils.timerPrintText("executingWorkflows", "\nWorkflows have been executed.");
+		int succeeded = 0;
+		for (ExecutionResult result : results) {
+			if (result.getStatus() == ExecutionStatus.SUCCEEDED) {
+				succeeded++;
+			} else if (config.getDebug_mode()) {
+				System.err.println("Workflow " + result.getIndex() + " " + result.getStatus().toString().toLowerCase()
+						+ (result.getError() != null ? ": " + result.getError() : "."));
+			}
+		}
+		printPhaseTime("Executing workflows", startTime,
+				succeeded + " out of " + results.size() + " workflows have been executed successfully."
+						+ (cache != null ? " " + cache.getHits() + " steps were restored from the cache." : ""));
 		return true;
 	}
 
@@ -321,37 +851,7 @@ public class APE {
 	 * @throws IOException
 	 */
 	public boolean generateAndWriteDataFlowGraphs(SATsolutionsList allSolutions, RankDir orientation) throws IOException {
-		String graphsFolder = config.getSolution_graphs_folder();
-		Integer noGraphs = config.getNo_graphs();
-		if (graphsFolder == null || noGraphs == null || noGraphs == 0 || allSolutions.isEmpty()) {
-			return false;
-		}
-		APEUtils.printHeader(null, "Geneating graphical representation", "of the first " + noGraphs + " workflows");
-		APEUtils.timerStart("drawingGraphs", true);
-		System.out.println();
-		/* Removing the existing files from the file system. */
-		Arrays.stream(
-				new File(graphsFolder).listFiles((dir, name) -> name.toLowerCase().startsWith("SolutionNo")))
-				.forEach(File::delete);
-		System.out.print("Loading");
-		/* Creating the requested graphs in parallel. */
-		allSolutions.getParallelStream().filter(solution -> solution.getIndex() < noGraphs)
-										.forEach(solution -> {
-			try {
-				String title = "SolutionNo_" + solution.getIndex() + "_length_" + solution.getSolutionlength();
-				String path = graphsFolder + "/" + title;
-				solution.getDataflowGraph(title, orientation)
-						.getWrite2File(new File(path));
-				System.out.print(".");
-			} catch (IOException e) {
-				System.err.println("Error occured while writing a graph to the file system.");
-				e.printStackTrace();
-			}
-		});
-		
-		APEUtils.timerPrintText("drawingGraphs", "\nGraphical files have been generated.");
-
-		return true;
+		return generateAndWriteGraphs(allSolutions, GraphType.DATA_FLOW, orientation);
 	}
 	
 	/**
@@ -362,36 +862,135 @@ public class APE {
 	 * @throws IOException
 	 */
 	public boolean generateAndWriteControlFlowGraphs(SATsolutionsList allSolutions, RankDir orientation) throws IOException {
+		return generateAndWriteGraphs(allSolutions, GraphType.CONTROL_FLOW, orientation);
+	}
+
+	/**
+	 * Generate the graphical representations of the first workflow solutions and
+	 * write them to the file system, using the {@link GraphRenderer} of the APE
+	 * instance. In case that the graphs were already rendered while the synthesis
+	 * was running, the method only waits for the rendering to finish.
+	 * 
+	 * @param allSolutions - solutions that should be rendered
+	 * @param type         - type of the graphical representation
+	 * @param orientation  - orientation in which the graph will be presented
+	 * @return {@code true} if the generating was successfully performed, {@code false} otherwise.
+	 */
+	private boolean generateAndWriteGraphs(SATsolutionsList allSolutions, GraphType type, RankDir orientation) {
 		String graphsFolder = config.getSolution_graphs_folder();
 		Integer noGraphs = config.getNo_graphs();
 		if (graphsFolder == null || noGraphs == null || noGraphs == 0 || allSolutions.isEmpty()) {
 			return false;
 		}
+		String phase = (type == GraphType.DATA_FLOW) ? "Rendering data-flow graphs" : "Rendering control-flow graphs";
 		APEUtils.printHeader(null, "Geneating graphical representation", "of the first " + noGraphs + " workflows");
-		APEUtils.timerStart("drawingGraphs", true);
+		long startTime = System.currentTimeMillis();
+		int failedBefore = getGraphRenderer().getFailed();
 		System.out.println();
-		/* Removing the existing files from the file system. */
-		Arrays.stream(
-				new File(graphsFolder).listFiles((dir, name) -> name.toLowerCase().startsWith("SolutionNo")))
-				.forEach(File::delete);
-		System.out.print("Loading");
-		/* Creating the requested graphs in parallel. */
-		allSolutions.getParallelStream().filter(solution -> solution.getIndex() < noGraphs).forEach(solution -> {
+		if (backgroundRendering != null && backgroundRendering.renders(type, orientation)) {
+			/* The graphs were submitted while the synthesis was running. */
+			events.flush();
 			try {
-				String title = "SolutionNo_" + solution.getIndex() + "_length_" + solution.getSolutionlength();
-				String path = graphsFolder + "/" + title;
-				solution.getControlflowGraph(title, orientation)
-						.getWrite2File(new File(path));
-				System.out.print(".");
-			} catch (IOException e) {
-				System.err.println("Error occured while writing a graph to the file system.");
-				e.printStackTrace();
+				backgroundRendering.renderDeferred();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		} else {
+			deleteGraphFiles(graphsFolder);
+			try {
+				for (int i = 0; i < noGraphs && i < allSolutions.size() && !isRunStopped(); i++) {
+					SolutionWorkflow solution = allSolutions.get(i);
+					String title = BackgroundGraphRenderer.getTitle(solution);
+					getGraphRenderer().render(solution, type, title, orientation, new File(graphsFolder, title));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
 			}
-		});
-		APEUtils.timerPrintText("drawingGraphs", "\nGraphical files have been generated.");
+		}
+		getGraphRenderer().awaitCompletion();
+		int failed = getGraphRenderer().getFailed() - failedBefore;
+		if (failed > 0) {
+			System.err.println("Error occured while writing " + failed + " graph(s) to the file system.");
+		}
+		printPhaseTime(phase, startTime, "\nGraphical files have been generated.");
 
 		return true;
 	}
-	
+
+	/**
+	 * Write the graphical representations of the first workflow solutions to the
+	 * solution graphs folder in DOT or SVG format, without using the Graphviz
+	 * engine. Suitable for bulk exports, as thousands of graphs can be written per
+	 * second.
+	 * 
+	 * @param allSolutions - solutions that should be written
+	 * @param type         - type of the graphical representation
+	 * @param orientation  - orientation in which the graph will be presented
+	 * @param format       - {@link Format#DOT} or {@link Format#SVG}
+	 * @return {@code true} if the writing was successfully performed, {@code false} otherwise.
+	 */
+	public boolean exportSolutionGraphs(SATsolutionsList allSolutions, GraphType type, RankDir orientation,
+			Format format) {
+		String graphsFolder = config.getSolution_graphs_folder();
+		Integer noGraphs = config.getNo_graphs();
+		if (graphsFolder == null || noGraphs == null || noGraphs == 0 || allSolutions.isEmpty()) {
+			return false;
+		}
+		long startTime = System.currentTimeMillis();
+		boolean written = GraphExporter.writeGraphs(allSolutions, noGraphs, type, orientation, format,
+				new File(graphsFolder));
+		printPhaseTime("Exporting graphs", startTime, "\nGraph files have been written.");
+		return written;
+	}
+
+	/**
+	 * Return the renderer used to render the graphical representations of the
+	 * solutions. The renderer is created on the first use, with the number of
+	 * threads given by the run configuration.
+	 * 
+	 * @return the {@link GraphRenderer} of the APE instance.
+	 */
+	public synchronized GraphRenderer getGraphRenderer() {
+		if (graphRenderer == null) {
+			Integer threads = config.getRendering_threads();
+			graphRenderer = new GraphRenderer(threads == null ? 1 : threads);
+		}
+		return graphRenderer;
+	}
+
+	/** Remove the previously generated graphs from the folder. */
+	private static void deleteGraphFiles(String graphsFolder) {
+		File[] graphFiles = new File(graphsFolder).listFiles((dir, name) -> name.startsWith("SolutionNo"));
+		if (graphFiles != null) {
+			Arrays.stream(graphFiles).forEach(File::delete);
+		}
+	}
+
+	/**
+	 * @return {@code true} if the last synthesis run was cancelled or its time
+	 *         budget expired, in which case the post-processing of the solutions
+	 *         (rendering, execution) is stopped as well.
+	 */
+	private boolean isRunStopped() {
+		return runControl != null && runControl.isStopped();
+	}
+
+	/**
+	 * Add the running time of the phase that started at the given time to the
+	 * metrics of the last run and print it.
+	 * 
+	 * @param phase     - name of the phase in the metrics
+	 * @param startTime - start time of the phase in milliseconds
+	 * @param text      - text that is printed together with the running time
+	 */
+	private void printPhaseTime(String phase, long startTime, String text) {
+		long runningTime = System.currentTimeMillis() - startTime;
+		if (runMetrics != null) {
+			runMetrics.add(phase, runningTime);
+		}
+		System.out.println("\n" + text + " Running time: " + (runningTime / 1000F) + " sec.");
+	}
 	
 }
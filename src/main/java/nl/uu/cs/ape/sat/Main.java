@@ -1,18 +1,31 @@
 package nl.uu.cs.ape.sat;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 import org.json.JSONException;
 
 import guru.nidi.graphviz.attribute.RankDir;
 import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.core.implSAT.SolutionsCount;
 import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
 import nl.uu.cs.ape.sat.utils.APEUtils;
+import nl.uu.cs.ape.sat.utils.DomainGenerator;
 
 public class Main {
 
 	public static void main(String[] args) {
+		/* Generate a synthetic domain instead of running the synthesis. */
+		if (args.length > 0 && args[0].equals("-generate")) {
+			DomainGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		/* Count the solutions of each length instead of generating them. */
+		boolean count = args.length > 0 && args[0].equals("-count");
+		if (count) {
+			args = Arrays.copyOfRange(args, 1, args.length);
+		}
 		String path;
 		if(args.length == 1) {
 			path = args[0];
@@ -35,6 +48,17 @@ public class Main {
 			System.err.println("Error in reading the configuration file.");
 			return;
 		}
+		if (count) {
+			try {
+				List<SolutionsCount> counts = apeFramework.countSolutions(path);
+				if (counts != null) {
+					counts.forEach(System.out::println);
+				}
+			} catch (IOException e) {
+				System.err.println("Error in counting the solutions.");
+			}
+			return;
+		}
 		SATsolutionsList solutions;
 		try {
 			solutions = apeFramework.runSynthesis(path);
@@ -89,6 +89,11 @@ public class ConstraintFactory {
 		List<ConstraintParameter> typeParam1 = Arrays.asList(typeParameter);
 		List<ConstraintParameter> typeParam2 = Arrays.asList(typeParameter, typeParameter);
 		
+		ConstraintParameter numberParameter = new ConstraintParameter(0);
+		List<ConstraintParameter> numberParam1 = Arrays.asList(numberParameter);
+		List<ConstraintParameter> moduleNumberParam = Arrays.asList(moduleParameter, numberParameter);
+		List<ConstraintParameter> typeNumberParam = Arrays.asList(typeParameter, numberParameter);
+		
 		ConstraintTemplate currTemplate = new Constraint_if_then_module("ite_m", moduleParam2,
 				"If we use module ${parameter_1}, then use ${parameter_2} subsequently.");
 		addConstraintTamplate(currTemplate);
@@ -200,12 +205,47 @@ public class ConstraintFactory {
 		addConstraintTamplate(currTemplate);
 
 		/*
-		 * ID: X Use ${parameter_1} as N-th module in the solution (where
-		 * ${parameter_1} = N).
+		 * ID: nth_m Use ${parameter_1} as N-th module in the solution (where
+		 * ${parameter_2} = N).
+		 */
+		currTemplate = new Constraint_nth_module("nth_m", moduleNumberParam,
+				"Use ${parameter_1} as ${parameter_2}-th (N-th) module in the solution (where ${parameter_2} = N).");
+		addConstraintTamplate(currTemplate);
+
+		/*
+		 * ID: use_m_atmost Use module ${parameter_1} at most ${parameter_2} times in the solution.
+		 */
+		currTemplate = new Constraint_use_module_atmost("use_m_atmost", moduleNumberParam,
+				"Use module ${parameter_1} at most ${parameter_2} times in the solution.");
+		addConstraintTamplate(currTemplate);
+
+		/*
+		 * ID: use_m_atleast Use module ${parameter_1} at least ${parameter_2} times in the solution.
+		 */
+		currTemplate = new Constraint_use_module_atleast("use_m_atleast", moduleNumberParam,
+				"Use module ${parameter_1} at least ${parameter_2} times in the solution.");
+		addConstraintTamplate(currTemplate);
+
+		/*
+		 * ID: use_m_exactly Use module ${parameter_1} exactly ${parameter_2} times in the solution.
+		 */
+		currTemplate = new Constraint_use_module_exactly("use_m_exactly", moduleNumberParam,
+				"Use module ${parameter_1} exactly ${parameter_2} times in the solution.");
+		addConstraintTamplate(currTemplate);
+
+		/*
+		 * ID: distinct_m_atmost Use at most ${parameter_1} distinct tools in the solution.
 		 */
-//		currTemplate = new Constraint_nth_module(2,
-//				"Use ${parameter_1} as ${parameter_2}-th (N-th) module in the solution (where ${parameter_2} = N)");
-//		addConstraintTamplate(currTemplate);
+		currTemplate = new Constraint_distinct_modules_atmost("distinct_m_atmost", numberParam1,
+				"Use at most ${parameter_1} distinct tools in the solution.");
+		addConstraintTamplate(currTemplate);
+
+		/*
+		 * ID: gen_t_atmost Generate type ${parameter_1} at most ${parameter_2} times in the solution.
+		 */
+		currTemplate = new Constraint_gen_type_atmost("gen_t_atmost", typeNumberParam,
+				"Generate type ${parameter_1} at most ${parameter_2} times in the solution.");
+		addConstraintTamplate(currTemplate);
 
 		return true;
 
@@ -10,6 +10,8 @@ import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 
 /**
  * The {@code ConstraintParameter} class is used to represent a parameter of a constraint.
+ * A parameter is either a list of taxonomy terms or a non-negative number (e.g. the
+ * number of times a tool is used).
  *
  * @author Vedran Kasalica
  *
@@ -17,6 +19,8 @@ import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 public class ConstraintParameter {
 
 	private List<TaxonomyPredicate> parameterTypes;
+	/** Value of a numeric parameter, or {@code null} if the parameter is a list of terms. */
+	private Integer number;
 	
 	public ConstraintParameter(List<TaxonomyPredicate> parameterTypes) {
 		if(parameterTypes != null) {
@@ -29,6 +33,15 @@ public class ConstraintParameter {
 	public ConstraintParameter() {
 		this.parameterTypes = new ArrayList<TaxonomyPredicate>();
 	}
+
+	/**
+	 * Create a numeric parameter.
+	 * @param number - value of the parameter
+	 */
+	public ConstraintParameter(int number) {
+		this.parameterTypes = new ArrayList<TaxonomyPredicate>();
+		this.number = number;
+	}
 	
 	public void addParameter(TaxonomyPredicate newParam) {
 		this.parameterTypes.add(newParam);
@@ -38,7 +51,24 @@ public class ConstraintParameter {
 		return this.parameterTypes;
 	}
 	
+	/**
+	 * @return {@code true} if the parameter is a number.
+	 */
+	public boolean isNumber() {
+		return number != null;
+	}
+
+	/**
+	 * @return the value of the numeric parameter, or {@code null} if the parameter is a list of terms
+	 */
+	public Integer getNumber() {
+		return number;
+	}
+	
 	public String toString() {
+		if (number != null) {
+			return number.toString();
+		}
 		String print = "&";
 		for(TaxonomyPredicate param : parameterTypes) {
 			print = print.concat(param.toShortString()).concat("&");
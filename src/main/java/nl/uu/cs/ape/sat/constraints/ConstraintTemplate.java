@@ -125,6 +125,9 @@ public abstract class ConstraintTemplate {
 		JSONArray params = new JSONArray();
 		for(ConstraintParameter param : parameters) {
 			JSONArray oneParamDimensions = new JSONArray();
+			if (param.isNumber()) {
+				oneParamDimensions.put(param.getNumber().toString());
+			}
 			for(TaxonomyPredicate pred : param.getParameterTypes()) {
 				oneParamDimensions.put(pred.getPredicateID());
 			}
@@ -143,6 +146,19 @@ public abstract class ConstraintTemplate {
 		
 	}
 	
+	/**
+	 * Get the value of a numeric parameter, printing an error in case the parameter is not a non-negative number.
+	 * @param parameter - the parameter
+	 * @return Value of the parameter, or {@code null} if the parameter is not a non-negative number.
+	 */
+	public Integer getNumberParameter(ConstraintParameter parameter) {
+		if (!parameter.isNumber() || parameter.getNumber() < 0) {
+			System.err.println("Error in the constraints file.\nConstraint: " + this.description + "\nParameter " + parameter + " should be a non-negative number.");
+			return null;
+		}
+		return parameter.getNumber();
+	}
+
 	// TODO: define implementation of each constraint and a general template
 	// constraint that will be modified
 
@@ -0,0 +1,51 @@
+package nl.uu.cs.ape.sat.constraints;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
+import nl.uu.cs.ape.sat.models.AllModules;
+import nl.uu.cs.ape.sat.models.AllTypes;
+import nl.uu.cs.ape.sat.models.AtomMappings;
+import nl.uu.cs.ape.sat.models.Module;
+import nl.uu.cs.ape.sat.models.formulas.*;
+import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * Implements constraints of the form:<br/>
+ * <br/>
+ * Use at most <b>parameters[0]</b> distinct tools in the solution
+ * using the function {@link #getConstraint}.
+ * 
+ * @author Vedran Kasalica
+ *
+ */
+public class Constraint_distinct_modules_atmost extends ConstraintTemplate {
+
+
+	public Constraint_distinct_modules_atmost(String id, List<ConstraintParameter> parametersNo, String description) {
+		super(id, parametersNo, description);
+	}
+
+	@Override
+	public String getConstraint(List<ConstraintParameter> parameters, AllModules allModules, AllTypes allTypes, ModuleAutomaton moduleAutomaton,
+			TypeAutomaton typeAutomaton, AtomMappings mappings) {
+		if (parameters.size() != 1) {
+			super.throwParametersError(parameters.size());
+			return null;
+		}
+		Integer n = super.getNumberParameter(parameters.get(0));
+		if (n == null) {
+			return null;
+		}
+		List<Module> tools = new ArrayList<Module>();
+		for (TaxonomyPredicate module : allModules.getModules()) {
+			if (module instanceof Module) {
+				tools.add((Module) module);
+			}
+		}
+		return SLTL_formula.useAtMostNdistinctModules(tools, n, moduleAutomaton, mappings);
+	}
+
+}
@@ -18,7 +18,7 @@ import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 /**
  * Implements constraints of the form:<br/>
  * <br/>
- * Use <b>parameters[0]</b> as N-th module in the solution (where <b>parameters[0]</b> = N)
+ * Use <b>parameters[0]</b> as N-th module in the solution (where <b>parameters[1]</b> = N)
  * using the function {@link #getConstraint}.
  * 
  * @author Vedran Kasalica
@@ -38,16 +38,13 @@ public class Constraint_nth_module extends ConstraintTemplate {
 			super.throwParametersError(parameters.size());
 			return null;
 		}
-		int n;
-		try { 
-	        n = Integer.parseInt("not_working"); 
-	    } catch(NumberFormatException e) { 
-	    	System.err.println("Constraint argument is not an intiger number.");
-	        return null; 
-	    } catch(NullPointerException e) {
-	    	System.err.println("Constraint argument is not an intiger number.");
-	        return null;
-	    }
+		Integer n = super.getNumberParameter(parameters.get(1));
+		if (n == null) {
+			return null;
+		} else if (n < 1) {
+			System.err.println("Constraint argument " + n + " is not a valid position in the workflow.");
+			return null;
+		}
 		String constraint = "";
 		/* working on first parameter */
 		List<TaxonomyPredicate> seondInSeq = parameters.get(0).getParameterTypes();
@@ -0,0 +1,57 @@
+package nl.uu.cs.ape.sat.constraints;
+
+import java.util.List;
+
+import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
+import nl.uu.cs.ape.sat.models.AbstractModule;
+import nl.uu.cs.ape.sat.models.AllModules;
+import nl.uu.cs.ape.sat.models.AllTypes;
+import nl.uu.cs.ape.sat.models.AtomMappings;
+import nl.uu.cs.ape.sat.models.SATEncodingUtils.GeneralEncodingUtils;
+import nl.uu.cs.ape.sat.models.SATEncodingUtils.ModuleUtils;
+import nl.uu.cs.ape.sat.models.enums.LogicOperation;
+import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
+import nl.uu.cs.ape.sat.models.formulas.*;
+import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * Implements constraints of the form:<br/>
+ * <br/>
+ * Use module <b>parameters[0]</b> at least <b>parameters[1]</b> times in the solution
+ * using the function {@link #getConstraint}.
+ * 
+ * @author Vedran Kasalica
+ *
+ */
+public class Constraint_use_module_atleast extends ConstraintTemplate {
+
+
+	public Constraint_use_module_atleast(String id, List<ConstraintParameter> parametersNo, String description) {
+		super(id, parametersNo, description);
+	}
+
+	@Override
+	public String getConstraint(List<ConstraintParameter> parameters, AllModules allModules, AllTypes allTypes, ModuleAutomaton moduleAutomaton,
+			TypeAutomaton typeAutomaton, AtomMappings mappings) {
+		if (parameters.size() != 2) {
+			super.throwParametersError(parameters.size());
+			return null;
+		}
+		Integer n = super.getNumberParameter(parameters.get(1));
+		if (n == null) {
+			return null;
+		}
+		/* working on first parameter */
+		List<TaxonomyPredicate> parameterModules = parameters.get(0).getParameterTypes();
+		AbstractModule module  = (AbstractModule) ModuleUtils.generateAbstractmodule(parameterModules, allModules, LogicOperation.AND);
+		GeneralEncodingUtils.getConstraintGroupLogicallyPredicates(module, parameterModules, mappings, moduleAutomaton, WorkflowElement.MODULE, LogicOperation.AND);
+		
+		if (module == null) {
+			System.err.println("Constraint argument does not exist in the tool taxonomy.");
+			return null;
+		}
+		return SLTL_formula.useModuleAtLeastNtimes(module, n, moduleAutomaton, mappings);
+	}
+
+}
@@ -0,0 +1,134 @@
+package nl.uu.cs.ape.sat.core;
+
+/**
+ * The {@code RunControl} class represents the time budget and the cancellation
+ * handle of a synthesis run. The control is checked cooperatively by the
+ * encoding, solving, decoding and rendering phases, which stop as soon as
+ * possible after the run was cancelled or the deadline passed. A run that was
+ * stopped returns the solutions found so far.
+ * <p>
+ * The control is thread-safe, i.e. {@link #cancel()} can be called from any
+ * thread while the synthesis is running.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class RunControl {
+
+	/** Deadline of the run ({@link Long#MAX_VALUE} if there is no deadline). */
+	private volatile long deadline;
+	/** {@code true} if the run was cancelled. */
+	private volatile boolean cancelled;
+
+	/**
+	 * Create a control without a time budget.
+	 */
+	public RunControl() {
+		this.deadline = Long.MAX_VALUE;
+		this.cancelled = false;
+	}
+
+	/**
+	 * Create a control with the given time budget.
+	 * 
+	 * @param timeoutMillis - time budget of the run in milliseconds, the run is not
+	 *                      limited if the value is not positive
+	 */
+	public RunControl(long timeoutMillis) {
+		this();
+		restrictTimeout(timeoutMillis);
+	}
+
+	/**
+	 * Restrict the time budget of the run to at most the given number of
+	 * milliseconds from now. An earlier deadline is kept.
+	 * 
+	 * @param timeoutMillis - time budget in milliseconds, ignored if the value is
+	 *                      not positive
+	 */
+	public synchronized void restrictTimeout(long timeoutMillis) {
+		if (timeoutMillis > 0) {
+			deadline = Math.min(deadline, System.currentTimeMillis() + timeoutMillis);
+		}
+	}
+
+	/**
+	 * Cancel the run. The running phase stops at its next check.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * @return {@code true} if the run was cancelled.
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return {@code true} if the deadline of the run passed.
+	 */
+	public boolean isExpired() {
+		return System.currentTimeMillis() >= deadline;
+	}
+
+	/**
+	 * @return {@code true} if the run was cancelled or the deadline passed.
+	 */
+	public boolean isStopped() {
+		return cancelled || isExpired();
+	}
+
+	/**
+	 * @return {@code true} if the run has a deadline.
+	 */
+	public boolean hasDeadline() {
+		return deadline != Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return Remaining time budget in milliseconds ({@link Long#MAX_VALUE} if the
+	 *         run has no deadline, 0 if the deadline passed).
+	 */
+	public long getRemainingMillis() {
+		if (!hasDeadline()) {
+			return Long.MAX_VALUE;
+		}
+		return Math.max(0, deadline - System.currentTimeMillis());
+	}
+
+	/**
+	 * Get the part of the remaining time budget that is assigned to the current
+	 * workflow length. The remaining budget is split equally over the lengths
+	 * that still have to be explored, so that the time that is not used by a
+	 * length is passed on to the following ones.
+	 * 
+	 * @param remainingLengths - number of lengths that still have to be explored,
+	 *                         including the current one
+	 * @return Time budget of the current length in milliseconds
+	 *         ({@link Long#MAX_VALUE} if the run has no deadline).
+	 */
+	public long getLengthBudgetMillis(int remainingLengths) {
+		long remaining = getRemainingMillis();
+		if (remaining == Long.MAX_VALUE || remainingLengths <= 1) {
+			return remaining;
+		}
+		return remaining / remainingLengths;
+	}
+
+	/**
+	 * Check whether the run should continue.
+	 * 
+	 * @throws SynthesisCancelledException if the run was cancelled or the
+	 *                                     deadline passed
+	 */
+	public void checkpoint() throws SynthesisCancelledException {
+		if (cancelled) {
+			throw new SynthesisCancelledException("Synthesis run was cancelled.");
+		}
+		if (isExpired()) {
+			throw new SynthesisCancelledException("Time budget of the synthesis run expired.");
+		}
+	}
+}
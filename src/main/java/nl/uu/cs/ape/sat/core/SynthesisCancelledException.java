@@ -0,0 +1,23 @@
+package nl.uu.cs.ape.sat.core;
+
+/**
+ * The {@code SynthesisCancelledException} is thrown by a
+ * {@link RunControl#checkpoint()} when the synthesis run was cancelled or its
+ * time budget expired.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class SynthesisCancelledException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Create the exception with the given message.
+	 * 
+	 * @param message - description of the reason the synthesis was stopped
+	 */
+	public SynthesisCancelledException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,237 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.specs.IVecInt;
+
+import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.sat.automaton.State;
+import nl.uu.cs.ape.sat.models.AllModules;
+import nl.uu.cs.ape.sat.models.AtomMappings;
+import nl.uu.cs.ape.sat.models.Module;
+import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
+import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * The {@code CostObjective} class represents the cost of a workflow as a
+ * pseudo-Boolean objective over the SAT encoding: the sum of the costs of the
+ * tools used in the workflow and the weights of the violated soft constraints.
+ * <br>
+ * <br>
+ * The sum is encoded in CNF as a generalized totalizer, i.e. a binary tree
+ * whose nodes represent the possible values of the partial sums. An upper bound
+ * on the cost is therefore given to the solver as a set of assumptions (see
+ * {@link #atMost(int)}), which allows the bound to change between solver calls
+ * without re-encoding the problem. Soft constraints are relaxed, each clause of
+ * a soft constraint is extended by a relaxation variable that carries the
+ * weight of the constraint.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class CostObjective {
+
+	/** Mapping of all the predicates to integers. */
+	private final AtomMappings mappings;
+	/** Weight of each variable that contributes to the cost. */
+	private final Map<Integer, Integer> weights;
+	/**
+	 * Leaves of the totalizer, each maps the values of an item (a workflow step
+	 * or a soft constraint) to the variable that represents the value.
+	 */
+	private final List<TreeMap<Integer, Integer>> leaves;
+	/** Values of the total cost mapped to the variables that represent them. */
+	private TreeMap<Integer, Integer> outputs;
+
+	/**
+	 * Create an empty objective.
+	 *
+	 * @param mappings - atom mappings of the encoding, used to create the
+	 *                 auxiliary variables
+	 */
+	public CostObjective(AtomMappings mappings) {
+		this.mappings = mappings;
+		this.weights = new HashMap<Integer, Integer>();
+		this.leaves = new ArrayList<TreeMap<Integer, Integer>>();
+		this.outputs = new TreeMap<Integer, Integer>();
+	}
+
+	/**
+	 * Relax the CNF encoding of a soft constraint, i.e. extend each clause with a
+	 * new variable that, when true, satisfies the clause at the cost of the weight
+	 * of the constraint.
+	 *
+	 * @param cnf    - CNF encoding of the constraint, one clause per line
+	 * @param weight - cost of violating the constraint
+	 * @return The relaxed CNF encoding.
+	 */
+	public String relax(String cnf, int weight) {
+		int relaxation = mappings.getNextAuxNum();
+		weights.put(relaxation, weight);
+		TreeMap<Integer, Integer> leaf = new TreeMap<Integer, Integer>();
+		leaf.put(weight, relaxation);
+		leaves.add(leaf);
+
+		StringBuilder relaxed = new StringBuilder();
+		for (String clause : cnf.split("\n")) {
+			String trimmed = clause.trim();
+			if (trimmed.equals("0") || trimmed.endsWith(" 0")) {
+				relaxed.append(trimmed, 0, trimmed.length() - 1).append(relaxation).append(" 0\n");
+			} else if (!trimmed.isEmpty()) {
+				relaxed.append(clause).append("\n");
+			}
+		}
+		return relaxed.toString();
+	}
+
+	/**
+	 * Generate the CNF encoding of the objective. The costs of the tools are added
+	 * to the objective per state of the module automaton, followed by the
+	 * totalizer that sums the costs of the states and the soft constraints.
+	 *
+	 * @param allModules      - all the modules of the domain
+	 * @param moduleAutomaton - module automaton
+	 * @return CNF encoding of the objective.
+	 */
+	public String encode(AllModules allModules, ModuleAutomaton moduleAutomaton) {
+		StringBuilder cnf = new StringBuilder();
+		/* Group the tools by their cost, tools without a cost do not contribute. */
+		Map<Integer, List<Module>> toolsByCost = new TreeMap<Integer, List<Module>>();
+		for (TaxonomyPredicate predicate : allModules.getModules()) {
+			if (predicate instanceof Module && ((Module) predicate).getCost() > 0) {
+				Module module = (Module) predicate;
+				toolsByCost.computeIfAbsent(module.getCost(), cost -> new ArrayList<Module>()).add(module);
+			}
+		}
+		for (State moduleState : moduleAutomaton.getModuleStates()) {
+			TreeMap<Integer, Integer> leaf = new TreeMap<Integer, Integer>();
+			for (Map.Entry<Integer, List<Module>> costGroup : toolsByCost.entrySet()) {
+				int cost = costGroup.getKey();
+				int value;
+				if (costGroup.getValue().size() == 1) {
+					value = mappings.add(costGroup.getValue().get(0), moduleState, WorkflowElement.MODULE);
+				} else {
+					/* At most one tool is used per state, so the value is implied by any of the tools. */
+					value = mappings.getNextAuxNum();
+					for (Module module : costGroup.getValue()) {
+						cnf.append("-").append(mappings.add(module, moduleState, WorkflowElement.MODULE)).append(" ")
+								.append(value).append(" 0\n");
+					}
+				}
+				leaf.put(cost, value);
+				for (Module module : costGroup.getValue()) {
+					weights.put(mappings.add(module, moduleState, WorkflowElement.MODULE), cost);
+				}
+			}
+			if (!leaf.isEmpty()) {
+				leaves.add(leaf);
+			}
+		}
+
+		/* Merge the nodes pairwise, level by level, to keep the tree balanced. */
+		List<TreeMap<Integer, Integer>> level = new ArrayList<TreeMap<Integer, Integer>>(leaves);
+		while (level.size() > 1) {
+			List<TreeMap<Integer, Integer>> next = new ArrayList<TreeMap<Integer, Integer>>();
+			for (int i = 0; i + 1 < level.size(); i += 2) {
+				next.add(merge(level.get(i), level.get(i + 1), cnf));
+			}
+			if (level.size() % 2 == 1) {
+				next.add(level.get(level.size() - 1));
+			}
+			level = next;
+		}
+		outputs = level.isEmpty() ? new TreeMap<Integer, Integer>() : level.get(0);
+		return cnf.toString();
+	}
+
+	/**
+	 * Get the assumptions that bound the cost of the workflow.
+	 *
+	 * @param bound - max cost of the workflow
+	 * @return Assumptions that exclude the workflows whose cost exceeds the bound.
+	 */
+	public IVecInt atMost(int bound) {
+		IVecInt assumptions = new VecInt();
+		for (int value : outputs.tailMap(bound, false).values()) {
+			assumptions.push(-value);
+		}
+		return assumptions;
+	}
+
+	/**
+	 * Get the costs that the workflows can have between the given bounds, i.e.
+	 * the values represented by the outputs of the totalizer.
+	 *
+	 * @param lower - lower bound (exclusive)
+	 * @param upper - upper bound (exclusive)
+	 * @return The possible costs between the bounds, in ascending order.
+	 */
+	public List<Integer> costsBetween(int lower, int upper) {
+		if (lower >= upper) {
+			return new ArrayList<Integer>();
+		}
+		return new ArrayList<Integer>(outputs.subMap(lower, false, upper, false).keySet());
+	}
+
+	/**
+	 * Calculate the cost of the model, i.e. the sum of the weights of the true
+	 * variables.
+	 *
+	 * @param model - model of the encoding, as returned by the solver
+	 * @return Cost of the workflow that corresponds to the model.
+	 */
+	public int cost(int[] model) {
+		int cost = 0;
+		for (int literal : model) {
+			Integer weight;
+			if (literal > 0 && (weight = weights.get(literal)) != null) {
+				cost += weight;
+			}
+		}
+		return cost;
+	}
+
+	/**
+	 * @return {@code true} if no tool has a cost and there are no soft
+	 *         constraints, i.e. all the workflows have cost 0.
+	 */
+	public boolean isEmpty() {
+		return outputs.isEmpty();
+	}
+
+	/**
+	 * Merge two nodes of the totalizer. Each value of the children, and each sum
+	 * of their values, implies the corresponding value of the parent.
+	 */
+	private TreeMap<Integer, Integer> merge(TreeMap<Integer, Integer> left, TreeMap<Integer, Integer> right,
+			StringBuilder cnf) {
+		TreeMap<Integer, Integer> parent = new TreeMap<Integer, Integer>();
+		for (Map.Entry<Integer, Integer> l : left.entrySet()) {
+			cnf.append("-").append(l.getValue()).append(" ").append(value(parent, l.getKey())).append(" 0\n");
+		}
+		for (Map.Entry<Integer, Integer> r : right.entrySet()) {
+			cnf.append("-").append(r.getValue()).append(" ").append(value(parent, r.getKey())).append(" 0\n");
+		}
+		for (Map.Entry<Integer, Integer> l : left.entrySet()) {
+			for (Map.Entry<Integer, Integer> r : right.entrySet()) {
+				cnf.append("-").append(l.getValue()).append(" -").append(r.getValue()).append(" ")
+						.append(value(parent, l.getKey() + r.getKey())).append(" 0\n");
+			}
+		}
+		return parent;
+	}
+
+	private int value(TreeMap<Integer, Integer> node, int value) {
+		Integer variable = node.get(value);
+		if (variable == null) {
+			variable = mappings.getNextAuxNum();
+			node.put(value, variable);
+		}
+		return variable;
+	}
+}
@@ -0,0 +1,321 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nl.uu.cs.ape.sat.core.RunControl;
+import nl.uu.cs.ape.sat.models.enums.CubeStatus;
+
+/**
+ * The {@code CubeCoordinator} class solves the synthesis problems using
+ * cube-and-conquer over a number of worker processes on the same machine. The
+ * search space of a length is split into cubes (e.g. by fixing the tools of
+ * the first steps, see {@link SAT_SynthesisEngine}), which are dispatched to
+ * the workers as they become available. The solutions found in the cubes are
+ * merged in the order of the cubes and deduplicated. When a worker refutes a
+ * cube using only some of its literals (see {@link CubeResult#getCore()}), the
+ * pending cubes that contain the same literals are skipped.<br>
+ * <br>
+ * The workers are started as separate JVMs (see {@link CubeWorker}) with the
+ * class path of the current process, and connect to the coordinator over the
+ * loopback interface. The workers are kept for the lifetime of the
+ * coordinator, so they can solve the problems of several lengths. If a worker
+ * fails, its cube is solved by the remaining workers.<br>
+ * <br>
+ * Messages (all integers are written in the big-endian format):
+ * <ul>
+ * <li>coordinator to worker: <b>P</b> problem (length and UTF-8 bytes of the
+ * DIMACS encoding, projected variables), <b>C</b> cube (ID, max number of
+ * solutions, timeout in ms or -1, literals), <b>S</b> stop the current cube,
+ * <b>Q</b> quit;</li>
+ * <li>worker to coordinator: <b>M</b> solution (cube ID, positive literals),
+ * <b>D</b> cube done (cube ID, {@link CubeStatus} ordinal, core literals).</li>
+ * </ul>
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class CubeCoordinator implements AutoCloseable {
+
+	static final byte MSG_PROBLEM = 'P';
+	static final byte MSG_CUBE = 'C';
+	static final byte MSG_STOP = 'S';
+	static final byte MSG_QUIT = 'Q';
+	static final byte MSG_MODEL = 'M';
+	static final byte MSG_DONE = 'D';
+
+	/** Time (in ms) the workers have to connect after they are started. */
+	private static final int CONNECT_TIMEOUT_MS = 60000;
+
+	/** Socket the workers connect to. */
+	private final ServerSocket server;
+	/** Worker processes. */
+	private final List<Process> processes;
+	/** Connections to the workers. */
+	private final List<Connection> connections;
+	/** Threads that communicate with the workers, one per worker. */
+	private final ExecutorService executor;
+
+	/**
+	 * Start the worker processes and wait for them to connect.
+	 *
+	 * @param workers - number of worker processes (at least 1)
+	 * @throws IOException if the workers could not be started or did not connect
+	 *                     in time
+	 */
+	public CubeCoordinator(int workers) throws IOException {
+		int size = Math.max(1, workers);
+		this.server = new ServerSocket(0, size, InetAddress.getLoopbackAddress());
+		this.processes = new ArrayList<Process>();
+		this.connections = new ArrayList<Connection>();
+		AtomicInteger threadNo = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(size, runnable -> {
+			Thread thread = new Thread(runnable, "APE-cube-" + threadNo.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		try {
+			server.setSoTimeout(CONNECT_TIMEOUT_MS);
+			for (int i = 0; i < size; i++) {
+				processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+						CubeWorker.class.getName(), Integer.toString(server.getLocalPort()))
+								.redirectOutput(ProcessBuilder.Redirect.INHERIT)
+								.redirectError(ProcessBuilder.Redirect.INHERIT).start());
+			}
+			for (int i = 0; i < size; i++) {
+				connections.add(new Connection(server.accept()));
+			}
+		} catch (IOException e) {
+			close();
+			throw new IOException("Cube workers could not be started: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @return Number of workers that are still connected.
+	 */
+	public synchronized int getNumberOfWorkers() {
+		int alive = 0;
+		for (Connection connection : connections) {
+			if (connection.alive) {
+				alive++;
+			}
+		}
+		return alive;
+	}
+
+	/**
+	 * Enumerate the solutions of the problem, by enumerating the solutions within
+	 * each of the cubes. The cubes should be disjoint and cover the search space.
+	 * The solutions are merged in the order of the cubes, i.e. the solutions of a
+	 * cube precede the solutions of the next cubes, and the solutions that are
+	 * equal on the projected variables are returned only once. The cubes that
+	 * cannot contribute to the first <b>maxModels</b> solutions are not solved.
+	 *
+	 * @param dimacs     - CNF problem in the DIMACS format
+	 * @param projection - variables used to distinguish the solutions
+	 * @param cubes      - cubes, given by the literals that are assumed to be
+	 *                   true
+	 * @param maxModels  - max number of solutions
+	 * @param deadline   - time (in ms) by which the solving has to finish, or
+	 *                   {@link Long#MAX_VALUE}
+	 * @param control    - control of the synthesis run, the solving is stopped
+	 *                   when the run is stopped
+	 * @return The solutions, given by their positive literals, and the outcome of
+	 *         the enumeration.
+	 */
+	public synchronized CubeResult solve(String dimacs, int[] projection, List<int[]> cubes, int maxModels,
+			long deadline, RunControl control) {
+		byte[] problem = dimacs.getBytes(StandardCharsets.UTF_8);
+		for (Connection connection : connections) {
+			if (connection.alive) {
+				try {
+					synchronized (connection.out) {
+						connection.out.writeByte(MSG_PROBLEM);
+						connection.out.writeInt(problem.length);
+						connection.out.write(problem);
+						writeInts(connection.out, projection);
+						connection.out.flush();
+					}
+				} catch (IOException e) {
+					connection.fail(e);
+				}
+			}
+		}
+		CubeProgress progress = new CubeProgress(cubes, maxModels);
+		/* Cubes of the failed workers are returned to the queue and solved in the next round. */
+		while (progress.hasPending() && getNumberOfWorkers() > 0 && !progress.isStopped()) {
+			List<Future<?>> tasks = new ArrayList<Future<?>>();
+			for (Connection connection : connections) {
+				if (connection.alive) {
+					tasks.add(executor.submit(() -> solveCubes(connection, progress, deadline)));
+				}
+			}
+			progress.await(tasks, deadline, control, () -> {
+				for (Connection connection : connections) {
+					connection.requestStop();
+				}
+			});
+		}
+		return progress.merge(projection);
+	}
+
+	/** Dispatch the pending cubes to the worker until none is left or the worker fails. */
+	private void solveCubes(Connection connection, CubeProgress progress, long deadline) {
+		Integer cube;
+		while ((cube = progress.nextCube()) != null) {
+			long timeout = (deadline == Long.MAX_VALUE) ? -1 : Math.max(0, deadline - System.currentTimeMillis());
+			try {
+				synchronized (connection.out) {
+					connection.out.writeByte(MSG_CUBE);
+					connection.out.writeInt(cube);
+					connection.out.writeInt(progress.getMaxModels());
+					connection.out.writeLong(timeout);
+					writeInts(connection.out, progress.getCube(cube));
+					connection.out.flush();
+				}
+				CubeResult result = new CubeResult(CubeStatus.STOPPED);
+				while (true) {
+					byte type = connection.in.readByte();
+					int cubeId = connection.in.readInt();
+					if (cubeId != cube) {
+						throw new IOException("unexpected message for cube " + cubeId);
+					}
+					if (type == MSG_MODEL) {
+						result.addModel(readInts(connection.in));
+					} else if (type == MSG_DONE) {
+						result.setStatus(CubeStatus.values()[connection.in.readByte()]);
+						result.setCore(readInts(connection.in));
+						break;
+					} else {
+						throw new IOException("unexpected message '" + (char) type + "'");
+					}
+				}
+				progress.finish(cube, result);
+			} catch (IOException e) {
+				connection.fail(e);
+				progress.requeue(cube);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Stop the workers and wait for them to exit.
+	 */
+	@Override
+	public synchronized void close() {
+		for (Connection connection : connections) {
+			try {
+				synchronized (connection.out) {
+					connection.out.writeByte(MSG_QUIT);
+					connection.out.flush();
+				}
+			} catch (IOException e) {
+				/* The worker has already exited. */
+			}
+			connection.close();
+		}
+		for (Process process : processes) {
+			try {
+				if (!process.waitFor(5, TimeUnit.SECONDS)) {
+					process.destroyForcibly();
+				}
+			} catch (InterruptedException e) {
+				process.destroyForcibly();
+				Thread.currentThread().interrupt();
+			}
+		}
+		executor.shutdownNow();
+		try {
+			server.close();
+		} catch (IOException e) {
+			/* The socket is not used anymore. */
+		}
+	}
+
+	/**
+	 * @param model - model of a solution
+	 * @return The positive literals of the model.
+	 */
+	static int[] positiveLiterals(int[] model) {
+		return Arrays.stream(model).filter(literal -> literal > 0).toArray();
+	}
+
+	static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		out.writeInt(values.length);
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	static int[] readInts(DataInputStream in) throws IOException {
+		int[] values = new int[in.readInt()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = in.readInt();
+		}
+		return values;
+	}
+
+	/** Connection to a worker process. */
+	private static final class Connection {
+		private final Socket socket;
+		private final DataInputStream in;
+		private final DataOutputStream out;
+		private volatile boolean alive;
+
+		private Connection(Socket socket) throws IOException {
+			socket.setTcpNoDelay(true);
+			this.socket = socket;
+			this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			this.alive = true;
+		}
+
+		private void requestStop() {
+			if (alive) {
+				try {
+					synchronized (out) {
+						out.writeByte(MSG_STOP);
+						out.flush();
+					}
+				} catch (IOException e) {
+					fail(e);
+				}
+			}
+		}
+
+		private void fail(IOException e) {
+			if (alive) {
+				System.err.println("Cube worker failed: " + e.getMessage());
+				alive = false;
+				close();
+			}
+		}
+
+		private void close() {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				/* The connection is not used anymore. */
+			}
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import nl.uu.cs.ape.sat.core.RunControl;
+import nl.uu.cs.ape.sat.models.enums.CubeStatus;
+
+/**
+ * The {@code CubeProgress} class keeps track of the cubes of a problem that are
+ * solved concurrently, by the {@link CubeCoordinator} or the
+ * {@link PartitionedEnumerator}. The cubes are handed out in their order, and
+ * the results are merged in the same order, regardless of the order in which
+ * they were solved.<br>
+ * <br>
+ * A cube is skipped when it cannot contribute to the first <b>maxModels</b>
+ * solutions, i.e. when the solved cubes that precede it contain enough
+ * solutions, or when it contains the core of an exhausted cube (see
+ * {@link CubeResult#excludes(int[])}).
+ *
+ * @author Vedran Kasalica
+ *
+ */
+class CubeProgress {
+
+	/** Interval (in ms) in which the run control is checked while the cubes are solved. */
+	private static final long POLL_INTERVAL_MS = 100;
+
+	private final List<int[]> cubes;
+	private final CubeResult[] results;
+	private final int maxModels;
+	/** Cubes that were not handed out yet. */
+	private final Queue<Integer> pending;
+	/** Length of the longest sequence of solved cubes from the first one. */
+	private int solvedPrefix;
+	/** Number of solutions in the sequence. */
+	private int prefixModels;
+	/** Results of the exhausted cubes that were refuted using only a part of the cube. */
+	private final List<CubeResult> refutations;
+	/** {@code true} if the solving was stopped. */
+	private volatile boolean stopped;
+
+	/**
+	 * @param cubes     - cubes of the problem
+	 * @param maxModels - max number of solutions
+	 */
+	CubeProgress(List<int[]> cubes, int maxModels) {
+		this.cubes = cubes;
+		this.results = new CubeResult[cubes.size()];
+		this.maxModels = maxModels;
+		this.pending = new ConcurrentLinkedQueue<Integer>();
+		for (int i = 0; i < cubes.size(); i++) {
+			pending.add(i);
+		}
+		this.refutations = new ArrayList<CubeResult>();
+		this.stopped = false;
+	}
+
+	/**
+	 * @return Index of the next cube that has to be solved, or {@code null} if
+	 *         there is none or the solving was stopped.
+	 */
+	Integer nextCube() {
+		Integer cube;
+		while (!stopped && (cube = pending.poll()) != null) {
+			if (!isNeeded()) {
+				continue;
+			}
+			if (isExcluded(cubes.get(cube))) {
+				finish(cube, new CubeResult(CubeStatus.EXHAUSTED));
+				continue;
+			}
+			return cube;
+		}
+		return null;
+	}
+
+	/**
+	 * Return the cube that could not be solved, so that it is handed out again.
+	 *
+	 * @param cube - index of the cube
+	 */
+	void requeue(int cube) {
+		pending.add(cube);
+	}
+
+	/**
+	 * @return {@code true} if some cubes were not handed out yet.
+	 */
+	boolean hasPending() {
+		return !pending.isEmpty();
+	}
+
+	/**
+	 * @param cube - index of the cube
+	 * @return Literals of the cube.
+	 */
+	int[] getCube(int cube) {
+		return cubes.get(cube);
+	}
+
+	/**
+	 * @return Max number of solutions.
+	 */
+	int getMaxModels() {
+		return maxModels;
+	}
+
+	/**
+	 * Record the result of the cube.
+	 *
+	 * @param cube   - index of the cube
+	 * @param result - result of the cube
+	 */
+	synchronized void finish(int cube, CubeResult result) {
+		results[cube] = result;
+		if (result.getStatus() == CubeStatus.EXHAUSTED && result.getCore() != null
+				&& result.getCore().length < cubes.get(cube).length) {
+			refutations.add(result);
+		}
+		while (solvedPrefix < results.length && results[solvedPrefix] != null) {
+			prefixModels += results[solvedPrefix].getModels().size();
+			solvedPrefix++;
+		}
+	}
+
+	/**
+	 * @return {@code true} if the solved cubes from the first one do not contain
+	 *         <b>maxModels</b> solutions yet, i.e. the cubes that follow them can
+	 *         still contribute to the solutions.
+	 */
+	synchronized boolean isNeeded() {
+		return prefixModels < maxModels;
+	}
+
+	private synchronized boolean isExcluded(int[] cube) {
+		for (CubeResult refutation : refutations) {
+			if (refutation.excludes(cube)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return {@code true} if the solving was stopped.
+	 */
+	boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * Wait for the tasks that solve the cubes to finish. When the run is stopped
+	 * or the deadline passes, the solving is stopped.
+	 *
+	 * @param tasks    - tasks that solve the cubes
+	 * @param deadline - time (in ms) by which the solving has to finish, or
+	 *                 {@link Long#MAX_VALUE}
+	 * @param control  - control of the synthesis run
+	 * @param onStop   - executed once when the solving is stopped
+	 */
+	void await(List<? extends Future<?>> tasks, long deadline, RunControl control, Runnable onStop) {
+		for (Future<?> task : tasks) {
+			while (true) {
+				if (!stopped && (control.isStopped() || System.currentTimeMillis() >= deadline)) {
+					stopped = true;
+					onStop.run();
+				}
+				try {
+					task.get(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+					break;
+				} catch (java.util.concurrent.TimeoutException e) {
+					/* Check the run control again. */
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					stopped = true;
+					onStop.run();
+					break;
+				} catch (ExecutionException e) {
+					System.err.println("Cube solving failed: " + e.getCause());
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Merge the results of the cubes, in the order of the cubes. The solutions
+	 * that are equal on the projected variables are returned only once.
+	 *
+	 * @param projection - variables used to distinguish the solutions
+	 * @return The first <b>maxModels</b> solutions and the outcome of the
+	 *         enumeration.
+	 */
+	synchronized CubeResult merge(int[] projection) {
+		CubeResult merged = new CubeResult(CubeStatus.EXHAUSTED);
+		Set<String> found = new HashSet<String>();
+		boolean[] projected = CubeSolver.projectionMask(projection);
+		for (CubeResult result : results) {
+			if (result == null) {
+				/* The cube was not solved. */
+				merged.setStatus(CubeStatus.STOPPED);
+				break;
+			}
+			for (int[] model : result.getModels()) {
+				if (merged.getModels().size() >= maxModels) {
+					merged.setStatus(CubeStatus.LIMIT_REACHED);
+					return merged;
+				}
+				if (found.add(Arrays.toString(CubeSolver.blockingClause(model, projected)))) {
+					merged.addModel(model);
+				}
+			}
+			if (result.getStatus() == CubeStatus.STOPPED) {
+				merged.setStatus(CubeStatus.STOPPED);
+				break;
+			}
+		}
+		if (merged.getModels().size() >= maxModels) {
+			merged.setStatus(CubeStatus.LIMIT_REACHED);
+		}
+		return merged;
+	}
+}
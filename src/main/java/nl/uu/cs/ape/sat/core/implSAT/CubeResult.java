@@ -0,0 +1,104 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.uu.cs.ape.sat.models.enums.CubeStatus;
+
+/**
+ * The {@code CubeResult} class represents the solutions found within a cube
+ * (or a set of cubes) of the search space, together with the outcome of the
+ * enumeration.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class CubeResult {
+
+	/** Models of the found solutions, in the order in which they were found. */
+	private final List<int[]> models;
+	/** Outcome of the enumeration. */
+	private CubeStatus status;
+	/**
+	 * Literals of the cube that suffice to exclude any further solution, when the
+	 * cube is {@link CubeStatus#EXHAUSTED}, {@code null} if they are not known.
+	 */
+	private int[] core;
+
+	/**
+	 * Create an empty result with the given status.
+	 *
+	 * @param status - outcome of the enumeration
+	 */
+	public CubeResult(CubeStatus status) {
+		this.models = new ArrayList<int[]>();
+		this.status = status;
+	}
+
+	/**
+	 * @param model - model of a found solution
+	 */
+	public void addModel(int[] model) {
+		models.add(model);
+	}
+
+	/**
+	 * @return the {@link #models}
+	 */
+	public List<int[]> getModels() {
+		return models;
+	}
+
+	/**
+	 * @return the {@link #status}
+	 */
+	public CubeStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * @param status - outcome of the enumeration
+	 */
+	public void setStatus(CubeStatus status) {
+		this.status = status;
+	}
+
+	/**
+	 * @return the {@link #core}
+	 */
+	public int[] getCore() {
+		return core;
+	}
+
+	/**
+	 * @param core - literals of the cube that suffice to exclude any further
+	 *             solution
+	 */
+	public void setCore(int[] core) {
+		this.core = core;
+	}
+
+	/**
+	 * Check whether the exhausted cube shows that the given cube does not have any
+	 * further solutions, i.e. whether the given cube contains all the literals of
+	 * the {@link #core}.
+	 *
+	 * @param cube - literals of the cube
+	 * @return {@code true} if the given cube does not have any further solutions.
+	 */
+	public boolean excludes(int[] cube) {
+		if (status != CubeStatus.EXHAUSTED || core == null) {
+			return false;
+		}
+		for (int literal : core) {
+			boolean contained = false;
+			for (int cubeLiteral : cube) {
+				contained |= cubeLiteral == literal;
+			}
+			if (!contained) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
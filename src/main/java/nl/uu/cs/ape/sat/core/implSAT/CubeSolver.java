@@ -0,0 +1,313 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+import org.sat4j.core.VecInt;
+import org.sat4j.minisat.SolverFactory;
+import org.sat4j.reader.DimacsReader;
+import org.sat4j.reader.ParseFormatException;
+import org.sat4j.reader.Reader;
+import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IProblem;
+import org.sat4j.specs.ISolver;
+import org.sat4j.specs.IVecInt;
+import org.sat4j.specs.TimeoutException;
+
+import nl.uu.cs.ape.sat.models.enums.CubeStatus;
+
+/**
+ * The {@code CubeSolver} class enumerates the solutions of a CNF problem within
+ * cubes, i.e. under sets of literals that are assumed to be true. As in
+ * {@link SAT_SynthesisEngine#runMiniSAT}, each found solution is excluded by a
+ * clause that negates its positive projected literals, so the solutions that
+ * differ only in the remaining variables are considered equal.<br>
+ * <br>
+ * The same solver is used for all the cubes, which keeps the clauses learned
+ * in a cube for the next ones. The blocking clauses are valid in every cube,
+ * as they exclude only the solutions that were already found. When a cube is
+ * exhausted, the literals of the cube that were used to refute it are
+ * reported as its core (see {@link CubeResult#excludes(int[])}), which allows
+ * skipping the remaining cubes that contain the same literals.<br>
+ * <br>
+ * The solver can also enumerate the solutions within cells, i.e. cubes
+ * restricted by parity constraints over the projected variables (see
+ * {@link #addParity(int[], boolean)}), in which case the found solutions are
+ * excluded only while the cell is enumerated.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class CubeSolver {
+
+	/**
+	 * Max number of conflicts of a single (uninterrupted) solver call. The calls
+	 * are limited by conflicts rather than time, so the found solutions do not
+	 * depend on the load of the machine.
+	 */
+	private static final int SOLVER_SLICE_CONFLICTS = 10000;
+
+	private final ISolver solver;
+	/** The problem, {@code null} if it is unsatisfiable. */
+	private IProblem problem;
+	/** Variables used to distinguish the solutions, indexed by the variable. */
+	private final boolean[] projected;
+
+	/**
+	 * Load the CNF problem.
+	 *
+	 * @param dimacs     - CNF problem in the DIMACS format
+	 * @param projection - variables used to distinguish the solutions
+	 * @throws IOException          in case of an error while reading the problem
+	 * @throws ParseFormatException if the problem is not in the DIMACS format
+	 */
+	public CubeSolver(InputStream dimacs, int[] projection) throws IOException, ParseFormatException {
+		this.solver = SolverFactory.newDefault();
+		Reader reader = new DimacsReader(solver);
+		try {
+			this.problem = reader.parseInstance(dimacs);
+		} catch (ContradictionException e) {
+			this.problem = null;
+		}
+		this.projected = projectionMask(projection);
+	}
+
+	/**
+	 * Load the CNF problem given by its clauses.
+	 *
+	 * @param variables - number of variables of the problem
+	 * @param clauses   - clauses of the problem
+	 * @param projected - variables used to distinguish the solutions, see
+	 *                  {@link #projectionMask(int[])}
+	 */
+	public CubeSolver(int variables, int[][] clauses, boolean[] projected) {
+		this.solver = SolverFactory.newDefault();
+		this.projected = projected;
+		solver.newVar(variables);
+		solver.setExpectedNumberOfClauses(clauses.length);
+		try {
+			for (int[] clause : clauses) {
+				solver.addClause(new VecInt(clause));
+			}
+			this.problem = solver;
+		} catch (ContradictionException e) {
+			this.problem = null;
+		}
+	}
+
+	/**
+	 * Enumerate the solutions within the cube.
+	 *
+	 * @param cube      - literals that are assumed to be true
+	 * @param maxModels - max number of solutions
+	 * @param deadline  - time (in ms) by which the enumeration has to finish, or
+	 *                  {@link Long#MAX_VALUE}
+	 * @param stopped   - checked regularly, the enumeration is stopped when it
+	 *                  returns {@code true}
+	 * @return The models of the found solutions and the outcome of the
+	 *         enumeration.
+	 */
+	public CubeResult enumerate(int[] cube, int maxModels, long deadline, BooleanSupplier stopped) {
+		return enumerate(cube, 0, maxModels, deadline, stopped);
+	}
+
+	/**
+	 * Enumerate the solutions within the cell, i.e. the cube that may include the
+	 * literals returned by {@link #addParity(int[], boolean)}. Unlike in
+	 * {@link #enumerate(int[], int, long, BooleanSupplier)}, the found solutions
+	 * are excluded only during the enumeration, so they can be found again in
+	 * the following cells.
+	 *
+	 * @param cell      - literals that are assumed to be true
+	 * @param maxModels - max number of solutions
+	 * @param deadline  - time (in ms) by which the enumeration has to finish, or
+	 *                  {@link Long#MAX_VALUE}
+	 * @param stopped   - checked regularly, the enumeration is stopped when it
+	 *                  returns {@code true}
+	 * @return The models of the found solutions and the outcome of the
+	 *         enumeration.
+	 */
+	public CubeResult enumerateCell(int[] cell, int maxModels, long deadline, BooleanSupplier stopped) {
+		if (problem == null) {
+			return enumerate(cell, 0, maxModels, deadline, stopped);
+		}
+		int selector = solver.nextFreeVarId(true);
+		CubeResult result = enumerate(cell, selector, maxModels, deadline, stopped);
+		try {
+			/* Disable the clauses that excluded the found solutions. */
+			solver.addClause(new VecInt(new int[] { -selector }));
+		} catch (ContradictionException e) {
+			/* Not possible, the selector does not occur positively. */
+		}
+		return result;
+	}
+
+	/**
+	 * Enumerate the solutions within the cube. If the selector is given, it is
+	 * assumed to be true and it guards the clauses that exclude the found
+	 * solutions.
+	 */
+	private CubeResult enumerate(int[] cube, int selector, int maxModels, long deadline, BooleanSupplier stopped) {
+		CubeResult result = new CubeResult(CubeStatus.EXHAUSTED);
+		if (problem == null) {
+			result.setCore(new int[0]);
+			return result;
+		}
+		IVecInt assumptions = new VecInt(cube);
+		if (selector != 0) {
+			assumptions.push(selector);
+		}
+		try {
+			while (result.getModels().size() < maxModels) {
+				if (!isSatisfiable(assumptions, deadline, stopped)) {
+					result.setCore(core(cube));
+					return result;
+				}
+				int[] model = problem.model();
+				result.addModel(model);
+				IVecInt clause = new VecInt(blockingClause(model, projected));
+				if (selector != 0) {
+					clause.push(-selector);
+				}
+				solver.addClause(clause);
+			}
+			result.setStatus(CubeStatus.LIMIT_REACHED);
+		} catch (ContradictionException e) {
+			/* The found solutions were the only ones, in any cube. */
+			problem = null;
+			result.setCore(new int[0]);
+		} catch (TimeoutException e) {
+			result.setStatus(CubeStatus.STOPPED);
+		}
+		return result;
+	}
+
+	/**
+	 * Add the definition of the disjunction of the given variables, i.e. of a new
+	 * variable that is true if and only if one of the given variables is true.
+	 *
+	 * @param variables - variables of the disjunction
+	 * @return The new variable.
+	 */
+	public int addDisjunction(int[] variables) {
+		int disjunction = solver.nextFreeVarId(true);
+		try {
+			int[] definition = Arrays.copyOf(variables, variables.length + 1);
+			definition[variables.length] = -disjunction;
+			solver.addClause(new VecInt(definition));
+			for (int variable : variables) {
+				solver.addClause(new VecInt(new int[] { -variable, disjunction }));
+			}
+		} catch (ContradictionException e) {
+			/* Not possible, the clauses only define a new variable. */
+			throw new IllegalStateException(e);
+		}
+		return disjunction;
+	}
+
+	/**
+	 * Add the definition of the parity of the given variables, i.e. of their
+	 * exclusive or (XOR), encoded as a chain of auxiliary variables. The parity
+	 * constraint holds only when the returned literal is assumed to be true, so
+	 * different constraints can be used in different calls.
+	 *
+	 * @param variables - variables of the constraint
+	 * @param odd       - {@code true} if an odd number of the variables should be
+	 *                  true, {@code false} if an even number
+	 * @return Literal that enforces the parity constraint.
+	 */
+	public int addParity(int[] variables, boolean odd) {
+		try {
+			if (variables.length == 0) {
+				/* The parity of no variables is even. */
+				int constant = solver.nextFreeVarId(true);
+				solver.addClause(new VecInt(new int[] { -constant }));
+				return odd ? constant : -constant;
+			}
+			int parity = variables[0];
+			for (int i = 1; i < variables.length; i++) {
+				int next = solver.nextFreeVarId(true);
+				int variable = variables[i];
+				solver.addClause(new VecInt(new int[] { -next, parity, variable }));
+				solver.addClause(new VecInt(new int[] { -next, -parity, -variable }));
+				solver.addClause(new VecInt(new int[] { next, -parity, variable }));
+				solver.addClause(new VecInt(new int[] { next, parity, -variable }));
+				parity = next;
+			}
+			return odd ? parity : -parity;
+		} catch (ContradictionException e) {
+			/* Not possible, the clauses only define new variables. */
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @return Literals of the cube that were used by the solver to refute it, the
+	 *         whole cube if they are not known.
+	 */
+	private int[] core(int[] cube) {
+		IVecInt explanation = solver.unsatExplanation();
+		if (explanation == null) {
+			return cube;
+		}
+		return Arrays.stream(cube).filter(literal -> explanation.contains(literal) || explanation.contains(-literal))
+				.toArray();
+	}
+
+	/**
+	 * @param projection - projected variables
+	 * @return Array that marks the projected variables, indexed by the variable.
+	 */
+	public static boolean[] projectionMask(int[] projection) {
+		int maxVariable = 0;
+		for (int variable : projection) {
+			maxVariable = Math.max(maxVariable, variable);
+		}
+		boolean[] projected = new boolean[maxVariable + 1];
+		for (int variable : projection) {
+			projected[variable] = true;
+		}
+		return projected;
+	}
+
+	/**
+	 * @param model     - model of a solution
+	 * @param projected - projected variables, see {@link #projectionMask(int[])}
+	 * @return Clause that excludes the solution, i.e. the negation of its positive
+	 *         projected literals.
+	 */
+	public static int[] blockingClause(int[] model, boolean[] projected) {
+		int size = 0;
+		int[] clause = new int[model.length];
+		for (int literal : model) {
+			if (literal > 0 && literal < projected.length && projected[literal]) {
+				clause[size++] = -literal;
+			}
+		}
+		int[] trimmed = new int[size];
+		System.arraycopy(clause, 0, trimmed, 0, size);
+		return trimmed;
+	}
+
+	/**
+	 * Check whether the problem is satisfiable under the assumptions. The solver
+	 * is run in slices of at most {@link #SOLVER_SLICE_CONFLICTS} conflicts, so
+	 * that the stopping condition is checked regularly.
+	 */
+	private boolean isSatisfiable(IVecInt assumptions, long deadline, BooleanSupplier stopped)
+			throws TimeoutException {
+		solver.setTimeoutOnConflicts(SOLVER_SLICE_CONFLICTS);
+		while (true) {
+			if (stopped.getAsBoolean() || System.currentTimeMillis() >= deadline) {
+				throw new TimeoutException();
+			}
+			try {
+				return problem.isSatisfiable(assumptions);
+			} catch (TimeoutException e) {
+				/* The slice expired, continue solving if the budget allows it. */
+			}
+		}
+	}
+}
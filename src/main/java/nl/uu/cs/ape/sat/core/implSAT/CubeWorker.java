@@ -0,0 +1,152 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.sat4j.reader.ParseFormatException;
+
+import nl.uu.cs.ape.sat.models.enums.CubeStatus;
+
+/**
+ * The {@code CubeWorker} class is the entry point of the worker processes
+ * started by the {@link CubeCoordinator}. The worker connects to the
+ * coordinator over a local socket, receives the CNF problem of the explored
+ * length and enumerates the solutions within the cubes it is assigned,
+ * using a {@link CubeSolver}. The messages are described in
+ * {@link CubeCoordinator}.<br>
+ * <br>
+ * The messages of the coordinator are read by a separate thread, so that a
+ * request to stop the current cube is received while the cube is solved.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class CubeWorker {
+
+	private final DataInputStream in;
+	private final DataOutputStream out;
+	/** Messages that are processed by the worker, in the order of arrival. */
+	private final BlockingQueue<Object[]> messages;
+	/** {@code true} if the coordinator requested to stop the current cube. */
+	private volatile boolean stopRequested;
+
+	private CubeWorker(Socket socket) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		this.messages = new LinkedBlockingQueue<Object[]>();
+		this.stopRequested = false;
+	}
+
+	/**
+	 * Start the worker.
+	 *
+	 * @param args - port of the coordinator on the loopback interface
+	 */
+	public static void main(String[] args) {
+		if (args.length != 1) {
+			System.err.println("Usage: CubeWorker <coordinator port>");
+			System.exit(1);
+		}
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+			socket.setTcpNoDelay(true);
+			new CubeWorker(socket).run();
+		} catch (IOException | NumberFormatException e) {
+			System.err.println("Cube worker failed: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/** Process the messages of the coordinator until it closes the connection. */
+	private void run() throws IOException {
+		Thread reader = new Thread(this::readMessages, "APE-cube-reader");
+		reader.setDaemon(true);
+		reader.start();
+		CubeSolver solver = null;
+		try {
+			while (true) {
+				Object[] message = messages.take();
+				byte type = (Byte) message[0];
+				if (type == CubeCoordinator.MSG_QUIT) {
+					return;
+				} else if (type == CubeCoordinator.MSG_PROBLEM) {
+					try {
+						solver = new CubeSolver(new ByteArrayInputStream((byte[]) message[1]), (int[]) message[2]);
+					} catch (ParseFormatException e) {
+						System.err.println("Cube worker could not parse the problem: " + e.getMessage());
+						solver = null;
+					}
+				} else if (type == CubeCoordinator.MSG_CUBE) {
+					solveCube(solver, (int[]) message[1], (Integer) message[2], (Integer) message[3],
+							(Long) message[4]);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Enumerate the solutions within the cube and send them to the coordinator. */
+	private void solveCube(CubeSolver solver, int[] cube, int cubeId, int maxModels, long timeoutMillis)
+			throws IOException {
+		CubeResult result;
+		if (solver == null) {
+			result = new CubeResult(CubeStatus.STOPPED);
+		} else {
+			long deadline = timeoutMillis < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMillis;
+			result = solver.enumerate(cube, maxModels, deadline, () -> stopRequested);
+		}
+		synchronized (out) {
+			for (int[] model : result.getModels()) {
+				out.writeByte(CubeCoordinator.MSG_MODEL);
+				out.writeInt(cubeId);
+				CubeCoordinator.writeInts(out, CubeCoordinator.positiveLiterals(model));
+			}
+			out.writeByte(CubeCoordinator.MSG_DONE);
+			out.writeInt(cubeId);
+			out.writeByte(result.getStatus().ordinal());
+			CubeCoordinator.writeInts(out, result.getCore() == null ? cube : result.getCore());
+			out.flush();
+		}
+	}
+
+	/** Read the messages of the coordinator, handle the stop requests immediately. */
+	private void readMessages() {
+		try {
+			while (true) {
+				byte type = in.readByte();
+				if (type == CubeCoordinator.MSG_STOP) {
+					stopRequested = true;
+				} else if (type == CubeCoordinator.MSG_PROBLEM) {
+					byte[] dimacs = new byte[in.readInt()];
+					in.readFully(dimacs);
+					messages.add(new Object[] { type, dimacs, CubeCoordinator.readInts(in) });
+				} else if (type == CubeCoordinator.MSG_CUBE) {
+					int cubeId = in.readInt();
+					int maxModels = in.readInt();
+					long timeoutMillis = in.readLong();
+					/* The coordinator sends the next cube only after the previous one is done. */
+					stopRequested = false;
+					messages.add(new Object[] { type, CubeCoordinator.readInts(in), cubeId, maxModels, timeoutMillis });
+				} else {
+					messages.add(new Object[] { CubeCoordinator.MSG_QUIT });
+					return;
+				}
+			}
+		} catch (EOFException e) {
+			/* The coordinator closed the connection. */
+		} catch (IOException e) {
+			System.err.println("Cube worker lost the connection: " + e.getMessage());
+		}
+		stopRequested = true;
+		messages.add(new Object[] { CubeCoordinator.MSG_QUIT });
+	}
+}
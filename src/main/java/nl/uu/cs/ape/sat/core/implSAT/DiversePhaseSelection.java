@@ -0,0 +1,140 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sat4j.core.LiteralsUtils;
+import org.sat4j.minisat.core.IPhaseSelectionStrategy;
+
+/**
+ * The {@code DiversePhaseSelection} class biases the SAT solver towards the
+ * tools that were not used in the solutions found so far. When the solver
+ * decides a tool variable, it first tries to use the tool if the tool does not
+ * occur in any of the found solutions, and to avoid it otherwise. Once all the
+ * tools were used, the preferences start over. The phases of the remaining
+ * variables are selected by the original strategy of the solver.
+ * <br>
+ * <br>
+ * As each solution still requires a single solver call, the first solutions
+ * differ in as many tools as the specification allows, instead of differing
+ * only in a single tool or in the data flow.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class DiversePhaseSelection implements IPhaseSelectionStrategy {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Original phase selection strategy of the solver. */
+	private final IPhaseSelectionStrategy strategy;
+	/** Variables that represent the usage of each tool, over all the steps. */
+	private final Map<String, List<Integer>> toolVariables;
+	/** Tool of each tool variable, indexed by the variable. */
+	private final String[] tools;
+	/**
+	 * Preferred value of each variable, indexed by the variable: 1 for true, -1
+	 * for false, 0 if it is selected by the original strategy.
+	 */
+	private final byte[] preference;
+	/** Tools used in the solutions since the preferences were (re)set. */
+	private final Set<String> usedTools;
+
+	/**
+	 * @param strategy      - original phase selection strategy of the solver
+	 * @param toolVariables - variables that represent the usage of each tool
+	 *                      (given by its ID), over all the steps
+	 */
+	public DiversePhaseSelection(IPhaseSelectionStrategy strategy, Map<String, List<Integer>> toolVariables) {
+		this.strategy = strategy;
+		this.toolVariables = new HashMap<String, List<Integer>>(toolVariables);
+		int maxVariable = 0;
+		for (List<Integer> variables : toolVariables.values()) {
+			for (int variable : variables) {
+				maxVariable = Math.max(maxVariable, variable);
+			}
+		}
+		this.tools = new String[maxVariable + 1];
+		this.preference = new byte[maxVariable + 1];
+		this.usedTools = new HashSet<String>();
+		for (Map.Entry<String, List<Integer>> tool : toolVariables.entrySet()) {
+			for (int variable : tool.getValue()) {
+				tools[variable] = tool.getKey();
+				preference[variable] = 1;
+			}
+		}
+	}
+
+	/**
+	 * Mark the tools used in the solution, so that they are avoided in the
+	 * following solutions.
+	 *
+	 * @param model - model of the found solution
+	 */
+	public void addSolution(int[] model) {
+		List<String> used = new ArrayList<String>();
+		for (int literal : model) {
+			if (literal > 0 && literal < tools.length && tools[literal] != null) {
+				used.add(tools[literal]);
+			}
+		}
+		usedTools.addAll(used);
+		if (usedTools.size() == toolVariables.size()) {
+			/* All the tools were used, prefer the ones not used in the last solution. */
+			usedTools.clear();
+			usedTools.addAll(used);
+			for (int variable = 0; variable < tools.length; variable++) {
+				if (tools[variable] != null) {
+					preference[variable] = 1;
+				}
+			}
+		}
+		for (String tool : used) {
+			for (int variable : toolVariables.get(tool)) {
+				preference[variable] = -1;
+			}
+		}
+	}
+
+	@Override
+	public int select(int var) {
+		if (var < preference.length && preference[var] != 0) {
+			return preference[var] > 0 ? LiteralsUtils.posLit(var) : LiteralsUtils.negLit(var);
+		}
+		return strategy.select(var);
+	}
+
+	@Override
+	public void updateVar(int p) {
+		strategy.updateVar(p);
+	}
+
+	@Override
+	public void init(int nlength) {
+		strategy.init(nlength);
+	}
+
+	@Override
+	public void init(int var, int p) {
+		strategy.init(var, p);
+	}
+
+	@Override
+	public void assignLiteral(int p) {
+		strategy.assignLiteral(p);
+	}
+
+	@Override
+	public void updateVarAtDecisionLevel(int q) {
+		strategy.updateVarAtDecisionLevel(q);
+	}
+
+	@Override
+	public String toString() {
+		return "diverse tools, otherwise " + strategy;
+	}
+}
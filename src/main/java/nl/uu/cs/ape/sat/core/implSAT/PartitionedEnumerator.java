@@ -0,0 +1,193 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import nl.uu.cs.ape.sat.core.RunControl;
+import nl.uu.cs.ape.sat.models.enums.CubeStatus;
+
+/**
+ * The {@code PartitionedEnumerator} class enumerates the solutions of the
+ * synthesis problems using several threads of the current process. The search
+ * space of a length is split into disjoint partitions (e.g. by fixing the tools
+ * of the first steps, see {@link SAT_SynthesisEngine}), and each partition is
+ * enumerated by a separate solver instance. The solutions are merged in the
+ * order of the partitions and deduplicated, as in the {@link CubeCoordinator}.
+ * <br>
+ * <br>
+ * The cubes are grouped into at most {@link #MAX_PARTITIONS} partitions of
+ * consecutive cubes, regardless of the number of threads. Each partition is
+ * enumerated by a new solver, loaded from the same clauses, so the solutions
+ * found within a partition do not depend on the order or the thread in which
+ * the partitions are enumerated. Hence, the merged solutions are the same in
+ * every run.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class PartitionedEnumerator implements AutoCloseable {
+
+	/** Max number of partitions the cubes are grouped into. */
+	private static final int MAX_PARTITIONS = 32;
+
+	/** Threads that enumerate the partitions. */
+	private final ExecutorService executor;
+	/** Number of the threads. */
+	private final int threads;
+
+	/**
+	 * Create the threads that enumerate the partitions.
+	 *
+	 * @param threads - number of threads (at least 1)
+	 */
+	public PartitionedEnumerator(int threads) {
+		this.threads = Math.max(1, threads);
+		AtomicInteger threadNo = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+			Thread thread = new Thread(runnable, "APE-partition-" + threadNo.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @return the {@link #threads}
+	 */
+	public int getNumberOfThreads() {
+		return threads;
+	}
+
+	/**
+	 * Enumerate the solutions of the problem, by enumerating the solutions within
+	 * the partitions of the cubes in parallel. The cubes should be disjoint and
+	 * cover the search space. The solutions are merged in the order of the cubes,
+	 * and the solutions that are equal on the projected variables are returned
+	 * only once. The partitions that cannot contribute to the first
+	 * <b>maxModels</b> solutions are not enumerated, or stop enumerating as soon
+	 * as the preceding partitions contain enough solutions.
+	 *
+	 * @param dimacs     - CNF problem in the DIMACS format
+	 * @param projection - variables used to distinguish the solutions
+	 * @param cubes      - cubes, given by the literals that are assumed to be
+	 *                   true
+	 * @param maxModels  - max number of solutions
+	 * @param deadline   - time (in ms) by which the solving has to finish, or
+	 *                   {@link Long#MAX_VALUE}
+	 * @param control    - control of the synthesis run, the solving is stopped
+	 *                   when the run is stopped
+	 * @return The solutions, given by their positive literals, and the outcome of
+	 *         the enumeration.
+	 */
+	public synchronized CubeResult solve(String dimacs, int[] projection, List<int[]> cubes, int maxModels,
+			long deadline, RunControl control) {
+		int[] variables = new int[1];
+		int[][] clauses = readClauses(dimacs, variables);
+		boolean[] projected = CubeSolver.projectionMask(projection);
+		int size = Math.max(1, Math.min(MAX_PARTITIONS, cubes.size()));
+		List<List<int[]>> partitions = new ArrayList<List<int[]>>();
+		for (int i = 0; i < size; i++) {
+			partitions.add(cubes.subList(i * cubes.size() / size, (i + 1) * cubes.size() / size));
+		}
+		/* A partition is represented by an empty cube, which is excluded only if the problem is unsatisfiable. */
+		CubeProgress progress = new CubeProgress(Collections.nCopies(size, new int[0]), maxModels);
+		List<Future<?>> tasks = new ArrayList<Future<?>>();
+		for (int i = 0; i < threads; i++) {
+			tasks.add(executor.submit(() -> {
+				Integer partition;
+				while ((partition = progress.nextCube()) != null) {
+					CubeSolver solver = new CubeSolver(variables[0], clauses, projected);
+					/* The partition is not needed once the preceding partitions contain enough solutions. */
+					progress.finish(partition, enumerate(solver, partitions.get(partition), maxModels, deadline,
+							() -> progress.isStopped() || !progress.isNeeded()));
+				}
+			}));
+		}
+		progress.await(tasks, deadline, control, () -> {
+		});
+		return progress.merge(projection);
+	}
+
+	/**
+	 * Enumerate the solutions within the cubes of a partition, in the order of the
+	 * cubes. The cubes that contain the core of an exhausted cube are skipped.
+	 *
+	 * @return The solutions, given by their positive literals, and the outcome of
+	 *         the enumeration.
+	 */
+	private static CubeResult enumerate(CubeSolver solver, List<int[]> cubes, int maxModels, long deadline,
+			BooleanSupplier stopped) {
+		CubeResult partition = new CubeResult(CubeStatus.EXHAUSTED);
+		List<CubeResult> refutations = new ArrayList<CubeResult>();
+		for (int[] cube : cubes) {
+			if (refutations.stream().anyMatch(refutation -> refutation.excludes(cube))) {
+				continue;
+			}
+			CubeResult result = solver.enumerate(cube, maxModels - partition.getModels().size(), deadline, stopped);
+			for (int[] model : result.getModels()) {
+				partition.addModel(CubeCoordinator.positiveLiterals(model));
+			}
+			if (result.getStatus() != CubeStatus.EXHAUSTED) {
+				partition.setStatus(result.getStatus());
+				break;
+			}
+			refutations.add(result);
+		}
+		return partition;
+	}
+
+	/**
+	 * Read the clauses of the CNF problem.
+	 *
+	 * @param dimacs    - CNF problem in the DIMACS format
+	 * @param variables - array in which the number of variables is stored
+	 * @return The clauses of the problem.
+	 */
+	private static int[][] readClauses(String dimacs, int[] variables) {
+		List<int[]> clauses = new ArrayList<int[]>();
+		int[] clause = new int[16];
+		int size = 0;
+		for (String line : dimacs.split("\n")) {
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("c")) {
+				continue;
+			}
+			if (line.startsWith("p")) {
+				String[] header = line.split("\\s+");
+				variables[0] = Integer.parseInt(header[2]);
+				continue;
+			}
+			for (String token : line.split("\\s+")) {
+				int literal = Integer.parseInt(token);
+				if (literal == 0) {
+					int[] finished = new int[size];
+					System.arraycopy(clause, 0, finished, 0, size);
+					clauses.add(finished);
+					size = 0;
+				} else {
+					if (size == clause.length) {
+						int[] larger = new int[2 * size];
+						System.arraycopy(clause, 0, larger, 0, size);
+						clause = larger;
+					}
+					clause[size++] = literal;
+					variables[0] = Math.max(variables[0], Math.abs(literal));
+				}
+			}
+		}
+		return clauses.toArray(new int[clauses.size()][]);
+	}
+
+	/**
+	 * Stop the threads.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
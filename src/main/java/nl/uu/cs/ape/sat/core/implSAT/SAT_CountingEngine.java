@@ -0,0 +1,245 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.sat4j.reader.ParseFormatException;
+
+import nl.uu.cs.ape.sat.core.RunControl;
+import nl.uu.cs.ape.sat.core.SynthesisCancelledException;
+import nl.uu.cs.ape.sat.core.SynthesisEngine;
+import nl.uu.cs.ape.sat.models.enums.CubeStatus;
+import nl.uu.cs.ape.sat.utils.APEConfig;
+import nl.uu.cs.ape.sat.utils.APEDomainSetup;
+
+/**
+ * The {@code SAT_CountingEngine} class counts the solutions of a workflow
+ * length, without returning them. The solutions are counted as distinct
+ * sequences of tools, i.e. projected onto the tool variables of the encoding
+ * created by the {@link SAT_SynthesisEngine}.<br>
+ * <br>
+ * Small solution spaces are counted exactly, by enumerating the sequences of
+ * tools. When there are more solutions than the approximation would need
+ * solver calls, the count is approximated using hashing: random parity (XOR)
+ * constraints split the space into cells of similar sizes, and the size of a
+ * small enough cell, multiplied by the number of the cells, estimates the
+ * count (the ApproxMC algorithm by Chakraborty, Meel and Vardi). Exactly one
+ * tool is used in each step, so the parity constraints are defined over the
+ * bits of the indices of the used tools, rather than over the (many more)
+ * tool variables, which keeps them short. The estimate is within the factor (1 +
+ * {@link APEConfig#getCount_tolerance()}) of the exact count with the
+ * probability {@link APEConfig#getCount_confidence()}.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class SAT_CountingEngine implements SynthesisEngine {
+
+	/** Engine that encodes the synthesis problem. */
+	private final SAT_SynthesisEngine encoding;
+	/** APE library configuration object. */
+	private final APEConfig config;
+	/** Source of the random parity constraints. */
+	private final Random random;
+	/** Number of the solutions of the length. */
+	private final SolutionsCount count;
+
+	/**
+	 * Setup of an instance of the SAT counting engine.
+	 *
+	 * @param domainSetup - domain information
+	 * @param config      - configuration of the run
+	 * @param size        - length of the workflows
+	 * @param random      - source of the random parity constraints
+	 */
+	public SAT_CountingEngine(APEDomainSetup domainSetup, APEConfig config, int size, Random random) {
+		this.encoding = new SAT_SynthesisEngine(domainSetup, new SATsolutionsList(config), config, size);
+		this.config = config;
+		this.random = random;
+		this.count = new SolutionsCount(size);
+	}
+
+	/**
+	 * Generate the SAT encoding of the workflow synthesis, see
+	 * {@link SAT_SynthesisEngine#synthesisEncoding()}.
+	 *
+	 * @return {@code true} if the encoding was performed successfully,
+	 *         {@code false} otherwise.
+	 * @throws IOException
+	 * @throws SynthesisCancelledException if the run was cancelled or its time
+	 *                                     budget expired
+	 */
+	public boolean synthesisEncoding() throws IOException, SynthesisCancelledException {
+		return encoding.synthesisEncoding();
+	}
+
+	/**
+	 * Count the solutions of the encoded problem.
+	 *
+	 * @return {@code true} if the problem has solutions, {@code false}
+	 *         otherwise.
+	 */
+	public boolean synthesisExecution() {
+		long startTime = System.currentTimeMillis();
+		CubeSolver solver;
+		try {
+			solver = new CubeSolver(encoding.getSatInput(), encoding.getToolVariables());
+		} catch (IOException | ParseFormatException e) {
+			System.err.println("Error while parsing the cnf encoding of the problem by the MiniSAT solver.");
+			return false;
+		}
+		int threshold = cellThreshold(config.getCount_tolerance());
+		int iterations = iterations(config.getCount_confidence());
+		/* The exact count is attempted with about as many solver calls as the approximation would take. */
+		CubeResult all = enumerate(solver, new int[0], threshold * iterations);
+		if (all.getStatus() == CubeStatus.EXHAUSTED || all.getStatus() == CubeStatus.STOPPED) {
+			count.setCount(BigInteger.valueOf(all.getModels().size()), true);
+			count.setPartial(all.getStatus() == CubeStatus.STOPPED);
+		} else {
+			approximate(solver, encoding.addToolIndexBits(solver), threshold, iterations);
+		}
+		System.out.println(count + ". Counting time: " + ((System.currentTimeMillis() - startTime) / 1000F) + " sec.");
+		return count.getCount().signum() > 0;
+	}
+
+	/**
+	 * Approximate the number of the solutions. In each iteration, the smallest
+	 * number of parity constraints that results in a cell with fewer than
+	 * <b>threshold</b> solutions is found, starting from the number found in the
+	 * previous iteration. The median of the estimates is returned.
+	 */
+	private void approximate(CubeSolver solver, int[] bits, int threshold, int iterations) {
+		List<BigInteger> estimates = new ArrayList<BigInteger>();
+		int constraints = 1;
+		iterationLoop: for (int i = 0; i < iterations; i++) {
+			List<Integer> parities = new ArrayList<Integer>();
+			Map<Integer, Integer> cellSizes = new HashMap<Integer, Integer>();
+			int size;
+			while (true) {
+				size = cellSize(solver, bits, parities, constraints, threshold, cellSizes);
+				if (size < 0) {
+					break iterationLoop;
+				}
+				if (size >= threshold) {
+					constraints++;
+					continue;
+				}
+				if (constraints > 1) {
+					int smaller = cellSize(solver, bits, parities, constraints - 1, threshold, cellSizes);
+					if (smaller < 0) {
+						break iterationLoop;
+					}
+					if (smaller < threshold) {
+						constraints--;
+						continue;
+					}
+				}
+				break;
+			}
+			estimates.add(BigInteger.valueOf(size).shiftLeft(constraints));
+		}
+		if (estimates.isEmpty()) {
+			/* The exact enumeration found at least this many solutions. */
+			count.setCount(BigInteger.valueOf((long) threshold * iterations), true);
+			count.setPartial(true);
+			return;
+		}
+		Collections.sort(estimates);
+		count.setCount(estimates.get(estimates.size() / 2), false);
+		count.setPartial(estimates.size() < iterations);
+	}
+
+	/**
+	 * @return Number of the solutions in the cell given by the first
+	 *         <b>constraints</b> parity constraints (at most <b>threshold</b>),
+	 *         or -1 if the counting was stopped.
+	 */
+	private int cellSize(CubeSolver solver, int[] bits, List<Integer> parities, int constraints,
+			int threshold, Map<Integer, Integer> cellSizes) {
+		Integer cached = cellSizes.get(constraints);
+		if (cached != null) {
+			return cached;
+		}
+		while (parities.size() < constraints) {
+			int[] variables = IntStream.of(bits).filter(variable -> random.nextBoolean()).toArray();
+			parities.add(solver.addParity(variables, random.nextBoolean()));
+		}
+		int[] cell = parities.subList(0, constraints).stream().mapToInt(Integer::intValue).toArray();
+		CubeResult result = enumerate(solver, cell, threshold);
+		if (result.getStatus() == CubeStatus.STOPPED) {
+			return -1;
+		}
+		cellSizes.put(constraints, result.getModels().size());
+		return result.getModels().size();
+	}
+
+	private CubeResult enumerate(CubeSolver solver, int[] cell, int maxModels) {
+		RunControl control = encoding.getRunControl();
+		return solver.enumerateCell(cell, maxModels, encoding.getLengthDeadline(), control::isStopped);
+	}
+
+	/**
+	 * @param tolerance - relative tolerance of the count
+	 * @return Number of solutions up to which a cell is counted.
+	 */
+	private static int cellThreshold(double tolerance) {
+		return (int) Math.ceil(
+				1 + 9.84 * (1 + tolerance / (1 + tolerance)) * (1 + 1 / tolerance) * (1 + 1 / tolerance));
+	}
+
+	/**
+	 * Compute the number of the estimates, such that their median is within the
+	 * tolerance with the given probability. A single estimate is not within the
+	 * tolerance with the probability at most 0.36, so the median is not within
+	 * the tolerance if at least half of the estimates are not.
+	 * 
+	 * @param confidence - probability with which the count is within the tolerance
+	 * @return Number of the estimates the median is taken of (odd).
+	 */
+	private static int iterations(double confidence) {
+		double error = 0.36;
+		int iterations = 1;
+		while (true) {
+			double failure = 0;
+			double combinations = 1;
+			for (int wrong = 0; wrong <= iterations; wrong++) {
+				if (2 * wrong > iterations) {
+					failure += combinations * Math.pow(error, wrong) * Math.pow(1 - error, iterations - wrong);
+				}
+				combinations = combinations * (iterations - wrong) / (wrong + 1);
+			}
+			if (failure <= 1 - confidence) {
+				return iterations;
+			}
+			iterations += 2;
+		}
+	}
+
+	/**
+	 * @return the {@link #count}
+	 */
+	public SolutionsCount getCount() {
+		return count;
+	}
+
+	/**
+	 * @param control - time budget and cancellation handle of the run
+	 */
+	public void setRunControl(RunControl control) {
+		encoding.setRunControl(control);
+	}
+
+	/**
+	 * @return Length of the counted workflows.
+	 */
+	public int getSolutionSize() {
+		return encoding.getSolutionSize();
+	}
+}
@@ -3,11 +3,23 @@ package nl.uu.cs.ape.sat.core.implSAT;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.io.IOUtils;
 import org.sat4j.core.VecInt;
 import org.sat4j.minisat.SolverFactory;
+import org.sat4j.minisat.core.IOrder;
+import org.sat4j.minisat.core.Solver;
 import org.sat4j.reader.DimacsReader;
 import org.sat4j.reader.ParseFormatException;
 import org.sat4j.reader.Reader;
@@ -18,17 +30,26 @@ import org.sat4j.specs.IVecInt;
 import org.sat4j.specs.TimeoutException;
 
 import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.sat.automaton.State;
 import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
 import nl.uu.cs.ape.sat.constraints.ConstraintFactory;
+import nl.uu.cs.ape.sat.core.RunControl;
+import nl.uu.cs.ape.sat.core.SynthesisCancelledException;
 import nl.uu.cs.ape.sat.core.SynthesisEngine;
 import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.events.SynthesisEventDispatcher;
+import nl.uu.cs.ape.sat.metrics.LengthMetrics;
 import nl.uu.cs.ape.sat.models.AllModules;
 import nl.uu.cs.ape.sat.models.AllTypes;
 import nl.uu.cs.ape.sat.models.AtomMappings;
 import nl.uu.cs.ape.sat.models.ConstraintData;
+import nl.uu.cs.ape.sat.models.Module;
 import nl.uu.cs.ape.sat.models.Type;
 import nl.uu.cs.ape.sat.models.SATEncodingUtils.ModuleUtils;
 import nl.uu.cs.ape.sat.models.SATEncodingUtils.TypeUtils;
+import nl.uu.cs.ape.sat.models.enums.CubeStatus;
+import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
+import nl.uu.cs.ape.sat.models.logic.constructs.Atom;
 import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 import nl.uu.cs.ape.sat.utils.APEConfig;
 import nl.uu.cs.ape.sat.utils.APEDomainSetup;
@@ -41,6 +62,16 @@ import nl.uu.cs.ape.sat.utils.APEUtils;
  * It is used to execute synthesis algorithm over the given input, implemented
  * using MiniSAT solver. <br>
  * <br>
+ * When cost optimization is enabled, the solutions of a length are found in
+ * the order of increasing cost (see {@link CostObjective}). When diverse
+ * solutions are requested, each solution avoids the tools of the previous ones
+ * (see {@link DiversePhaseSelection}). When a sample size is given, the
+ * solutions are sampled uniformly at random (see {@link #runSampling}) instead
+ * of being enumerated. Otherwise, the
+ * search space can be split into cubes that are solved by worker processes
+ * (see {@link CubeCoordinator}) or enumerated by several threads (see
+ * {@link PartitionedEnumerator}). <br>
+ * <br>
  * The class implements general synthesis interface {@link SynthesisEngine}.
  * 
  * @author Vedran Kasalica
@@ -71,6 +102,30 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 	 * of the solution.
 	 */
 	private TypeAutomaton typeAutomaton;
+	/** Metrics of the synthesis instance. */
+	private final LengthMetrics metrics;
+	/** Dispatcher of the synthesis events. */
+	private SynthesisEventDispatcher events;
+	/** Time budget and cancellation handle of the synthesis run. */
+	private RunControl control;
+	/** Time by which the solving of the current length has to finish. */
+	private long lengthDeadline;
+	/** Cost objective of the workflows, or {@code null} if the solutions are not ordered by cost. */
+	private CostObjective objective;
+	/** Coordinator of the worker processes, or {@code null} if the problem is solved by a single solver. */
+	private CubeCoordinator cubeCoordinator;
+	/** Threads that enumerate the partitions of the search space, or {@code null} if none. */
+	private PartitionedEnumerator partitionedEnumerator;
+	/** CNF encoding of the problem in the DIMACS format, kept when it is solved by the worker processes or threads. */
+	private String dimacs;
+	/** Maximal duration of a single (uninterrupted) solver call, in milliseconds. */
+	private static final long SOLVER_SLICE_MS = 1000;
+	/** Min number of tool sequences in a cell a sample is drawn from (pivot of UniGen2). */
+	private static final int SAMPLE_CELL_MIN = 17;
+	/** Max number of tool sequences in a cell a sample is drawn from (pivot of UniGen2). */
+	private static final int SAMPLE_CELL_MAX = 46;
+	/** Max number of cells that are tried per requested sample. */
+	private static final int SAMPLE_ATTEMPTS = 10;
 
 	/**
 	 * Setup of an instance of the SAT synthesis engine.
@@ -89,8 +144,14 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 		this.temp_sat_input = null;
 		this.cnfEncoding = new StringBuilder();
 
+		this.metrics = new LengthMetrics(size, config.getDebug_mode());
+		this.events = new SynthesisEventDispatcher();
+		this.control = new RunControl();
+		this.lengthDeadline = Long.MAX_VALUE;
+
 		moduleAutomaton = new ModuleAutomaton(size, config.getMax_no_tool_outputs());
 		typeAutomaton = new TypeAutomaton(size, config.getMax_no_tool_inputs(), config.getMax_no_tool_outputs());
+		metrics.lap("Automaton");
 
 	}
 
@@ -100,26 +161,29 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 	 * 
 	 * @return {@code true} if the encoding was performed successfully, {@code false} otherwise.
 	 * @throws IOException
+	 * @throws SynthesisCancelledException if the synthesis run was cancelled or its time budget expired
 	 */
-	public boolean synthesisEncoding() throws IOException {
+	public boolean synthesisEncoding() throws IOException, SynthesisCancelledException {
 
 		long problemSetupStartTime = System.currentTimeMillis();
+		/* The remaining time budget is split over the lengths that are still to be explored. */
+		long lengthBudget = control.getLengthBudgetMillis(config.getSolution_max_length() - getSolutionSize() + 1);
+		lengthDeadline = (lengthBudget == Long.MAX_VALUE) ? Long.MAX_VALUE : problemSetupStartTime + lengthBudget;
 		TaxonomyPredicate rootModule = domainSetup.getAllModules().getRootPredicate();
 		TaxonomyPredicate rootType = domainSetup.getAllTypes().getRootPredicate();
+		objective = config.getCost_optimization() ? new CostObjective(mappings) : null;
 
 		/*
 		 * Generate the automaton
 		 */
-		String currLengthTimer = "length" + this.getSolutionSize();
-		APEUtils.timerStart(currLengthTimer, config.getDebug_mode());
-
-		APEUtils.timerRestartAndPrint(currLengthTimer, "Automaton");
+		metrics.restart();
 
 		/*
 		 * Create constraints from the module.xml file regarding the Inputs/Outputs
 		 */
 		cnfEncoding = cnfEncoding.append(ModuleUtils.modulesConstraints(this));
-		APEUtils.timerRestartAndPrint(currLengthTimer, "Tool I/O constraints");
+		metrics.lap("Tool I/O constraints");
+		control.checkpoint();
 
 		/*
 		 * Create the constraints that provide distinction of data instances.
@@ -131,32 +195,37 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 		 * Mandatory usage of the tools - from taxonomy. 3. Adding the constraints
 		 * enforcing the taxonomy structure.
 		 */
-		cnfEncoding = cnfEncoding.append(ModuleUtils.moduleMutualExclusion(domainSetup.getAllModules(),moduleAutomaton, mappings));
-		APEUtils.timerRestartAndPrint(currLengthTimer, "Tool exclusions enfocements");
+		cnfEncoding = cnfEncoding.append(ModuleUtils.moduleMutualExclusion(domainSetup.getAllModules(),moduleAutomaton, mappings, control));
+		metrics.lap("Tool exclusions enfocements");
+		control.checkpoint();
 		cnfEncoding = cnfEncoding.append(ModuleUtils.moduleMandatoryUsage(domainSetup.getAllModules(), moduleAutomaton, mappings));
 		cnfEncoding = cnfEncoding.append(
 				ModuleUtils.moduleEnforceTaxonomyStructure(domainSetup.getAllModules(), rootModule.getPredicateID(), moduleAutomaton, mappings));
-		APEUtils.timerRestartAndPrint(currLengthTimer, "Tool usage enfocements");
+		metrics.lap("Tool usage enfocements");
+		control.checkpoint();
 		/*
 		 * Create the constraints enforcing: 1. Mutual exclusion of the types/formats 2.
 		 * Mandatory usage of the types in the transition nodes (note: "empty type" is
 		 * considered a type) 3. Adding the constraints enforcing the taxonomy
 		 * structure.
 		 */
-		cnfEncoding = cnfEncoding.append(TypeUtils.typeMutualExclusion(domainSetup.getAllTypes(), typeAutomaton, mappings));
-		APEUtils.timerRestartAndPrint(currLengthTimer, "Type exclusions enfocements");
+		cnfEncoding = cnfEncoding.append(TypeUtils.typeMutualExclusion(domainSetup.getAllTypes(), typeAutomaton, mappings, control));
+		metrics.lap("Type exclusions enfocements");
+		control.checkpoint();
 		cnfEncoding = cnfEncoding.append(TypeUtils.typeMandatoryUsage(domainSetup.getAllTypes(), rootType, typeAutomaton, mappings));
 		cnfEncoding = cnfEncoding
 				.append(TypeUtils.typeEnforceTaxonomyStructure(domainSetup.getAllTypes(), rootType.getPredicateID(), typeAutomaton, mappings));
-		APEUtils.timerRestartAndPrint(currLengthTimer, "Type usage enfocements");
+		metrics.lap("Type usage enfocements");
+		control.checkpoint();
 		/*
 		 * Encode the constraints from the file based on the templates (manual
 		 * templates)
 		 */
 		if (domainSetup.getUnformattedConstr() != null && !domainSetup.getUnformattedConstr().isEmpty()) {
-			cnfEncoding = cnfEncoding
-					.append(APEUtils.encodeAPEConstraints(domainSetup, mappings, moduleAutomaton, typeAutomaton));
-			APEUtils.timerRestartAndPrint(currLengthTimer, "SLTL constraints");
+			cnfEncoding = cnfEncoding.append(
+					APEUtils.encodeAPEConstraints(domainSetup, mappings, moduleAutomaton, typeAutomaton, objective));
+			metrics.lap("SLTL constraints");
+			control.checkpoint();
 		}
 		/*
 		 * Encode the workflow input. Workflow I/O are encoded the last in order to
@@ -176,8 +245,33 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 			return false;
 		}
 		cnfEncoding = cnfEncoding.append(outputDataEncoding);
+		metrics.lap("Workflow I/O");
+		control.checkpoint();
 
 		cnfEncoding = cnfEncoding.append(domainSetup.getConstraintsForHelperPredicates(mappings, moduleAutomaton, typeAutomaton));
+		metrics.lap("Helper predicates");
+		control.checkpoint();
+
+		/*
+		 * Encode the cost of the workflows, used to return the solutions in the order
+		 * of increasing cost.
+		 */
+		if (objective != null) {
+			cnfEncoding = cnfEncoding.append(objective.encode(domainSetup.getAllModules(), moduleAutomaton));
+			metrics.lap("Cost objective");
+			control.checkpoint();
+		}
+
+		/*
+		 * The auxiliary variables are numbered below the atoms, exceeding the reserved
+		 * range would map them to the same numbers as the atoms.
+		 */
+		int auxVariables = mappings.getCurrNumOfMappedAuxVar() - 1;
+		if (auxVariables > mappings.getMaxNumOfMappedAuxVar()) {
+			System.err.println("The encoding requires " + auxVariables + " auxiliary variables, more than the "
+					+ mappings.getMaxNumOfMappedAuxVar() + " reserved ones.");
+			return false;
+		}
 		
 		/*
 		 * Counting the number of variables and clauses that will be given to the SAT
@@ -186,7 +280,9 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 		int variables = mappings.getSize();
 		int clauses = APEUtils.countNewLines(cnfEncoding.toString());
 		StringBuilder sat_input_header = new StringBuilder("p cnf " + variables + " " + clauses + "\n");
-		APEUtils.timerRestartAndPrint(currLengthTimer, "Reading rows");
+		metrics.setEncodingSize(variables, clauses);
+		events.encodingFinished(getSolutionSize(), variables, clauses);
+		metrics.lap("Reading rows");
 		System.out.println();
 		/*
 		 * Fixing the input and output files for easier testing.
@@ -197,6 +293,9 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 
 		
 
+		if (isCubeAndConquer()) {
+			dimacs = mknfEncoding.toString();
+		}
 		temp_sat_input = IOUtils.toInputStream(mknfEncoding.toString(), "UTF-8");
 		temp_sat_input.close();
 //		testing sat input
@@ -222,8 +321,15 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 	 */
 	public boolean synthesisExecution() {
 
-		List<SolutionWorkflow> currSolutions = runMiniSAT(temp_sat_input,
-				allSolutions.getNumberOfSolutions(), allSolutions.getMaxNumberOfSolutions());
+		List<SolutionWorkflow> currSolutions;
+		if (config.getSample_size() > 0) {
+			currSolutions = runSampling(allSolutions.getNumberOfSolutions(), allSolutions.getMaxNumberOfSolutions());
+		} else if (isCubeAndConquer()) {
+			currSolutions = runCubeAndConquer(allSolutions.getNumberOfSolutions(), allSolutions.getMaxNumberOfSolutions());
+		} else {
+			currSolutions = runMiniSAT(temp_sat_input,
+					allSolutions.getNumberOfSolutions(), allSolutions.getMaxNumberOfSolutions());
+		}
 		/* Add current solutions to list of all solutions. */
 		return allSolutions.addSolutions(currSolutions);
 	}
@@ -232,6 +338,22 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 		return cnfEncoding.toString();
 	}
 
+	/**
+	 * @return CNF encoding of the problem in the DIMACS format, as given to the
+	 *         SAT solver, {@code null} if the problem was not encoded.
+	 */
+	InputStream getSatInput() {
+		return temp_sat_input;
+	}
+
+	/**
+	 * @return Time (in ms) by which the solving of the current length has to
+	 *         finish, {@link Long#MAX_VALUE} if there is no time budget.
+	 */
+	long getLengthDeadline() {
+		return lengthDeadline;
+	}
+
 	/**
 	 * Returns a set of {@link SAT_solution SAT_solutions} by parsing the SAT
 	 * output. In case of the UNSAT the list is empty.
@@ -251,14 +373,43 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 		solver.setTimeout(timeout); // 1 hour timeout
 		long realStartTime = 0;
 		long realTimeElapsedMillis;
+		/* Start of the current solver call, used to separate solving from decoding time. */
+		long solvingStartTime = 0;
+		int solutionsAtLength = 0;
 		Reader reader = new DimacsReader(solver);
 		try {
+			metrics.restart();
 			IProblem problem = reader.parseInstance(sat_input); // loading CNF encoding of the problem
+			DiversePhaseSelection diversity = (objective == null && config.getDiverse_solutions()) ? diversify(solver)
+					: null;
+			metrics.lap("Solver input parsing");
 			realStartTime = System.currentTimeMillis();
-			while (solutionsFound < solutionsFoundMax && problem.isSatisfiable()) {
-				SolutionWorkflow sat_solution = new SolutionWorkflow(problem.model(), this);
+			solvingStartTime = realStartTime;
+			/* Cost of the last solution, all the cheaper solutions have been found. */
+			int lastCost = 0;
+			while (solutionsFound < solutionsFoundMax) {
+				int[] model = (objective == null) ? nextModel(problem, solver, timeout)
+						: nextOptimalModel(problem, solver, timeout, lastCost);
+				if (model == null) {
+					events.lengthUnsatisfiable(getSolutionSize(), solutionsAtLength);
+					break;
+				}
+				long decodingStartTime = System.currentTimeMillis();
+				SolutionWorkflow sat_solution = new SolutionWorkflow(model, this);
+				if (objective != null) {
+					lastCost = objective.cost(model);
+					sat_solution.setCost(lastCost);
+				}
+				metrics.addSolution(decodingStartTime - solvingStartTime, System.currentTimeMillis() - decodingStartTime);
+				/* The index is assigned before the solution is published to the listeners. */
+				sat_solution.setIndex(solutionsFound);
 				solutions.add(sat_solution);
+				events.solutionFound(sat_solution);
 				solutionsFound++;
+				solutionsAtLength++;
+				if (diversity != null) {
+					diversity.addSolution(model);
+				}
 				if (solutionsFound % 500 == 0) {
 					realTimeElapsedMillis = System.currentTimeMillis() - realStartTime;
 					System.out.println("Found " + solutionsFound + " solutions. Solving time: "
@@ -268,6 +419,7 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 				 * Adding the negation of the positive part of the solution as a constraint
 				 * (default negation does not work)
 				 */
+				solvingStartTime = System.currentTimeMillis();
 				IVecInt negSol = new VecInt(sat_solution.getNegatedMappedSolutionArray());
 				solver.addClause(negSol);
 			}
@@ -275,14 +427,35 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 			System.out.println("Error while parsing the cnf encoding of the problem by the MiniSAT solver.");
 		} catch (ContradictionException e) {
 			System.err.println("Unsatisfiable");
+			events.lengthUnsatisfiable(getSolutionSize(), solutionsAtLength);
 		} catch (TimeoutException e) {
-			System.err.println("Timeout. Solving took longer than default timeout: " + timeout + " seconds.");
+			if (control.isCancelled()) {
+				System.err.println("Solving was cancelled.");
+			} else if (lengthDeadline != Long.MAX_VALUE) {
+				System.err.println("Timeout. Solving took longer than the time budget of the length.");
+			} else {
+				System.err.println("Timeout. Solving took longer than default timeout: " + timeout + " seconds.");
+			}
+			allSolutions.setPartial(true);
+			events.lengthTimedOut(getSolutionSize(), solutionsAtLength);
 		} catch (IOException e) {
 			System.err.println("Internal error while parsing the encoding.");
 		} catch (Exception e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
+		if (solvingStartTime > 0) {
+			/* Time of the last solver call, which did not result in a solution. */
+			metrics.addSolvingTime(System.currentTimeMillis() - solvingStartTime);
+		}
+		/* The statistics are provided as a raw map by the solver. */
+		Map<String, Number> solverStatistics = new HashMap<String, Number>();
+		for (Map.Entry<?, ?> statistic : ((Map<?, ?>) solver.getStat()).entrySet()) {
+			if (statistic.getValue() instanceof Number) {
+				solverStatistics.put(statistic.getKey().toString(), (Number) statistic.getValue());
+			}
+		}
+		metrics.setSolverStatistics(solverStatistics);
 
 		if (solutionsFound == 0 || solutionsFound % 500 != 0) {
 			realTimeElapsedMillis = System.currentTimeMillis() - realStartTime;
@@ -294,9 +467,489 @@ public class SAT_SynthesisEngine implements SynthesisEngine {
 	}
 
 
+	/**
+	 * Returns the solutions of the problem, found by the worker processes of the
+	 * {@link CubeCoordinator} or by the threads of the
+	 * {@link PartitionedEnumerator}. The search space is split into cubes by
+	 * fixing the tools of the first {@link APEConfig#getCube_depth()} steps of
+	 * the workflow, and the solutions are returned in the order of the cubes.
+	 * 
+	 * @param solutionsFound    - number of solutions found in the previous lengths
+	 * @param solutionsFoundMax - max number of solutions of the run
+	 * @return List of the found solutions. Possibly empty list.
+	 */
+	public List<SolutionWorkflow> runCubeAndConquer(int solutionsFound, int solutionsFoundMax) {
+		List<SolutionWorkflow> solutions = new ArrayList<SolutionWorkflow>();
+		metrics.restart();
+		List<int[]> cubes = generateCubes(config.getCube_depth());
+		int[] projection = getProjectedVariables();
+		metrics.lap("Cube generation");
+		long solvingStartTime = System.currentTimeMillis();
+		CubeResult result;
+		if (cubeCoordinator != null) {
+			result = cubeCoordinator.solve(dimacs, projection, cubes, solutionsFoundMax - solutionsFound,
+					lengthDeadline, control);
+		} else {
+			result = partitionedEnumerator.solve(dimacs, projection, cubes, solutionsFoundMax - solutionsFound,
+					lengthDeadline, control);
+		}
+		metrics.addSolvingTime(System.currentTimeMillis() - solvingStartTime);
+		for (int[] literals : result.getModels()) {
+			long decodingStartTime = System.currentTimeMillis();
+			SolutionWorkflow sat_solution = new SolutionWorkflow(toModel(literals), this);
+			metrics.addSolution(0, System.currentTimeMillis() - decodingStartTime);
+			sat_solution.setIndex(solutionsFound);
+			solutions.add(sat_solution);
+			events.solutionFound(sat_solution);
+			solutionsFound++;
+		}
+		if (result.getStatus() == CubeStatus.STOPPED) {
+			System.err.println("Solving of the cubes was stopped before the search space was explored.");
+			allSolutions.setPartial(true);
+			events.lengthTimedOut(getSolutionSize(), solutions.size());
+		} else if (result.getStatus() == CubeStatus.EXHAUSTED) {
+			events.lengthUnsatisfiable(getSolutionSize(), solutions.size());
+		}
+		System.out.println("Found " + solutionsFound + " solutions in " + cubes.size() + " cubes. Solving time: "
+				+ ((System.currentTimeMillis() - solvingStartTime) / 1000F) + " sec.");
+		return solutions;
+	}
+
+	/**
+	 * Returns solutions of the problem sampled nearly uniformly at random from
+	 * the distinct sequences of tools, following the UniGen2 algorithm by
+	 * Chakraborty, Fremont, Meel, Seshia and Vardi. If the problem has at most
+	 * {@link #SAMPLE_CELL_MAX} sequences of tools, they are sampled uniformly.
+	 * Otherwise, random parity constraints over the bits of the tool indices
+	 * (see {@link #addToolIndexBits(CubeSolver)}) select a random cell of the
+	 * search space, and if the cell contains between {@link #SAMPLE_CELL_MIN} and
+	 * {@link #SAMPLE_CELL_MAX} sequences, up to {@link #SAMPLE_CELL_MIN} distinct
+	 * ones are chosen uniformly. The number of solver calls per sample is bounded,
+	 * regardless of the number of the solutions.<br>
+	 * <br>
+	 * The samples are drawn without replacement, the sequences of tools that were
+	 * already sampled from a previous cell are skipped. The samples are
+	 * determined by the {@link APEConfig#getRandom_seed()} and the length.
+	 * 
+	 * @param solutionsFound    - number of solutions found in the previous lengths
+	 * @param solutionsFoundMax - max number of solutions of the run
+	 * @return List of the sampled solutions. Possibly empty list.
+	 */
+	public List<SolutionWorkflow> runSampling(int solutionsFound, int solutionsFoundMax) {
+		List<SolutionWorkflow> solutions = new ArrayList<SolutionWorkflow>();
+		metrics.restart();
+		CubeSolver solver;
+		try {
+			solver = new CubeSolver(temp_sat_input, getToolVariables());
+		} catch (IOException | ParseFormatException e) {
+			System.err.println("Error while parsing the cnf encoding of the problem by the MiniSAT solver.");
+			return solutions;
+		}
+		metrics.lap("Solver input parsing");
+		long solvingStartTime = System.currentTimeMillis();
+		List<int[]> models = new ArrayList<int[]>();
+		Random random = new Random(31 * config.getRandom_seed() + getSolutionSize());
+		CubeStatus status = sample(solver, Math.min(config.getSample_size(), solutionsFoundMax - solutionsFound),
+				random, models);
+		metrics.addSolvingTime(System.currentTimeMillis() - solvingStartTime);
+		for (int[] model : models) {
+			long decodingStartTime = System.currentTimeMillis();
+			SolutionWorkflow sat_solution = new SolutionWorkflow(model, this);
+			metrics.addSolution(0, System.currentTimeMillis() - decodingStartTime);
+			sat_solution.setIndex(solutionsFound);
+			solutions.add(sat_solution);
+			events.solutionFound(sat_solution);
+			solutionsFound++;
+		}
+		if (status == CubeStatus.STOPPED) {
+			System.err.println("Sampling was stopped before the requested number of solutions was sampled.");
+			allSolutions.setPartial(true);
+			events.lengthTimedOut(getSolutionSize(), solutions.size());
+		} else if (status == CubeStatus.EXHAUSTED && solutions.isEmpty()) {
+			events.lengthUnsatisfiable(getSolutionSize(), 0);
+		}
+		System.out.println("Sampled " + solutions.size() + " solutions. Solving time: "
+				+ ((System.currentTimeMillis() - solvingStartTime) / 1000F) + " sec.");
+		return solutions;
+	}
+
+	/**
+	 * Sample the models of the solutions.
+	 * 
+	 * @param samples - number of the samples
+	 * @param models  - list the sampled models are added to
+	 * @return {@link CubeStatus#EXHAUSTED} if all the solutions were enumerated,
+	 *         {@link CubeStatus#STOPPED} if the sampling was stopped and
+	 *         {@link CubeStatus#LIMIT_REACHED} otherwise.
+	 */
+	private CubeStatus sample(CubeSolver solver, int samples, Random random, List<int[]> models) {
+		BooleanSupplier stopped = control::isStopped;
+		CubeResult all = solver.enumerateCell(new int[0], SAMPLE_CELL_MAX + 1, lengthDeadline, stopped);
+		if (all.getStatus() != CubeStatus.LIMIT_REACHED) {
+			List<int[]> allModels = new ArrayList<int[]>(all.getModels());
+			Collections.shuffle(allModels, random);
+			models.addAll(allModels.subList(0, Math.min(samples, allModels.size())));
+			return all.getStatus();
+		}
+		/* Sequences of tools that were sampled, given by their true tool variables. */
+		Set<Integer> toolVariables = IntStream.of(getToolVariables()).boxed().collect(Collectors.toSet());
+		Set<List<Integer>> sampled = new HashSet<List<Integer>>();
+		int[] bits = addToolIndexBits(solver);
+		/* Number of the parity constraints that resulted in a suitable cell the last time. */
+		int constraints = 1;
+		for (int attempt = 0; models.size() < samples && attempt < samples * SAMPLE_ATTEMPTS; attempt++) {
+			List<Integer> parities = new ArrayList<Integer>();
+			int current = constraints;
+			boolean increased = false;
+			while (current >= 1 && current <= bits.length) {
+				while (parities.size() < current) {
+					int[] variables = IntStream.of(bits).filter(variable -> random.nextBoolean()).toArray();
+					parities.add(solver.addParity(variables, random.nextBoolean()));
+				}
+				int[] cell = parities.subList(0, current).stream().mapToInt(Integer::intValue).toArray();
+				CubeResult result = solver.enumerateCell(cell, SAMPLE_CELL_MAX + 1, lengthDeadline, stopped);
+				if (result.getStatus() == CubeStatus.STOPPED) {
+					return CubeStatus.STOPPED;
+				}
+				int size = result.getModels().size();
+				if (size > SAMPLE_CELL_MAX) {
+					current++;
+					increased = true;
+				} else if (size < SAMPLE_CELL_MIN && !increased && current > 1) {
+					current--;
+				} else {
+					if (size >= SAMPLE_CELL_MIN) {
+						List<int[]> cellModels = new ArrayList<int[]>(result.getModels());
+						Collections.shuffle(cellModels, random);
+						int cellSamples = 0;
+						for (int[] model : cellModels) {
+							if (cellSamples == SAMPLE_CELL_MIN || models.size() == samples) {
+								break;
+							}
+							List<Integer> tools = IntStream.of(model)
+									.filter(literal -> literal > 0 && toolVariables.contains(literal)).boxed()
+									.collect(Collectors.toList());
+							if (sampled.add(tools)) {
+								models.add(model);
+								cellSamples++;
+							}
+						}
+					}
+					break;
+				}
+			}
+			constraints = Math.max(1, Math.min(current, bits.length));
+		}
+		return CubeStatus.LIMIT_REACHED;
+	}
+
+	/**
+	 * Split the search space into cubes, by fixing the tools used in the first
+	 * steps of the workflow. Exactly one tool is used in each step, so the cubes
+	 * are disjoint and cover the search space.
+	 * 
+	 * @param depth - number of the first steps whose tools are fixed
+	 * @return Cubes, given by the literals of the tools.
+	 */
+	private List<int[]> generateCubes(int depth) {
+		List<int[]> cubes = new ArrayList<int[]>();
+		cubes.add(new int[0]);
+		for (int i = 0; i < Math.min(depth, getSolutionSize()); i++) {
+			List<int[]> extended = new ArrayList<int[]>();
+			for (int[] cube : cubes) {
+				for (int tool : getToolVariables(i)) {
+					int[] extendedCube = Arrays.copyOf(cube, cube.length + 1);
+					extendedCube[cube.length] = tool;
+					extended.add(extendedCube);
+				}
+			}
+			cubes = extended;
+		}
+		return cubes;
+	}
+
+	/**
+	 * Return the variables that represent the usage of the tools in the given
+	 * step of the workflow. Exactly one of them is true in each solution.
+	 * 
+	 * @param step - index of the step (starting from 0)
+	 * @return The variables of the tools, in increasing order.
+	 */
+	int[] getToolVariables(int step) {
+		List<Integer> tools = new ArrayList<Integer>();
+		for (TaxonomyPredicate module : domainSetup.getAllModules().getModules()) {
+			Integer literal;
+			if (module instanceof Module && (literal = mappings
+					.findMapping(new Atom(module, moduleAutomaton.get(step), WorkflowElement.MODULE))) != null) {
+				tools.add(literal);
+			}
+		}
+		return tools.stream().mapToInt(Integer::intValue).sorted().toArray();
+	}
+
+	/**
+	 * @return The variables that represent the usage of the tools in all the
+	 *         steps of the workflow.
+	 */
+	int[] getToolVariables() {
+		return IntStream.range(0, getSolutionSize()).flatMap(step -> IntStream.of(getToolVariables(step))).toArray();
+	}
+
+	/**
+	 * Define the variables that represent the bits of the indices of the tools
+	 * used in the steps of the workflow. Each bit is the disjunction of the tools
+	 * whose index has the bit set, so a sequence of tools is given by the values
+	 * of the bits. The parity constraints over the bits (see
+	 * {@link CubeSolver#addParity(int[], boolean)}) are much shorter than the
+	 * ones over the tool variables.
+	 * 
+	 * @param solver - solver of the problem
+	 * @return The variables of the bits.
+	 */
+	int[] addToolIndexBits(CubeSolver solver) {
+		List<Integer> bits = new ArrayList<Integer>();
+		for (int step = 0; step < getSolutionSize(); step++) {
+			int[] tools = getToolVariables(step);
+			for (int bit = 0; (1 << bit) < tools.length; bit++) {
+				final int mask = 1 << bit;
+				int[] toolsWithBit = IntStream.range(0, tools.length).filter(index -> (index & mask) != 0)
+						.map(index -> tools[index]).toArray();
+				bits.add(solver.addDisjunction(toolsWithBit));
+			}
+		}
+		return bits.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Return the variables that distinguish the solutions, i.e. the variables
+	 * whose positive literals are negated by
+	 * {@link SAT_solution#getNegatedMappedSolutionArray()}: the tools, the simple
+	 * types used as inputs and the references to the memory states.
+	 * 
+	 * @return The projected variables.
+	 */
+	private int[] getProjectedVariables() {
+		List<Integer> projection = new ArrayList<Integer>();
+		for (int variable = mappings.getMaxNumOfMappedAuxVar() + 1; variable <= mappings.getSize(); variable++) {
+			Atom atom = mappings.findOriginal(variable);
+			if (atom == null || atom.getWorkflowElementType() == WorkflowElement.MEMORY_TYPE) {
+				continue;
+			}
+			if (atom.getPredicate() instanceof Module) {
+				projection.add(variable);
+			} else if (atom.getWorkflowElementType() != WorkflowElement.MODULE
+					&& atom.getWorkflowElementType() != WorkflowElement.MEM_TYPE_REFERENCE
+					&& atom.getPredicate() instanceof Type && ((Type) atom.getPredicate()).isSimplePredicate()) {
+				projection.add(variable);
+			} else if (atom.getPredicate() instanceof State
+					&& ((State) atom.getPredicate()).getAbsoluteStateNumber() != -1) {
+				projection.add(variable);
+			}
+		}
+		return projection.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * @param literals - positive literals of a solution
+	 * @return Model of the solution over the mapped (non auxiliary) variables.
+	 */
+	private int[] toModel(int[] literals) {
+		int first = mappings.getMaxNumOfMappedAuxVar() + 1;
+		int[] model = new int[mappings.getSize() - first + 1];
+		for (int i = 0; i < model.length; i++) {
+			model[i] = -(first + i);
+		}
+		for (int literal : literals) {
+			if (literal >= first && literal <= mappings.getSize()) {
+				model[literal - first] = literal;
+			}
+		}
+		return model;
+	}
+
+	/**
+	 * Replace the phase selection strategy of the solver with the one that avoids
+	 * the tools of the found solutions.
+	 * 
+	 * @param solver - solver that solves the problem
+	 * @return The new strategy, or {@code null} if the solver does not support it.
+	 */
+	private DiversePhaseSelection diversify(ISolver solver) {
+		if (!(solver instanceof Solver)) {
+			System.err.println("Diverse solutions are not supported by the solver.");
+			return null;
+		}
+		Map<String, List<Integer>> toolVariables = new HashMap<String, List<Integer>>();
+		for (int step = 0; step < getSolutionSize(); step++) {
+			for (int variable : getToolVariables(step)) {
+				String tool = mappings.findOriginal(variable).getPredicate().getPredicateID();
+				toolVariables.computeIfAbsent(tool, key -> new ArrayList<Integer>()).add(variable);
+			}
+		}
+		IOrder order = ((Solver) solver).getOrder();
+		DiversePhaseSelection diversity = new DiversePhaseSelection(order.getPhaseSelectionStrategy(), toolVariables);
+		order.setPhaseSelectionStrategy(diversity);
+		return diversity;
+	}
+
+	/**
+	 * Find the next solution of the problem.
+	 * 
+	 * @return Model of the solution, or {@code null} if the problem is
+	 *         unsatisfiable.
+	 */
+	private int[] nextModel(IProblem problem, ISolver solver, int timeout) throws TimeoutException {
+		return isSatisfiable(problem, solver, timeout, new VecInt()) ? problem.model() : null;
+	}
+
+	/**
+	 * Find the next cheapest solution of the problem, given that all the solutions
+	 * cheaper than the last one were already found (and excluded). When a solution
+	 * of the same cost exists, a single solver call finds it. Otherwise, a solution
+	 * is found without a bound, and the cheapest one is found by a binary search
+	 * over the possible costs between the last cost and the cost of the found
+	 * solution (see {@link CostObjective#costsBetween(int, int)}), i.e. with a
+	 * number of solver calls logarithmic in the number of the possible costs.
+	 * 
+	 * @param lastCost - cost of the last solution, 0 if none was found
+	 * @return Model of the cheapest remaining solution, or {@code null} if the
+	 *         problem is unsatisfiable.
+	 */
+	private int[] nextOptimalModel(IProblem problem, ISolver solver, int timeout, int lastCost)
+			throws TimeoutException {
+		if (isSatisfiable(problem, solver, timeout, objective.atMost(lastCost))) {
+			return problem.model();
+		}
+		if (!isSatisfiable(problem, solver, timeout, new VecInt())) {
+			return null;
+		}
+		int[] best = problem.model();
+		List<Integer> costs = objective.costsBetween(lastCost, objective.cost(best));
+		/* The solutions cheaper than costs[low] were excluded, the best one costs at most costs[high + 1]. */
+		int low = 0;
+		int high = costs.size() - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (isSatisfiable(problem, solver, timeout, objective.atMost(costs.get(middle)))) {
+				best = problem.model();
+				int bestCost = objective.cost(best);
+				high = middle - 1;
+				while (high >= low && costs.get(high) >= bestCost) {
+					high--;
+				}
+			} else {
+				low = middle + 1;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Check whether the problem is satisfiable. The solver is run in slices of at
+	 * most {@link #SOLVER_SLICE_MS} milliseconds, so that the cancellation of the
+	 * run and the time budget of the current length are checked regularly. The
+	 * clauses learned in a slice are kept by the solver for the next one.
+	 * 
+	 * @param problem - the problem that is solved
+	 * @param solver  - solver that solves the problem
+	 * @param timeout - maximal duration of the solver call in seconds
+	 * @param assumptions - literals assumed to be true during the call
+	 * @return {@code true} if the problem is satisfiable, {@code false} otherwise.
+	 * @throws TimeoutException if the run was stopped, the time budget of the
+	 *                          length expired or the solver call took longer than
+	 *                          the timeout
+	 */
+	private boolean isSatisfiable(IProblem problem, ISolver solver, int timeout, IVecInt assumptions)
+			throws TimeoutException {
+		long callDeadline = Math.min(lengthDeadline, System.currentTimeMillis() + timeout * 1000L);
+		while (true) {
+			long remaining = callDeadline - System.currentTimeMillis();
+			if (control.isStopped() || remaining <= 0) {
+				throw new TimeoutException();
+			}
+			solver.setTimeoutMs(Math.min(SOLVER_SLICE_MS, remaining));
+			try {
+				return problem.isSatisfiable(assumptions);
+			} catch (TimeoutException e) {
+				/* The slice expired, continue solving if the budget allows it. */
+			}
+		}
+	}
+
+	/**
+	 * @return {@code true} if the problem is solved by the worker processes or
+	 *         threads, i.e. a coordinator or an enumerator is set and the
+	 *         solutions are neither ordered by cost nor diverse.
+	 */
+	private boolean isCubeAndConquer() {
+		return (cubeCoordinator != null || partitionedEnumerator != null) && !config.getCost_optimization()
+				&& !config.getDiverse_solutions();
+	}
+
+	/**
+	 * Set the coordinator of the worker processes that solve the cubes of the
+	 * search space. The coordinator is not used when the solutions are ordered by
+	 * cost.
+	 * 
+	 * @param cubeCoordinator - coordinator of the worker processes, or
+	 *                        {@code null} if the problem should be solved by a
+	 *                        single solver
+	 */
+	public void setCubeCoordinator(CubeCoordinator cubeCoordinator) {
+		this.cubeCoordinator = cubeCoordinator;
+	}
+
+	/**
+	 * Set the threads that enumerate the partitions of the search space, used
+	 * when no coordinator of worker processes is set. The threads are not used
+	 * when the solutions are ordered by cost.
+	 * 
+	 * @param partitionedEnumerator - threads that enumerate the partitions, or
+	 *                              {@code null} if the problem should be solved
+	 *                              by a single solver
+	 */
+	public void setPartitionedEnumerator(PartitionedEnumerator partitionedEnumerator) {
+		this.partitionedEnumerator = partitionedEnumerator;
+	}
+
 	public APEConfig getConfig() {
 		return config;
 	}
+
+	/**
+	 * @return Metrics of the synthesis instance (encoding, solving and decoding).
+	 */
+	public LengthMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Set the dispatcher that is informed about the progress of the synthesis
+	 * (encoding finished, solutions found, etc.).
+	 * 
+	 * @param events - dispatcher of the synthesis events
+	 */
+	public void setEventDispatcher(SynthesisEventDispatcher events) {
+		this.events = events;
+	}
+
+	/**
+	 * @return Time budget and cancellation handle of the synthesis run.
+	 */
+	public RunControl getRunControl() {
+		return control;
+	}
+
+	/**
+	 * Set the time budget and cancellation handle of the synthesis run. The
+	 * remaining budget of the run is split equally over the lengths that are still
+	 * to be explored.
+	 * 
+	 * @param control - control of the synthesis run
+	 */
+	public void setRunControl(RunControl control) {
+		this.control = control;
+	}
 	
 	public APEDomainSetup getDomainSetup() {
 		return domainSetup;
@@ -22,6 +22,11 @@ public class SATsolutionsList {
 	/** Mapping of predicates into integers (for SAT encoding). */
 	private AtomMappings mappings;
 	private int solutionIndex = 0;
+	/**
+	 * {@code true} if the synthesis run was stopped (cancelled or timed out)
+	 * before the search space was explored.
+	 */
+	private boolean partial = false;
 
 	/**
 	 * Create an object that will contain all the solutions of the synthesis.
@@ -40,6 +45,17 @@ public class SATsolutionsList {
 		}
 	}
 
+	/**
+	 * Create an object that contains the given maximum number of solutions,
+	 * used by the lists that are not filled by the synthesis.
+	 * @param maxSolutions - max number of solutions
+	 */
+	protected SATsolutionsList(int maxSolutions) {
+		this.solutions = new ArrayList<SolutionWorkflow>();
+		this.mappings = new AtomMappings();
+		this.maxSolutions = maxSolutions;
+	}
+
 	/** 
 	 * Get the number of solutions that are currently found.
 	 * @return Number of solutions in the solutions set.
@@ -56,6 +72,27 @@ public class SATsolutionsList {
 		return maxSolutions;
 	}
 
+	/**
+	 * Returns true if the synthesis run was stopped (cancelled or timed out)
+	 * before all the requested lengths were explored, i.e. if the list contains
+	 * only the solutions found until that moment.
+	 * 
+	 * @return {@code true} if the list of solutions is partial
+	 */
+	public boolean isPartial() {
+		return partial;
+	}
+
+	/**
+	 * Set whether the synthesis run was stopped before all the requested lengths
+	 * were explored.
+	 * 
+	 * @param partial - {@code true} if the list of solutions is partial
+	 */
+	public void setPartial(boolean partial) {
+		this.partial = partial;
+	}
+
 	/**
 	 * Get object that contains mappings of all the atoms.
 	 * @return {@link AtomMappings} object.
@@ -0,0 +1,90 @@
+package nl.uu.cs.ape.sat.core.implSAT;
+
+import java.math.BigInteger;
+
+/**
+ * The {@code SolutionsCount} class represents the number of solutions of a
+ * workflow length, i.e. the number of distinct sequences of tools that satisfy
+ * the specification, as computed by the {@link SAT_CountingEngine}.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class SolutionsCount {
+
+	/** Length of the workflows. */
+	private final int length;
+	/** Number of the solutions. */
+	private BigInteger count;
+	/** {@code true} if the {@link #count} is exact, {@code false} if it is an approximation. */
+	private boolean exact;
+	/**
+	 * {@code true} if the counting was stopped (cancelled or timed out) before it
+	 * finished, in which case the {@link #count} is a lower bound (if exact) or a
+	 * less reliable approximation.
+	 */
+	private boolean partial;
+
+	/**
+	 * Create an exact count of no solutions.
+	 *
+	 * @param length - length of the workflows
+	 */
+	public SolutionsCount(int length) {
+		this.length = length;
+		this.count = BigInteger.ZERO;
+		this.exact = true;
+		this.partial = false;
+	}
+
+	/**
+	 * @return the {@link #length}
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return the {@link #count}
+	 */
+	public BigInteger getCount() {
+		return count;
+	}
+
+	/**
+	 * @param count - number of the solutions
+	 * @param exact - {@code true} if the count is exact, {@code false} if it is an
+	 *              approximation
+	 */
+	public void setCount(BigInteger count, boolean exact) {
+		this.count = count;
+		this.exact = exact;
+	}
+
+	/**
+	 * @return the {@link #exact}
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+	/**
+	 * @return the {@link #partial}
+	 */
+	public boolean isPartial() {
+		return partial;
+	}
+
+	/**
+	 * @param partial - {@code true} if the counting was stopped before it finished
+	 */
+	public void setPartial(boolean partial) {
+		this.partial = partial;
+	}
+
+	@Override
+	public String toString() {
+		return "Length " + length + ": " + (exact ? (partial ? "at least " : "") : "approximately ") + count
+				+ " solutions";
+	}
+}
@@ -28,8 +28,10 @@ import nl.uu.cs.ape.sat.core.implSAT.SAT_solution;
 import nl.uu.cs.ape.sat.models.AbstractModule;
 import nl.uu.cs.ape.sat.models.Module;
 import nl.uu.cs.ape.sat.models.Type;
+import nl.uu.cs.ape.sat.models.enums.GraphType;
 import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
 import nl.uu.cs.ape.sat.models.logic.constructs.Literal;
+import nl.uu.cs.ape.sat.rendering.DotWriter;
 import nl.uu.cs.ape.sat.utils.APEUtils;
 
 /**
@@ -62,6 +64,8 @@ public class SolutionWorkflow {
 	private SolutionGraph controlflowGraph;
 	/** Index of the solution. */
 	private int index;
+	/** Cost of the solution, or -1 if the cost was not calculated. */
+	private int cost = -1;
 	/** 
 	private Renderer renderedGraph;
 	
@@ -325,50 +329,11 @@ public class SolutionWorkflow {
 	}
 	
 	/**
-	 * Get a graph that represent the solution in .dot format (see http://www.graphviz.org/).
-	 * @param title - title of the graph
+	 * Get a graph that represent the data-flow solution in .dot format (see http://www.graphviz.org/).
 	 * @return String that represents the solution workflow in .dot graph format.
 	 */
 	public String getSolutionDotFormat() {
-		StringBuilder solution = new StringBuilder();
-		
-		String input = "\"Workflow INPUT\"";
-		String output = "\"Workflow OUTPUT\"";
-		boolean inputDefined = false, outputDefined = false;
-		
-		for(TypeNode workflowInput : this.workflowInputTypeStates) {
-			if(!inputDefined) {
-				System.out.println(input + " [shape=box, color = red];\n");
-				inputDefined = true;
-			}
-			solution = solution.append(input+ "->" + workflowInput.getDotID() + ";\n");
-			solution = solution.append(workflowInput.getDotDefinition());
-		}
-		
-		for(ModuleNode currTool : this.moduleNodes) {
-			solution = solution.append(currTool.getDotDefinition());
-			for(TypeNode toolInput : currTool.getInputTypes()) {
-				if(!toolInput.isEmpty()) {
-					solution = solution.append(toolInput.getDotID() + "->" + currTool.getDotID() + "[label = in, fontsize = 10];\n");
-				}
-			}
-			for(TypeNode toolOutput : currTool.getOutputTypes()) {
-				if(!toolOutput.isEmpty()) {
-					solution = solution.append(toolOutput.getDotDefinition());
-					solution = solution.append(currTool.getDotID() + "->" + toolOutput.getDotID() + " [label = out, fontsize = 10];\n");
-				}
-			}
-		}
-		for(TypeNode workflowOutput : this.workflowOutputTypeStates) {
-			if(!outputDefined) {
-				solution = solution.append(output + " [shape=box, color = red];\n");
-				outputDefined = true;
-			}
-			solution = solution.append(workflowOutput.getDotDefinition());
-			solution = solution.append(workflowOutput.getDotID() + "->" + output + ";\n");
-		}
-		
-		return solution.toString();
+		return DotWriter.toDot(this, GraphType.DATA_FLOW, "SolutionNo_" + index, RankDir.TOP_TO_BOTTOM);
 	}
 	
 	/**
@@ -468,4 +433,20 @@ public class SolutionWorkflow {
 		return this.index;
 		
 	}
+
+	/**
+	 * Sets the cost of the solution, i.e. the sum of the costs of its tools and the
+	 * weights of the violated soft constraints.
+	 * @param cost
+	 */
+	public void setCost(int cost) {
+		this.cost = cost;
+	}
+
+	/**
+	 * Returns the cost of the solution, or -1 if the solutions were not ordered by cost.
+	 */
+	public int getCost() {
+		return this.cost;
+	}
 }
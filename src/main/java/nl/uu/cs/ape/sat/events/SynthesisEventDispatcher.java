@@ -0,0 +1,178 @@
+package nl.uu.cs.ape.sat.events;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.utils.APEDomainSetup;
+
+/**
+ * The {@code SynthesisEventDispatcher} class delivers the synthesis events to
+ * the registered {@link SynthesisListener}s. The events are queued and
+ * delivered by a single background (daemon) thread, so that the synthesis
+ * (e.g. the solver loop) is not slowed down by the listeners. Events are
+ * delivered in the order in which they were fired. In case that no listener is
+ * registered the events are dropped without being queued.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class SynthesisEventDispatcher {
+
+	/** Registered listeners. */
+	private final List<SynthesisListener> listeners;
+	/** Executor that delivers the events, created on the first event. */
+	private ExecutorService executor;
+
+	/**
+	 * Create a dispatcher without listeners.
+	 */
+	public SynthesisEventDispatcher() {
+		this.listeners = new CopyOnWriteArrayList<SynthesisListener>();
+	}
+
+	/**
+	 * Register a listener.
+	 * 
+	 * @param listener - listener that should receive the events
+	 */
+	public void addListener(SynthesisListener listener) {
+		if (listener != null) {
+			listeners.add(listener);
+		}
+	}
+
+	/**
+	 * Remove a registered listener.
+	 * 
+	 * @param listener - listener that should not receive the events anymore
+	 * @return {@code true} if the listener was registered, {@code false}
+	 *         otherwise.
+	 */
+	public boolean removeListener(SynthesisListener listener) {
+		return listeners.remove(listener);
+	}
+
+	/**
+	 * @return {@code true} if there is at least one registered listener.
+	 */
+	public boolean hasListeners() {
+		return !listeners.isEmpty();
+	}
+
+	/** Fire the {@link SynthesisListener#domainLoaded(APEDomainSetup)} event. */
+	public void domainLoaded(APEDomainSetup domainSetup) {
+		dispatch(listener -> listener.domainLoaded(domainSetup));
+	}
+
+	/**
+	 * Fire the {@link SynthesisListener#domainLoaded(APEDomainSetup)} event only
+	 * for the given listener. Used to inform a listener that was registered after
+	 * the domain had been loaded.
+	 * 
+	 * @param listener    - listener that receives the event
+	 * @param domainSetup - the loaded domain
+	 */
+	public void domainLoaded(SynthesisListener listener, APEDomainSetup domainSetup) {
+		getExecutor().execute(() -> deliver(listener, l -> l.domainLoaded(domainSetup)));
+	}
+
+	/** Fire the {@link SynthesisListener#lengthStarted(int)} event. */
+	public void lengthStarted(int length) {
+		dispatch(listener -> listener.lengthStarted(length));
+	}
+
+	/** Fire the {@link SynthesisListener#encodingFinished(int, int, int)} event. */
+	public void encodingFinished(int length, int variables, int clauses) {
+		dispatch(listener -> listener.encodingFinished(length, variables, clauses));
+	}
+
+	/** Fire the {@link SynthesisListener#solutionFound(SolutionWorkflow)} event. */
+	public void solutionFound(SolutionWorkflow solution) {
+		dispatch(listener -> listener.solutionFound(solution));
+	}
+
+	/** Fire the {@link SynthesisListener#lengthUnsatisfiable(int, int)} event. */
+	public void lengthUnsatisfiable(int length, int solutions) {
+		dispatch(listener -> listener.lengthUnsatisfiable(length, solutions));
+	}
+
+	/** Fire the {@link SynthesisListener#lengthTimedOut(int, int)} event. */
+	public void lengthTimedOut(int length, int solutions) {
+		dispatch(listener -> listener.lengthTimedOut(length, solutions));
+	}
+
+	/** Fire the {@link SynthesisListener#runFinished(SATsolutionsList)} event. */
+	public void runFinished(SATsolutionsList solutions) {
+		dispatch(listener -> listener.runFinished(solutions));
+	}
+
+	/**
+	 * Block until all the events fired so far were delivered to the listeners.
+	 * 
+	 * @return {@code true} if the events were delivered, {@code false} if the
+	 *         waiting was interrupted.
+	 */
+	public boolean flush() {
+		Future<?> marker;
+		synchronized (this) {
+			if (executor == null) {
+				return true;
+			}
+			marker = executor.submit(() -> {
+			});
+		}
+		try {
+			marker.get();
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Queue the event for delivery to each registered listener. Exceptions thrown
+	 * by a listener are reported and do not affect the other listeners.
+	 * 
+	 * @param event - callback that is invoked on each listener
+	 */
+	private void dispatch(Consumer<SynthesisListener> event) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+		getExecutor().execute(() -> {
+			for (SynthesisListener listener : listeners) {
+				deliver(listener, event);
+			}
+		});
+	}
+
+	/** Invoke the callback on the listener, reporting the exceptions it throws. */
+	private static void deliver(SynthesisListener listener, Consumer<SynthesisListener> event) {
+		try {
+			event.accept(listener);
+		} catch (RuntimeException e) {
+			System.err.println("Synthesis listener failed: " + e.getMessage());
+		}
+	}
+
+	/** @return Executor that delivers the events, created if needed. */
+	private synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "APE-event-dispatcher");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+}
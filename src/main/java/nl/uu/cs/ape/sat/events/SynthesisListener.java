@@ -0,0 +1,85 @@
+package nl.uu.cs.ape.sat.events;
+
+import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.utils.APEDomainSetup;
+
+/**
+ * The {@code SynthesisListener} interface is used to observe the progress of
+ * the synthesis. Listeners are registered on the {@link nl.uu.cs.ape.sat.APE}
+ * instance and all the callbacks are delivered asynchronously, by a single
+ * dispatcher thread, in the order in which the events occurred. All the
+ * methods have an empty default implementation, so a listener only needs to
+ * implement the callbacks it is interested in.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public interface SynthesisListener {
+
+	/**
+	 * Called when the domain (ontology, tool annotations and constraint
+	 * templates) was loaded.
+	 * 
+	 * @param domainSetup - the loaded domain
+	 */
+	default void domainLoaded(APEDomainSetup domainSetup) {
+	}
+
+	/**
+	 * Called when the synthesis of workflows of the given length started.
+	 * 
+	 * @param length - length of the workflows
+	 */
+	default void lengthStarted(int length) {
+	}
+
+	/**
+	 * Called when the encoding of the synthesis problem for the given length was
+	 * finished.
+	 * 
+	 * @param length    - length of the workflows
+	 * @param variables - number of variables in the CNF encoding
+	 * @param clauses   - number of clauses in the CNF encoding
+	 */
+	default void encodingFinished(int length, int variables, int clauses) {
+	}
+
+	/**
+	 * Called for each solution found. The solution should not be modified by the
+	 * listener.
+	 * 
+	 * @param solution - the new solution
+	 */
+	default void solutionFound(SolutionWorkflow solution) {
+	}
+
+	/**
+	 * Called when there are no (further) solutions of the given length.
+	 * 
+	 * @param length    - length of the workflows
+	 * @param solutions - number of solutions of the given length
+	 */
+	default void lengthUnsatisfiable(int length, int solutions) {
+	}
+
+	/**
+	 * Called when the solver timed out while solving the problem of the given
+	 * length.
+	 * 
+	 * @param length    - length of the workflows
+	 * @param solutions - number of solutions of the given length found before the
+	 *                  timeout
+	 */
+	default void lengthTimedOut(int length, int solutions) {
+	}
+
+	/**
+	 * Called when the synthesis run finished.
+	 * 
+	 * @param solutions - all the solutions of the run, {@code null} if the run
+	 *                  failed
+	 */
+	default void runFinished(SATsolutionsList solutions) {
+	}
+}
@@ -0,0 +1,107 @@
+package nl.uu.cs.ape.sat.execution;
+
+import java.io.File;
+
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.sat.models.enums.ExecutionStatus;
+
+/**
+ * The {@code ExecutionResult} class describes the outcome of the execution of
+ * a single workflow solution.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class ExecutionResult {
+
+	/** Index of the executed solution. */
+	private final int index;
+	/** Working directory of the execution. */
+	private final File directory;
+	private final ExecutionStatus status;
+	/** Exit status of the workflow, or -1 if the workflow did not finish. */
+	private final int exitCode;
+	/** Wall time of the execution in milliseconds. */
+	private final long wallTime;
+	/** Description of the error, or {@code null} if none occurred. */
+	private final String error;
+
+	/**
+	 * Create the result of a workflow execution.
+	 *
+	 * @param index     - index of the executed solution
+	 * @param directory - working directory of the execution
+	 * @param status    - outcome of the execution
+	 * @param exitCode  - exit status, or -1 if the workflow did not finish
+	 * @param wallTime  - wall time of the execution in milliseconds
+	 * @param error     - description of the error, or {@code null}
+	 */
+	public ExecutionResult(int index, File directory, ExecutionStatus status, int exitCode, long wallTime,
+			String error) {
+		this.index = index;
+		this.directory = directory;
+		this.status = status;
+		this.exitCode = exitCode;
+		this.wallTime = wallTime;
+		this.error = error;
+	}
+
+	/**
+	 * @return the {@link #index}
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the {@link #directory}
+	 */
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return the {@link #status}
+	 */
+	public ExecutionStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return the {@link #exitCode}
+	 */
+	public int getExitCode() {
+		return exitCode;
+	}
+
+	/**
+	 * @return the {@link #wallTime}
+	 */
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	/**
+	 * @return the {@link #error}
+	 */
+	public String getError() {
+		return error;
+	}
+
+	/**
+	 * @return JSON representation of the result.
+	 */
+	public JSONObject toJSON() {
+		JSONObject json = new JSONObject();
+		json.put("index", index);
+		json.put("directory", directory.getPath());
+		json.put("status", status.toString());
+		json.put("exit_code", exitCode);
+		json.put("wall_time", wallTime);
+		if (error != null) {
+			json.put("error", error);
+		}
+		return json;
+	}
+}
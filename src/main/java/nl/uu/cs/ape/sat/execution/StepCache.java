@@ -0,0 +1,546 @@
+package nl.uu.cs.ape.sat.execution;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.apache.commons.io.FileUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The {@code StepCache} class is a local, content-addressed cache of the
+ * outputs of workflow steps, used to avoid re-running tools when many similar
+ * workflows are executed. An entry is identified by a key computed from the
+ * tool, its implementation code and the keys of the data the step uses (see
+ * {@link #key(String, String, List)}). As the keys of the inputs are derived
+ * from the keys of the steps that created them, workflows that share a prefix
+ * of steps share the cache entries of the prefix.
+ * <br>
+ * <br>
+ * An entry consists of the files the step created or modified in the working
+ * directory, together with its captured output and the variables it defined.
+ * The content of the files is stored once per distinct content in the
+ * {@value #OBJECTS_FOLDER} folder, so identical outputs of different entries
+ * are not duplicated. When the stored content exceeds the size limit, the least
+ * recently used entries are evicted. The cache assumes that the tools are
+ * deterministic and that a step only depends on the data created by the steps
+ * it depends on, or on the workflow input data. The workflow input data is
+ * identified by the content of the files given by
+ * {@link #setInputData(List)}; data read from any other location is not
+ * covered by the keys, so changes of such data are not detected.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class StepCache {
+
+	/** Folder that contains the descriptions of the entries. */
+	static final String ENTRIES_FOLDER = "entries";
+	/** Folder that contains the stored file contents, named by their hash. */
+	static final String OBJECTS_FOLDER = "objects";
+	/** Names of the step specific files in the entry description. */
+	private static final String STDOUT = "stdout";
+	private static final String STDERR = "stderr";
+	private static final String ENV = "env";
+
+	/** Root folder of the cache. */
+	private final File folder;
+	private final File entriesFolder;
+	private final File objectsFolder;
+	/** Max size (in bytes) of the stored content. */
+	private final long maxBytes;
+	/** Entries of the cache, in the order of their last use. */
+	private final LinkedHashMap<String, Entry> entries;
+	/** Size of each stored object. */
+	private final Map<String, Long> objectSizes;
+	/** Number of entries that refer to each stored object. */
+	private final Map<String, Integer> objectRefs;
+	/** Size of the stored objects in bytes. */
+	private long size;
+	private int hits;
+	private int misses;
+	private int stores;
+	private int evictions;
+	/** Digest of the content of the workflow input data. */
+	private String inputDigest;
+
+	/**
+	 * Open the cache in the given folder, created if it does not exist. The
+	 * entries of earlier executions are reused.
+	 *
+	 * @param folder   - root folder of the cache
+	 * @param maxBytes - max size (in bytes) of the stored content
+	 * @throws IOException error in reading the cache folder
+	 */
+	public StepCache(File folder, long maxBytes) throws IOException {
+		this.folder = folder;
+		this.entriesFolder = new File(folder, ENTRIES_FOLDER);
+		this.objectsFolder = new File(folder, OBJECTS_FOLDER);
+		this.maxBytes = maxBytes;
+		this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+		this.objectSizes = new HashMap<String, Long>();
+		this.objectRefs = new HashMap<String, Integer>();
+		this.size = 0;
+		this.inputDigest = "";
+		if ((!entriesFolder.isDirectory() && !entriesFolder.mkdirs())
+				|| (!objectsFolder.isDirectory() && !objectsFolder.mkdirs())) {
+			throw new IOException("Cache folder '" + folder.getPath() + "' could not be created.");
+		}
+		load();
+		evict();
+	}
+
+	/**
+	 * Compute the key of a step, i.e. the hash of the tool, its implementation
+	 * code and the hashes of its inputs (in the order of the inputs).
+	 *
+	 * @param toolID      - ID of the tool
+	 * @param code        - implementation code of the tool, or {@code null}
+	 * @param inputHashes - hashes that identify the input data of the step
+	 * @return Key of the step in the cache.
+	 */
+	public static String key(String toolID, String code, List<String> inputHashes) {
+		MessageDigest digest = newDigest();
+		update(digest, toolID);
+		update(digest, code == null ? "" : code);
+		for (String input : inputHashes) {
+			update(digest, input);
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Restore the entry to the working directory, if the cache contains it. The
+	 * files of the entry are copied to the directory, the step specific files
+	 * are copied to the given names.
+	 *
+	 * @param key       - key of the step
+	 * @param directory - working directory of the workflow
+	 * @param stdout    - name of the file that captures the standard output
+	 * @param stderr    - name of the file that captures the standard error
+	 * @param env       - name of the file that contains the defined variables
+	 * @return {@code true} if the entry was restored, {@code false} if the cache
+	 *         does not contain it.
+	 * @throws IOException error in copying the files
+	 */
+	public synchronized boolean restore(String key, File directory, String stdout, String stderr, String env)
+			throws IOException {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			misses++;
+			return false;
+		}
+		for (Map.Entry<String, String> file : entry.files.entrySet()) {
+			copyObject(file.getValue(), new File(directory, file.getKey()));
+		}
+		copyObject(entry.stepFiles.get(STDOUT), new File(directory, stdout));
+		copyObject(entry.stepFiles.get(STDERR), new File(directory, stderr));
+		copyObject(entry.stepFiles.get(ENV), new File(directory, env));
+		/* Persist the order of use for the following executions. */
+		new File(entriesFolder, key + ".json").setLastModified(System.currentTimeMillis());
+		hits++;
+		return true;
+	}
+
+	/**
+	 * Store the outputs of a successfully executed step. Entries that are larger
+	 * than the cache are not stored.
+	 *
+	 * @param key       - key of the step
+	 * @param directory - working directory of the workflow
+	 * @param files     - paths (relative to the directory) of the files created
+	 *                  or modified by the step
+	 * @param stdout    - name of the file that captures the standard output
+	 * @param stderr    - name of the file that captures the standard error
+	 * @param env       - name of the file that contains the defined variables
+	 * @return {@code true} if the entry was stored, {@code false} otherwise.
+	 * @throws IOException error in copying the files
+	 */
+	public synchronized boolean store(String key, File directory, List<String> files, String stdout, String stderr,
+			String env) throws IOException {
+		if (entries.containsKey(key)) {
+			return true;
+		}
+		Entry entry = new Entry();
+		long entrySize = 0;
+		Map<String, String> hashes = new HashMap<String, String>();
+		List<File> sources = new ArrayList<File>();
+		for (String path : files) {
+			sources.add(new File(directory, path));
+		}
+		sources.add(new File(directory, stdout));
+		sources.add(new File(directory, stderr));
+		sources.add(new File(directory, env));
+		for (File source : sources) {
+			if (!source.isFile()) {
+				/* E.g. the step did not define any variable. */
+				continue;
+			}
+			hashes.put(source.getPath(), hashFile(source));
+			entrySize += source.length();
+		}
+		if (entrySize > maxBytes) {
+			return false;
+		}
+		for (String path : files) {
+			String hash = hashes.get(new File(directory, path).getPath());
+			if (hash != null) {
+				entry.files.put(path, hash);
+			}
+		}
+		putStepFile(entry, STDOUT, hashes.get(new File(directory, stdout).getPath()));
+		putStepFile(entry, STDERR, hashes.get(new File(directory, stderr).getPath()));
+		putStepFile(entry, ENV, hashes.get(new File(directory, env).getPath()));
+		for (File source : sources) {
+			String hash = hashes.get(source.getPath());
+			if (hash != null) {
+				storeObject(hash, source);
+			}
+		}
+
+		JSONObject json = new JSONObject();
+		json.put("files", new JSONObject(entry.files));
+		json.put("step", new JSONObject(entry.stepFiles));
+		File manifest = new File(entriesFolder, key + ".json");
+		File tmp = new File(entriesFolder, key + ".tmp");
+		FileUtils.writeStringToFile(tmp, json.toString(), StandardCharsets.UTF_8);
+		Files.move(tmp.toPath(), manifest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		addEntry(key, entry);
+		stores++;
+		evict();
+		return true;
+	}
+
+	/**
+	 * Get the state (size and modification time) of the files in the directory
+	 * and its subdirectories.
+	 *
+	 * @param directory - the directory
+	 * @param include   - condition on the relative path of the included files
+	 * @return Map of relative paths to the state of the files.
+	 */
+	static Map<String, List<Long>> snapshot(File directory, Predicate<String> include) {
+		Map<String, List<Long>> states = new TreeMap<String, List<Long>>();
+		snapshot(directory, "", include, states);
+		return states;
+	}
+
+	/**
+	 * Get the files that were created or modified since the snapshot was taken.
+	 *
+	 * @param before    - snapshot of the directory
+	 * @param directory - the directory
+	 * @param include   - condition on the relative path of the included files
+	 * @return Relative paths of the created or modified files.
+	 */
+	static List<String> changedFiles(Map<String, List<Long>> before, File directory, Predicate<String> include) {
+		List<String> changed = new ArrayList<String>();
+		for (Map.Entry<String, List<Long>> file : snapshot(directory, include).entrySet()) {
+			if (!file.getValue().equals(before.get(file.getKey()))) {
+				changed.add(file.getKey());
+			}
+		}
+		return changed;
+	}
+
+	/**
+	 * Set the files and folders that contain the input data of the workflows. The
+	 * digest of their content is part of the keys of the steps that use the
+	 * workflow inputs (see {@link #getInputDigest()}).
+	 *
+	 * @param inputData - files and folders (traversed recursively) of the input
+	 *                  data
+	 * @throws IOException error in reading the input data
+	 */
+	public synchronized void setInputData(List<File> inputData) throws IOException {
+		if (inputData.isEmpty()) {
+			inputDigest = "";
+			return;
+		}
+		MessageDigest digest = newDigest();
+		for (File file : inputData) {
+			update(digest, file.getAbsolutePath());
+			if (file.isDirectory()) {
+				/* Sorted by the relative paths, independent of the listing order. */
+				Map<String, List<Long>> files = new TreeMap<String, List<Long>>();
+				snapshot(file, "", path -> true, files);
+				for (String path : files.keySet()) {
+					update(digest, path);
+					update(digest, hashFile(new File(file, path)));
+				}
+			} else {
+				update(digest, hashFile(file));
+			}
+		}
+		inputDigest = toHex(digest.digest());
+	}
+
+	/**
+	 * @return Digest of the content of the workflow input data, empty if no input
+	 *         data was set.
+	 */
+	public synchronized String getInputDigest() {
+		return inputDigest;
+	}
+
+	/**
+	 * @return the {@link #folder}
+	 */
+	public File getFolder() {
+		return folder;
+	}
+
+	/**
+	 * @return Number of entries in the cache.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return Size of the stored content in bytes.
+	 */
+	public synchronized long getSizeBytes() {
+		return size;
+	}
+
+	/**
+	 * @return Number of steps restored from the cache.
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return Number of steps that were not found in the cache.
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return JSON description of the cache and its use.
+	 */
+	public synchronized JSONObject toJSON() {
+		JSONObject json = new JSONObject();
+		json.put("folder", folder.getPath());
+		json.put("max_size", maxBytes);
+		json.put("size", size);
+		json.put("entries", entries.size());
+		json.put("hits", hits);
+		json.put("misses", misses);
+		json.put("stores", stores);
+		json.put("evictions", evictions);
+		json.put("input_digest", inputDigest);
+		return json;
+	}
+
+	/**
+	 * Load the entries stored by earlier executions, in the order of their last
+	 * use. Entries that refer to missing content are discarded, as well as the
+	 * content that is not referred to by any entry.
+	 */
+	private void load() throws IOException {
+		File[] manifests = entriesFolder.listFiles();
+		if (manifests == null) {
+			throw new IOException("Cache folder '" + entriesFolder.getPath() + "' could not be read.");
+		}
+		Arrays.sort(manifests, Comparator.comparingLong(File::lastModified));
+		for (File manifest : manifests) {
+			String name = manifest.getName();
+			if (!name.endsWith(".json")) {
+				FileUtils.deleteQuietly(manifest);
+				continue;
+			}
+			Entry entry = new Entry();
+			try {
+				JSONObject json = new JSONObject(FileUtils.readFileToString(manifest, StandardCharsets.UTF_8));
+				JSONObject files = json.getJSONObject("files");
+				for (String path : files.keySet()) {
+					entry.files.put(path, files.getString(path));
+				}
+				JSONObject stepFiles = json.getJSONObject("step");
+				for (String role : stepFiles.keySet()) {
+					entry.stepFiles.put(role, stepFiles.getString(role));
+				}
+			} catch (JSONException e) {
+				FileUtils.deleteQuietly(manifest);
+				continue;
+			}
+			boolean complete = true;
+			for (String hash : entry.hashes()) {
+				complete &= new File(objectsFolder, hash).isFile();
+			}
+			if (!complete) {
+				FileUtils.deleteQuietly(manifest);
+				continue;
+			}
+			addEntry(name.substring(0, name.length() - ".json".length()), entry);
+		}
+		File[] objects = objectsFolder.listFiles();
+		for (File object : objects == null ? new File[0] : objects) {
+			if (!objectRefs.containsKey(object.getName())) {
+				FileUtils.deleteQuietly(object);
+			}
+		}
+	}
+
+	private void addEntry(String key, Entry entry) {
+		entries.put(key, entry);
+		for (String hash : entry.hashes()) {
+			Integer refs = objectRefs.get(hash);
+			if (refs == null) {
+				long objectSize = new File(objectsFolder, hash).length();
+				objectSizes.put(hash, objectSize);
+				size += objectSize;
+				refs = 0;
+			}
+			objectRefs.put(hash, refs + 1);
+		}
+	}
+
+	/**
+	 * Evict the least recently used entries until the stored content fits the
+	 * size limit.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+		while (size > maxBytes && iterator.hasNext()) {
+			Map.Entry<String, Entry> eldest = iterator.next();
+			iterator.remove();
+			FileUtils.deleteQuietly(new File(entriesFolder, eldest.getKey() + ".json"));
+			for (String hash : eldest.getValue().hashes()) {
+				int refs = objectRefs.get(hash) - 1;
+				if (refs == 0) {
+					objectRefs.remove(hash);
+					size -= objectSizes.remove(hash);
+					FileUtils.deleteQuietly(new File(objectsFolder, hash));
+				} else {
+					objectRefs.put(hash, refs);
+				}
+			}
+			evictions++;
+		}
+	}
+
+	private void storeObject(String hash, File source) throws IOException {
+		File object = new File(objectsFolder, hash);
+		if (object.isFile()) {
+			return;
+		}
+		File tmp = new File(objectsFolder, hash + ".tmp");
+		Files.copy(source.toPath(), tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Files.move(tmp.toPath(), object.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private void copyObject(String hash, File target) throws IOException {
+		if (hash == null) {
+			return;
+		}
+		File parent = target.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Directory '" + parent.getPath() + "' could not be created.");
+		}
+		Files.copy(new File(objectsFolder, hash).toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private static void putStepFile(Entry entry, String role, String hash) {
+		if (hash != null) {
+			entry.stepFiles.put(role, hash);
+		}
+	}
+
+	private static void snapshot(File directory, String prefix, Predicate<String> include,
+			Map<String, List<Long>> states) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			String path = prefix + file.getName();
+			if (file.isDirectory()) {
+				snapshot(file, path + "/", include, states);
+			} else if (include.test(path)) {
+				long modified;
+				try {
+					/* Finer than File.lastModified, which is in ms. */
+					modified = Files.getLastModifiedTime(file.toPath()).to(TimeUnit.NANOSECONDS);
+				} catch (IOException e) {
+					modified = file.lastModified();
+				}
+				states.put(path, Arrays.asList(file.length(), modified));
+			}
+		}
+	}
+
+	private static String hashFile(File file) throws IOException {
+		MessageDigest digest = newDigest();
+		byte[] buffer = new byte[8192];
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return toHex(digest.digest());
+	}
+
+	/** Update the digest with the length-prefixed string, to keep the fields apart. */
+	private static void update(MessageDigest digest, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		digest.update(new byte[] { (byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+				(byte) (bytes.length >>> 8), (byte) bytes.length });
+		digest.update(bytes);
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			/* Every Java platform supports SHA-256. */
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+
+	/** Files of a cache entry, mapped to the hash of their content. */
+	private static class Entry {
+		/** Files created or modified by the step, by their relative path. */
+		private final Map<String, String> files = new TreeMap<String, String>();
+		/** Captured output and variables of the step. */
+		private final Map<String, String> stepFiles = new TreeMap<String, String>();
+
+		/** Distinct objects of the entry, an object is referred to once per entry. */
+		private Set<String> hashes() {
+			Set<String> hashes = new LinkedHashSet<String>(files.values());
+			hashes.addAll(stepFiles.values());
+			return hashes;
+		}
+	}
+}
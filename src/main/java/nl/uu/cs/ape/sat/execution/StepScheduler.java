@@ -0,0 +1,345 @@
+package nl.uu.cs.ape.sat.execution;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nl.uu.cs.ape.sat.core.RunControl;
+import nl.uu.cs.ape.sat.core.solutionStructure.ModuleNode;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.core.solutionStructure.TypeNode;
+import nl.uu.cs.ape.sat.models.Module;
+import nl.uu.cs.ape.sat.models.Type;
+import nl.uu.cs.ape.sat.models.enums.ExecutionStatus;
+import nl.uu.cs.ape.sat.utils.APEUtils;
+
+/**
+ * The {@code StepScheduler} class executes the steps of a workflow according
+ * to its {@link WorkflowDAG}: each step is executed as a separate process as
+ * soon as the steps it depends on have finished, so independent branches of
+ * the workflow run concurrently. The number of concurrently running steps is
+ * limited by the number of step slots, which are shared by all the workflows
+ * executed by the same {@link WorkflowExecutor}.
+ * <br>
+ * <br>
+ * The steps communicate through the files in the working directory of the
+ * workflow. In addition, the shell variables defined by a step are passed to
+ * the steps that depend on it. When a step fails, the steps that depend on it
+ * are not executed.
+ * <br>
+ * <br>
+ * When a {@link StepCache} is used, the outputs of the steps are memoized: a
+ * step whose key is found in the cache is not executed, its outputs are
+ * restored from the cache instead. The outputs of a step are the files it
+ * created or modified, so a step is only stored when no other step of the
+ * workflow was running at the same time.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+class StepScheduler implements AutoCloseable {
+
+	/** Prefix of the step scripts, their output and their variables. */
+	static final String STEP_PREFIX = "step_";
+
+	/** Executor whose threads represent the step slots. */
+	private final ThreadPoolExecutor executor;
+	/** Number of step slots. */
+	private final int slots;
+	/** Cache of the step outputs, or {@code null} if the steps are always executed. */
+	private final StepCache cache;
+
+	/**
+	 * Create a scheduler that runs at most the given number of steps
+	 * concurrently.
+	 *
+	 * @param slots - max number of concurrently running steps (at least 1)
+	 * @param cache - cache of the step outputs, or {@code null}
+	 */
+	StepScheduler(int slots, StepCache cache) {
+		this.slots = Math.max(1, slots);
+		this.cache = cache;
+		AtomicInteger threadNo = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(this.slots, this.slots, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), runnable -> {
+					Thread thread = new Thread(runnable, "APE-step-" + threadNo.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Execute the steps of the workflow and wait until they finish.
+	 *
+	 * @param processRunner - executor that runs the step processes
+	 * @param solution      - the workflow solution
+	 * @param directory     - working directory of the workflow
+	 * @param control       - control of the run, or {@code null}
+	 * @param startTime     - time the execution of the workflow started
+	 * @return Result of the execution of the workflow.
+	 */
+	ExecutionResult execute(WorkflowExecutor processRunner, SolutionWorkflow solution, File directory,
+			RunControl control, long startTime) {
+		int index = solution.getIndex();
+		WorkflowDAG dag = WorkflowDAG.of(solution);
+		try {
+			for (int i = 0; i < dag.size(); i++) {
+				writeStepScript(dag, i, new File(directory, STEP_PREFIX + i + ".sh"));
+			}
+		} catch (IOException e) {
+			return new ExecutionResult(index, directory, ExecutionStatus.ERROR, -1, 0, e.getMessage());
+		}
+
+		String[] keys = (cache != null) ? stepKeys(solution, dag) : null;
+		StepActivity activity = new StepActivity();
+
+		int[] remaining = new int[dag.size()];
+		Deque<Integer> ready = new ArrayDeque<Integer>();
+		for (int i = 0; i < dag.size(); i++) {
+			remaining[i] = dag.getDependencies(i).size();
+			if (remaining[i] == 0) {
+				ready.add(i);
+			}
+		}
+		CompletionService<ExecutionResult> steps = new ExecutorCompletionService<ExecutionResult>(executor);
+		List<Future<ExecutionResult>> running = new ArrayList<Future<ExecutionResult>>();
+		ExecutionResult failure = null;
+		String failedStep = null;
+		try {
+			while (!ready.isEmpty() || !running.isEmpty()) {
+				while (!ready.isEmpty()) {
+					int step = ready.poll();
+					if (keys == null) {
+						running.add(steps.submit(() -> runStep(processRunner, step, directory, control, startTime)));
+					} else {
+						running.add(steps.submit(() -> runCachedStep(processRunner, step, keys[step], activity,
+								directory, control, startTime)));
+					}
+				}
+				Future<ExecutionResult> finished = steps.take();
+				running.remove(finished);
+				ExecutionResult result = finished.get();
+				if (result.getStatus() == ExecutionStatus.SUCCEEDED) {
+					for (int dependent : dag.getDependents(result.getIndex())) {
+						if (--remaining[dependent] == 0) {
+							ready.add(dependent);
+						}
+					}
+				} else if (failure == null) {
+					/* The steps that depend on the failed one are never ready. */
+					failure = result;
+					failedStep = stepName(dag, result.getIndex());
+				}
+			}
+		} catch (InterruptedException e) {
+			for (Future<ExecutionResult> step : running) {
+				step.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			return new ExecutionResult(index, directory, ExecutionStatus.CANCELLED, -1,
+					System.currentTimeMillis() - startTime, null);
+		} catch (ExecutionException e) {
+			for (Future<ExecutionResult> step : running) {
+				step.cancel(true);
+			}
+			return new ExecutionResult(index, directory, ExecutionStatus.ERROR, -1,
+					System.currentTimeMillis() - startTime, e.getCause().toString());
+		}
+		long wallTime = System.currentTimeMillis() - startTime;
+		if (failure != null) {
+			String error = "Step " + failedStep + " " + failure.getStatus().toString().toLowerCase()
+					+ (failure.getError() != null ? ": " + failure.getError() : ".");
+			return new ExecutionResult(index, directory, failure.getStatus(), failure.getExitCode(), wallTime, error);
+		}
+		return new ExecutionResult(index, directory, ExecutionStatus.SUCCEEDED, 0, wallTime, null);
+	}
+
+	/**
+	 * Execute the step as a separate process.
+	 */
+	private static ExecutionResult runStep(WorkflowExecutor processRunner, int step, File directory,
+			RunControl control, long startTime) {
+		ProcessBuilder builder = new ProcessBuilder("bash", STEP_PREFIX + step + ".sh");
+		return processRunner.runProcess(step, builder, directory, stdoutFile(step), stderrFile(step), control,
+				startTime);
+	}
+
+	/**
+	 * Restore the outputs of the step from the cache, or execute the step and
+	 * store its outputs in the cache.
+	 */
+	private ExecutionResult runCachedStep(WorkflowExecutor processRunner, int step, String key,
+			StepActivity activity, File directory, RunControl control, long startTime) throws IOException {
+		if (control != null && control.isStopped()) {
+			return new ExecutionResult(step, directory, ExecutionStatus.CANCELLED, -1,
+					System.currentTimeMillis() - startTime, null);
+		}
+		/* Restoring changes the directory as well, which concerns the running steps. */
+		activity.begin(step);
+		try {
+			if (cache.restore(key, directory, stdoutFile(step), stderrFile(step), envFile(step))) {
+				return new ExecutionResult(step, directory, ExecutionStatus.SUCCEEDED, 0,
+						System.currentTimeMillis() - startTime, null);
+			}
+			Map<String, List<Long>> before = StepCache.snapshot(directory, StepScheduler::isOutputFile);
+			ExecutionResult result = runStep(processRunner, step, directory, control, startTime);
+			if (result.getStatus() == ExecutionStatus.SUCCEEDED && !activity.isOverlapped(step)) {
+				List<String> changed = StepCache.changedFiles(before, directory, StepScheduler::isOutputFile);
+				cache.store(key, directory, changed, stdoutFile(step), stderrFile(step), envFile(step));
+			}
+			return result;
+		} finally {
+			activity.end(step);
+		}
+	}
+
+	/**
+	 * Compute the cache keys of the steps. The key of a step covers its tool and
+	 * its inputs, where an input is identified by the key of the step that
+	 * created it (and the state of the output within the block of that step), or by the
+	 * memory state and the types of the workflow input together with the digest of
+	 * the workflow input data (see {@link StepCache#setInputData(List)}).
+	 */
+	private String[] stepKeys(SolutionWorkflow solution, WorkflowDAG dag) {
+		String inputDigest = cache.getInputDigest();
+		String[] keys = new String[dag.size()];
+		for (int i = 0; i < dag.size(); i++) {
+			ModuleNode step = dag.getStep(i);
+			List<String> inputs = new ArrayList<String>();
+			for (TypeNode input : step.getInputTypes()) {
+				if (input.isEmpty()) {
+					continue;
+				}
+				ModuleNode createdBy = input.getCreatedByModule();
+				int dependency = (createdBy == null) ? -1 : solution.getModuleNodes().indexOf(createdBy);
+				if (dependency >= 0 && dependency < i) {
+					inputs.add(keys[dependency] + "#" + input.getAutomatonState().getStateNumber());
+				} else {
+					Set<String> types = new TreeSet<String>();
+					for (Type type : input.getTypes()) {
+						types.add(type.getPredicateID());
+					}
+					inputs.add(input.getAutomatonState().getPredicateID() + "#" + types + "#" + inputDigest);
+				}
+			}
+			Module module = step.getUsedModule();
+			keys[i] = StepCache.key(module != null ? module.getPredicateID() : "",
+					(module != null && module.getModuleExecution() != null) ? module.getModuleExecution().getContent()
+							: null,
+					inputs);
+		}
+		return keys;
+	}
+
+	/**
+	 * @return Number of step slots.
+	 */
+	int getSlots() {
+		return slots;
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Write the script of a single step. The script loads the variables defined
+	 * by the steps it depends on, executes the code of the tool and stores the
+	 * variables it defined, preserving the exit status of the tool code.
+	 */
+	private static void writeStepScript(WorkflowDAG dag, int step, File script) throws IOException {
+		StringBuilder header = new StringBuilder("#!/bin/bash\n");
+		header.append("__ape_vars=$(compgen -v)\n");
+		for (int dependency : dag.getDependencies(step)) {
+			header.append("source ").append(envFile(dependency)).append("\n");
+		}
+		if (!APEUtils.write2file(header.toString(), script, false)) {
+			throw new IOException("Script '" + script.getPath() + "' could not be written.");
+		}
+		Module module = dag.getStep(step).getUsedModule();
+		if (module != null && module.getModuleExecution() != null) {
+			module.getModuleExecution().run(script.getPath());
+		}
+		String footer = "__ape_status=$?\n"
+				+ "__ape_new=$(comm -13 <(echo \"$__ape_vars\" | sort) <(compgen -v | sort) | grep -v -E '^(__ape_|PIPESTATUS$|BASH_)')\n"
+				+ "if [ -n \"$__ape_new\" ]; then declare -p $__ape_new > " + envFile(step)
+				+ "; else : > " + envFile(step) + "; fi\n"
+				+ "exit $__ape_status\n";
+		if (!APEUtils.write2file(footer, script, true)) {
+			throw new IOException("Script '" + script.getPath() + "' could not be written.");
+		}
+	}
+
+	private static String stdoutFile(int step) {
+		return STEP_PREFIX + step + ".stdout.txt";
+	}
+
+	private static String stderrFile(int step) {
+		return STEP_PREFIX + step + ".stderr.txt";
+	}
+
+	/**
+	 * Files created by the scheduler (the scripts, captured output and variables
+	 * of the steps) are not considered outputs of a step.
+	 */
+	private static boolean isOutputFile(String path) {
+		return !path.startsWith(STEP_PREFIX) && !path.startsWith("." + STEP_PREFIX)
+				&& !path.startsWith(WorkflowExecutor.WORKFLOW_PREFIX);
+	}
+
+	/** File that contains the variables defined by the step and its dependencies. */
+	private static String envFile(int step) {
+		return "." + STEP_PREFIX + step + ".env";
+	}
+
+	private static String stepName(WorkflowDAG dag, int step) {
+		Module module = dag.getStep(step).getUsedModule();
+		return step + (module != null ? " (" + module.getPredicateID() + ")" : "");
+	}
+
+	/**
+	 * Steps of a workflow that are currently running or being restored. The
+	 * steps that were active at the same time change the working directory
+	 * concurrently, so their outputs cannot be told apart.
+	 */
+	private static class StepActivity {
+		private final Set<Integer> active = new HashSet<Integer>();
+		private final Set<Integer> overlapped = new HashSet<Integer>();
+
+		synchronized void begin(int step) {
+			if (!active.isEmpty()) {
+				overlapped.addAll(active);
+				overlapped.add(step);
+			}
+			active.add(step);
+		}
+
+		/**
+		 * @return {@code true} if another step was active since the step began.
+		 */
+		synchronized boolean isOverlapped(int step) {
+			return overlapped.contains(step);
+		}
+
+		synchronized void end(int step) {
+			active.remove(step);
+			overlapped.remove(step);
+		}
+	}
+}
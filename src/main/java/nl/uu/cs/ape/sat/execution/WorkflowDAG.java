@@ -0,0 +1,116 @@
+package nl.uu.cs.ape.sat.execution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import nl.uu.cs.ape.sat.core.solutionStructure.ModuleNode;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.core.solutionStructure.TypeNode;
+
+/**
+ * The {@code WorkflowDAG} class represents the dependencies between the steps
+ * (tools) of a workflow solution. A step depends on each step that created one
+ * of its inputs, steps that use only the workflow inputs do not depend on any
+ * other step. Steps without a dependency between them can be executed
+ * concurrently.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class WorkflowDAG {
+
+	/** Steps of the workflow, in the order of the solution. */
+	private final List<ModuleNode> steps;
+	/** For each step, positions of the steps it depends on. */
+	private final List<Set<Integer>> dependencies;
+	/** For each step, positions of the steps that depend on it. */
+	private final List<Set<Integer>> dependents;
+
+	private WorkflowDAG(List<ModuleNode> steps) {
+		this.steps = steps;
+		this.dependencies = new ArrayList<Set<Integer>>();
+		this.dependents = new ArrayList<Set<Integer>>();
+		for (int i = 0; i < steps.size(); i++) {
+			dependencies.add(new TreeSet<Integer>());
+			dependents.add(new TreeSet<Integer>());
+		}
+	}
+
+	/**
+	 * Create the dependency graph of the workflow solution, based on the tools
+	 * that create the inputs of each tool.
+	 *
+	 * @param solution - the workflow solution
+	 * @return The dependency graph of the workflow steps.
+	 */
+	public static WorkflowDAG of(SolutionWorkflow solution) {
+		List<ModuleNode> steps = solution.getModuleNodes();
+		WorkflowDAG dag = new WorkflowDAG(steps);
+		for (int i = 0; i < steps.size(); i++) {
+			for (TypeNode input : steps.get(i).getInputTypes()) {
+				ModuleNode createdBy = input.getCreatedByModule();
+				int dependency = (createdBy == null) ? -1 : steps.indexOf(createdBy);
+				if (dependency >= 0 && dependency != i) {
+					dag.dependencies.get(i).add(dependency);
+					dag.dependents.get(dependency).add(i);
+				}
+			}
+		}
+		return dag;
+	}
+
+	/**
+	 * @return Number of steps in the workflow.
+	 */
+	public int size() {
+		return steps.size();
+	}
+
+	/**
+	 * @param i - position of the step in the workflow
+	 * @return The tool node of the step.
+	 */
+	public ModuleNode getStep(int i) {
+		return steps.get(i);
+	}
+
+	/**
+	 * @param i - position of the step in the workflow
+	 * @return Positions of the steps that have to finish before the step starts.
+	 */
+	public Set<Integer> getDependencies(int i) {
+		return Collections.unmodifiableSet(dependencies.get(i));
+	}
+
+	/**
+	 * @param i - position of the step in the workflow
+	 * @return Positions of the steps that use an output of the step.
+	 */
+	public Set<Integer> getDependents(int i) {
+		return Collections.unmodifiableSet(dependents.get(i));
+	}
+
+	/**
+	 * Get the number of steps on the longest chain of dependent steps, i.e. the
+	 * number of steps that have to be executed one after another even when the
+	 * independent steps are executed concurrently.
+	 *
+	 * @return Length of the critical path of the workflow.
+	 */
+	public int getCriticalPathLength() {
+		/* Steps depend only on the steps that precede them in the solution. */
+		int[] depth = new int[steps.size()];
+		int longest = 0;
+		for (int i = 0; i < steps.size(); i++) {
+			for (int dependency : dependencies.get(i)) {
+				depth[i] = Math.max(depth[i], depth[dependency]);
+			}
+			depth[i]++;
+			longest = Math.max(longest, depth[i]);
+		}
+		return longest;
+	}
+}
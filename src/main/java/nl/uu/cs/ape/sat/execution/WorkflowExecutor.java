@@ -0,0 +1,328 @@
+package nl.uu.cs.ape.sat.execution;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.sat.core.RunControl;
+import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.core.solutionStructure.ModuleNode;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.models.Module;
+import nl.uu.cs.ape.sat.models.enums.ExecutionStatus;
+import nl.uu.cs.ape.sat.utils.APEUtils;
+
+/**
+ * The {@code WorkflowExecutor} class executes the workflow solutions as shell
+ * scripts, using a fixed number of processes that run concurrently. Each
+ * workflow is executed in its own working directory, which contains the
+ * script and the captured standard output and error of the workflow. The
+ * execution of a workflow is terminated when it exceeds the time limit.
+ * <br>
+ * <br>
+ * By default the tools of a workflow are executed in sequence, by a single
+ * script. When step slots are given, the steps of each workflow are scheduled
+ * according to their data dependencies instead (see {@link StepScheduler}),
+ * so that the independent steps run concurrently. The outputs of the steps can
+ * be memoized in a {@link StepCache}, so that the steps shared by several
+ * workflows are executed only once.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class WorkflowExecutor implements AutoCloseable {
+
+	/** Prefix of the working directories and scripts of the workflows. */
+	public static final String WORKFLOW_PREFIX = "workflowSolution_";
+	/** Names of the files that capture the output of a workflow. */
+	public static final String STDOUT_FILE = "stdout.txt";
+	public static final String STDERR_FILE = "stderr.txt";
+	/** Name of the execution report. */
+	public static final String REPORT_FILE = "execution_report.json";
+
+	/** Interval (in ms) in which the running workflows check the run control. */
+	private static final long POLL_INTERVAL_MS = 100;
+
+	/** Executor that starts and awaits the workflow processes. */
+	private final ThreadPoolExecutor executor;
+	/** Number of concurrently executed workflows. */
+	private final int threads;
+	/** Time limit of a workflow in ms, or -1 if the workflows are not limited. */
+	private final long timeoutMillis;
+	/** Scheduler of the workflow steps, or {@code null} if the steps are executed in sequence. */
+	private final StepScheduler stepScheduler;
+	/** Cache of the step outputs, or {@code null} if the steps are always executed. */
+	private final StepCache cache;
+
+	/**
+	 * Create an executor that runs the given number of workflows concurrently.
+	 *
+	 * @param threads       - number of concurrently executed workflows (at least
+	 *                      1)
+	 * @param timeoutMillis - time limit of a single workflow in milliseconds, or
+	 *                      -1 if the workflows are not limited
+	 */
+	public WorkflowExecutor(int threads, long timeoutMillis) {
+		this(threads, timeoutMillis, -1);
+	}
+
+	/**
+	 * Create an executor that runs the given number of workflows concurrently,
+	 * where the steps of each workflow are scheduled according to their data
+	 * dependencies.
+	 *
+	 * @param threads       - number of concurrently executed workflows (at least
+	 *                      1)
+	 * @param timeoutMillis - time limit of a single workflow in milliseconds, or
+	 *                      -1 if the workflows are not limited
+	 * @param stepSlots     - max number of steps running concurrently (in all the
+	 *                      workflows), or -1 if the steps of a workflow should be
+	 *                      executed in sequence
+	 */
+	public WorkflowExecutor(int threads, long timeoutMillis, int stepSlots) {
+		this(threads, timeoutMillis, stepSlots, null);
+	}
+
+	/**
+	 * Create an executor that runs the given number of workflows concurrently,
+	 * where the steps of each workflow are scheduled according to their data
+	 * dependencies and their outputs are memoized in the cache. When the cache
+	 * is used, the steps are always executed separately, in sequence if no step
+	 * slots are given.
+	 *
+	 * @param threads       - number of concurrently executed workflows (at least
+	 *                      1)
+	 * @param timeoutMillis - time limit of a single workflow in milliseconds, or
+	 *                      -1 if the workflows are not limited
+	 * @param stepSlots     - max number of steps running concurrently (in all the
+	 *                      workflows), or -1 if the steps of a workflow should be
+	 *                      executed in sequence
+	 * @param cache         - cache of the step outputs, or {@code null} if the
+	 *                      steps should always be executed
+	 */
+	public WorkflowExecutor(int threads, long timeoutMillis, int stepSlots, StepCache cache) {
+		this.threads = Math.max(1, threads);
+		this.timeoutMillis = timeoutMillis;
+		this.cache = cache;
+		if (stepSlots > 0 || cache != null) {
+			this.stepScheduler = new StepScheduler(Math.max(1, stepSlots), cache);
+		} else {
+			this.stepScheduler = null;
+		}
+		AtomicInteger threadNo = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), runnable -> {
+					Thread thread = new Thread(runnable, "APE-executor-" + threadNo.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Execute the first solutions and wait until all of them finish. Workflows
+	 * are not started once the run is stopped, and the running ones are
+	 * terminated.
+	 *
+	 * @param solutions    - the workflow solutions
+	 * @param noExecutions - number of solutions that should be executed
+	 * @param folder       - folder that will contain the working directories
+	 * @param control      - control of the run, or {@code null}
+	 * @return Results of the executions, ordered by the solution index.
+	 */
+	public List<ExecutionResult> execute(SATsolutionsList solutions, int noExecutions, File folder,
+			RunControl control) {
+		List<SolutionWorkflow> executed = new ArrayList<SolutionWorkflow>();
+		List<Future<ExecutionResult>> futures = new ArrayList<Future<ExecutionResult>>();
+		for (int i = 0; i < noExecutions && i < solutions.size(); i++) {
+			SolutionWorkflow solution = solutions.get(i);
+			File directory = new File(folder, WORKFLOW_PREFIX + solution.getIndex());
+			executed.add(solution);
+			futures.add(executor.submit(() -> execute(solution, directory, control)));
+		}
+		List<ExecutionResult> results = new ArrayList<ExecutionResult>();
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				results.add(futures.get(i).get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				int index = executed.get(i).getIndex();
+				results.add(new ExecutionResult(index, new File(folder, WORKFLOW_PREFIX + index), ExecutionStatus.ERROR,
+						-1, 0, e.getCause().toString()));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Execute a single workflow in the given working directory, in the calling
+	 * thread.
+	 *
+	 * @param solution  - the workflow solution
+	 * @param directory - working directory of the workflow, created if it does
+	 *                  not exist
+	 * @param control   - control of the run, or {@code null}
+	 * @return Result of the execution.
+	 */
+	public ExecutionResult execute(SolutionWorkflow solution, File directory, RunControl control) {
+		int index = solution.getIndex();
+		if (control != null && control.isStopped()) {
+			return new ExecutionResult(index, directory, ExecutionStatus.CANCELLED, -1, 0, null);
+		}
+		long startTime = System.currentTimeMillis();
+		File script = new File(directory, WORKFLOW_PREFIX + index + ".sh");
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Directory '" + directory.getPath() + "' could not be created.");
+			}
+			writeScript(solution, script);
+		} catch (IOException e) {
+			return new ExecutionResult(index, directory, ExecutionStatus.ERROR, -1, 0, e.getMessage());
+		}
+		if (stepScheduler != null) {
+			return stepScheduler.execute(this, solution, directory, control, startTime);
+		}
+		return runProcess(index, new ProcessBuilder("bash", script.getName()), directory, STDOUT_FILE, STDERR_FILE,
+				control, startTime);
+	}
+
+	/**
+	 * Start the process in the working directory, capture its output and wait
+	 * until it finishes, is stopped or exceeds the time limit.
+	 *
+	 * @param index     - index of the result
+	 * @param builder   - builder of the process
+	 * @param directory - working directory, contains the captured output
+	 * @param stdout    - name of the file that captures the standard output
+	 * @param stderr    - name of the file that captures the standard error
+	 * @param control   - control of the run, or {@code null}
+	 * @param startTime - time the execution of the workflow started, the time
+	 *                  limit applies from this moment
+	 * @return Result of the execution.
+	 */
+	ExecutionResult runProcess(int index, ProcessBuilder builder, File directory, String stdout, String stderr,
+			RunControl control, long startTime) {
+		Process process;
+		try {
+			process = builder.directory(directory).redirectOutput(new File(directory, stdout))
+					.redirectError(new File(directory, stderr)).start();
+			/* The workflows do not receive any input. */
+			process.getOutputStream().close();
+		} catch (IOException e) {
+			return new ExecutionResult(index, directory, ExecutionStatus.ERROR, -1,
+					System.currentTimeMillis() - startTime, e.getMessage());
+		}
+		try {
+			while (!process.waitFor(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+				long wallTime = System.currentTimeMillis() - startTime;
+				if (timeoutMillis > 0 && wallTime >= timeoutMillis) {
+					terminate(process);
+					return new ExecutionResult(index, directory, ExecutionStatus.TIMED_OUT, -1, wallTime, null);
+				}
+				if (control != null && control.isStopped()) {
+					terminate(process);
+					return new ExecutionResult(index, directory, ExecutionStatus.CANCELLED, -1, wallTime, null);
+				}
+			}
+		} catch (InterruptedException e) {
+			terminate(process);
+			Thread.currentThread().interrupt();
+			return new ExecutionResult(index, directory, ExecutionStatus.CANCELLED, -1,
+					System.currentTimeMillis() - startTime, null);
+		}
+		int exitCode = process.exitValue();
+		return new ExecutionResult(index, directory, exitCode == 0 ? ExecutionStatus.SUCCEEDED : ExecutionStatus.FAILED,
+				exitCode, System.currentTimeMillis() - startTime, null);
+	}
+
+	/**
+	 * Write the shell script that executes the tools of the workflow in sequence,
+	 * using the execution code of each tool.
+	 *
+	 * @param solution - the workflow solution
+	 * @param script   - the script file
+	 * @throws IOException error in writing the file
+	 */
+	public static void writeScript(SolutionWorkflow solution, File script) throws IOException {
+		if (!APEUtils.write2file("#!/bin/bash\n", script, false)) {
+			throw new IOException("Script '" + script.getPath() + "' could not be written.");
+		}
+		for (ModuleNode currTool : solution.getModuleNodes()) {
+			Module module = currTool.getUsedModule();
+			if (module != null && module.getModuleExecution() != null) {
+				module.getModuleExecution().run(script.getPath());
+			}
+		}
+	}
+
+	/**
+	 * Write the execution report, containing the outcome and the wall time of
+	 * each executed workflow.
+	 *
+	 * @param results  - results of the executions
+	 * @param wallTime - wall time of all the executions in milliseconds
+	 * @param file     - the report file
+	 * @return {@code true} if the report was written, {@code false} otherwise.
+	 */
+	public boolean writeReport(List<ExecutionResult> results, long wallTime, File file) {
+		JSONObject report = new JSONObject();
+		report.put("threads", threads);
+		report.put("step_slots", stepScheduler != null ? stepScheduler.getSlots() : -1);
+		report.put("timeout", timeoutMillis);
+		report.put("wall_time", wallTime);
+		int[] statuses = new int[ExecutionStatus.values().length];
+		long totalTime = 0;
+		JSONArray workflows = new JSONArray();
+		for (ExecutionResult result : results) {
+			statuses[result.getStatus().ordinal()]++;
+			totalTime += result.getWallTime();
+			workflows.put(result.toJSON());
+		}
+		for (ExecutionStatus status : ExecutionStatus.values()) {
+			report.put(status.toString().toLowerCase(), statuses[status.ordinal()]);
+		}
+		report.put("total_workflow_time", totalTime);
+		if (cache != null) {
+			report.put("cache", cache.toJSON());
+		}
+		report.put("workflows", workflows);
+		return APEUtils.write2file(report.toString(2), file, false);
+	}
+
+	/**
+	 * @return Number of concurrently executed workflows.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Stop the executor threads. Workflows that were not started are discarded.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+		if (stepScheduler != null) {
+			stepScheduler.close();
+		}
+	}
+
+	/**
+	 * Terminate the process. Processes that were started in the background by
+	 * the tools are not terminated.
+	 */
+	private static void terminate(Process process) {
+		process.destroyForcibly();
+	}
+}
@@ -0,0 +1,92 @@
+package nl.uu.cs.ape.sat.io;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.utils.APEDomainSetup;
+
+/**
+ * The {@code ArchivedSolutionsList} class is a read-only view of the solutions
+ * stored in a {@link SolutionArchive}. It can be used instead of the
+ * {@link SATsolutionsList} produced by the synthesis, e.g. to generate the
+ * graphs or execute the workflows without solving the problem again. The
+ * solutions are decoded each time they are accessed.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class ArchivedSolutionsList extends SATsolutionsList {
+
+	private final SolutionArchive archive;
+	private final APEDomainSetup domainSetup;
+
+	/**
+	 * Create a view of the archived solutions, resolved in the given domain.
+	 *
+	 * @param archive     - the solution archive
+	 * @param domainSetup - domain that matches the one used to create the
+	 *                    archive
+	 * @throws IllegalArgumentException if the archive was created using a
+	 *                                  different domain
+	 */
+	public ArchivedSolutionsList(SolutionArchive archive, APEDomainSetup domainSetup) {
+		super(archive.size());
+		if (!archive.matches(domainSetup)) {
+			throw new IllegalArgumentException("Solution archive '" + archive.getFile().getPath()
+					+ "' was created using a different domain.");
+		}
+		this.archive = archive;
+		this.domainSetup = domainSetup;
+		setPartial(archive.isPartial());
+	}
+
+	/**
+	 * @return the {@link #archive}
+	 */
+	public SolutionArchive getArchive() {
+		return archive;
+	}
+
+	@Override
+	public int getNumberOfSolutions() {
+		return archive.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return archive.size() == 0;
+	}
+
+	/**
+	 * Archived solutions cannot be extended.
+	 *
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean addSolutions(List<SolutionWorkflow> currSolutions) {
+		throw new UnsupportedOperationException("Archived solutions cannot be extended.");
+	}
+
+	@Override
+	public SolutionWorkflow get(int index) {
+		return archive.getSolution(index, domainSetup);
+	}
+
+	@Override
+	public int size() {
+		return archive.size();
+	}
+
+	@Override
+	public Stream<SolutionWorkflow> getStream() {
+		return IntStream.range(0, archive.size()).mapToObj(this::get);
+	}
+
+	@Override
+	public Stream<SolutionWorkflow> getParallelStream() {
+		return getStream().parallel();
+	}
+}
@@ -0,0 +1,305 @@
+package nl.uu.cs.ape.sat.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
+import nl.uu.cs.ape.sat.core.solutionStructure.ModuleNode;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.core.solutionStructure.TypeNode;
+import nl.uu.cs.ape.sat.models.AbstractModule;
+import nl.uu.cs.ape.sat.models.Module;
+import nl.uu.cs.ape.sat.models.Type;
+import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
+import nl.uu.cs.ape.sat.utils.APEDomainSetup;
+
+/**
+ * The {@code SolutionArchive} class provides random access to the workflow
+ * solutions stored in a binary solution archive, written by the
+ * {@link SolutionArchiveWriter}. The archive is memory-mapped, and the
+ * solutions are decoded only when they are accessed.
+ * <br>
+ * <br>
+ * The archive consists of:
+ * <ul>
+ * <li>header: magic number, format version, flags, branching factors of the
+ * automata, domain fingerprint, number of solutions and the offsets of the
+ * string table and the index,</li>
+ * <li>solution records: index of the solution, tool sequence, data instances
+ * (memory state and types) and data references (tool inputs and workflow
+ * outputs), where tools and types refer to the string table,</li>
+ * <li>string table: the tool and type IDs,</li>
+ * <li>index: offset of each solution record.</li>
+ * </ul>
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class SolutionArchive {
+
+	/** Magic number that identifies the archive ("APEA"). */
+	static final int MAGIC = 0x41504541;
+	/** Version of the archive format. */
+	static final byte VERSION = 1;
+	/** Size of the header in bytes. */
+	static final int HEADER_SIZE = 36;
+	/** Flag set if the archived solutions are partial results of a stopped run. */
+	static final byte FLAG_PARTIAL = 1;
+
+	/** Offsets of the header fields. */
+	static final int FLAGS_OFFSET = 5;
+	static final int FINGERPRINT_OFFSET = 8;
+	static final int COUNT_OFFSET = 16;
+
+	private final File file;
+	private final ByteBuffer buffer;
+	private final boolean partial;
+	private final int inputBranching;
+	private final int outputBranching;
+	private final long fingerprint;
+	private final int size;
+	private final int indexOffset;
+	/** Decoded string table. */
+	private final String[] strings;
+
+	private SolutionArchive(File file, ByteBuffer buffer) throws IOException {
+		this.file = file;
+		this.buffer = buffer;
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new IOException("File '" + file.getPath() + "' is not an APE solution archive.");
+		}
+		if (buffer.get(4) != VERSION) {
+			throw new IOException("Unsupported version " + buffer.get(4) + " of the solution archive.");
+		}
+		this.partial = (buffer.get(FLAGS_OFFSET) & FLAG_PARTIAL) != 0;
+		this.inputBranching = buffer.get(6);
+		this.outputBranching = buffer.get(7);
+		this.fingerprint = buffer.getLong(FINGERPRINT_OFFSET);
+		this.size = buffer.getInt(COUNT_OFFSET);
+		long stringTableOffset = buffer.getLong(20);
+		long indexOffset = buffer.getLong(28);
+		if (stringTableOffset <= 0 || indexOffset <= 0 || indexOffset + 8L * size > buffer.capacity()) {
+			throw new IOException("Solution archive '" + file.getPath() + "' is incomplete.");
+		}
+		this.indexOffset = (int) indexOffset;
+
+		ByteBuffer table = buffer.duplicate();
+		table.position((int) stringTableOffset);
+		this.strings = new String[table.getInt()];
+		for (int i = 0; i < strings.length; i++) {
+			byte[] bytes = new byte[table.getInt()];
+			table.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Open the solution archive. The file is memory-mapped, archives larger than
+	 * 2GB are not supported.
+	 *
+	 * @param file - the archive file
+	 * @return The opened archive.
+	 * @throws IOException error in reading the file, or the file is not a valid
+	 *                     archive
+	 */
+	public static SolutionArchive open(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Solution archive '" + file.getPath() + "' is too large to be mapped.");
+			}
+			/* The mapping remains valid after the channel is closed. */
+			return new SolutionArchive(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Compute the fingerprint of the domain, based on the IDs of all the tools
+	 * and types. Solutions can only be decoded using a domain with the same
+	 * fingerprint as the one used to create them.
+	 *
+	 * @param domainSetup - the domain
+	 * @return 64-bit fingerprint of the domain.
+	 */
+	public static long fingerprint(APEDomainSetup domainSetup) {
+		List<String> ids = new ArrayList<String>();
+		for (TaxonomyPredicate module : domainSetup.getAllModules().getModules()) {
+			ids.add("M:" + module.getPredicateID());
+		}
+		for (TaxonomyPredicate type : domainSetup.getAllTypes().getTypes()) {
+			ids.add("T:" + type.getPredicateID());
+		}
+		Collections.sort(ids);
+		/* FNV-1a hash */
+		long hash = 0xcbf29ce484222325L;
+		for (String id : ids) {
+			for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+				hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+			}
+			hash = (hash ^ '\n') * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * @return Number of the archived solutions.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the {@link #file}
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the {@link #fingerprint} of the domain used to create the solutions
+	 */
+	public long getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * @return {@code true} if the archived solutions are partial results of a
+	 *         synthesis run that was stopped.
+	 */
+	public boolean isPartial() {
+		return partial;
+	}
+
+	/**
+	 * @param domainSetup - the domain
+	 * @return {@code true} if the solutions can be decoded using the domain.
+	 */
+	public boolean matches(APEDomainSetup domainSetup) {
+		return fingerprint == fingerprint(domainSetup);
+	}
+
+	/**
+	 * @param i - number of the solution within the archive
+	 * @return Index of the solution (as assigned during the synthesis).
+	 */
+	public int getIndex(int i) {
+		return buffer.getInt(recordOffset(i));
+	}
+
+	/**
+	 * @param i - number of the solution within the archive
+	 * @return Length (number of tools) of the solution.
+	 */
+	public int getLength(int i) {
+		return buffer.get(recordOffset(i) + 4) & 0xff;
+	}
+
+	/**
+	 * Get the IDs of the tools used in the solution, without decoding the whole
+	 * solution.
+	 *
+	 * @param i - number of the solution within the archive
+	 * @return IDs of the tools, in the order in which they are used.
+	 */
+	public List<String> getToolIDs(int i) {
+		int offset = recordOffset(i);
+		int length = buffer.get(offset + 4) & 0xff;
+		List<String> tools = new ArrayList<String>(length);
+		for (int t = 0; t < length; t++) {
+			tools.add(strings[buffer.getInt(offset + 5 + 4 * t)]);
+		}
+		return tools;
+	}
+
+	/**
+	 * Decode the solution. The tools and types are resolved in the given domain,
+	 * which has to {@link #matches(APEDomainSetup) match} the domain used to
+	 * create the archive.
+	 *
+	 * @param i           - number of the solution within the archive
+	 * @param domainSetup - the domain
+	 * @return The decoded solution workflow.
+	 * @throws IllegalStateException if a tool or type does not exist in the
+	 *                               domain
+	 */
+	public SolutionWorkflow getSolution(int i, APEDomainSetup domainSetup) {
+		ByteBuffer record = buffer.duplicate();
+		record.position(recordOffset(i));
+		int index = record.getInt();
+		int length = record.get() & 0xff;
+
+		SolutionWorkflow solution = new SolutionWorkflow(new ModuleAutomaton(length, outputBranching),
+				new TypeAutomaton(length, inputBranching, outputBranching));
+		List<ModuleNode> tools = solution.getModuleNodes();
+		for (ModuleNode tool : tools) {
+			String toolID = strings[record.getInt()];
+			AbstractModule module = domainSetup.getAllModules().get(toolID);
+			if (!(module instanceof Module)) {
+				throw new IllegalStateException("Tool '" + toolID + "' is not defined in the domain.");
+			}
+			tool.setUsedModule((Module) module);
+		}
+
+		/* Memory type nodes, accessed by the block and state number. */
+		TypeNode[][] memory = new TypeNode[length + 1][];
+		memory[0] = toArray(solution.getWorkflowInputTypeStates(), inputBranching);
+		for (int t = 0; t < length; t++) {
+			memory[t + 1] = toArray(tools.get(t).getOutputTypes(), inputBranching);
+		}
+
+		int noData = record.getInt();
+		for (int d = 0; d < noData; d++) {
+			TypeNode data = memory[record.get() & 0xff][record.get() & 0xff];
+			int noTypes = record.get() & 0xff;
+			for (int t = 0; t < noTypes; t++) {
+				String typeID = strings[record.getInt()];
+				Type type = domainSetup.getAllTypes().get(typeID);
+				if (type == null) {
+					throw new IllegalStateException("Type '" + typeID + "' is not defined in the domain.");
+				}
+				data.addUsedType(type);
+			}
+		}
+		for (ModuleNode tool : tools) {
+			int noInputs = record.get() & 0xff;
+			for (int d = 0; d < noInputs; d++) {
+				TypeNode data = memory[record.get() & 0xff][record.get() & 0xff];
+				tool.addInputType(data);
+				data.addUsedByTool(tool);
+			}
+		}
+		int noOutputs = record.get() & 0xff;
+		for (int d = 0; d < noOutputs; d++) {
+			TypeNode data = memory[record.get() & 0xff][record.get() & 0xff];
+			solution.getWorkflowOutputTypeStates().add(data);
+			data.addUsedByTool(null);
+		}
+		/* Remove empty elements of the sets, as done for the SAT solutions. */
+		solution.getWorkflowInputTypeStates().removeIf(node -> node.isEmpty());
+		solution.setIndex(index);
+		return solution;
+	}
+
+	private int recordOffset(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+		return (int) buffer.getLong(indexOffset + 8 * i);
+	}
+
+	/** Order the type nodes of a block by their state number. */
+	private static TypeNode[] toArray(Iterable<TypeNode> nodes, int blockSize) {
+		TypeNode[] array = new TypeNode[blockSize];
+		for (TypeNode node : nodes) {
+			array[node.getAutomatonState().getStateNumber()] = node;
+		}
+		return array;
+	}
+}
@@ -0,0 +1,276 @@
+package nl.uu.cs.ape.sat.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.core.solutionStructure.ModuleNode;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.core.solutionStructure.TypeNode;
+import nl.uu.cs.ape.sat.events.SynthesisListener;
+import nl.uu.cs.ape.sat.models.Type;
+
+/**
+ * The {@code SolutionArchiveWriter} class writes the workflow solutions to a
+ * binary solution archive (see {@link SolutionArchive} for the format). The
+ * solution records are appended as the solutions are written, while the string
+ * table and the index are written when the writer is finished. As a
+ * {@link SynthesisListener} the writer archives each solution as soon as it is
+ * found.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class SolutionArchiveWriter implements SynthesisListener, Closeable {
+
+	private final File file;
+	private final DataOutputStream out;
+	/** IDs of the tools and types, mapped to their position in the string table. */
+	private final Map<String, Integer> stringIDs;
+	private final List<String> strings;
+	/** Offsets of the written solution records. */
+	private final List<Long> offsets;
+	private long position;
+	private boolean partial;
+	/** {@code true} if writing failed, the following solutions are ignored. */
+	private boolean failed;
+	private boolean closed;
+
+	/**
+	 * Create a writer that archives the solutions to the given file. Existing
+	 * content of the file is overwritten.
+	 *
+	 * @param file            - the archive file
+	 * @param fingerprint     - fingerprint of the domain, see
+	 *                        {@link SolutionArchive#fingerprint}
+	 * @param inputBranching  - max number of inputs of the tools
+	 * @param outputBranching - max number of outputs of the tools
+	 * @throws IOException error in opening the file
+	 */
+	public SolutionArchiveWriter(File file, long fingerprint, int inputBranching, int outputBranching)
+			throws IOException {
+		this.file = file;
+		this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, false), 1 << 16));
+		this.stringIDs = new HashMap<String, Integer>();
+		this.strings = new ArrayList<String>();
+		this.offsets = new ArrayList<Long>();
+		this.partial = false;
+		this.failed = false;
+		this.closed = false;
+
+		/* The number of solutions and the offsets are completed by finish(). */
+		out.writeInt(SolutionArchive.MAGIC);
+		out.writeByte(SolutionArchive.VERSION);
+		out.writeByte(0);
+		out.writeByte(inputBranching);
+		out.writeByte(outputBranching);
+		out.writeLong(fingerprint);
+		out.writeInt(0);
+		out.writeLong(0);
+		out.writeLong(0);
+		this.position = SolutionArchive.HEADER_SIZE;
+	}
+
+	/**
+	 * Append the solution to the archive.
+	 *
+	 * @param solution - the workflow solution
+	 * @return {@code true} if the solution was written, {@code false} otherwise.
+	 */
+	public synchronized boolean write(SolutionWorkflow solution) {
+		if (failed || closed) {
+			return false;
+		}
+		try {
+			offsets.add(position);
+			List<ModuleNode> tools = solution.getModuleNodes();
+			out.writeInt(solution.getIndex());
+			out.writeByte(tools.size());
+			for (ModuleNode tool : tools) {
+				out.writeInt(stringID(tool.getUsedModule().getPredicateID()));
+			}
+
+			List<TypeNode> data = new ArrayList<TypeNode>();
+			for (TypeNode input : solution.getWorkflowInputTypeStates()) {
+				if (!input.isEmpty()) {
+					data.add(input);
+				}
+			}
+			for (ModuleNode tool : tools) {
+				for (TypeNode output : tool.getOutputTypes()) {
+					if (!output.isEmpty()) {
+						data.add(output);
+					}
+				}
+			}
+			out.writeInt(data.size());
+			for (TypeNode instance : data) {
+				writeReference(instance, tools);
+				out.writeByte(instance.getTypes().size());
+				for (Type type : instance.getTypes()) {
+					out.writeInt(stringID(type.getPredicateID()));
+				}
+			}
+			for (ModuleNode tool : tools) {
+				writeReferences(tool.getInputTypes(), tools);
+			}
+			writeReferences(solution.getWorkflowOutputTypeStates(), tools);
+			position = out.size();
+			return true;
+		} catch (IOException e) {
+			System.err.println("Error occured while archiving the solutions to " + file.getPath() + ": " + e.getMessage());
+			failed = true;
+			return false;
+		}
+	}
+
+	/**
+	 * Append all the solutions to the archive.
+	 *
+	 * @param solutions - the workflow solutions
+	 * @return {@code true} if all the solutions were written, {@code false}
+	 *         otherwise.
+	 */
+	public boolean writeAll(SATsolutionsList solutions) {
+		for (int i = 0; i < solutions.size(); i++) {
+			if (!write(solutions.get(i))) {
+				return false;
+			}
+		}
+		setPartial(solutions.isPartial());
+		return true;
+	}
+
+	@Override
+	public void solutionFound(SolutionWorkflow solution) {
+		write(solution);
+	}
+
+	@Override
+	public void runFinished(SATsolutionsList solutions) {
+		if (solutions != null) {
+			setPartial(solutions.isPartial());
+		}
+	}
+
+	/**
+	 * Set whether the archived solutions are partial results of a stopped run.
+	 *
+	 * @param partial - {@code true} if the solutions are partial
+	 */
+	public synchronized void setPartial(boolean partial) {
+		this.partial = partial;
+	}
+
+	/**
+	 * Write the string table, the index and the header, and close the writer.
+	 *
+	 * @return {@code true} if the archive was successfully written, {@code false}
+	 *         otherwise.
+	 */
+	public synchronized boolean finish() {
+		if (closed) {
+			return !failed;
+		}
+		closed = true;
+		try {
+			if (!failed) {
+				long stringTableOffset = position;
+				out.writeInt(strings.size());
+				for (String string : strings) {
+					byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+					out.writeInt(bytes.length);
+					out.write(bytes);
+				}
+				long indexOffset = out.size();
+				for (long offset : offsets) {
+					out.writeLong(offset);
+				}
+				out.flush();
+				try (RandomAccessFile header = new RandomAccessFile(file, "rw")) {
+					header.seek(SolutionArchive.FLAGS_OFFSET);
+					header.writeByte(partial ? SolutionArchive.FLAG_PARTIAL : 0);
+					header.seek(SolutionArchive.COUNT_OFFSET);
+					header.writeInt(offsets.size());
+					header.writeLong(stringTableOffset);
+					header.writeLong(indexOffset);
+				}
+			}
+			out.close();
+		} catch (IOException e) {
+			System.err.println("Error occured while archiving the solutions to " + file.getPath() + ": " + e.getMessage());
+			failed = true;
+		}
+		return !failed;
+	}
+
+	@Override
+	public void close() {
+		finish();
+	}
+
+	/**
+	 * @return Number of the solutions written so far.
+	 */
+	public synchronized int getWritten() {
+		return offsets.size();
+	}
+
+	/**
+	 * @return {@code true} if writing of a solution failed.
+	 */
+	public synchronized boolean hasFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return the {@link #file}
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/** Get the position of the ID in the string table, adding it if needed. */
+	private int stringID(String id) {
+		Integer stringID = stringIDs.get(id);
+		if (stringID == null) {
+			stringID = strings.size();
+			stringIDs.put(id, stringID);
+			strings.add(id);
+		}
+		return stringID;
+	}
+
+	private void writeReferences(Iterable<TypeNode> references, List<ModuleNode> tools) throws IOException {
+		List<TypeNode> nonEmpty = new ArrayList<TypeNode>();
+		for (TypeNode reference : references) {
+			if (reference != null && !reference.isEmpty()) {
+				nonEmpty.add(reference);
+			}
+		}
+		out.writeByte(nonEmpty.size());
+		for (TypeNode reference : nonEmpty) {
+			writeReference(reference, tools);
+		}
+	}
+
+	/**
+	 * Reference to a data instance: number of the memory block (0 for the
+	 * workflow inputs, otherwise the position of the tool that created the
+	 * instance, starting from 1) and the state within the block.
+	 */
+	private void writeReference(TypeNode instance, List<ModuleNode> tools) throws IOException {
+		out.writeByte(tools.indexOf(instance.getCreatedByModule()) + 1);
+		out.writeByte(instance.getAutomatonState().getStateNumber());
+	}
+}
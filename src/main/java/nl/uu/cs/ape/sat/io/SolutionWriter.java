@@ -0,0 +1,330 @@
+package nl.uu.cs.ape.sat.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.zip.GZIPOutputStream;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.core.solutionStructure.ModuleNode;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.core.solutionStructure.TypeNode;
+import nl.uu.cs.ape.sat.events.SynthesisListener;
+import nl.uu.cs.ape.sat.models.Type;
+import nl.uu.cs.ape.sat.models.enums.SolutionFormat;
+
+/**
+ * The {@code SolutionWriter} class writes the workflow solutions to a file, one
+ * solution at a time, in one of the {@link SolutionFormat}s. As a
+ * {@link SynthesisListener} it appends each solution as soon as it is found,
+ * so the solutions do not have to be kept in memory as text and the file
+ * contains the solutions found so far even if the run does not finish.
+ * <br>
+ * <br>
+ * The output can be compressed (gzip). When a synchronisation interval is
+ * given, the written solutions are flushed and forced to the storage device
+ * at most once per interval, so that the partial results survive a crash.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class SolutionWriter implements SynthesisListener, Closeable {
+
+	/** Separator of the values within a CSV field. */
+	private static final String CSV_LIST_SEPARATOR = ";";
+
+	/** File the solutions are written to. */
+	private final File file;
+	/** Format of the written solutions. */
+	private final SolutionFormat format;
+	/** Underlying file stream, used to force the written data to the device. */
+	private final FileOutputStream fileStream;
+	/** Gzip stream, or {@code null} if the output is not compressed. */
+	private final GZIPOutputStream gzipStream;
+	private final Writer out;
+	/** Interval between two synchronisations in ms, or -1 if not synchronised. */
+	private final long syncIntervalMillis;
+	private long lastSync;
+	/** Number of written solutions. */
+	private int written;
+	/** {@code true} if writing failed, the following solutions are ignored. */
+	private boolean failed;
+	private boolean closed;
+
+	/**
+	 * Create a writer that writes the solutions to the given file. Existing
+	 * content of the file is overwritten.
+	 *
+	 * @param file                - file the solutions are written to
+	 * @param format              - format of the written solutions
+	 * @param compress            - {@code true} if the output should be gzip
+	 *                            compressed
+	 * @param syncIntervalSeconds - interval (in seconds) in which the written
+	 *                            solutions are forced to the storage device, or
+	 *                            -1 if they are only written when the writer is
+	 *                            closed
+	 * @throws IOException error in opening the file
+	 */
+	public SolutionWriter(File file, SolutionFormat format, boolean compress, int syncIntervalSeconds)
+			throws IOException {
+		this.file = file;
+		this.format = format;
+		this.fileStream = new FileOutputStream(file, false);
+		OutputStream stream = fileStream;
+		if (compress) {
+			/* Sync flush, so that the flushed solutions can be decompressed. */
+			gzipStream = new GZIPOutputStream(fileStream, true);
+			stream = gzipStream;
+		} else {
+			gzipStream = null;
+		}
+		this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+		this.syncIntervalMillis = (syncIntervalSeconds > 0) ? syncIntervalSeconds * 1000L : -1;
+		this.lastSync = System.currentTimeMillis();
+		this.written = 0;
+		this.failed = false;
+		this.closed = false;
+
+		if (format == SolutionFormat.CSV) {
+			out.write("index,length,tools,inputs,outputs\n");
+		}
+	}
+
+	/**
+	 * Append the solution to the file.
+	 *
+	 * @param solution - the workflow solution
+	 * @return {@code true} if the solution was written, {@code false} otherwise.
+	 */
+	public synchronized boolean write(SolutionWorkflow solution) {
+		if (failed || closed) {
+			return false;
+		}
+		try {
+			switch (format) {
+			case JSONL:
+				out.write(toJSON(solution).toString());
+				break;
+			case CSV:
+				out.write(toCSV(solution));
+				break;
+			default:
+				if (solution.getnativeSATsolution() != null) {
+					out.write(solution.getnativeSATsolution().getRelevantSolution());
+				} else {
+					/* Solutions that were not created by the SAT solver, e.g. archived ones. */
+					out.write(solution.getReadableSolution());
+				}
+				break;
+			}
+			out.write("\n");
+			written++;
+			if (syncIntervalMillis > 0 && System.currentTimeMillis() - lastSync >= syncIntervalMillis) {
+				sync();
+			}
+			return true;
+		} catch (IOException e) {
+			System.err.println("Error occured while writing the solutions to " + file.getPath() + ": " + e.getMessage());
+			failed = true;
+			return false;
+		}
+	}
+
+	/**
+	 * Append all the solutions to the file.
+	 *
+	 * @param solutions - the workflow solutions
+	 * @return {@code true} if all the solutions were written, {@code false}
+	 *         otherwise.
+	 */
+	public boolean writeAll(SATsolutionsList solutions) {
+		for (int i = 0; i < solutions.size(); i++) {
+			if (!write(solutions.get(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void solutionFound(SolutionWorkflow solution) {
+		write(solution);
+	}
+
+	/**
+	 * Flush the written solutions and force them to the storage device.
+	 *
+	 * @throws IOException error in writing the file
+	 */
+	public synchronized void sync() throws IOException {
+		out.flush();
+		if (gzipStream != null) {
+			gzipStream.flush();
+		}
+		fileStream.getFD().sync();
+		lastSync = System.currentTimeMillis();
+	}
+
+	/**
+	 * Close the writer. The remaining solutions are written to the file.
+	 *
+	 * @return {@code true} if all the solutions were successfully written,
+	 *         {@code false} otherwise.
+	 */
+	public synchronized boolean finish() {
+		if (closed) {
+			return !failed;
+		}
+		closed = true;
+		try {
+			out.close();
+		} catch (IOException e) {
+			System.err.println("Error occured while writing the solutions to " + file.getPath() + ": " + e.getMessage());
+			failed = true;
+		}
+		return !failed;
+	}
+
+	@Override
+	public void close() {
+		finish();
+	}
+
+	/**
+	 * @return Number of the solutions written so far.
+	 */
+	public synchronized int getWritten() {
+		return written;
+	}
+
+	/**
+	 * @return {@code true} if writing of a solution failed.
+	 */
+	public synchronized boolean hasFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return the {@link #file}
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the {@link #format}
+	 */
+	public SolutionFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Get the JSON representation of the solution, i.e. the sequence of tools,
+	 * where each tool refers to the data instances it uses and creates, and the
+	 * workflow inputs and outputs.
+	 *
+	 * @param solution - the workflow solution
+	 * @return JSON object that represents the solution.
+	 */
+	public static JSONObject toJSON(SolutionWorkflow solution) {
+		JSONObject json = new JSONObject();
+		json.put("index", solution.getIndex());
+		json.put("length", solution.getSolutionlength());
+		if (solution.getCost() >= 0) {
+			json.put("cost", solution.getCost());
+		}
+		json.put("inputs", dataToJSON(solution.getWorkflowInputTypeStates()));
+		JSONArray steps = new JSONArray();
+		for (ModuleNode tool : solution.getModuleNodes()) {
+			JSONObject step = new JSONObject();
+			step.put("tool", tool.getUsedModule().getPredicateID());
+			step.put("label", tool.getUsedModule().getPredicateLabel());
+			step.put("inputs", dataToJSON(tool.getInputTypes()));
+			step.put("outputs", dataToJSON(tool.getOutputTypes()));
+			steps.put(step);
+		}
+		json.put("steps", steps);
+		json.put("outputs", dataToJSON(solution.getWorkflowOutputTypeStates()));
+		return json;
+	}
+
+	/** Data instances, identified by the memory state they are stored in. */
+	private static JSONArray dataToJSON(Collection<TypeNode> typeNodes) {
+		JSONArray data = new JSONArray();
+		for (TypeNode typeNode : typeNodes) {
+			if (typeNode.isEmpty()) {
+				continue;
+			}
+			JSONObject instance = new JSONObject();
+			instance.put("id", typeNode.getAutomatonState().getPredicateID());
+			JSONArray types = new JSONArray();
+			for (Type type : typeNode.getTypes()) {
+				types.put(type.getPredicateID());
+			}
+			instance.put("types", types);
+			data.put(instance);
+		}
+		return data;
+	}
+
+	/**
+	 * Get the CSV row that represents the solution: index, length, sequence of
+	 * tools, workflow inputs and workflow outputs. Lists are separated by
+	 * {@value #CSV_LIST_SEPARATOR} and the types of a data instance by a space.
+	 *
+	 * @param solution - the workflow solution
+	 * @return CSV row (without the line break) that represents the solution.
+	 */
+	public static String toCSV(SolutionWorkflow solution) {
+		StringBuilder tools = new StringBuilder();
+		for (ModuleNode tool : solution.getModuleNodes()) {
+			if (tools.length() > 0) {
+				tools.append(CSV_LIST_SEPARATOR);
+			}
+			tools.append(tool.getUsedModule().getPredicateID());
+		}
+		return new StringBuilder().append(solution.getIndex()).append(',').append(solution.getSolutionlength())
+				.append(',').append(csvField(tools.toString())).append(',')
+				.append(csvField(dataToCSV(solution.getWorkflowInputTypeStates()))).append(',')
+				.append(csvField(dataToCSV(solution.getWorkflowOutputTypeStates()))).toString();
+	}
+
+	private static String dataToCSV(Collection<TypeNode> typeNodes) {
+		StringBuilder data = new StringBuilder();
+		for (TypeNode typeNode : typeNodes) {
+			if (typeNode.isEmpty()) {
+				continue;
+			}
+			if (data.length() > 0) {
+				data.append(CSV_LIST_SEPARATOR);
+			}
+			int i = 0;
+			for (Type type : typeNode.getTypes()) {
+				if (i++ > 0) {
+					data.append(' ');
+				}
+				data.append(type.getPredicateID());
+			}
+		}
+		return data.toString();
+	}
+
+	/** Quote the CSV field when it contains a separator, a quote or a line break. */
+	private static String csvField(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+				&& value.indexOf('\r') < 0) {
+			return value;
+		}
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+}
@@ -0,0 +1,141 @@
+package nl.uu.cs.ape.sat.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+/**
+ * The {@code LengthMetrics} class gathers the metrics of the synthesis of
+ * workflows of a single length, i.e. of a single run of the synthesis engine.
+ * Phase timings are used for the individual encoding steps, while the size of
+ * the encoding, solving and decoding times, the number of solutions and the SAT
+ * solver statistics are stored separately.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class LengthMetrics extends PhaseTimings {
+
+	/** Length of the workflows. */
+	private final int length;
+	/** Number of variables and clauses in the encoding. */
+	private int variables, clauses;
+	/** Number of solutions found. */
+	private int solutions;
+	/** Time spent in the SAT solver and in decoding of the models, in milliseconds. */
+	private long solvingTime, decodingTime;
+	/** Statistics provided by the SAT solver (e.g. conflicts, decisions, propagations). */
+	private Map<String, Number> solverStatistics;
+
+	/**
+	 * Create the metrics for workflows of the given length.
+	 *
+	 * @param length    - length of the workflows
+	 * @param debugMode - if {@code true} the encoding steps are printed
+	 */
+	public LengthMetrics(int length, boolean debugMode) {
+		super(debugMode);
+		this.length = length;
+		this.solverStatistics = Collections.emptyMap();
+	}
+
+	/**
+	 * Set the size of the encoding.
+	 *
+	 * @param variables - number of variables in the encoding
+	 * @param clauses   - number of clauses in the encoding
+	 */
+	public synchronized void setEncodingSize(int variables, int clauses) {
+		this.variables = variables;
+		this.clauses = clauses;
+	}
+
+	/**
+	 * Add a found solution and the time spent to find and decode it.
+	 *
+	 * @param solvingTime  - time spent in the solver, in milliseconds
+	 * @param decodingTime - time spent decoding the model, in milliseconds
+	 */
+	public synchronized void addSolution(long solvingTime, long decodingTime) {
+		this.solutions++;
+		this.solvingTime += solvingTime;
+		this.decodingTime += decodingTime;
+	}
+
+	/**
+	 * Add time spent in the solver that did not result in a solution (e.g. the
+	 * final UNSAT call).
+	 *
+	 * @param solvingTime - time spent in the solver, in milliseconds
+	 */
+	public synchronized void addSolvingTime(long solvingTime) {
+		this.solvingTime += solvingTime;
+	}
+
+	/**
+	 * @param solverStatistics - statistics provided by the SAT solver
+	 */
+	public synchronized void setSolverStatistics(Map<String, Number> solverStatistics) {
+		this.solverStatistics = new HashMap<String, Number>(solverStatistics);
+	}
+
+	/** @return the field {@link #length}. */
+	public int getLength() {
+		return length;
+	}
+
+	/** @return the field {@link #variables}. */
+	public synchronized int getVariables() {
+		return variables;
+	}
+
+	/** @return the field {@link #clauses}. */
+	public synchronized int getClauses() {
+		return clauses;
+	}
+
+	/** @return the field {@link #solutions}. */
+	public synchronized int getSolutions() {
+		return solutions;
+	}
+
+	/** @return the field {@link #solvingTime}. */
+	public synchronized long getSolvingTime() {
+		return solvingTime;
+	}
+
+	/** @return the field {@link #decodingTime}. */
+	public synchronized long getDecodingTime() {
+		return decodingTime;
+	}
+
+	/** @return the field {@link #solverStatistics}. */
+	public synchronized Map<String, Number> getSolverStatistics() {
+		return Collections.unmodifiableMap(solverStatistics);
+	}
+
+	/**
+	 * @return Number of solutions found per second of solving and decoding.
+	 */
+	public synchronized double getSolutionsPerSecond() {
+		long time = solvingTime + decodingTime;
+		return time == 0 ? 0 : solutions * 1000.0 / time;
+	}
+
+	@Override
+	public synchronized JSONObject toJSON() {
+		JSONObject json = new JSONObject();
+		json.put("length", length);
+		json.put("encoding", super.toJSON());
+		json.put("variables", variables);
+		json.put("clauses", clauses);
+		json.put("solutions", solutions);
+		json.put("solving_time", solvingTime);
+		json.put("decoding_time", decodingTime);
+		json.put("solutions_per_second", getSolutionsPerSecond());
+		json.put("solver", new JSONObject(solverStatistics));
+		return json;
+	}
+}
@@ -0,0 +1,111 @@
+package nl.uu.cs.ape.sat.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.JSONObject;
+
+/**
+ * The {@code PhaseTimings} class records the durations (in milliseconds) of the
+ * named phases of a computation, in the order in which they were first
+ * recorded. Durations of phases that are recorded multiple times are summed up.
+ * The class is thread safe.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class PhaseTimings {
+
+	/** Durations of the phases in milliseconds. */
+	private final Map<String, Long> phases;
+	/** {@code true} if each recorded lap should be printed. */
+	private final boolean debugMode;
+	/** Start of the current lap, see {@link #lap(String)}. */
+	private long lapStart;
+
+	/**
+	 * Create an empty set of timings and start the lap timer.
+	 *
+	 * @param debugMode - if {@code true} each {@link #lap(String)} is printed to
+	 *                  the standard output
+	 */
+	public PhaseTimings(boolean debugMode) {
+		this.phases = new LinkedHashMap<String, Long>();
+		this.debugMode = debugMode;
+		this.lapStart = System.currentTimeMillis();
+	}
+
+	/**
+	 * Restart the lap timer without recording a phase.
+	 */
+	public synchronized void restart() {
+		lapStart = System.currentTimeMillis();
+	}
+
+	/**
+	 * Record the time elapsed since the last lap (or restart) as the duration of
+	 * the given phase and restart the lap timer.
+	 *
+	 * @param phase - name of the phase
+	 * @return Duration of the phase in milliseconds.
+	 */
+	public synchronized long lap(String phase) {
+		long now = System.currentTimeMillis();
+		long duration = now - lapStart;
+		lapStart = now;
+		add(phase, duration);
+		if (debugMode) {
+			System.out.println(phase + " setup time: " + (duration / 1000F) + " sec.");
+		}
+		return duration;
+	}
+
+	/**
+	 * Add the duration to the given phase.
+	 *
+	 * @param phase    - name of the phase
+	 * @param duration - duration in milliseconds
+	 */
+	public synchronized void add(String phase, long duration) {
+		Long current = phases.get(phase);
+		phases.put(phase, current == null ? duration : current + duration);
+	}
+
+	/**
+	 * @param phase - name of the phase
+	 * @return Duration of the phase in milliseconds, or {@code null} if the phase
+	 *         was not recorded.
+	 */
+	public synchronized Long get(String phase) {
+		return phases.get(phase);
+	}
+
+	/**
+	 * @return Sum of the durations of all the recorded phases, in milliseconds.
+	 */
+	public synchronized long getTotal() {
+		long total = 0;
+		for (Long duration : phases.values()) {
+			total += duration;
+		}
+		return total;
+	}
+
+	/**
+	 * @return {@code true} if each recorded lap is printed.
+	 */
+	public boolean getDebugMode() {
+		return debugMode;
+	}
+
+	/**
+	 * @return JSON object that maps each phase to its duration in milliseconds.
+	 */
+	public synchronized JSONObject toJSON() {
+		JSONObject json = new JSONObject();
+		for (Map.Entry<String, Long> phase : phases.entrySet()) {
+			json.put(phase.getKey(), phase.getValue());
+		}
+		return json;
+	}
+}
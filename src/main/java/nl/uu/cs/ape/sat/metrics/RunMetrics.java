@@ -0,0 +1,182 @@
+package nl.uu.cs.ape.sat.metrics;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.sat.utils.APEUtils;
+
+/**
+ * The {@code RunMetrics} class gathers the metrics of a single synthesis run.
+ * It contains the timings of the domain setup, the metrics of each explored
+ * workflow length and the timings of the run level phases (e.g. writing the
+ * solutions and rendering the graphs). The metrics can be obtained as a JSON
+ * report and periodically exported to a file while the run is in progress.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class RunMetrics extends PhaseTimings {
+
+	/** Maximal time the final export waits for a running export, in seconds. */
+	private static final int EXPORT_TIMEOUT_SEC = 10;
+
+	/** Timings of the domain setup (shared between the runs). */
+	private final PhaseTimings domainTimings;
+	/** Metrics of the explored lengths. */
+	private final List<LengthMetrics> lengths;
+	/** Start and end time of the run, end time is -1 while the run is active. */
+	private final long startTime;
+	private long endTime;
+	/** Executor used for the periodic export, {@code null} if the export is not active. */
+	private ScheduledExecutorService exporter;
+	private File exportFile;
+
+	/**
+	 * Create metrics of a new run.
+	 *
+	 * @param domainTimings - timings of the domain setup
+	 * @param debugMode     - if {@code true} the run phases are printed
+	 */
+	public RunMetrics(PhaseTimings domainTimings, boolean debugMode) {
+		super(debugMode);
+		this.domainTimings = domainTimings;
+		this.lengths = new ArrayList<LengthMetrics>();
+		this.startTime = System.currentTimeMillis();
+		this.endTime = -1;
+	}
+
+	/**
+	 * Add the metrics of an explored length.
+	 *
+	 * @param lengthMetrics - metrics of the length
+	 */
+	public synchronized void addLength(LengthMetrics lengthMetrics) {
+		lengths.add(lengthMetrics);
+	}
+
+	/**
+	 * @return List of metrics of the explored lengths.
+	 */
+	public synchronized List<LengthMetrics> getLengths() {
+		return new ArrayList<LengthMetrics>(lengths);
+	}
+
+	/**
+	 * Mark the end of the synthesis run.
+	 */
+	public synchronized void finish() {
+		endTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * @return Running time in milliseconds (up to now if the run is still
+	 *         active).
+	 */
+	public synchronized long getRunningTime() {
+		return (endTime == -1 ? System.currentTimeMillis() : endTime) - startTime;
+	}
+
+	/**
+	 * @return Total number of solutions found over all the lengths.
+	 */
+	public synchronized int getSolutions() {
+		int solutions = 0;
+		for (LengthMetrics length : lengths) {
+			solutions += length.getSolutions();
+		}
+		return solutions;
+	}
+
+	/**
+	 * @return Number of solutions per second of the whole run.
+	 */
+	public synchronized double getSolutionsPerSecond() {
+		long time = getRunningTime();
+		return time == 0 ? 0 : getSolutions() * 1000.0 / time;
+	}
+
+	/**
+	 * Start exporting the JSON report to the given file in regular intervals. The
+	 * export is performed by a background (daemon) thread, until
+	 * {@link #stopExport()} is called.
+	 *
+	 * @param file     - file the report is written to
+	 * @param interval - interval between two exports, in seconds
+	 */
+	public void startExport(File file, int interval) {
+		stopExport();
+		ScheduledExecutorService newExporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "APE-metrics-export");
+			thread.setDaemon(true);
+			return thread;
+		});
+		synchronized (this) {
+			this.exportFile = file;
+			this.exporter = newExporter;
+		}
+		newExporter.scheduleAtFixedRate(() -> export(file), interval, interval, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stop the periodic export, if active, and write the final report. An export
+	 * that is already running is awaited, so that it cannot overwrite the final
+	 * report.
+	 */
+	public void stopExport() {
+		ScheduledExecutorService stoppedExporter;
+		File file;
+		synchronized (this) {
+			if (exporter == null) {
+				return;
+			}
+			stoppedExporter = exporter;
+			file = exportFile;
+			exporter = null;
+		}
+		/* Not holding the lock, as the running export waits for it in toJSON(). */
+		stoppedExporter.shutdown();
+		try {
+			if (!stoppedExporter.awaitTermination(EXPORT_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+				System.err.println("Periodic export of the metrics did not finish in " + EXPORT_TIMEOUT_SEC
+						+ " seconds.");
+				stoppedExporter.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		export(file);
+	}
+
+	/**
+	 * Write the current report to the export file.
+	 *
+	 * @param file - file the report is written to
+	 */
+	private void export(File file) {
+		APEUtils.write2file(toJSON().toString(2), file, false);
+	}
+
+	@Override
+	public synchronized JSONObject toJSON() {
+		JSONObject json = new JSONObject();
+		json.put("domain", domainTimings == null ? new JSONObject() : domainTimings.toJSON());
+		json.put("run", super.toJSON());
+		JSONArray jsonLengths = new JSONArray();
+		for (LengthMetrics length : lengths) {
+			jsonLengths.put(length.toJSON());
+		}
+		json.put("lengths", jsonLengths);
+		json.put("solutions", getSolutions());
+		json.put("running_time", getRunningTime());
+		json.put("solutions_per_second", getSolutionsPerSecond());
+		json.put("finished", endTime != -1);
+		return json;
+	}
+}
@@ -4,9 +4,13 @@
 package nl.uu.cs.ape.sat.models;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import nl.uu.cs.ape.sat.models.logic.constructs.PredicateLabel;
 import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
@@ -21,12 +25,18 @@ import nl.uu.cs.ape.sat.utils.APEUtils;
 public abstract class AllPredicates {
 
 	private Map<String, TaxonomyPredicate> predicates;
+	/**
+	 * Predicates removed from the taxonomy by trimming, kept so that they can
+	 * become relevant again when the domain is updated.
+	 */
+	private Map<String, TaxonomyPredicate> trimmedPredicates;
 	/** Root of the taxonomy. */
 	private String taxonomyRoot;
 	
 	public AllPredicates(String dataTaxonomyRoot) {
 		this.taxonomyRoot = dataTaxonomyRoot;
 		this.predicates = new HashMap<String, TaxonomyPredicate> ();
+		this.trimmedPredicates = new HashMap<String, TaxonomyPredicate>();
 	}
 	
 	/**
@@ -121,10 +131,265 @@ public abstract class AllPredicates {
 			subTaxRoot.removeAllSubPredicates(toRemove);
 		} else {
 			this.predicates.remove(subTaxRoot.getPredicateID());
+			this.trimmedPredicates.put(subTaxRoot.getPredicateID(), subTaxRoot);
 		}
 		
 		return true;
 	}
+
+	/**
+	 * Returns the predicate that was removed by trimming, or {@code null} if there
+	 * is no such predicate.
+	 * 
+	 * @param predicateID - ID of the predicate
+	 * @return The trimmed predicate.
+	 */
+	public TaxonomyPredicate getTrimmed(String predicateID) {
+		return this.trimmedPredicates.get(predicateID);
+	}
+
+	/**
+	 * Restore the predicate that was removed by trimming, together with its
+	 * trimmed super- and sub-predicates, so that it can be used in the domain
+	 * again. If the predicate is in the taxonomy, its trimmed sub-predicates are
+	 * restored. The restored predicates are not relevant, the ones that do not
+	 * become relevant should be trimmed again (see
+	 * {@link #trimPredicates(Collection)}).
+	 * 
+	 * @param predicateID - ID of the predicate
+	 * @return The restored predicates (possibly empty).
+	 */
+	public Set<TaxonomyPredicate> restorePredicate(String predicateID) {
+		Set<TaxonomyPredicate> restored = new LinkedHashSet<TaxonomyPredicate>();
+		TaxonomyPredicate predicate = trimmedPredicates.get(predicateID);
+		if (predicate != null) {
+			restoreSuperPredicates(predicate, restored);
+		} else {
+			predicate = get(predicateID);
+		}
+		if (predicate != null && !trimmedPredicates.isEmpty()) {
+			restoreSubPredicates(predicate, getTrimmedSubPredicates(), restored);
+		}
+		return restored;
+	}
+
+	private void restoreSuperPredicates(TaxonomyPredicate predicate, Set<TaxonomyPredicate> restored) {
+		restore(predicate, restored);
+		for (String superPredicateID : APEUtils.safe(predicate.getSuperPredicates())) {
+			TaxonomyPredicate superPredicate = trimmedPredicates.get(superPredicateID);
+			if (superPredicate != null) {
+				restoreSuperPredicates(superPredicate, restored);
+			}
+		}
+	}
+
+	private void restoreSubPredicates(TaxonomyPredicate predicate,
+			Map<String, List<TaxonomyPredicate>> trimmedSubPredicates, Set<TaxonomyPredicate> restored) {
+		for (TaxonomyPredicate subPredicate : APEUtils.safe(trimmedSubPredicates.get(predicate.getPredicateID()))) {
+			if (trimmedPredicates.containsKey(subPredicate.getPredicateID())) {
+				restore(subPredicate, restored);
+				restoreSubPredicates(subPredicate, trimmedSubPredicates, restored);
+			}
+		}
+	}
+
+	/**
+	 * @return The trimmed predicates, mapped by the IDs of their
+	 *         super-predicates. The predicates in the taxonomy are not linked to
+	 *         their trimmed sub-predicates, so the links are recovered from the
+	 *         trimmed predicates.
+	 */
+	private Map<String, List<TaxonomyPredicate>> getTrimmedSubPredicates() {
+		Map<String, List<TaxonomyPredicate>> trimmedSubPredicates = new HashMap<String, List<TaxonomyPredicate>>();
+		for (TaxonomyPredicate predicate : trimmedPredicates.values()) {
+			for (String superPredicateID : APEUtils.safe(predicate.getSuperPredicates())) {
+				trimmedSubPredicates.computeIfAbsent(superPredicateID, id -> new ArrayList<TaxonomyPredicate>())
+						.add(predicate);
+			}
+		}
+		return trimmedSubPredicates;
+	}
+
+	/**
+	 * @param predicate - predicate in the taxonomy, or a trimmed one
+	 * @return {@code true} if the predicate has sub-predicates, either in the
+	 *         taxonomy or trimmed.
+	 */
+	public boolean hasSubPredicates(TaxonomyPredicate predicate) {
+		if (!APEUtils.safe(predicate.getSubPredicates()).isEmpty()) {
+			return true;
+		}
+		for (TaxonomyPredicate trimmed : trimmedPredicates.values()) {
+			if (APEUtils.safe(trimmed.getSuperPredicates()).contains(predicate.getPredicateID())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Move the predicate from the trimmed predicates to the taxonomy, as a
+	 * sub-predicate of its super-predicates that are in the taxonomy.
+	 */
+	private void restore(TaxonomyPredicate predicate, Set<TaxonomyPredicate> restored) {
+		if (trimmedPredicates.remove(predicate.getPredicateID()) == null) {
+			return;
+		}
+		predicates.put(predicate.getPredicateID(), predicate);
+		restored.add(predicate);
+		for (String superPredicateID : APEUtils.safe(predicate.getSuperPredicates())) {
+			TaxonomyPredicate superPredicate = get(superPredicateID);
+			if (superPredicate != null) {
+				superPredicate.addSubPredicate(predicate.getPredicateID());
+			}
+		}
+	}
+
+	/**
+	 * Trim the given predicates that are not relevant, i.e. remove them from the
+	 * taxonomy, as {@link #trimTaxonomy()} would.
+	 * 
+	 * @param candidates - predicates that should be trimmed if they are not
+	 *                   relevant
+	 */
+	public void trimPredicates(Collection<TaxonomyPredicate> candidates) {
+		for (TaxonomyPredicate predicate : candidates) {
+			if (predicate.getIsRelevant() || predicate.isRootPredicate()
+					|| predicates.get(predicate.getPredicateID()) != predicate) {
+				continue;
+			}
+			predicates.remove(predicate.getPredicateID());
+			trimmedPredicates.put(predicate.getPredicateID(), predicate);
+			for (String superPredicateID : APEUtils.safe(predicate.getSuperPredicates())) {
+				TaxonomyPredicate superPredicate = get(superPredicateID);
+				if (superPredicate != null
+						&& (superPredicate.getIsRelevant() || superPredicate.isRootPredicate())) {
+					superPredicate.removeSubPredicate(predicate.getPredicateID());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Recompute the relevance of the predicates related to (i.e. super- or
+	 * sub-predicates of) the former relevant predicates, after these were removed
+	 * from the domain, and trim the ones that are no longer relevant. A predicate
+	 * remains relevant if it is related to any of the remaining relevant
+	 * predicates. The relevance of the other predicates does not change.
+	 * 
+	 * @param formerPredicates - predicates that were set as relevant by the
+	 *                         removed part of the domain
+	 * @param predicates       - predicates that are set as relevant by the
+	 *                         remaining domain (e.g. the tools and the types used
+	 *                         in their annotations)
+	 */
+	public void refreshRelevance(Collection<TaxonomyPredicate> formerPredicates,
+			Collection<TaxonomyPredicate> predicates) {
+		Set<TaxonomyPredicate> affected = getRelatedPredicates(formerPredicates);
+		if (affected.isEmpty()) {
+			return;
+		}
+		Set<TaxonomyPredicate> relevant = getRelatedPredicates(predicates);
+		for (TaxonomyPredicate predicate : affected) {
+			predicate.setIsRelevant(relevant.contains(predicate));
+		}
+		trimPredicates(affected);
+	}
+
+	/**
+	 * @return The given predicates that are in the taxonomy, with all their
+	 *         super- and sub-predicates.
+	 */
+	private Set<TaxonomyPredicate> getRelatedPredicates(Collection<TaxonomyPredicate> predicates) {
+		Set<TaxonomyPredicate> superPredicates = new HashSet<TaxonomyPredicate>();
+		Set<TaxonomyPredicate> subPredicates = new HashSet<TaxonomyPredicate>();
+		for (TaxonomyPredicate predicate : predicates) {
+			if (get(predicate.getPredicateID()) == predicate) {
+				collectSuperPredicates(predicate, superPredicates);
+				collectSubPredicates(predicate, subPredicates);
+			}
+		}
+		Set<TaxonomyPredicate> related = new LinkedHashSet<TaxonomyPredicate>(superPredicates);
+		related.addAll(subPredicates);
+		return related;
+	}
+
+	private void collectSuperPredicates(TaxonomyPredicate predicate, Set<TaxonomyPredicate> collected) {
+		if (collected.add(predicate)) {
+			for (String superPredicateID : APEUtils.safe(predicate.getSuperPredicates())) {
+				TaxonomyPredicate superPredicate = get(superPredicateID);
+				if (superPredicate != null) {
+					collectSuperPredicates(superPredicate, collected);
+				}
+			}
+		}
+	}
+
+	private void collectSubPredicates(TaxonomyPredicate predicate, Set<TaxonomyPredicate> collected) {
+		if (collected.add(predicate)) {
+			for (String subPredicateID : APEUtils.safe(predicate.getSubPredicates())) {
+				TaxonomyPredicate subPredicate = get(subPredicateID);
+				if (subPredicate != null) {
+					collectSubPredicates(subPredicate, collected);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove the predicate from the domain, whether it is in the taxonomy or it
+	 * was trimmed. The predicate is removed from the sub-predicates of its
+	 * super-predicates.
+	 * 
+	 * @param predicateID - ID of the predicate
+	 * @return The removed predicate, or {@code null} if it did not exist.
+	 */
+	public TaxonomyPredicate removePredicate(String predicateID) {
+		TaxonomyPredicate predicate = predicates.remove(predicateID);
+		if (predicate == null) {
+			predicate = trimmedPredicates.remove(predicateID);
+		}
+		if (predicate == null) {
+			return null;
+		}
+		for (String superPredicateID : APEUtils.safe(predicate.getSuperPredicates())) {
+			TaxonomyPredicate superPredicate = get(superPredicateID);
+			if (superPredicate == null) {
+				superPredicate = trimmedPredicates.get(superPredicateID);
+			}
+			if (superPredicate != null) {
+				superPredicate.removeSubPredicate(predicateID);
+			}
+		}
+		return predicate;
+	}
+
+	/**
+	 * Add the predicate to the domain, as a sub-predicate of an existing
+	 * predicate. The predicate is trimmed if the super-predicate was trimmed.
+	 * 
+	 * @param predicate        - new predicate
+	 * @param superPredicateID - ID of the super-predicate
+	 * @return {@code true} if the predicate was added, {@code false} if the
+	 *         super-predicate does not exist or cannot have sub-predicates.
+	 */
+	public boolean addSubPredicate(TaxonomyPredicate predicate, String superPredicateID) {
+		TaxonomyPredicate superPredicate = get(superPredicateID);
+		boolean trimmed = superPredicate == null;
+		if (trimmed) {
+			superPredicate = trimmedPredicates.get(superPredicateID);
+		}
+		if (superPredicate == null || !superPredicate.addSubPredicate(predicate)) {
+			return false;
+		}
+		predicate.addSuperPredicate(superPredicate);
+		if (trimmed) {
+			trimmedPredicates.put(predicate.getPredicateID(), predicate);
+		} else {
+			predicates.put(predicate.getPredicateID(), predicate);
+		}
+		return true;
+	}
 	
 	/**
 	 * Return the predicates from the domain.
@@ -103,7 +103,9 @@ public class AtomMappings {
 	}
 	
 	/**
-	 * Get the next auxiliary number and increase the counter by 1.
+	 * Get the next auxiliary number and increase the counter by 1. The numbers
+	 * are not checked against {@link #getMaxNumOfMappedAuxVar()} here, the
+	 * encoding is rejected once it is complete if the range was exceeded.
 	 * @return Mapping number that can be used for auxiliary variables.
 	 */
 	public int getNextAuxNum() {
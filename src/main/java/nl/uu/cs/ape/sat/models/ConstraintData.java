@@ -6,6 +6,7 @@ package nl.uu.cs.ape.sat.models;
 import java.util.List;
 
 import nl.uu.cs.ape.sat.constraints.ConstraintParameter;
+import nl.uu.cs.ape.sat.models.formulas.SLTL_expression;
 
 /**
  * The {#code ConstraintData} class is used to store the data describing each constrain.
@@ -17,10 +18,44 @@ public class ConstraintData {
 
 	private String constraintID;
 	private List<ConstraintParameter> parameters;
+	/** Weight of a soft constraint, or {@code null} if the constraint is hard. */
+	private Integer weight;
+	/** SLTL formula of the constraint, or {@code null} if the constraint is based on a template. */
+	private SLTL_expression formula;
 	
 	public ConstraintData(String constraintID,  List<ConstraintParameter> parameters) {
 		this.constraintID = constraintID;
 		this.parameters = parameters;
+		this.weight = null;
+	}
+
+	/**
+	 * Create a soft constraint, i.e. a constraint that may be violated at the
+	 * given cost when the workflows are ordered by their cost.
+	 * 
+	 * @param constraintID - ID of the constraint template
+	 * @param parameters   - parameters of the template
+	 * @param weight       - cost of violating the constraint (positive)
+	 */
+	public ConstraintData(String constraintID, List<ConstraintParameter> parameters, Integer weight) {
+		this.constraintID = constraintID;
+		this.parameters = parameters;
+		this.weight = weight;
+	}
+
+	/**
+	 * Create a constraint given as an SLTL formula, instead of a template.
+	 * 
+	 * @param constraintID - ID of the constraint
+	 * @param formula      - SLTL formula that has to hold in the workflow
+	 * @param weight       - cost of violating the constraint (positive), or
+	 *                     {@code null} if the constraint is hard
+	 */
+	public ConstraintData(String constraintID, SLTL_expression formula, Integer weight) {
+		this.constraintID = constraintID;
+		this.parameters = null;
+		this.formula = formula;
+		this.weight = weight;
 	}
 
 	/**
@@ -36,5 +71,28 @@ public class ConstraintData {
 	public List<ConstraintParameter> getParameters() {
 		return parameters;
 	}
+
+	/**
+	 * @return the weight of the soft constraint, or {@code null} if the
+	 *         constraint is hard
+	 */
+	public Integer getWeight() {
+		return weight;
+	}
+
+	/**
+	 * @return the SLTL formula, or {@code null} if the constraint is based on a
+	 *         template
+	 */
+	public SLTL_expression getFormula() {
+		return formula;
+	}
+
+	/**
+	 * @return {@code true} if the constraint is soft.
+	 */
+	public boolean isSoft() {
+		return weight != null;
+	}
 	
 }
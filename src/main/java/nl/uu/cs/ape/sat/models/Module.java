@@ -11,6 +11,7 @@ import org.json.JSONObject;
 import nl.uu.cs.ape.sat.models.SATEncodingUtils.TypeUtils;
 import nl.uu.cs.ape.sat.models.enums.LogicOperation;
 import nl.uu.cs.ape.sat.models.enums.NodeType;
+import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
 import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 import nl.uu.cs.ape.sat.utils.APEConfig;
 import nl.uu.cs.ape.sat.utils.APEDomainSetup;
@@ -32,6 +33,8 @@ public class Module extends AbstractModule {
 	private List<DataInstance> moduleOutput;
 	/** Tool execution engine - TODO */
 	private ModuleExecution moduleExecution;
+	/** Cost (e.g. runtime) of using the tool, 0 if the tool was not annotated with a cost. */
+	private int cost;
 
 	/**
 	 * Constructs a new Module with already defined lists of input and output types.
@@ -76,6 +79,7 @@ public class Module extends AbstractModule {
 		this.moduleInput = module.getModuleInput();
 		this.moduleOutput = module.getModuleOutput();
 		this.moduleExecution = module.getModuleExecution();
+		this.cost = module.getCost();
 	}
 
 	public int hashCode() {
@@ -151,6 +155,23 @@ public class Module extends AbstractModule {
 		return this.moduleExecution;
 	}
 
+	/**
+	 * @return the {@link #cost}
+	 */
+	public int getCost() {
+		return cost;
+	}
+
+	/**
+	 * Set the cost of using the tool, used when the workflows are ordered by
+	 * their cost.
+	 * 
+	 * @param cost - non-negative cost of the tool
+	 */
+	public void setCost(int cost) {
+		this.cost = cost;
+	}
+
 	static int id = 1;
 
 
@@ -192,6 +213,20 @@ public class Module extends AbstractModule {
 					.getString(APEConfig.getJsonTags("code"));
 		} catch (JSONException e) {
 			/* Skip the execution code */}
+
+		int cost = 0;
+		if (jsonModule.has(APEConfig.getJsonTags("cost"))) {
+			try {
+				cost = jsonModule.getInt(APEConfig.getJsonTags("cost"));
+			} catch (JSONException e) {
+				cost = -1;
+			}
+			if (cost < 0) {
+				System.err.println("Cost of the annotated tool \"" + moduleID
+						+ "\" should be a non-negative integer. The cost is ignored.");
+				cost = 0;
+			}
+		}
 		
 		List<JSONObject> jsonModuleInput = APEUtils.getListFromJson(jsonModule, APEConfig.getJsonTags("inputs"),
 				JSONObject.class);
@@ -239,7 +274,7 @@ public class Module extends AbstractModule {
 											+ "' was not defined, but it was used as annotation for input type '" + currTypeID + "'.");
 						}
 					}
-					Type newAbsType = (Type) domainSetup.generateHelperPredicate(logConnectedPredicates, logConn);
+					Type newAbsType = (Type) domainSetup.generateHelperPredicate(logConnectedPredicates, logConn, WorkflowElement.USED_TYPE);
 					if(newAbsType != null) {
 						newAbsType.setAsRelevantTaxonomyTerm(allTypes);
 						input.addType(newAbsType);
@@ -288,7 +323,7 @@ public class Module extends AbstractModule {
 											+ "' was not defined, but it was used as annotation for output type '" + currTypeID + "'.");
 						}
 					}
-					Type newAbsType = (Type) domainSetup.generateHelperPredicate(logConnectedPredicates, logConn);
+					Type newAbsType = (Type) domainSetup.generateHelperPredicate(logConnectedPredicates, logConn, WorkflowElement.MEMORY_TYPE);
 					if(newAbsType != null) {
 						newAbsType.setAsRelevantTaxonomyTerm(allTypes);
 						output.addType(newAbsType);
@@ -308,6 +343,7 @@ public class Module extends AbstractModule {
 		 * previously defined)
 		 */
 		Module currModule =  (Module) allModules.addPredicate(new Module(moduleLabel, moduleID, allModules.getRootID(), moduleExecutionImpl));
+		currModule.setCost(cost);
 		
 		/*	For each supermodule add the current module as a subset and vice versa. */
 		for(String superModuleID : taxonomyModules) {
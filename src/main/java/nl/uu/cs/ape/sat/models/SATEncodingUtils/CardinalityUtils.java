@@ -0,0 +1,155 @@
+package nl.uu.cs.ape.sat.models.SATEncodingUtils;
+
+import java.util.List;
+
+import nl.uu.cs.ape.sat.models.AtomMappings;
+
+/**
+ * The {@code CardinalityUtils} class is used to encode cardinality constraints
+ * (at most, at least or exactly <b>k</b> of the given literals are true) in
+ * CNF. The constraints are encoded using a totalizer, i.e. a binary tree whose
+ * nodes count the true literals of their subtrees in unary notation. The
+ * counting is limited to <b>k + 1</b>, which keeps the encoding within
+ * O(n&middot;k) auxiliary variables and O(n&middot;k<sup>2</sup>) clauses for
+ * <b>n</b> literals, instead of the exponential number of clauses of the
+ * naive expansion.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class CardinalityUtils {
+
+	/**
+	 * Private constructor is used to to prevent instantiation.
+	 */
+	private CardinalityUtils() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Generate the CNF encoding of the constraint that at most <b>k</b> of the
+	 * literals are true.
+	 *
+	 * @param literals - mapped literals
+	 * @param k        - max number of true literals
+	 * @param mappings - atom mappings, used to create the auxiliary variables
+	 * @return CNF representation of the constraint.
+	 */
+	public static String atMost(List<Integer> literals, int k, AtomMappings mappings) {
+		if (k >= literals.size()) {
+			return "";
+		}
+		if (k < 0) {
+			return contradiction(mappings);
+		}
+		StringBuilder constraints = new StringBuilder();
+		int[] count = totalizer(literals, 0, literals.size(), k + 1, true, false, mappings, constraints);
+		constraints.append("-").append(count[k]).append(" 0\n");
+		return constraints.toString();
+	}
+
+	/**
+	 * Generate the CNF encoding of the constraint that at least <b>k</b> of the
+	 * literals are true.
+	 *
+	 * @param literals - mapped literals
+	 * @param k        - min number of true literals
+	 * @param mappings - atom mappings, used to create the auxiliary variables
+	 * @return CNF representation of the constraint.
+	 */
+	public static String atLeast(List<Integer> literals, int k, AtomMappings mappings) {
+		if (k <= 0) {
+			return "";
+		}
+		if (k > literals.size()) {
+			return contradiction(mappings);
+		}
+		StringBuilder constraints = new StringBuilder();
+		int[] count = totalizer(literals, 0, literals.size(), k, false, true, mappings, constraints);
+		constraints.append(count[k - 1]).append(" 0\n");
+		return constraints.toString();
+	}
+
+	/**
+	 * Generate the CNF encoding of the constraint that exactly <b>k</b> of the
+	 * literals are true. Both bounds share a single totalizer.
+	 *
+	 * @param literals - mapped literals
+	 * @param k        - number of true literals
+	 * @param mappings - atom mappings, used to create the auxiliary variables
+	 * @return CNF representation of the constraint.
+	 */
+	public static String exactly(List<Integer> literals, int k, AtomMappings mappings) {
+		if (k < 0 || k > literals.size()) {
+			return contradiction(mappings);
+		}
+		if (k == 0) {
+			return atMost(literals, 0, mappings);
+		}
+		if (k == literals.size()) {
+			return atLeast(literals, k, mappings);
+		}
+		StringBuilder constraints = new StringBuilder();
+		int[] count = totalizer(literals, 0, literals.size(), k + 1, true, true, mappings, constraints);
+		constraints.append(count[k - 1]).append(" 0\n");
+		constraints.append("-").append(count[k]).append(" 0\n");
+		return constraints.toString();
+	}
+
+	/**
+	 * Encode the totalizer over the literals in the range [from, to). The
+	 * returned variables represent the count in unary notation, i.e. the i-th
+	 * variable (0-based) represents that at least i+1 literals are true. The
+	 * count is limited to <b>cap</b>.
+	 *
+	 * @param up   - {@code true} if the true literals have to imply the count
+	 *             (required for the upper bounds)
+	 * @param down - {@code true} if the count has to imply the true literals
+	 *             (required for the lower bounds)
+	 */
+	private static int[] totalizer(List<Integer> literals, int from, int to, int cap, boolean up, boolean down,
+			AtomMappings mappings, StringBuilder constraints) {
+		if (to - from == 1) {
+			return new int[] { literals.get(from) };
+		}
+		int middle = (from + to) / 2;
+		int[] left = totalizer(literals, from, middle, cap, up, down, mappings, constraints);
+		int[] right = totalizer(literals, middle, to, cap, up, down, mappings, constraints);
+		int[] count = new int[Math.min(cap, left.length + right.length)];
+		for (int i = 0; i < count.length; i++) {
+			count[i] = mappings.getNextAuxNum();
+		}
+		/* i and j are the numbers of true literals in the left and right subtree. */
+		for (int i = 0; i <= left.length; i++) {
+			for (int j = 0; j <= right.length; j++) {
+				if (up && i + j > 0) {
+					/* left >= i and right >= j implies count >= i + j */
+					if (i > 0) {
+						constraints.append("-").append(left[i - 1]).append(" ");
+					}
+					if (j > 0) {
+						constraints.append("-").append(right[j - 1]).append(" ");
+					}
+					constraints.append(count[Math.min(i + j, count.length) - 1]).append(" 0\n");
+				}
+				if (down && i + j < count.length) {
+					/* left < i + 1 and right < j + 1 implies count < i + j + 1 */
+					if (i < left.length) {
+						constraints.append(left[i]).append(" ");
+					}
+					if (j < right.length) {
+						constraints.append(right[j]).append(" ");
+					}
+					constraints.append("-").append(count[i + j]).append(" 0\n");
+				}
+			}
+		}
+		return count;
+	}
+
+	/** An unsatisfiable constraint, expressed without the empty clause. */
+	private static String contradiction(AtomMappings mappings) {
+		int aux = mappings.getNextAuxNum();
+		return aux + " 0\n-" + aux + " 0\n";
+	}
+}
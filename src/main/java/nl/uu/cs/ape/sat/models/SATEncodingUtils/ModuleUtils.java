@@ -10,6 +10,7 @@ import nl.uu.cs.ape.sat.automaton.Block;
 import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
 import nl.uu.cs.ape.sat.automaton.State;
 import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
+import nl.uu.cs.ape.sat.core.RunControl;
 import nl.uu.cs.ape.sat.core.implSAT.SAT_SynthesisEngine;
 import nl.uu.cs.ape.sat.models.AbstractModule;
 import nl.uu.cs.ape.sat.models.AllModules;
@@ -96,6 +97,7 @@ public final class ModuleUtils {
 		StringBuilder constraints = new StringBuilder();
 		AtomMappings mappings = synthesisInstance.getMappings();
 		for (TaxonomyPredicate potentialModule : synthesisInstance.getDomainSetup().getAllModules().getModules()) {
+			synthesisInstance.getRunControl().checkpoint();
 			/* ..which is a Tool.. */
 			if ((potentialModule instanceof Module)) {
 				Module module = (Module) potentialModule;
@@ -516,6 +518,7 @@ public final class ModuleUtils {
 
 		// for each module
 		for (TaxonomyPredicate potentialModule : synthesisInstance.getDomainSetup().getAllModules().getModules()) {
+			synthesisInstance.getRunControl().checkpoint();
 			// that is a Tool
 			if ((potentialModule instanceof Module)) {
 				Module module = (Module) potentialModule;
@@ -562,13 +565,16 @@ public final class ModuleUtils {
 	 * 
 	 * @param moduleAutomaton
 	 * @param mappings
+	 * @param control         - control of the synthesis run, checked for
+	 *                        cancellation
 	 * @return {@link String} representation of constraints
 	 */
-	public static String moduleMutualExclusion(AllModules allModules, ModuleAutomaton moduleAutomaton, AtomMappings mappings) {
+	public static String moduleMutualExclusion(AllModules allModules, ModuleAutomaton moduleAutomaton, AtomMappings mappings, RunControl control) {
 
 		StringBuilder constraints = new StringBuilder();
 
 		for (Pair<PredicateLabel> pair : allModules.getSimplePairs()) {
+			control.checkpoint();
 			for (State moduleState : moduleAutomaton.getModuleStates()) {
 				constraints = constraints.append("-")
 						.append(mappings.add(pair.getFirst(), moduleState, WorkflowElement.MODULE)).append(" ");
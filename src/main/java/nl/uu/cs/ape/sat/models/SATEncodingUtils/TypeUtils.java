@@ -9,6 +9,7 @@ import java.util.List;
 import nl.uu.cs.ape.sat.automaton.Block;
 import nl.uu.cs.ape.sat.automaton.State;
 import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
+import nl.uu.cs.ape.sat.core.RunControl;
 import nl.uu.cs.ape.sat.models.AbstractModule;
 import nl.uu.cs.ape.sat.models.AllModules;
 import nl.uu.cs.ape.sat.models.AllTypes;
@@ -43,13 +44,15 @@ public class TypeUtils {
 	 * @param modules
 	 * @param typeAutomaton
 	 * @param mappings
+	 * @param control - control of the synthesis run, checked for cancellation
 	 * @return String representation of constraints
 	 */
-	public static String typeMutualExclusion(AllTypes allTypes, TypeAutomaton typeAutomaton, AtomMappings mappings) {
+	public static String typeMutualExclusion(AllTypes allTypes, TypeAutomaton typeAutomaton, AtomMappings mappings, RunControl control) {
 
 		StringBuilder constraints = new StringBuilder();
 		PredicateLabel firstPair, secondPair;
 		for (Pair<PredicateLabel> pair : allTypes.getTypePairsForEachSubTaxonomy()) {
+			control.checkpoint();
 			firstPair = pair.getFirst();
 			secondPair = pair.getSecond();
 			// mutual exclusion of types in all the states (those that represent general memory)
@@ -1,11 +1,13 @@
 package nl.uu.cs.ape.sat.models;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
 import nl.uu.cs.ape.sat.models.enums.LogicOperation;
 import nl.uu.cs.ape.sat.models.enums.NodeType;
+import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
 import nl.uu.cs.ape.sat.models.logic.constructs.PredicateLabel;
 import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 
@@ -25,11 +27,17 @@ public class TaxonomyPredicateHelper implements PredicateLabel {
 	private final String predicateID;
 	/** Field defines the connective between the subclasses of the predicate. */
 	private final LogicOperation logicOp;
+	/** Abstract taxonomy predicate defined by the helper predicate. */
+	private final TaxonomyPredicate abstractPredicate;
 	/**
 	 * Set of all the predicates that are subsumed by the abstract predicate (null
 	 * if the predicate is a leaf)
 	 */
 	private List<TaxonomyPredicate> subPredicates;
+	/** Elements of the workflow in which the predicate is used. */
+	private final Set<WorkflowElement> usages;
+	/** {@code true} if the predicate can be used in any element of the workflow. */
+	private boolean usedAnywhere;
 
 	/**
 	 * Creates an abstract module from @predicateName and @predicateID. If @isTool
@@ -47,7 +55,10 @@ public class TaxonomyPredicateHelper implements PredicateLabel {
 		this.predicateName = predicate.getPredicateLabel();
 		this.predicateID = predicate.getPredicateID();
 		this.logicOp = logicOp;
+		this.abstractPredicate = predicate;
 		subPredicates = new ArrayList<TaxonomyPredicate>();
+		usages = EnumSet.noneOf(WorkflowElement.class);
+		usedAnywhere = false;
 	}
 
 	@Override
@@ -74,6 +85,14 @@ public class TaxonomyPredicateHelper implements PredicateLabel {
 	}
 
 
+	/**
+	 * @return the {@link #abstractPredicate}, i.e. the predicate that is used in
+	 *         the tool annotations and the atoms of the encoding
+	 */
+	public TaxonomyPredicate getAbstractPredicate() {
+		return abstractPredicate;
+	}
+
 	/** @return the field {@link logicOp}. */
 	public LogicOperation getLogicOp() {
 		return logicOp;
@@ -93,4 +112,44 @@ public class TaxonomyPredicateHelper implements PredicateLabel {
 		return subPredicates;
 	}
 
+	/**
+	 * Record the element of the workflow in which the predicate is used.
+	 * 
+	 * @param usage - element of the workflow, or {@code null} if the predicate
+	 *              can be used in any element
+	 */
+	public void addUsage(WorkflowElement usage) {
+		if (usage == null) {
+			usedAnywhere = true;
+		} else {
+			usages.add(usage);
+		}
+	}
+
+	/**
+	 * Forget the elements of the workflow in which the predicate is used by the
+	 * tool annotations, so that they can be recorded again. The usage anywhere in
+	 * the workflow is kept.
+	 */
+	public void clearUsages() {
+		usages.clear();
+	}
+
+	/**
+	 * @return {@code true} if the predicate is used in any element of the
+	 *         workflow.
+	 */
+	public boolean isUsed() {
+		return usedAnywhere || !usages.isEmpty();
+	}
+
+	/**
+	 * @param element - element of the workflow
+	 * @return {@code true} if the predicate is used in the given element of the
+	 *         workflow.
+	 */
+	public boolean isUsedAs(WorkflowElement element) {
+		return usedAnywhere || usages.contains(element);
+	}
+
 }
@@ -0,0 +1,23 @@
+package nl.uu.cs.ape.sat.models.enums;
+
+/**
+ * Defines the values describing the formats of the tool annotation file.
+ * <br>
+ * <br>
+ * values:
+ * <br>
+ * {@code APE, BIOTOOLS}
+ */
+public enum AnnotationFormat{
+
+	/**
+	 * Tool annotations in the APE format, listed under the "functions" tag.
+	 */
+	APE,
+	/**
+	 * Tool descriptions in the bio.tools format, either a JSON array of tools or
+	 * a page of the bio.tools API that lists them under the "list" tag.
+	 */
+	BIOTOOLS
+
+}
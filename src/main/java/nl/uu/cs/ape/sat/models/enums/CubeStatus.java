@@ -0,0 +1,30 @@
+package nl.uu.cs.ape.sat.models.enums;
+
+/**
+ * Defines the values describing the outcome of the enumeration of the
+ * solutions within a cube, i.e. a part of the search space in which some of
+ * the variables are fixed.
+ * <br>
+ * <br>
+ * values:
+ * <br>
+ * {@code EXHAUSTED, LIMIT_REACHED, STOPPED}
+ */
+public enum CubeStatus{
+
+	/**
+	 * All the solutions within the cube were found (none if the cube is
+	 * unsatisfiable).
+	 */
+	EXHAUSTED,
+	/**
+	 * The enumeration finished after the max number of solutions was found.
+	 */
+	LIMIT_REACHED,
+	/**
+	 * The enumeration was stopped (time budget expired, cancellation or an
+	 * error), the found solutions are partial.
+	 */
+	STOPPED
+
+}
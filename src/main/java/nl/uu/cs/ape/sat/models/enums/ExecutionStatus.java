@@ -0,0 +1,35 @@
+package nl.uu.cs.ape.sat.models.enums;
+
+/**
+ * Defines the values describing the outcome of the execution of a workflow
+ * solution.
+ * <br>
+ * <br>
+ * values:
+ * <br>
+ * {@code SUCCEEDED, FAILED, TIMED_OUT, CANCELLED, ERROR}
+ */
+public enum ExecutionStatus{
+	
+	/**
+	 * The workflow finished with exit status 0.
+	 */
+	SUCCEEDED,
+	/**
+	 * The workflow finished with a non-zero exit status.
+	 */
+	FAILED,
+	/**
+	 * The workflow was terminated because it exceeded its time limit.
+	 */
+	TIMED_OUT,
+	/**
+	 * The workflow was terminated, or not started, because the run was stopped.
+	 */
+	CANCELLED,
+	/**
+	 * The workflow could not be started.
+	 */
+	ERROR
+	
+}
@@ -0,0 +1,23 @@
+package nl.uu.cs.ape.sat.models.enums;
+
+/**
+ * Defines the values describing the graphical representations of the workflow
+ * solutions.
+ * <br>
+ * <br>
+ * values:
+ * <br>
+ * {@code DATA_FLOW, CONTROL_FLOW}
+ */
+public enum GraphType{
+	
+	/**
+	 * Data-flow representation, i.e. transformation of data is in focus.
+	 */
+	DATA_FLOW,
+	/**
+	 * Control-flow representation, i.e. order of the operations is in focus.
+	 */
+	CONTROL_FLOW
+	
+}
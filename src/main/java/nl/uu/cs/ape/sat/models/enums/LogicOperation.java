@@ -0,0 +1,23 @@
+package nl.uu.cs.ape.sat.models.enums;
+
+/**
+ * Defines the values describing the logical operations used to group
+ * predicates.
+ * <br>
+ * <br>
+ * values:
+ * <br>
+ * {@code AND, OR}
+ */
+public enum LogicOperation{
+	
+	/**
+	 * Conjunction of the grouped predicates.
+	 */
+	AND,
+	/**
+	 * Disjunction of the grouped predicates.
+	 */
+	OR
+	
+}
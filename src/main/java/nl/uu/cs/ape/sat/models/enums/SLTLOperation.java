@@ -0,0 +1,56 @@
+package nl.uu.cs.ape.sat.models.enums;
+
+/**
+ * Defines the operations that can be used in SLTL formulas, i.e. the
+ * Boolean connectives and the temporal operators.
+ * <br>
+ * <br>
+ * values:
+ * <br>
+ * {@code ATOM, TRUE, FALSE, NOT, AND, OR, NEXT, FINALLY, GLOBALLY, UNTIL}
+ */
+public enum SLTLOperation{
+
+	/**
+	 * Usage of a tool, or a type, in the current step of the workflow.
+	 */
+	ATOM,
+	/**
+	 * Formula that holds in every step.
+	 */
+	TRUE,
+	/**
+	 * Formula that does not hold in any step.
+	 */
+	FALSE,
+	/**
+	 * Negation of the sub-formula.
+	 */
+	NOT,
+	/**
+	 * Conjunction of the sub-formulas.
+	 */
+	AND,
+	/**
+	 * Disjunction of the sub-formulas.
+	 */
+	OR,
+	/**
+	 * The sub-formula holds in the next step.
+	 */
+	NEXT,
+	/**
+	 * The sub-formula holds in the current or in a subsequent step.
+	 */
+	FINALLY,
+	/**
+	 * The sub-formula holds in the current and in all the subsequent steps.
+	 */
+	GLOBALLY,
+	/**
+	 * The first sub-formula holds until the second one holds, and the second one
+	 * holds eventually.
+	 */
+	UNTIL
+
+}
@@ -0,0 +1,28 @@
+package nl.uu.cs.ape.sat.models.enums;
+
+/**
+ * Defines the values describing the formats in which the workflow solutions
+ * are written to the solutions file.
+ * <br>
+ * <br>
+ * values:
+ * <br>
+ * {@code TEXT, JSONL, CSV}
+ */
+public enum SolutionFormat{
+	
+	/**
+	 * Textual "human readable" format, one solution per line.
+	 */
+	TEXT,
+	/**
+	 * JSON Lines format, one JSON object (tool sequence and data bindings) per
+	 * line.
+	 */
+	JSONL,
+	/**
+	 * Comma-separated values, one solution per row, preceded by a header row.
+	 */
+	CSV
+	
+}
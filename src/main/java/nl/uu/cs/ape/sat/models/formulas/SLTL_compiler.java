@@ -0,0 +1,215 @@
+package nl.uu.cs.ape.sat.models.formulas;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nl.uu.cs.ape.sat.automaton.Block;
+import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
+import nl.uu.cs.ape.sat.automaton.State;
+import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
+import nl.uu.cs.ape.sat.models.AtomMappings;
+import nl.uu.cs.ape.sat.models.enums.SLTLOperation;
+import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
+
+/**
+ * The {@code SLTL_compiler} class is used to generate the CNF encoding of
+ * {@link SLTL_expression} formulas for a given length of the workflow.<br>
+ * <br>
+ * Each distinct sub-formula is represented by one literal per workflow step.
+ * The literals of the composite sub-formulas are auxiliary variables, defined
+ * by clauses that make them equivalent to the sub-formula (Tseitin
+ * encoding). The temporal operators are unrolled backwards from the last step,
+ * e.g. <b>F a</b> holds in step <b>i</b> iff <b>a</b> holds in step <b>i</b> or
+ * <b>F a</b> holds in step <b>i+1</b>. The encodings are cached by the
+ * structure of the sub-formulas, so a sub-formula that occurs in several
+ * formulas compiled by the same compiler is encoded only once.<br>
+ * <br>
+ * The definitions of the auxiliary variables are kept separately from the
+ * formulas (see {@link #getDefinitions()}), so that a formula can be relaxed as
+ * a soft constraint without affecting the definitions shared with other
+ * formulas.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class SLTL_compiler {
+
+	private final ModuleAutomaton moduleAutomaton;
+	private final TypeAutomaton typeAutomaton;
+	private final AtomMappings mappings;
+	/** Number of steps of the workflow. */
+	private final int length;
+	/** Literals that represent each encoded sub-formula, per workflow step. */
+	private final Map<SLTL_expression, int[]> encoded;
+	/** Clauses that define the auxiliary variables. */
+	private final StringBuilder definitions;
+	/** Auxiliary variable that is always true, 0 if not created yet. */
+	private int trueVariable;
+
+	/**
+	 * Create a compiler for the workflows of the given length.
+	 *
+	 * @param moduleAutomaton - module automaton
+	 * @param typeAutomaton   - type automaton
+	 * @param mappings        - atom mappings, used to create the auxiliary
+	 *                        variables
+	 */
+	public SLTL_compiler(ModuleAutomaton moduleAutomaton, TypeAutomaton typeAutomaton, AtomMappings mappings) {
+		this.moduleAutomaton = moduleAutomaton;
+		this.typeAutomaton = typeAutomaton;
+		this.mappings = mappings;
+		this.length = moduleAutomaton.getModuleStates().size();
+		this.encoded = new HashMap<SLTL_expression, int[]>();
+		this.definitions = new StringBuilder();
+		this.trueVariable = 0;
+	}
+
+	/**
+	 * Generate the CNF encoding of the constraint that the formula holds in the
+	 * first step of the workflow. The definitions of the sub-formulas are added
+	 * to {@link #getDefinitions()}.
+	 *
+	 * @param formula - SLTL formula
+	 * @return CNF representation of the formula.
+	 */
+	public String compile(SLTL_expression formula) {
+		return literals(formula)[0] + " 0\n";
+	}
+
+	/**
+	 * @return CNF representation of the definitions of the sub-formulas that were
+	 *         compiled so far.
+	 */
+	public String getDefinitions() {
+		return definitions.toString();
+	}
+
+	/**
+	 * @return Number of distinct sub-formulas that were compiled so far.
+	 */
+	public int getNumberOfSubformulas() {
+		return encoded.size();
+	}
+
+	/** Literals that represent the formula in each step. */
+	private int[] literals(SLTL_expression formula) {
+		int[] literals = encoded.get(formula);
+		if (literals != null) {
+			return literals;
+		}
+		literals = new int[length];
+		List<SLTL_expression> subFormulas = formula.getSubFormulas();
+		switch (formula.getOperation()) {
+		case ATOM:
+			for (int i = 0; i < length; i++) {
+				literals[i] = atom(formula, i);
+			}
+			break;
+		case TRUE:
+		case FALSE:
+			int value = formula.getOperation() == SLTLOperation.TRUE ? trueVariable() : -trueVariable();
+			for (int i = 0; i < length; i++) {
+				literals[i] = value;
+			}
+			break;
+		case NOT:
+			int[] negated = literals(subFormulas.get(0));
+			for (int i = 0; i < length; i++) {
+				literals[i] = -negated[i];
+			}
+			break;
+		case AND:
+		case OR:
+			int[][] operands = new int[subFormulas.size()][];
+			for (int j = 0; j < operands.length; j++) {
+				operands[j] = literals(subFormulas.get(j));
+			}
+			boolean conjunction = formula.getOperation() == SLTLOperation.AND;
+			for (int i = 0; i < length; i++) {
+				int[] step = new int[operands.length];
+				for (int j = 0; j < operands.length; j++) {
+					step[j] = operands[j][i];
+				}
+				literals[i] = conjunction ? defineAnd(step) : defineOr(step);
+			}
+			break;
+		case NEXT:
+			int[] next = literals(subFormulas.get(0));
+			for (int i = 0; i < length - 1; i++) {
+				literals[i] = next[i + 1];
+			}
+			/* There is no step after the last one. */
+			literals[length - 1] = -trueVariable();
+			break;
+		case FINALLY:
+		case GLOBALLY:
+			int[] sub = literals(subFormulas.get(0));
+			boolean globally = formula.getOperation() == SLTLOperation.GLOBALLY;
+			literals[length - 1] = sub[length - 1];
+			for (int i = length - 2; i >= 0; i--) {
+				int[] step = new int[] { sub[i], literals[i + 1] };
+				literals[i] = globally ? defineAnd(step) : defineOr(step);
+			}
+			break;
+		case UNTIL:
+			int[] hold = literals(subFormulas.get(0));
+			int[] until = literals(subFormulas.get(1));
+			literals[length - 1] = until[length - 1];
+			for (int i = length - 2; i >= 0; i--) {
+				/* (hold U until) in step i iff until in step i, or hold in step i and (hold U until) in step i+1 */
+				literals[i] = defineOr(new int[] { until[i], defineAnd(new int[] { hold[i], literals[i + 1] }) });
+			}
+			break;
+		}
+		encoded.put(formula, literals);
+		return literals;
+	}
+
+	/** Literal that represents the atom in the given step. */
+	private int atom(SLTL_expression atom, int step) {
+		if (atom.getElement() == WorkflowElement.MODULE) {
+			return mappings.add(atom.getPredicate(), moduleAutomaton.get(step), WorkflowElement.MODULE);
+		}
+		/* The outputs of the tool in step i are in the memory block i+1, its inputs in the used block i. */
+		Block block = atom.getElement() == WorkflowElement.MEMORY_TYPE ? typeAutomaton.getMemoryTypesBlock(step + 1)
+				: typeAutomaton.getUsedTypesBlock(step);
+		List<State> states = block.getStates();
+		int[] literals = new int[states.size()];
+		for (int j = 0; j < literals.length; j++) {
+			literals[j] = mappings.add(atom.getPredicate(), states.get(j), atom.getElement());
+		}
+		return literals.length == 1 ? literals[0] : defineOr(literals);
+	}
+
+	/** Define an auxiliary variable equivalent to the disjunction of the literals. */
+	private int defineOr(int[] literals) {
+		int variable = mappings.getNextAuxNum();
+		for (int literal : literals) {
+			definitions.append(-literal).append(" ").append(variable).append(" 0\n");
+		}
+		definitions.append(-variable).append(" ");
+		for (int literal : literals) {
+			definitions.append(literal).append(" ");
+		}
+		definitions.append("0\n");
+		return variable;
+	}
+
+	/** Define an auxiliary variable equivalent to the conjunction of the literals. */
+	private int defineAnd(int[] literals) {
+		int[] negated = new int[literals.length];
+		for (int j = 0; j < literals.length; j++) {
+			negated[j] = -literals[j];
+		}
+		return -defineOr(negated);
+	}
+
+	private int trueVariable() {
+		if (trueVariable == 0) {
+			trueVariable = mappings.getNextAuxNum();
+			definitions.append(trueVariable).append(" 0\n");
+		}
+		return trueVariable;
+	}
+}
@@ -0,0 +1,301 @@
+package nl.uu.cs.ape.sat.models.formulas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+import nl.uu.cs.ape.sat.models.enums.SLTLOperation;
+import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
+import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * The {@code SLTL_expression} class represents a node of the abstract syntax
+ * tree of an SLTL formula. The formula is evaluated over the steps of the
+ * workflow, where the step <b>i</b> comprises the <b>i</b>-th tool, its inputs
+ * and its outputs.<br>
+ * <br>
+ * Expressions are immutable and are compared structurally, which allows the
+ * {@link SLTL_compiler} to encode each distinct sub-formula only once. The
+ * factory methods normalise the expressions (e.g. the operands of conjunctions
+ * and disjunctions are flattened and ordered), so that equivalent formulas
+ * written in a different way share the encoding as well.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public final class SLTL_expression {
+
+	private static final SLTL_expression TRUE = new SLTL_expression(SLTLOperation.TRUE, null, null,
+			Collections.<SLTL_expression>emptyList());
+	private static final SLTL_expression FALSE = new SLTL_expression(SLTLOperation.FALSE, null, null,
+			Collections.<SLTL_expression>emptyList());
+
+	/** Operation of the node. */
+	private final SLTLOperation operation;
+	/** Predicate of the atom, {@code null} for the other operations. */
+	private final TaxonomyPredicate predicate;
+	/**
+	 * Element of the workflow that the atom refers to, {@code null} for the other
+	 * operations.
+	 */
+	private final WorkflowElement element;
+	/** Sub-formulas of the node. */
+	private final List<SLTL_expression> subFormulas;
+	/** Textual representation, used as the structural key of the node. */
+	private final String key;
+
+	private SLTL_expression(SLTLOperation operation, TaxonomyPredicate predicate, WorkflowElement element,
+			List<SLTL_expression> subFormulas) {
+		this.operation = operation;
+		this.predicate = predicate;
+		this.element = element;
+		this.subFormulas = Collections.unmodifiableList(subFormulas);
+		this.key = createKey();
+	}
+
+	/**
+	 * Create an atom that holds in a step in which the predicate is used.
+	 *
+	 * @param predicate - tool or type predicate
+	 * @param element   - {@link WorkflowElement#MODULE} for the tools,
+	 *                  {@link WorkflowElement#MEMORY_TYPE} for the types
+	 *                  generated in the step and
+	 *                  {@link WorkflowElement#USED_TYPE} for the types used as
+	 *                  the inputs of the step
+	 * @return The atom.
+	 */
+	public static SLTL_expression atom(TaxonomyPredicate predicate, WorkflowElement element) {
+		return new SLTL_expression(SLTLOperation.ATOM, predicate, element, new ArrayList<SLTL_expression>());
+	}
+
+	/**
+	 * @param value - truth value
+	 * @return Formula that always has the given truth value.
+	 */
+	public static SLTL_expression constant(boolean value) {
+		return value ? TRUE : FALSE;
+	}
+
+	/**
+	 * @param formula - sub-formula
+	 * @return Negation of the formula.
+	 */
+	public static SLTL_expression not(SLTL_expression formula) {
+		switch (formula.operation) {
+		case TRUE:
+			return FALSE;
+		case FALSE:
+			return TRUE;
+		case NOT:
+			return formula.subFormulas.get(0);
+		default:
+			return new SLTL_expression(SLTLOperation.NOT, null, null, Arrays.asList(formula));
+		}
+	}
+
+	/**
+	 * @param formulas - sub-formulas
+	 * @return Conjunction of the formulas.
+	 */
+	public static SLTL_expression and(List<SLTL_expression> formulas) {
+		return junction(SLTLOperation.AND, formulas);
+	}
+
+	/**
+	 * @param formulas - sub-formulas
+	 * @return Disjunction of the formulas.
+	 */
+	public static SLTL_expression or(List<SLTL_expression> formulas) {
+		return junction(SLTLOperation.OR, formulas);
+	}
+
+	/**
+	 * @param premise    - premise of the implication
+	 * @param conclusion - conclusion of the implication
+	 * @return Formula <b>!premise | conclusion</b>.
+	 */
+	public static SLTL_expression implies(SLTL_expression premise, SLTL_expression conclusion) {
+		return or(Arrays.asList(not(premise), conclusion));
+	}
+
+	/**
+	 * @param formula - sub-formula
+	 * @return Formula <b>X formula</b>.
+	 */
+	public static SLTL_expression next(SLTL_expression formula) {
+		if (formula.operation == SLTLOperation.FALSE) {
+			return FALSE;
+		}
+		return new SLTL_expression(SLTLOperation.NEXT, null, null, Arrays.asList(formula));
+	}
+
+	/**
+	 * @param formula - sub-formula
+	 * @return Formula <b>F formula</b>.
+	 */
+	public static SLTL_expression eventually(SLTL_expression formula) {
+		if (formula.isConstant() || formula.operation == SLTLOperation.FINALLY) {
+			return formula;
+		}
+		return new SLTL_expression(SLTLOperation.FINALLY, null, null, Arrays.asList(formula));
+	}
+
+	/**
+	 * @param formula - sub-formula
+	 * @return Formula <b>G formula</b>.
+	 */
+	public static SLTL_expression globally(SLTL_expression formula) {
+		if (formula.isConstant() || formula.operation == SLTLOperation.GLOBALLY) {
+			return formula;
+		}
+		return new SLTL_expression(SLTLOperation.GLOBALLY, null, null, Arrays.asList(formula));
+	}
+
+	/**
+	 * @param hold  - formula that holds until <b>until</b> holds
+	 * @param until - formula that holds eventually
+	 * @return Formula <b>hold U until</b>.
+	 */
+	public static SLTL_expression until(SLTL_expression hold, SLTL_expression until) {
+		if (until.isConstant()) {
+			return until;
+		}
+		if (hold.operation == SLTLOperation.TRUE) {
+			return eventually(until);
+		}
+		if (hold.operation == SLTLOperation.FALSE) {
+			return until;
+		}
+		return new SLTL_expression(SLTLOperation.UNTIL, null, null, Arrays.asList(hold, until));
+	}
+
+	/**
+	 * Create a conjunction or a disjunction. Nested operands of the same operation
+	 * are flattened, duplicates are removed and the operands are ordered by their
+	 * structure.
+	 */
+	private static SLTL_expression junction(SLTLOperation operation, List<SLTL_expression> formulas) {
+		SLTL_expression neutral = operation == SLTLOperation.AND ? TRUE : FALSE;
+		SLTL_expression absorbing = operation == SLTLOperation.AND ? FALSE : TRUE;
+		TreeMap<String, SLTL_expression> operands = new TreeMap<String, SLTL_expression>();
+		for (SLTL_expression formula : formulas) {
+			if (formula.operation == operation) {
+				for (SLTL_expression subFormula : formula.subFormulas) {
+					operands.put(subFormula.key, subFormula);
+				}
+			} else if (formula.equals(absorbing)) {
+				return absorbing;
+			} else if (!formula.equals(neutral)) {
+				operands.put(formula.key, formula);
+			}
+		}
+		for (SLTL_expression operand : operands.values()) {
+			if (operands.containsKey(not(operand).key)) {
+				/* Both the formula and its negation are operands. */
+				return absorbing;
+			}
+		}
+		if (operands.isEmpty()) {
+			return neutral;
+		} else if (operands.size() == 1) {
+			return operands.firstEntry().getValue();
+		}
+		return new SLTL_expression(operation, null, null, new ArrayList<SLTL_expression>(operands.values()));
+	}
+
+	/**
+	 * @return the {@link #operation}
+	 */
+	public SLTLOperation getOperation() {
+		return operation;
+	}
+
+	/**
+	 * @return the {@link #predicate}
+	 */
+	public TaxonomyPredicate getPredicate() {
+		return predicate;
+	}
+
+	/**
+	 * @return the {@link #element}
+	 */
+	public WorkflowElement getElement() {
+		return element;
+	}
+
+	/**
+	 * @return the {@link #subFormulas}
+	 */
+	public List<SLTL_expression> getSubFormulas() {
+		return subFormulas;
+	}
+
+	/**
+	 * @return {@code true} if the formula is {@code true} or {@code false}.
+	 */
+	public boolean isConstant() {
+		return operation == SLTLOperation.TRUE || operation == SLTLOperation.FALSE;
+	}
+
+	private String createKey() {
+		switch (operation) {
+		case ATOM:
+			String id = "'" + predicate.getPredicateID() + "'";
+			if (element == WorkflowElement.USED_TYPE) {
+				return "use(" + id + ")";
+			} else if (element == WorkflowElement.MEMORY_TYPE) {
+				return "gen(" + id + ")";
+			}
+			return id;
+		case TRUE:
+			return "true";
+		case FALSE:
+			return "false";
+		case NOT:
+			return "!" + subFormulas.get(0).key;
+		case NEXT:
+			return "X " + subFormulas.get(0).key;
+		case FINALLY:
+			return "F " + subFormulas.get(0).key;
+		case GLOBALLY:
+			return "G " + subFormulas.get(0).key;
+		default:
+			String separator = operation == SLTLOperation.AND ? " & " : operation == SLTLOperation.OR ? " | " : " U ";
+			StringBuilder key = new StringBuilder("(");
+			for (SLTL_expression subFormula : subFormulas) {
+				if (key.length() > 1) {
+					key.append(separator);
+				}
+				key.append(subFormula.key);
+			}
+			return key.append(")").toString();
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return key.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SLTL_expression)) {
+			return false;
+		}
+		return key.equals(((SLTL_expression) obj).key);
+	}
+
+	/**
+	 * Returns the formula in the syntax accepted by {@link SLTL_parser}.
+	 */
+	@Override
+	public String toString() {
+		return key;
+	}
+}
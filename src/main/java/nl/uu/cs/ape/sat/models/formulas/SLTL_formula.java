@@ -1,16 +1,20 @@
 package nl.uu.cs.ape.sat.models.formulas;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
 import nl.uu.cs.ape.sat.automaton.State;
 import nl.uu.cs.ape.sat.automaton.Block;
+import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
 import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
 import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 import nl.uu.cs.ape.sat.models.AbstractModule;
 import nl.uu.cs.ape.sat.models.AtomMappings;
 import nl.uu.cs.ape.sat.models.Module;
 import nl.uu.cs.ape.sat.models.Type;
+import nl.uu.cs.ape.sat.models.SATEncodingUtils.CardinalityUtils;
 
 /**
  * The class is used to represent general SLTL constraints and to generate the
@@ -110,18 +114,8 @@ public abstract class SLTL_formula {
 	 */
 	public static String ite_module(TaxonomyPredicate if_predicate, TaxonomyPredicate then_predicate, ModuleAutomaton moduleAutomaton,
 		AtomMappings mappings) {
-		StringBuilder constraints = new StringBuilder();
-		int automatonSize = moduleAutomaton.getModuleStates().size();
-		for (int i = 0; i < automatonSize; i++) {
-			constraints = constraints.append("-"
-					+ mappings.add(if_predicate, moduleAutomaton.getModuleStates().get(i), WorkflowElement.MODULE)
-					+ " ");
-			for (int j = i + 1; j < automatonSize; j++) {
-				constraints = constraints.append(mappings.add(then_predicate, moduleAutomaton.get(j), WorkflowElement.MODULE)).append(" ");
-			}
-			constraints = constraints.append("0\n");
-		}
-		return constraints.toString();
+		return ifThen(moduleGroups(if_predicate, moduleAutomaton, mappings),
+				moduleGroups(then_predicate, moduleAutomaton, mappings), mappings);
 	}
 
 	/**
@@ -141,30 +135,8 @@ public abstract class SLTL_formula {
 	 */
 	public static String ite_type(TaxonomyPredicate if_predicate, TaxonomyPredicate then_predicate, WorkflowElement typeElement, ModuleAutomaton moduleAutomaton,
 			List<Block> typeBlocks, AtomMappings mappings) {
-		StringBuilder constraints = new StringBuilder();
-		int numberOfBlocks = typeBlocks.size();
-		int numberOfStates = typeBlocks.get(0).getBlockSize();
-		for (int i_block = 0; i_block < numberOfBlocks; i_block++) {
-			for (int i_state = 0; i_state < numberOfStates; i_state++) {
-				/*
-				 * If if_predicate is used in any state of a certain block
-				 */
-				constraints = constraints.append("-").append(mappings.add(if_predicate,
-						typeBlocks.get(i_block).getState(i_state), typeElement)).append(" ");
-				/*
-				 * then then_predicate must be used in a state of the subsequent blocks.
-				 */
-				for (int j_block = i_block + 1; j_block < numberOfBlocks; j_block++) {
-					for (int j_state = i_state + 1; j_state < numberOfBlocks; j_state++) {
-						constraints = constraints.append(mappings.add(then_predicate,
-								typeBlocks.get(j_block).getState(j_state), typeElement)).append(" ");
-					}
-
-				}
-				constraints = constraints.append("0\n");
-			}
-		}
-		return constraints.toString();
+		return ifThen(typeGroups(if_predicate, typeElement, typeBlocks, mappings),
+				typeGroups(then_predicate, typeElement, typeBlocks, mappings), mappings);
 	}
 
 	/**
@@ -183,19 +155,8 @@ public abstract class SLTL_formula {
 	 */
 	public static String itn_module(TaxonomyPredicate if_predicate, TaxonomyPredicate then_not_predicate,
 			ModuleAutomaton moduleAutomaton, AtomMappings mappings) {
-		StringBuilder constraints = new StringBuilder();
-		int automatonSize = moduleAutomaton.getModuleStates().size();
-		for (int i = 0; i < automatonSize - 1; i++) {
-			State currModuleState = moduleAutomaton.getModuleStates().get(i);
-			for (int j = i + 1; j < automatonSize; j++) {
-				constraints = constraints.append("-").append(mappings.add(if_predicate, currModuleState, WorkflowElement.MODULE)).append(" ");
-				constraints = constraints.append("-"
-						+ mappings.add(then_not_predicate, moduleAutomaton.get(j), WorkflowElement.MODULE)
-						+ " 0\n");
-			}
-		}
-
-		return constraints.toString();
+		return ifThenNot(moduleGroups(if_predicate, moduleAutomaton, mappings),
+				moduleGroups(then_not_predicate, moduleAutomaton, mappings), mappings);
 	}
 
 	/**
@@ -217,29 +178,8 @@ public abstract class SLTL_formula {
 	 */
 	public static String itn_type(TaxonomyPredicate if_predicate, TaxonomyPredicate then_not_predicate, WorkflowElement typeElement, ModuleAutomaton moduleAutomaton,
 			List<Block> typeBlocks, AtomMappings mappings) {
-		StringBuilder constraints = new StringBuilder();
-		int numberOfBlocks = typeBlocks.size();
-		int numberOfStates = typeBlocks.get(0).getBlockSize();
-		for (int i_block = 0; i_block < numberOfBlocks - 1; i_block++) {
-			for (int i_state = 0; i_state < numberOfStates; i_state++) {
-				for (int j_block = i_block + 1; j_block < numberOfBlocks; j_block++) {
-					for (int j_state = 0; j_state < numberOfStates; j_state++) {
-						/*
-						 * If if_predicate is used in any state of a certain block
-						 */
-						constraints = constraints.append("-").append(mappings.add(if_predicate,
-								typeBlocks.get(i_block).getState(i_state), typeElement)).append(" ");
-						/*
-						 * then then_predicate cannot be used in a state of the subsequent blocks.
-						 */
-						constraints = constraints.append("-").append(mappings.add(then_not_predicate,
-								typeBlocks.get(j_block).getState(j_state), typeElement)).append(" 0\n");
-					}
-
-				}
-			}
-		}
-		return constraints.toString();
+		return ifThenNot(typeGroups(if_predicate, typeElement, typeBlocks, mappings),
+				typeGroups(then_not_predicate, typeElement, typeBlocks, mappings), mappings);
 	}
 	
 	/**
@@ -259,18 +199,12 @@ public abstract class SLTL_formula {
 	 */
 	public static String depend_module(TaxonomyPredicate second_module_in_sequence, TaxonomyPredicate first_module_in_sequence,
 			ModuleAutomaton moduleAutomaton,AtomMappings mappings) {
-		StringBuilder constraints = new StringBuilder();
-		int automatonSize = moduleAutomaton.getModuleStates().size();
-		for (int i = 0; i < automatonSize; i++) {
-			constraints = constraints.append("-").append(mappings.add(second_module_in_sequence,
-					moduleAutomaton.getModuleStates().get(i), WorkflowElement.MODULE)).append(" ");
-			for (int j = 0; j < i; j++) {
-				constraints = constraints.append(mappings.add(first_module_in_sequence,
-						moduleAutomaton.get(j), WorkflowElement.MODULE)).append(" ");
-			}
-			constraints = constraints.append("0\n");
-		}
-		return constraints.toString();
+		/* Usage of the first module prior to the second one, is the if-then relation in the reversed workflow. */
+		List<List<Integer>> second = moduleGroups(second_module_in_sequence, moduleAutomaton, mappings);
+		List<List<Integer>> first = moduleGroups(first_module_in_sequence, moduleAutomaton, mappings);
+		Collections.reverse(second);
+		Collections.reverse(first);
+		return ifThen(second, first, mappings);
 	}
 
 	/**
@@ -379,6 +313,10 @@ public abstract class SLTL_formula {
 		StringBuilder constraints = new StringBuilder();
 
 		List<State> moduleAutomatonStates = moduleAutomaton.getModuleStates();
+		if (n > moduleAutomatonStates.size()) {
+			/* The workflows are shorter than N. */
+			return CardinalityUtils.atLeast(new ArrayList<Integer>(), 1, mappings);
+		}
 		State nthModuleState = moduleAutomatonStates.get(n - 1);
 		constraints = constraints.append(mappings.add(module, nthModuleState, WorkflowElement.MODULE)).append(" 0\n");
 
@@ -386,26 +324,207 @@ public abstract class SLTL_formula {
 	}
 
 	/**
-	 * TODO: Creates a CNF representation of the Constraint:<br/>
+	 * Creates a CNF representation of the Constraint:<br/>
 	 * <br/>
 	 * Use <b>module</b> in the solution exactly <b>n</b> times.
 	 * 
 	 * @param module          - module to be used
 	 * @param n               - number of repetitions
 	 * @param moduleAutomaton
-	 * @param typeAutomaton
 	 * @param mappings
 	 * @return {@link String} CNF representation of the SLTL formula
 	 */
 	public static String useModuleNtimes(AbstractModule module, int n, ModuleAutomaton moduleAutomaton,
 			AtomMappings mappings) {
-//		StringBuilder constraints = new StringBuilder();
-//
-//		List<State> moduleAutomatonStates = moduleAutomaton.getModuleStates();
-//		ModuleState nthModuleState = moduleAutomatonStates.get(index - 1);
-//		constraints = constraints.append(mappings.add(module, nthModuleState)).append(" 0\n";
+		return CardinalityUtils.exactly(moduleLiterals(module, moduleAutomaton, mappings), n, mappings);
+	}
 
-		return null;
+	/**
+	 * Creates a CNF representation of the Constraint:<br/>
+	 * <br/>
+	 * Use <b>module</b> in the solution at most <b>n</b> times.
+	 * 
+	 * @param module          - module to be used
+	 * @param n               - max number of repetitions
+	 * @param moduleAutomaton
+	 * @param mappings
+	 * @return {@link String} CNF representation of the SLTL formula
+	 */
+	public static String useModuleAtMostNtimes(AbstractModule module, int n, ModuleAutomaton moduleAutomaton,
+			AtomMappings mappings) {
+		return CardinalityUtils.atMost(moduleLiterals(module, moduleAutomaton, mappings), n, mappings);
+	}
+
+	/**
+	 * Creates a CNF representation of the Constraint:<br/>
+	 * <br/>
+	 * Use <b>module</b> in the solution at least <b>n</b> times.
+	 * 
+	 * @param module          - module to be used
+	 * @param n               - min number of repetitions
+	 * @param moduleAutomaton
+	 * @param mappings
+	 * @return {@link String} CNF representation of the SLTL formula
+	 */
+	public static String useModuleAtLeastNtimes(AbstractModule module, int n, ModuleAutomaton moduleAutomaton,
+			AtomMappings mappings) {
+		return CardinalityUtils.atLeast(moduleLiterals(module, moduleAutomaton, mappings), n, mappings);
+	}
+
+	/**
+	 * Creates a CNF representation of the Constraint:<br/>
+	 * <br/>
+	 * Use at most <b>n</b> distinct tools in the solution.
+	 * 
+	 * @param tools           - all the tools of the domain
+	 * @param n               - max number of distinct tools
+	 * @param moduleAutomaton
+	 * @param mappings
+	 * @return {@link String} CNF representation of the SLTL formula
+	 */
+	public static String useAtMostNdistinctModules(List<Module> tools, int n, ModuleAutomaton moduleAutomaton,
+			AtomMappings mappings) {
+		if (n >= tools.size() || n >= moduleAutomaton.getModuleStates().size()) {
+			return "";
+		}
+		StringBuilder constraints = new StringBuilder();
+		List<Integer> usedTools = new ArrayList<Integer>();
+		for (Module tool : tools) {
+			/* The tool is used if it is used in any of the states. */
+			int used = mappings.getNextAuxNum();
+			for (State moduleState : moduleAutomaton.getModuleStates()) {
+				constraints = constraints.append("-").append(mappings.add(tool, moduleState, WorkflowElement.MODULE))
+						.append(" ").append(used).append(" 0\n");
+			}
+			usedTools.add(used);
+		}
+		return constraints.append(CardinalityUtils.atMost(usedTools, n, mappings)).toString();
+	}
+
+	/**
+	 * Creates a CNF representation of the Constraint:<br/>
+	 * <br/>
+	 * Generate <b>type</b> at most <b>n</b> times in the solution, i.e. at most
+	 * <b>n</b> tool outputs are of the given type. The workflow inputs are not
+	 * counted.
+	 * 
+	 * @param type          - type to be generated
+	 * @param n             - max number of generated instances
+	 * @param typeAutomaton
+	 * @param mappings
+	 * @return {@link String} CNF representation of the SLTL formula
+	 */
+	public static String generateTypeAtMostNtimes(Type type, int n, TypeAutomaton typeAutomaton,
+			AtomMappings mappings) {
+		List<Integer> literals = new ArrayList<Integer>();
+		for (State memoryState : typeAutomaton.getMemoryStatesAfterBlockNo(0)) {
+			literals.add(mappings.add(type, memoryState, WorkflowElement.MEMORY_TYPE));
+		}
+		return CardinalityUtils.atMost(literals, n, mappings);
+	}
+
+	/**
+	 * Creates a CNF representation of the relation:<br/>
+	 * <br/>
+	 * If any literal of the <b>i</b>-th group of <b>ifGroups</b> holds, then a
+	 * literal of a group <b>j &gt; i</b> of <b>thenGroups</b> has to hold.<br/>
+	 * <br/>
+	 * The auxiliary variable <b>later<sub>i</sub></b> implies that a literal of
+	 * the groups after <b>i</b> holds, i.e. <b>later<sub>i</sub> &rarr;
+	 * thenGroups<sub>i+1</sub> &or; later<sub>i+1</sub></b>. This gives a number
+	 * of clauses that is linear in the number of literals, instead of quadratic.
+	 */
+	private static String ifThen(List<List<Integer>> ifGroups, List<List<Integer>> thenGroups, AtomMappings mappings) {
+		StringBuilder constraints = new StringBuilder();
+		int last = ifGroups.size() - 1;
+		int later = 0;
+		for (int i = last; i >= 0; i--) {
+			if (i == last) {
+				/* Nothing can follow the last group. */
+				for (int ifLiteral : ifGroups.get(i)) {
+					constraints.append("-").append(ifLiteral).append(" 0\n");
+				}
+				continue;
+			}
+			int currLater = mappings.getNextAuxNum();
+			constraints.append("-").append(currLater).append(" ");
+			for (int thenLiteral : thenGroups.get(i + 1)) {
+				constraints.append(thenLiteral).append(" ");
+			}
+			if (later != 0) {
+				constraints.append(later).append(" ");
+			}
+			constraints.append("0\n");
+			for (int ifLiteral : ifGroups.get(i)) {
+				constraints.append("-").append(ifLiteral).append(" ").append(currLater).append(" 0\n");
+			}
+			later = currLater;
+		}
+		return constraints.toString();
+	}
+
+	/**
+	 * Creates a CNF representation of the relation:<br/>
+	 * <br/>
+	 * If any literal of the <b>i</b>-th group of <b>ifGroups</b> holds, then no
+	 * literal of a group <b>j &gt; i</b> of <b>thenNotGroups</b> can hold.<br/>
+	 * <br/>
+	 * The auxiliary variable <b>seen<sub>i</sub></b> is implied by the literals
+	 * of the groups up to <b>i</b>, and forbids the literals of the group
+	 * <b>i+1</b>.
+	 */
+	private static String ifThenNot(List<List<Integer>> ifGroups, List<List<Integer>> thenNotGroups,
+			AtomMappings mappings) {
+		StringBuilder constraints = new StringBuilder();
+		int seen = 0;
+		for (int i = 0; i < ifGroups.size() - 1; i++) {
+			int currSeen = mappings.getNextAuxNum();
+			for (int ifLiteral : ifGroups.get(i)) {
+				constraints.append("-").append(ifLiteral).append(" ").append(currSeen).append(" 0\n");
+			}
+			if (seen != 0) {
+				constraints.append("-").append(seen).append(" ").append(currSeen).append(" 0\n");
+			}
+			for (int thenNotLiteral : thenNotGroups.get(i + 1)) {
+				constraints.append("-").append(currSeen).append(" -").append(thenNotLiteral).append(" 0\n");
+			}
+			seen = currSeen;
+		}
+		return constraints.toString();
+	}
+
+	/** Literals that represent the usage of the predicate, grouped per module state. */
+	private static List<List<Integer>> moduleGroups(TaxonomyPredicate predicate, ModuleAutomaton moduleAutomaton,
+			AtomMappings mappings) {
+		List<List<Integer>> groups = new ArrayList<List<Integer>>();
+		for (State moduleState : moduleAutomaton.getModuleStates()) {
+			groups.add(Collections.singletonList(mappings.add(predicate, moduleState, WorkflowElement.MODULE)));
+		}
+		return groups;
+	}
+
+	/** Literals that represent the usage of the predicate, grouped per type block. */
+	private static List<List<Integer>> typeGroups(TaxonomyPredicate predicate, WorkflowElement typeElement,
+			List<Block> typeBlocks, AtomMappings mappings) {
+		List<List<Integer>> groups = new ArrayList<List<Integer>>();
+		for (Block typeBlock : typeBlocks) {
+			List<Integer> group = new ArrayList<Integer>();
+			for (State typeState : typeBlock.getStates()) {
+				group.add(mappings.add(predicate, typeState, typeElement));
+			}
+			groups.add(group);
+		}
+		return groups;
+	}
+
+	/** Literals that represent the usage of the module in each state. */
+	private static List<Integer> moduleLiterals(AbstractModule module, ModuleAutomaton moduleAutomaton,
+			AtomMappings mappings) {
+		List<Integer> literals = new ArrayList<Integer>();
+		for (State moduleState : moduleAutomaton.getModuleStates()) {
+			literals.add(mappings.add(module, moduleState, WorkflowElement.MODULE));
+		}
+		return literals;
 	}
 
 	public String getCNF(ModuleAutomaton moduleAutomaton, List<Block> typeStateBlocks, WorkflowElement typeElement) {
@@ -32,7 +32,7 @@ public class SLTL_formula_F extends SLTL_formula {
 	@Override
 	public String getCNF(ModuleAutomaton moduleAutomaton, List<Block> typeStateBlocks, WorkflowElement workflowElement, AtomMappings mappings) {
 
-		String constraints = "";
+		StringBuilder constraints = new StringBuilder();
 
 		String negSign;
 		// Check whether the atom is expected to be negated or not
@@ -47,19 +47,17 @@ public class SLTL_formula_F extends SLTL_formula {
 		if (super.getSubFormula().getType().matches("type")) {
 			for (Block typeBlock : typeStateBlocks) {
 				for (State  typeState : typeBlock.getStates()) {
-					constraints += negSign
-							+ mappings.add(super.getSubFormula(), typeState, workflowElement) + " ";
+					constraints.append(negSign).append(mappings.add(super.getSubFormula(), typeState, workflowElement)).append(" ");
 				}
 			}
-			constraints += "0\n";
+			constraints.append("0\n");
 		} else {
 			for (State  moduleState : moduleAutomaton.getModuleStates()) {
-				constraints += negSign + mappings.add(super.getSubFormula(), moduleState, workflowElement)
-						+ " ";
+				constraints.append(negSign).append(mappings.add(super.getSubFormula(), moduleState, workflowElement)).append(" ");
 			}
-			constraints += "0\n";
+			constraints.append("0\n");
 		}
-		return constraints;
+		return constraints.toString();
 	}
 
 	/**
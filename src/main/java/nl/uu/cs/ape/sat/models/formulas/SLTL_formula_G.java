@@ -32,7 +32,7 @@ public class SLTL_formula_G extends SLTL_formula {
 	@Override
 	public String getCNF(ModuleAutomaton moduleAutomaton, List<Block> typeStateBlocks, WorkflowElement workflowElement, AtomMappings mappings) {
 
-		String constraints = "";
+		StringBuilder constraints = new StringBuilder();
 		String negSign;
 		// check whether the sub-formula is negated or not
 		if (super.getSign()) {
@@ -45,17 +45,15 @@ public class SLTL_formula_G extends SLTL_formula {
 		if (super.getSubFormula().getType().equals("type")) {
 			for (Block typeBlock : typeStateBlocks) {
 				for (State  typeState : typeBlock.getStates()) {
-					constraints += negSign
-							+ mappings.add(super.getSubFormula(), typeState, workflowElement) + " 0\n";
+					constraints.append(negSign).append(mappings.add(super.getSubFormula(), typeState, workflowElement)).append(" 0\n");
 				}
 			}
 		} else {
 			for (State  moduleState : moduleAutomaton.getModuleStates()) {
-				constraints += negSign + mappings.add(super.getSubFormula(), moduleState, workflowElement)
-						+ " 0\n";
+				constraints.append(negSign).append(mappings.add(super.getSubFormula(), moduleState, workflowElement)).append(" 0\n");
 			}
 		}
-		return constraints;
+		return constraints.toString();
 	}
 
 	/**
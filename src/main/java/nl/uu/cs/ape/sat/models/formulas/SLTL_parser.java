@@ -0,0 +1,210 @@
+package nl.uu.cs.ape.sat.models.formulas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.uu.cs.ape.sat.models.AllModules;
+import nl.uu.cs.ape.sat.models.AllTypes;
+import nl.uu.cs.ape.sat.models.enums.WorkflowElement;
+import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
+
+/**
+ * The {@code SLTL_parser} class is used to parse the textual representation of
+ * SLTL formulas into {@link SLTL_expression} objects. The grammar, from the
+ * lowest to the highest precedence, is:
+ *
+ * <pre>
+ * formula  := or ( '->' formula )?
+ * or       := and ( '|' and )*
+ * and      := until ( '&amp;' until )*
+ * until    := unary ( 'U' until )?
+ * unary    := ( '!' | 'X' | 'F' | 'G' ) unary | '(' formula ')' | 'true' | 'false' | atom
+ * atom     := id | 'use' '(' id ')' | 'gen' '(' id ')'
+ * </pre>
+ *
+ * An <b>id</b> is the ID of a tool or a type, optionally enclosed in single
+ * quotes (required if it contains spaces or matches one of the keywords). An
+ * atom that consists of a type ID only refers to the types generated by the
+ * tool, while <b>use(id)</b> refers to the types used as its inputs.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class SLTL_parser {
+
+	private final AllModules allModules;
+	private final AllTypes allTypes;
+	private final String formula;
+	private final List<String> tokens;
+	private int position;
+
+	private SLTL_parser(String formula, AllModules allModules, AllTypes allTypes) {
+		this.allModules = allModules;
+		this.allTypes = allTypes;
+		this.formula = formula;
+		this.tokens = new ArrayList<String>();
+		this.position = 0;
+	}
+
+	/**
+	 * Parse the SLTL formula.
+	 *
+	 * @param formula    - textual representation of the formula
+	 * @param allModules - all the modules of the domain
+	 * @param allTypes   - all the types of the domain
+	 * @return The formula, or {@code null} if the formula is not valid.
+	 */
+	public static SLTL_expression parse(String formula, AllModules allModules, AllTypes allTypes) {
+		SLTL_parser parser = new SLTL_parser(formula, allModules, allTypes);
+		try {
+			parser.tokenize();
+			SLTL_expression expression = parser.parseFormula();
+			if (parser.position < parser.tokens.size()) {
+				throw new IllegalArgumentException("unexpected '" + parser.tokens.get(parser.position) + "'");
+			}
+			return expression;
+		} catch (IllegalArgumentException e) {
+			System.err.println("SLTL formula '" + formula + "' is not valid: " + e.getMessage() + ".");
+			return null;
+		}
+	}
+
+	private void tokenize() {
+		int i = 0;
+		while (i < formula.length()) {
+			char c = formula.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			} else if (formula.startsWith("->", i)) {
+				tokens.add("->");
+				i += 2;
+			} else if ("()!&|".indexOf(c) >= 0) {
+				tokens.add(String.valueOf(c));
+				i++;
+			} else if (c == '\'') {
+				int end = formula.indexOf('\'', i + 1);
+				if (end < 0) {
+					throw new IllegalArgumentException("missing closing quote");
+				}
+				/* The quote marks the token as an ID. */
+				tokens.add(formula.substring(i, end));
+				i = end + 1;
+			} else {
+				int start = i;
+				while (i < formula.length() && !Character.isWhitespace(formula.charAt(i))
+						&& "()!&|'".indexOf(formula.charAt(i)) < 0 && !formula.startsWith("->", i)) {
+					i++;
+				}
+				tokens.add(formula.substring(start, i));
+			}
+		}
+	}
+
+	private SLTL_expression parseFormula() {
+		SLTL_expression premise = parseOr();
+		if (accept("->")) {
+			return SLTL_expression.implies(premise, parseFormula());
+		}
+		return premise;
+	}
+
+	private SLTL_expression parseOr() {
+		List<SLTL_expression> operands = new ArrayList<SLTL_expression>();
+		operands.add(parseAnd());
+		while (accept("|")) {
+			operands.add(parseAnd());
+		}
+		return SLTL_expression.or(operands);
+	}
+
+	private SLTL_expression parseAnd() {
+		List<SLTL_expression> operands = new ArrayList<SLTL_expression>();
+		operands.add(parseUntil());
+		while (accept("&")) {
+			operands.add(parseUntil());
+		}
+		return SLTL_expression.and(operands);
+	}
+
+	private SLTL_expression parseUntil() {
+		SLTL_expression hold = parseUnary();
+		if (accept("U")) {
+			return SLTL_expression.until(hold, parseUntil());
+		}
+		return hold;
+	}
+
+	private SLTL_expression parseUnary() {
+		if (accept("!")) {
+			return SLTL_expression.not(parseUnary());
+		} else if (accept("X")) {
+			return SLTL_expression.next(parseUnary());
+		} else if (accept("F")) {
+			return SLTL_expression.eventually(parseUnary());
+		} else if (accept("G")) {
+			return SLTL_expression.globally(parseUnary());
+		} else if (accept("(")) {
+			SLTL_expression formula = parseFormula();
+			expect(")");
+			return formula;
+		} else if (accept("true")) {
+			return SLTL_expression.constant(true);
+		} else if (accept("false")) {
+			return SLTL_expression.constant(false);
+		}
+		String id = next();
+		if ((id.equals("use") || id.equals("gen")) && accept("(")) {
+			TaxonomyPredicate type = findType(next());
+			expect(")");
+			return SLTL_expression.atom(type,
+					id.equals("use") ? WorkflowElement.USED_TYPE : WorkflowElement.MEMORY_TYPE);
+		}
+		return atom(id);
+	}
+
+	private SLTL_expression atom(String token) {
+		String id = token.startsWith("'") ? token.substring(1) : token;
+		if (!token.startsWith("'") && isOperator(token)) {
+			throw new IllegalArgumentException("unexpected '" + token + "'");
+		}
+		TaxonomyPredicate module = allModules.get(id);
+		if (module != null) {
+			return SLTL_expression.atom(module, WorkflowElement.MODULE);
+		}
+		return SLTL_expression.atom(findType(token), WorkflowElement.MEMORY_TYPE);
+	}
+
+	private TaxonomyPredicate findType(String token) {
+		String id = token.startsWith("'") ? token.substring(1) : token;
+		TaxonomyPredicate type = allTypes.get(id);
+		if (type == null) {
+			throw new IllegalArgumentException("'" + id + "' is neither a tool nor a type");
+		}
+		return type;
+	}
+
+	private boolean isOperator(String token) {
+		return token.equals("->") || token.length() == 1 && "()!&|".contains(token);
+	}
+
+	private String next() {
+		if (position >= tokens.size()) {
+			throw new IllegalArgumentException("unexpected end of the formula");
+		}
+		return tokens.get(position++);
+	}
+
+	private boolean accept(String token) {
+		if (position < tokens.size() && tokens.get(position).equals(token)) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private void expect(String token) {
+		if (!accept(token)) {
+			throw new IllegalArgumentException("expected '" + token + "'");
+		}
+	}
+}
@@ -129,6 +129,16 @@ public abstract class TaxonomyPredicate implements PredicateLabel {
 	public void setIsRelevant() {
 		this.isRelevant = true;
 	}
+
+	/**
+	 * Sets whether the node is relevant, e.g. when the relevance is recomputed
+	 * after the domain was updated.
+	 * 
+	 * @param isRelevant - {@code true} if the node is relevant
+	 */
+	public void setIsRelevant(boolean isRelevant) {
+		this.isRelevant = isRelevant;
+	}
 	
 	/**
 	 * Returns whether the node is relevant for the scenario (if it can be used in practice).
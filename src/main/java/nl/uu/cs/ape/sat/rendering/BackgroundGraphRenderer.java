@@ -0,0 +1,109 @@
+package nl.uu.cs.ape.sat.rendering;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import guru.nidi.graphviz.attribute.RankDir;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.events.SynthesisListener;
+import nl.uu.cs.ape.sat.models.enums.GraphType;
+
+/**
+ * The {@code BackgroundGraphRenderer} class is a {@link SynthesisListener} that
+ * submits the graphical representations of the first solutions to a
+ * {@link GraphRenderer} as soon as they are found, so that the graphs are
+ * rendered while the synthesis continues.<br>
+ * <br>
+ * The listener is notified by the shared event dispatcher thread, which must
+ * not block. Therefore the solutions that do not fit in the work queue of the
+ * renderer are deferred and submitted by {@link #renderDeferred()}.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class BackgroundGraphRenderer implements SynthesisListener {
+
+	/** Renderer that renders the graphs. */
+	private final GraphRenderer renderer;
+	/** Folder the graphs are written to. */
+	private final File folder;
+	/** Number of solutions that should be rendered. */
+	private final int noGraphs;
+	/** Type and orientation of the graphs. */
+	private final GraphType type;
+	private final RankDir orientation;
+	/** Solutions that were not submitted, because the work queue was full. */
+	private final List<SolutionWorkflow> deferred;
+
+	/**
+	 * Create a listener that renders the first {@code noGraphs} solutions.
+	 * 
+	 * @param renderer    - renderer that renders the graphs
+	 * @param folder      - folder the graphs are written to
+	 * @param noGraphs    - number of solutions that should be rendered
+	 * @param type        - type of the graphs
+	 * @param orientation - orientation in which the graphs will be presented
+	 */
+	public BackgroundGraphRenderer(GraphRenderer renderer, File folder, int noGraphs, GraphType type,
+			RankDir orientation) {
+		this.renderer = renderer;
+		this.folder = folder;
+		this.noGraphs = noGraphs;
+		this.type = type;
+		this.orientation = orientation;
+		this.deferred = new ArrayList<SolutionWorkflow>();
+	}
+
+	@Override
+	public void solutionFound(SolutionWorkflow solution) {
+		if (solution.getIndex() >= noGraphs) {
+			return;
+		}
+		String title = getTitle(solution);
+		if (renderer.tryRender(solution, type, title, orientation, new File(folder, title)) == null) {
+			synchronized (deferred) {
+				deferred.add(solution);
+			}
+		}
+	}
+
+	/**
+	 * Submit the solutions that were deferred because the work queue was full. The
+	 * method blocks while the work queue is full, and should be called once the
+	 * events are delivered (see
+	 * {@link nl.uu.cs.ape.sat.events.SynthesisEventDispatcher#flush()}).
+	 * 
+	 * @throws InterruptedException if the thread was interrupted while waiting for
+	 *                              space in the work queue
+	 */
+	public void renderDeferred() throws InterruptedException {
+		List<SolutionWorkflow> solutions;
+		synchronized (deferred) {
+			solutions = new ArrayList<SolutionWorkflow>(deferred);
+			deferred.clear();
+		}
+		for (SolutionWorkflow solution : solutions) {
+			String title = getTitle(solution);
+			renderer.render(solution, type, title, orientation, new File(folder, title));
+		}
+	}
+
+	/**
+	 * @param type        - type of the graphs
+	 * @param orientation - orientation of the graphs
+	 * @return {@code true} if the listener renders graphs of the given type and
+	 *         orientation.
+	 */
+	public boolean renders(GraphType type, RankDir orientation) {
+		return this.type == type && this.orientation == orientation;
+	}
+
+	/**
+	 * @param solution - the rendered solution
+	 * @return Title (and file name) of the graph that represents the solution.
+	 */
+	public static String getTitle(SolutionWorkflow solution) {
+		return "SolutionNo_" + solution.getIndex() + "_length_" + solution.getSolutionlength();
+	}
+}
@@ -0,0 +1,124 @@
+package nl.uu.cs.ape.sat.rendering;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import guru.nidi.graphviz.attribute.RankDir;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.models.enums.GraphType;
+import nl.uu.cs.ape.sat.rendering.WorkflowGraph.Edge;
+import nl.uu.cs.ape.sat.rendering.WorkflowGraph.Node;
+
+/**
+ * The {@code DotWriter} class writes the graphical representations of the
+ * workflow solutions in .dot format (see http://www.graphviz.org/). The graphs
+ * are written directly to the output, without using the Graphviz engine, and
+ * use the same styling as the graphs rendered by the {@link GraphRenderer}.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public final class DotWriter {
+
+	/** Private constructor is used to to prevent instantiation. */
+	private DotWriter() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Write the graph that represents the solution in .dot format.
+	 * 
+	 * @param solution    - the workflow solution
+	 * @param type        - type of the graphical representation
+	 * @param title       - title of the graph
+	 * @param orientation - orientation of the graph
+	 * @param out         - writer the graph is written to
+	 * @throws IOException error in writing the graph
+	 */
+	public static void write(SolutionWorkflow solution, GraphType type, String title, RankDir orientation,
+			Writer out) throws IOException {
+		WorkflowGraph graph = WorkflowGraph.of(solution, type, title);
+
+		out.write("digraph ");
+		out.write(quote(graph.getTitle()));
+		out.write(" {\n\trankdir=");
+		out.write(rankDir(orientation));
+		out.write(";\n");
+		for (Node node : graph.getNodes()) {
+			out.write('\t');
+			out.write(quote(node.id));
+			out.write(" [label=");
+			out.write(quote(node.label));
+			switch (node.kind) {
+			case TERMINAL:
+				out.write(", shape=rectangle, color=red, style=bold");
+				break;
+			case TOOL:
+				out.write(", shape=polygon, sides=4, color=blue, style=bold");
+				break;
+			default:
+				out.write(", style=dashed");
+			}
+			out.write("];\n");
+		}
+		int weight = 0;
+		for (Edge edge : graph.getEdges()) {
+			out.write('\t');
+			out.write(quote(edge.from.id));
+			out.write(" -> ");
+			out.write(quote(edge.to.id));
+			switch (edge.kind) {
+			case INPUT:
+				out.write(" [label=\"in\", color=orange, weight=" + (++weight) + "]");
+				break;
+			case OUTPUT:
+				out.write(" [label=\"out\", color=black, weight=" + (++weight) + "]");
+				break;
+			case WORKFLOW_IO:
+				out.write(" [style=dotted, weight=" + (++weight) + "]");
+				break;
+			default:
+				out.write(" [label=\"next\", color=red]");
+			}
+			out.write(";\n");
+		}
+		out.write("}\n");
+	}
+
+	/**
+	 * Get the graph that represents the solution in .dot format.
+	 * 
+	 * @param solution    - the workflow solution
+	 * @param type        - type of the graphical representation
+	 * @param title       - title of the graph
+	 * @param orientation - orientation of the graph
+	 * @return String that represents the solution workflow in .dot graph format.
+	 */
+	public static String toDot(SolutionWorkflow solution, GraphType type, String title, RankDir orientation) {
+		StringWriter out = new StringWriter();
+		try {
+			write(solution, type, title, orientation, out);
+		} catch (IOException e) {
+			/* Writing to a string does not fail. */
+		}
+		return out.toString();
+	}
+
+	/** Get the .dot value of the orientation. */
+	private static String rankDir(RankDir orientation) {
+		if (orientation == RankDir.LEFT_TO_RIGHT) {
+			return "LR";
+		} else if (orientation == RankDir.RIGHT_TO_LEFT) {
+			return "RL";
+		} else if (orientation == RankDir.BOTTOM_TO_TOP) {
+			return "BT";
+		}
+		return "TB";
+	}
+
+	/** Quote and escape the .dot identifier. */
+	private static String quote(String id) {
+		return "\"" + id.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+}
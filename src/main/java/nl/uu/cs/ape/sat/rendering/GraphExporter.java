@@ -0,0 +1,105 @@
+package nl.uu.cs.ape.sat.rendering;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import guru.nidi.graphviz.attribute.RankDir;
+import guru.nidi.graphviz.engine.Format;
+import nl.uu.cs.ape.sat.core.implSAT.SATsolutionsList;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.models.enums.GraphType;
+
+/**
+ * The {@code GraphExporter} class writes the graphical representations of
+ * multiple workflow solutions in {@link Format#DOT} or {@link Format#SVG}
+ * format, using the {@link DotWriter} and {@link SvgWriter}. The Graphviz
+ * engine is not used.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public final class GraphExporter {
+
+	/** Private constructor is used to to prevent instantiation. */
+	private GraphExporter() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Write the graphs of the first {@code noGraphs} solutions to the folder, one
+	 * file per solution.
+	 * 
+	 * @param solutions   - the workflow solutions
+	 * @param noGraphs    - max number of solutions that are written, all the
+	 *                    solutions are written if the value is negative
+	 * @param type        - type of the graphical representation
+	 * @param orientation - orientation of the graphs
+	 * @param format      - {@link Format#DOT} or {@link Format#SVG}
+	 * @param folder      - folder the files are written to
+	 * @return {@code true} if the graphs were successfully written, {@code false}
+	 *         otherwise.
+	 */
+	public static boolean writeGraphs(SATsolutionsList solutions, int noGraphs, GraphType type, RankDir orientation,
+			Format format, File folder) {
+		if (format != Format.DOT && format != Format.SVG) {
+			System.err.println("Graphs can be exported only in DOT or SVG format.");
+			return false;
+		}
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			System.err.println("Folder '" + folder + "' cannot be created.");
+			return false;
+		}
+		for (int i = 0; i < solutions.size() && (noGraphs < 0 || i < noGraphs); i++) {
+			SolutionWorkflow solution = solutions.get(i);
+			String title = BackgroundGraphRenderer.getTitle(solution);
+			File file = new File(folder, title + (format == Format.DOT ? ".dot" : ".svg"));
+			try (Writer out = newWriter(file)) {
+				if (format == Format.DOT) {
+					DotWriter.write(solution, type, title, orientation, out);
+				} else {
+					SvgWriter.write(solution, type, title, orientation, out);
+				}
+			} catch (IOException e) {
+				System.err.println("Error occured while writing a graph to the file system: " + e.getMessage());
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Write the graphs of the first {@code noGraphs} solutions to a single .dot
+	 * file, containing one {@code digraph} per solution.
+	 * 
+	 * @param solutions   - the workflow solutions
+	 * @param noGraphs    - max number of solutions that are written, all the
+	 *                    solutions are written if the value is negative
+	 * @param type        - type of the graphical representation
+	 * @param orientation - orientation of the graphs
+	 * @param file        - the file the graphs are written to
+	 * @return {@code true} if the graphs were successfully written, {@code false}
+	 *         otherwise.
+	 */
+	public static boolean writeDotFile(SATsolutionsList solutions, int noGraphs, GraphType type, RankDir orientation,
+			File file) {
+		try (Writer out = newWriter(file)) {
+			for (int i = 0; i < solutions.size() && (noGraphs < 0 || i < noGraphs); i++) {
+				SolutionWorkflow solution = solutions.get(i);
+				DotWriter.write(solution, type, BackgroundGraphRenderer.getTitle(solution), orientation, out);
+			}
+		} catch (IOException e) {
+			System.err.println("Error occured while writing the graphs to the file system: " + e.getMessage());
+			return false;
+		}
+		return true;
+	}
+
+	private static Writer newWriter(File file) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+	}
+}
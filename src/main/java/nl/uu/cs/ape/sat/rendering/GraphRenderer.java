@@ -0,0 +1,301 @@
+package nl.uu.cs.ape.sat.rendering;
+
+import static guru.nidi.graphviz.model.Factory.graph;
+import static guru.nidi.graphviz.model.Factory.node;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONObject;
+
+import guru.nidi.graphviz.attribute.RankDir;
+import guru.nidi.graphviz.engine.Format;
+import guru.nidi.graphviz.engine.Graphviz;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionGraph;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.models.enums.GraphType;
+
+/**
+ * The {@code GraphRenderer} class is a rendering service that writes the
+ * graphical representations of the solutions (PNG files) using a fixed number
+ * of rendering threads. The JavaScript based Graphviz engines keep an engine
+ * instance per thread, therefore each rendering thread is warmed up (i.e. its
+ * engine is initialised) as soon as the renderer is created, so that the
+ * rendering of the first solutions does not pay the initialisation cost.
+ * <p>
+ * Rendering requests are placed in a bounded work queue. When the queue is
+ * full the submitting thread blocks until there is space, which prevents the
+ * renderer from accumulating an unbounded number of graphs in memory. Threads
+ * that must not block can use
+ * {@link #tryRender(SolutionWorkflow, GraphType, String, RankDir, File)}
+ * instead, e.g. while the synthesis is running (see
+ * {@link BackgroundGraphRenderer}).
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class GraphRenderer implements AutoCloseable {
+
+	/** Number of queued requests per rendering thread. */
+	private static final int QUEUE_SIZE_PER_THREAD = 4;
+
+	/** Executor that performs the rendering. */
+	private final ThreadPoolExecutor executor;
+	/** Permits for the requests, limit the size of the work queue. */
+	private final Semaphore queueSlots;
+	/** Number of rendering threads. */
+	private final int threads;
+
+	/** Number of submitted requests that are not finished yet. */
+	private int pending;
+	/** Rendering statistics. */
+	private int rendered, failed;
+	private long totalLatency, maxLatency, totalRenderTime;
+	private long firstSubmitTime = -1, lastFinishTime = -1;
+
+	/**
+	 * Create a renderer with the given number of rendering threads and start
+	 * warming up the rendering engines.
+	 * 
+	 * @param threads - number of rendering threads (at least 1)
+	 */
+	public GraphRenderer(int threads) {
+		this.threads = Math.max(1, threads);
+		this.queueSlots = new Semaphore(this.threads * (QUEUE_SIZE_PER_THREAD + 1));
+		AtomicInteger threadNo = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), runnable -> {
+					Thread thread = new Thread(() -> {
+						warmUp();
+						runnable.run();
+					}, "APE-renderer-" + threadNo.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.prestartAllCoreThreads();
+	}
+
+	/**
+	 * Render the given graph as a PNG file. The method blocks while the work queue
+	 * is full.
+	 * 
+	 * @param graph - graph that should be rendered
+	 * @param file  - file the PNG image is written to
+	 * @return {@link Future} that completes with the written file, or with the
+	 *         exception that occurred while rendering.
+	 * @throws InterruptedException if the thread was interrupted while waiting for
+	 *                              space in the work queue
+	 */
+	public Future<File> render(SolutionGraph graph, File file) throws InterruptedException {
+		queueSlots.acquire();
+		return submit(() -> {
+			graph.getWrite2File(file);
+			return file;
+		});
+	}
+
+	/**
+	 * Create the graphical representation of the given type and render it as a PNG
+	 * file. The graph is created by the rendering thread as well. The method blocks
+	 * while the work queue is full.
+	 * 
+	 * @param solution    - solution that should be rendered
+	 * @param type        - type of the graph
+	 * @param title       - title of the graph
+	 * @param orientation - orientation in which the graph will be presented
+	 * @param file        - file the PNG image is written to
+	 * @return {@link Future} that completes with the written file, or with the
+	 *         exception that occurred while rendering.
+	 * @throws InterruptedException if the thread was interrupted while waiting for
+	 *                              space in the work queue
+	 */
+	public Future<File> render(SolutionWorkflow solution, GraphType type, String title, RankDir orientation,
+			File file) throws InterruptedException {
+		queueSlots.acquire();
+		return submit(renderTask(solution, type, title, orientation, file));
+	}
+
+	/**
+	 * Create the graphical representation of the given type and render it as a PNG
+	 * file, if there is space in the work queue. The method never blocks.
+	 * 
+	 * @param solution    - solution that should be rendered
+	 * @param type        - type of the graph
+	 * @param title       - title of the graph
+	 * @param orientation - orientation in which the graph will be presented
+	 * @param file        - file the PNG image is written to
+	 * @return {@link Future} that completes with the written file, or with the
+	 *         exception that occurred while rendering, or {@code null} if the work
+	 *         queue is full and the request was not submitted.
+	 */
+	public Future<File> tryRender(SolutionWorkflow solution, GraphType type, String title, RankDir orientation,
+			File file) {
+		if (!queueSlots.tryAcquire()) {
+			return null;
+		}
+		return submit(renderTask(solution, type, title, orientation, file));
+	}
+
+	/**
+	 * Block until all the submitted requests are finished.
+	 * 
+	 * @return {@code true} if the requests are finished, {@code false} if the
+	 *         waiting was interrupted.
+	 */
+	public synchronized boolean awaitCompletion() {
+		while (pending > 0) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return Number of rendering threads.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @return Number of successfully rendered graphs.
+	 */
+	public synchronized int getRendered() {
+		return rendered;
+	}
+
+	/**
+	 * @return Number of graphs whose rendering failed.
+	 */
+	public synchronized int getFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return Average time (in milliseconds) between the submission of a request
+	 *         and its completion.
+	 */
+	public synchronized double getAverageLatency() {
+		int finished = rendered + failed;
+		return finished == 0 ? 0 : (double) totalLatency / finished;
+	}
+
+	/**
+	 * @return Number of rendered graphs per second, measured from the first
+	 *         submission to the last completion.
+	 */
+	public synchronized double getThroughput() {
+		if (firstSubmitTime == -1 || lastFinishTime <= firstSubmitTime) {
+			return 0;
+		}
+		return rendered * 1000.0 / (lastFinishTime - firstSubmitTime);
+	}
+
+	/**
+	 * @return JSON representation of the rendering statistics.
+	 */
+	public synchronized JSONObject toJSON() {
+		JSONObject json = new JSONObject();
+		json.put("threads", threads);
+		json.put("pending", pending);
+		json.put("rendered", rendered);
+		json.put("failed", failed);
+		json.put("average_latency", getAverageLatency());
+		json.put("max_latency", maxLatency);
+		json.put("average_render_time", (rendered + failed) == 0 ? 0 : (double) totalRenderTime / (rendered + failed));
+		json.put("graphs_per_second", getThroughput());
+		return json;
+	}
+
+	/**
+	 * Stop the rendering threads. Requests that are still in the queue are
+	 * discarded.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * @return Task that creates the graphical representation of the solution and
+	 *         renders it.
+	 */
+	private static Callable<File> renderTask(SolutionWorkflow solution, GraphType type, String title,
+			RankDir orientation, File file) {
+		return () -> {
+			SolutionGraph graph = (type == GraphType.CONTROL_FLOW) ? solution.getControlflowGraph(title, orientation)
+					: solution.getDataflowGraph(title, orientation);
+			graph.getWrite2File(file);
+			return file;
+		};
+	}
+
+	/**
+	 * Queue the rendering task. A slot of the work queue has to be acquired by the
+	 * caller.
+	 */
+	private Future<File> submit(Callable<File> task) {
+		long submitTime = System.currentTimeMillis();
+		synchronized (this) {
+			pending++;
+			if (firstSubmitTime == -1) {
+				firstSubmitTime = submitTime;
+			}
+		}
+		try {
+			return executor.submit(() -> {
+				long startTime = System.currentTimeMillis();
+				boolean success = false;
+				try {
+					File file = task.call();
+					success = true;
+					return file;
+				} finally {
+					finished(submitTime, startTime, success);
+				}
+			});
+		} catch (RuntimeException e) {
+			finished(submitTime, submitTime, false);
+			throw e;
+		}
+	}
+
+	/** Update the statistics when a request is finished. */
+	private synchronized void finished(long submitTime, long startTime, boolean success) {
+		long finishTime = System.currentTimeMillis();
+		if (success) {
+			rendered++;
+		} else {
+			failed++;
+		}
+		totalLatency += finishTime - submitTime;
+		maxLatency = Math.max(maxLatency, finishTime - submitTime);
+		totalRenderTime += finishTime - startTime;
+		lastFinishTime = finishTime;
+		pending--;
+		queueSlots.release();
+		notifyAll();
+	}
+
+	/**
+	 * Initialise the rendering engine of the current thread by rendering a
+	 * trivial graph.
+	 */
+	private static void warmUp() {
+		try {
+			Graphviz.fromGraph(graph("warmup").with(node("a").link(node("b")))).render(Format.SVG).toString();
+		} catch (RuntimeException e) {
+			System.err.println("Graphviz rendering engine could not be initialised: " + e.getMessage());
+		}
+	}
+}
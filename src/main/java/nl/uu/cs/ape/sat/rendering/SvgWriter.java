@@ -0,0 +1,209 @@
+package nl.uu.cs.ape.sat.rendering;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import guru.nidi.graphviz.attribute.RankDir;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.models.enums.GraphType;
+import nl.uu.cs.ape.sat.rendering.WorkflowGraph.Edge;
+import nl.uu.cs.ape.sat.rendering.WorkflowGraph.Node;
+
+/**
+ * The {@code SvgWriter} class writes the graphical representations of the
+ * workflow solutions as SVG images, using a simple layered layout implemented
+ * in Java. Each node is placed in the layer that corresponds to the length of
+ * the longest path from a source of the graph, and the nodes within a layer are
+ * ordered as they occur in the workflow. The Graphviz engine is not used, which
+ * makes the writer suitable for bulk exports.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public final class SvgWriter {
+
+	/** Layout constants, in pixels. */
+	private static final int NODE_HEIGHT = 36;
+	private static final int CHAR_WIDTH = 7;
+	private static final int MIN_NODE_WIDTH = 60;
+	private static final int NODE_GAP = 24;
+	private static final int LAYER_GAP = 64;
+	private static final int MARGIN = 20;
+
+	/** Private constructor is used to to prevent instantiation. */
+	private SvgWriter() {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Write the graph that represents the solution as an SVG image.
+	 * 
+	 * @param solution    - the workflow solution
+	 * @param type        - type of the graphical representation
+	 * @param title       - title of the graph
+	 * @param orientation - orientation of the graph
+	 * @param out         - writer the image is written to
+	 * @throws IOException error in writing the image
+	 */
+	public static void write(SolutionWorkflow solution, GraphType type, String title, RankDir orientation,
+			Writer out) throws IOException {
+		WorkflowGraph graph = WorkflowGraph.of(solution, type, title);
+		List<List<Node>> layers = assignLayers(graph);
+		boolean horizontal = orientation == RankDir.LEFT_TO_RIGHT || orientation == RankDir.RIGHT_TO_LEFT;
+		boolean reversed = orientation == RankDir.BOTTOM_TO_TOP || orientation == RankDir.RIGHT_TO_LEFT;
+
+		/* Size of the layers along the layer axis and across it. */
+		int maxNodeWidth = MIN_NODE_WIDTH;
+		int maxLayerSize = 0;
+		for (List<Node> layer : layers) {
+			int layerSize = 0;
+			for (Node node : layer) {
+				maxNodeWidth = Math.max(maxNodeWidth, width(node));
+				layerSize += (horizontal ? NODE_HEIGHT : width(node)) + NODE_GAP;
+			}
+			maxLayerSize = Math.max(maxLayerSize, layerSize);
+		}
+		int layerStep = (horizontal ? maxNodeWidth : NODE_HEIGHT) + LAYER_GAP;
+		int layersLength = layers.size() * layerStep;
+
+		/* Coordinates of the node centres. */
+		int[] x = new int[graph.getNodes().size()];
+		int[] y = new int[graph.getNodes().size()];
+		for (int l = 0; l < layers.size(); l++) {
+			List<Node> layer = layers.get(l);
+			int layerSize = 0;
+			for (Node node : layer) {
+				layerSize += (horizontal ? NODE_HEIGHT : width(node)) + NODE_GAP;
+			}
+			int along = MARGIN + (reversed ? layers.size() - 1 - l : l) * layerStep + layerStep / 2;
+			int across = MARGIN + (maxLayerSize - layerSize) / 2;
+			for (Node node : layer) {
+				int size = horizontal ? NODE_HEIGHT : width(node);
+				int centre = across + size / 2;
+				across += size + NODE_GAP;
+				x[node.position] = horizontal ? along : centre;
+				y[node.position] = horizontal ? centre : along;
+			}
+		}
+		int svgWidth = 2 * MARGIN + (horizontal ? layersLength : maxLayerSize);
+		int svgHeight = 2 * MARGIN + (horizontal ? maxLayerSize : layersLength);
+
+		out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + svgWidth + "\" height=\"" + svgHeight
+				+ "\" font-family=\"Helvetica,Arial,sans-serif\" font-size=\"12\">\n");
+		out.write("<title>" + escape(graph.getTitle()) + "</title>\n");
+		out.write("<defs><marker id=\"arrow\" viewBox=\"0 0 10 10\" refX=\"10\" refY=\"5\" markerWidth=\"8\" "
+				+ "markerHeight=\"8\" orient=\"auto\"><path d=\"M0,0 L10,5 L0,10 z\"/></marker></defs>\n");
+		for (Edge edge : graph.getEdges()) {
+			writeEdge(edge, x, y, horizontal, reversed, out);
+		}
+		for (Node node : graph.getNodes()) {
+			writeNode(node, x[node.position], y[node.position], out);
+		}
+		out.write("</svg>\n");
+	}
+
+	/**
+	 * Assign each node to the layer that corresponds to the longest path from a
+	 * source node. The {@link Node#position} is used as the index of the node.
+	 */
+	private static List<List<Node>> assignLayers(WorkflowGraph graph) {
+		List<Node> nodes = graph.getNodes();
+		for (int i = 0; i < nodes.size(); i++) {
+			nodes.get(i).position = i;
+			nodes.get(i).layer = 0;
+		}
+		/*
+		 * The edges are created in the order of the workflow, the iteration is
+		 * repeated only to be robust against a different order.
+		 */
+		boolean changed = true;
+		for (int round = 0; changed && round < nodes.size(); round++) {
+			changed = false;
+			for (Edge edge : graph.getEdges()) {
+				if (edge.to.layer < edge.from.layer + 1) {
+					edge.to.layer = edge.from.layer + 1;
+					changed = true;
+				}
+			}
+		}
+		List<List<Node>> layers = new ArrayList<List<Node>>();
+		for (Node node : nodes) {
+			while (layers.size() <= node.layer) {
+				layers.add(new ArrayList<Node>());
+			}
+			layers.get(node.layer).add(node);
+		}
+		return layers;
+	}
+
+	private static void writeNode(Node node, int cx, int cy, Writer out) throws IOException {
+		int w = width(node);
+		switch (node.kind) {
+		case TERMINAL:
+			out.write("<rect x=\"" + (cx - w / 2) + "\" y=\"" + (cy - NODE_HEIGHT / 2) + "\" width=\"" + w
+					+ "\" height=\"" + NODE_HEIGHT + "\" fill=\"white\" stroke=\"red\" stroke-width=\"2\"/>\n");
+			break;
+		case TOOL:
+			out.write("<rect x=\"" + (cx - w / 2) + "\" y=\"" + (cy - NODE_HEIGHT / 2) + "\" width=\"" + w
+					+ "\" height=\"" + NODE_HEIGHT + "\" fill=\"white\" stroke=\"blue\" stroke-width=\"2\"/>\n");
+			break;
+		default:
+			out.write("<ellipse cx=\"" + cx + "\" cy=\"" + cy + "\" rx=\"" + (w / 2) + "\" ry=\"" + (NODE_HEIGHT / 2)
+					+ "\" fill=\"white\" stroke=\"black\" stroke-dasharray=\"5,3\"/>\n");
+		}
+		out.write("<text x=\"" + cx + "\" y=\"" + (cy + 4) + "\" text-anchor=\"middle\">" + escape(node.label)
+				+ "</text>\n");
+	}
+
+	private static void writeEdge(Edge edge, int[] x, int[] y, boolean horizontal, boolean reversed, Writer out)
+			throws IOException {
+		int direction = reversed ? -1 : 1;
+		int x1 = x[edge.from.position], y1 = y[edge.from.position];
+		int x2 = x[edge.to.position], y2 = y[edge.to.position];
+		/* Connect the borders of the nodes along the layer axis. */
+		if (horizontal) {
+			x1 += direction * width(edge.from) / 2;
+			x2 -= direction * width(edge.to) / 2;
+		} else {
+			y1 += direction * NODE_HEIGHT / 2;
+			y2 -= direction * NODE_HEIGHT / 2;
+		}
+		String color, label, style = "";
+		switch (edge.kind) {
+		case INPUT:
+			color = "orange";
+			label = "in";
+			break;
+		case OUTPUT:
+			color = "black";
+			label = "out";
+			break;
+		case NEXT:
+			color = "red";
+			label = "next";
+			break;
+		default:
+			color = "black";
+			label = null;
+			style = " stroke-dasharray=\"2,3\"";
+		}
+		out.write("<line x1=\"" + x1 + "\" y1=\"" + y1 + "\" x2=\"" + x2 + "\" y2=\"" + y2 + "\" stroke=\"" + color
+				+ "\"" + style + " marker-end=\"url(#arrow)\"/>\n");
+		if (label != null) {
+			out.write("<text x=\"" + ((x1 + x2) / 2 + 4) + "\" y=\"" + ((y1 + y2) / 2) + "\" font-size=\"10\">"
+					+ label + "</text>\n");
+		}
+	}
+
+	/** Width of the node, based on the length of its label. */
+	private static int width(Node node) {
+		return Math.max(MIN_NODE_WIDTH, node.label.length() * CHAR_WIDTH + 20);
+	}
+
+	/** Escape the text for the use in XML. */
+	private static String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+}
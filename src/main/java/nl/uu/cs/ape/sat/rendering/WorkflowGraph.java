@@ -0,0 +1,185 @@
+package nl.uu.cs.ape.sat.rendering;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nl.uu.cs.ape.sat.core.solutionStructure.ModuleNode;
+import nl.uu.cs.ape.sat.core.solutionStructure.SolutionWorkflow;
+import nl.uu.cs.ape.sat.core.solutionStructure.TypeNode;
+import nl.uu.cs.ape.sat.models.enums.GraphType;
+
+/**
+ * The {@code WorkflowGraph} class is a lightweight, mutable description of the
+ * graphical representation of a workflow solution (nodes and edges), used by
+ * the {@link DotWriter} and the {@link SvgWriter}. Unlike the graphviz-java
+ * graph model it is built in a single pass, without copying the graph when a
+ * node or an edge is added.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+class WorkflowGraph {
+
+	/** Kinds of nodes, define the way the nodes are drawn. */
+	enum NodeKind {
+		/** Workflow input/output, start/end. */
+		TERMINAL,
+		/** Operation in the workflow. */
+		TOOL,
+		/** Data instance in the workflow. */
+		DATA
+	}
+
+	/** Kinds of edges, define the way the edges are drawn. */
+	enum EdgeKind {
+		/** Workflow input/output edge. */
+		WORKFLOW_IO,
+		/** Data used as a tool input. */
+		INPUT,
+		/** Data created as a tool output. */
+		OUTPUT,
+		/** Order of the operations. */
+		NEXT
+	}
+
+	/** Node of the graph. */
+	static class Node {
+		final String id;
+		final String label;
+		final NodeKind kind;
+		/** Position in the layout, assigned by the {@link SvgWriter}. */
+		int layer, position;
+
+		Node(String id, String label, NodeKind kind) {
+			this.id = id;
+			this.label = label;
+			this.kind = kind;
+		}
+	}
+
+	/** Edge of the graph. */
+	static class Edge {
+		final Node from;
+		final Node to;
+		final EdgeKind kind;
+
+		Edge(Node from, Node to, EdgeKind kind) {
+			this.from = from;
+			this.to = to;
+			this.kind = kind;
+		}
+	}
+
+	private final String title;
+	private final List<Node> nodes;
+	private final List<Edge> edges;
+	private final Map<String, Node> nodeIDs;
+
+	private WorkflowGraph(String title) {
+		this.title = title;
+		this.nodes = new ArrayList<Node>();
+		this.edges = new ArrayList<Edge>();
+		this.nodeIDs = new HashMap<String, Node>();
+	}
+
+	/**
+	 * Create the graph of the given type that represents the solution.
+	 * 
+	 * @param solution - the workflow solution
+	 * @param type     - type of the graphical representation
+	 * @param title    - title of the graph
+	 * @return The graph that represents the solution.
+	 */
+	static WorkflowGraph of(SolutionWorkflow solution, GraphType type, String title) {
+		WorkflowGraph graph = new WorkflowGraph(title);
+		if (type == GraphType.CONTROL_FLOW) {
+			graph.buildControlflow(solution);
+		} else {
+			graph.buildDataflow(solution);
+		}
+		return graph;
+	}
+
+	String getTitle() {
+		return title;
+	}
+
+	List<Node> getNodes() {
+		return nodes;
+	}
+
+	List<Edge> getEdges() {
+		return edges;
+	}
+
+	/** Add the data-flow representation, following SolutionWorkflow#getDataflowGraph. */
+	private void buildDataflow(SolutionWorkflow solution) {
+		Node input = null;
+		for (TypeNode workflowInput : solution.getWorkflowInputTypeStates()) {
+			if (input == null) {
+				input = addNode("Workflow INPUT", "Workflow INPUT", NodeKind.TERMINAL);
+			}
+			edges.add(new Edge(input, addType(workflowInput), EdgeKind.WORKFLOW_IO));
+		}
+		for (ModuleNode currTool : solution.getModuleNodes()) {
+			Node tool = addTool(currTool);
+			for (TypeNode toolInput : currTool.getInputTypes()) {
+				if (!toolInput.isEmpty()) {
+					edges.add(new Edge(addType(toolInput), tool, EdgeKind.INPUT));
+				}
+			}
+			for (TypeNode toolOutput : currTool.getOutputTypes()) {
+				if (!toolOutput.isEmpty()) {
+					edges.add(new Edge(tool, addType(toolOutput), EdgeKind.OUTPUT));
+				}
+			}
+		}
+		Node output = null;
+		for (TypeNode workflowOutput : solution.getWorkflowOutputTypeStates()) {
+			if (output == null) {
+				output = addNode("Workflow OUTPUT", "Workflow OUTPUT", NodeKind.TERMINAL);
+			}
+			edges.add(new Edge(addType(workflowOutput), output, EdgeKind.WORKFLOW_IO));
+		}
+	}
+
+	/** Add the control-flow representation, following SolutionWorkflow#getControlflowGraph. */
+	private void buildControlflow(SolutionWorkflow solution) {
+		Node prev = addNode("START", "START", NodeKind.TERMINAL);
+		for (ModuleNode currTool : solution.getModuleNodes()) {
+			Node tool = addTool(currTool);
+			edges.add(new Edge(prev, tool, EdgeKind.NEXT));
+			prev = tool;
+		}
+		edges.add(new Edge(prev, addNode("END", "END", NodeKind.TERMINAL), EdgeKind.NEXT));
+	}
+
+	private Node addTool(ModuleNode tool) {
+		return addNode(unquote(tool.getDotID()), tool.getDotLabel(), NodeKind.TOOL);
+	}
+
+	private Node addType(TypeNode type) {
+		return addNode(unquote(type.getDotID()), type.getDotLabel(), NodeKind.DATA);
+	}
+
+	/** Add the node, unless a node with the same id already exists. */
+	private Node addNode(String id, String label, NodeKind kind) {
+		Node node = nodeIDs.get(id);
+		if (node == null) {
+			node = new Node(id, label, kind);
+			nodeIDs.put(id, node);
+			nodes.add(node);
+		}
+		return node;
+	}
+
+	/** Remove the surrounding quotes of the .dot ids provided by the workflow nodes. */
+	private static String unquote(String dotID) {
+		if (dotID.length() >= 2 && dotID.startsWith("\"") && dotID.endsWith("\"")) {
+			return dotID.substring(1, dotID.length() - 1);
+		}
+		return dotID;
+	}
+}
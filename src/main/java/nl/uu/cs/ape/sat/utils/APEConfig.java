@@ -13,8 +13,10 @@ import org.json.JSONObject;
 
 import nl.uu.cs.ape.sat.models.Type;
 import nl.uu.cs.ape.sat.models.DataInstance;
+import nl.uu.cs.ape.sat.models.enums.AnnotationFormat;
 import nl.uu.cs.ape.sat.models.enums.ConfigEnum;
 import nl.uu.cs.ape.sat.models.enums.NodeType;
+import nl.uu.cs.ape.sat.models.enums.SolutionFormat;
 
 /**
  * The {@code APEConfig} (singleton) class is used to define the configuration
@@ -33,6 +35,8 @@ public class APEConfig {
 	private final String DATA_ONTOLOGY_TAG = "dataTaxonomyRoot";
 	private final String SUBONTOLOGY_TAG = "dataSubTaxonomyRoot";
 	private final String TOOL_ANNOTATIONS_TAG = "tool_annotations_path";
+	private final String TOOL_ANNOTATIONS_FORMAT_TAG = "tool_annotations_format";
+	private final String CONVERTED_ANNOTATIONS_TAG = "converted_annotations_path";
 	private final String CONSTRAINTS_TAG = "constraints_path";
 	private final String SHARED_MEMORY_TAG = "shared_memory";
 	private final String SOLUTION_PATH_TAG = "solutions_path";
@@ -48,6 +52,30 @@ public class APEConfig {
 	private final String USE_WORKFLOW_INPUT = "use_workflow_input";
 	private final String USE_ALL_GENERATED_DATA = "use_all_generated_data";
 	private final String DEBUG_MODE_TAG = "debug_mode";
+	private final String METRICS_PATH_TAG = "metrics_path";
+	private final String METRICS_EXPORT_INTERVAL_TAG = "metrics_export_interval";
+	private final String TIMEOUT_TAG = "timeout_sec";
+	private final String RENDERING_THREADS_TAG = "rendering_threads";
+	private final String RENDER_DURING_SYNTHESIS_TAG = "render_during_synthesis";
+	private final String SOLUTIONS_FORMAT_TAG = "solutions_format";
+	private final String SOLUTIONS_COMPRESSED_TAG = "solutions_compressed";
+	private final String SOLUTIONS_SYNC_INTERVAL_TAG = "solutions_sync_interval";
+	private final String SOLUTIONS_ARCHIVE_PATH_TAG = "solutions_archive_path";
+	private final String EXECUTION_THREADS_TAG = "execution_threads";
+	private final String EXECUTION_TIMEOUT_TAG = "execution_timeout_sec";
+	private final String EXECUTION_STEP_SLOTS_TAG = "execution_step_slots";
+	private final String EXECUTION_CACHE_FOLDER_TAG = "execution_cache_folder";
+	private final String EXECUTION_CACHE_SIZE_TAG = "execution_cache_size_mb";
+	private final String EXECUTION_INPUT_DATA_TAG = "execution_input_data";
+	private final String COST_OPTIMIZATION_TAG = "cost_optimization";
+	private final String CUBE_WORKERS_TAG = "cube_workers";
+	private final String CUBE_DEPTH_TAG = "cube_depth";
+	private final String SOLVER_THREADS_TAG = "solver_threads";
+	private final String COUNT_TOLERANCE_TAG = "count_tolerance";
+	private final String COUNT_CONFIDENCE_TAG = "count_confidence";
+	private final String RANDOM_SEED_TAG = "random_seed";
+	private final String DIVERSE_SOLUTIONS_TAG = "diverse_solutions";
+	private final String SAMPLE_SIZE_TAG = "sample_size";
 
 	/** Path to the taxonomy file */
 	private String ontology_path;
@@ -65,6 +93,18 @@ public class APEConfig {
 	/** Path to the XML file with all tool annotations. */
 	private String tool_annotations_path;
 
+	/**
+	 * Format of the {@link #tool_annotations_path} file. Default is
+	 * {@link AnnotationFormat#APE}.
+	 */
+	private AnnotationFormat tool_annotations_format;
+
+	/**
+	 * Path to the file the tool annotations are written to in the APE format,
+	 * when they are given in another format, or {@code null}.
+	 */
+	private String converted_annotations_path;
+
 	/** Path to the file with all workflow constraints. */
 	private String constraints_path;
 
@@ -141,6 +181,127 @@ public class APEConfig {
 	/** {@code true} if debug mode is turned on. */
 	private Boolean debug_mode;
 
+	/**
+	 * Path to the file where the metrics of the synthesis run are exported, or
+	 * {@code null} if the metrics should not be exported.
+	 */
+	private String metrics_path;
+	/** Interval (in seconds) between two exports of the metrics. Default is 10. */
+	private Integer metrics_export_interval;
+	/**
+	 * Time budget (in seconds) of the whole synthesis run, or -1 if the run is not
+	 * limited. Default is -1.
+	 */
+	private Integer timeout_sec;
+	/**
+	 * Number of threads used to render the solution graphs. Default is half of the
+	 * available processors, leaving the rest to the synthesis.
+	 */
+	private Integer rendering_threads;
+	/**
+	 * {@code true} if the data-flow graphs of the solutions are rendered while the
+	 * synthesis is running. Default is {@code false}.
+	 */
+	private Boolean render_during_synthesis;
+	/**
+	 * Format in which the solutions are written to the {@link #solution_path}.
+	 * Default is {@link SolutionFormat#TEXT}.
+	 */
+	private SolutionFormat solutions_format;
+	/**
+	 * {@code true} if the solutions file is gzip compressed. Default is
+	 * {@code false}.
+	 */
+	private Boolean solutions_compressed;
+	/**
+	 * Interval (in seconds) in which the solutions written so far are forced to
+	 * the storage device, or -1 if they are only written at the end of the run.
+	 * Default is -1.
+	 */
+	private Integer solutions_sync_interval;
+	/**
+	 * Path to the binary archive the solutions are written to, or {@code null} if
+	 * the solutions should not be archived.
+	 */
+	private String solutions_archive_path;
+	/**
+	 * Number of workflows that are executed concurrently. Default is the number
+	 * of available processors.
+	 */
+	private Integer execution_threads;
+	/**
+	 * Time limit (in seconds) of the execution of a single workflow, or -1 if the
+	 * executions are not limited. Default is -1.
+	 */
+	private Integer execution_timeout_sec;
+	/**
+	 * Max number of workflow steps that are executed concurrently, when the steps
+	 * are scheduled according to their data dependencies, or -1 if the steps of a
+	 * workflow are executed in sequence. Default is -1.
+	 */
+	private Integer execution_step_slots;
+	/**
+	 * Folder of the cache that memoizes the outputs of the workflow steps, or
+	 * {@code null} if the steps are always executed.
+	 */
+	private String execution_cache_folder;
+	/** Max size (in MB) of the step cache. Default is 1024. */
+	private Integer execution_cache_size_mb;
+	/**
+	 * Files and folders that contain the input data of the executed workflows.
+	 * Their content is part of the keys of the cached steps that use the workflow
+	 * inputs, so that the cached outputs are not reused once the input data
+	 * changes. Default is an empty list.
+	 */
+	private List<String> execution_input_data;
+	/**
+	 * {@code true} if the solutions of each length are returned in the order of
+	 * increasing cost, where the cost of a workflow is the sum of the costs of
+	 * its tools and the weights of the violated soft constraints. Default is
+	 * {@code false}.
+	 */
+	private Boolean cost_optimization;
+	/**
+	 * Number of worker processes that solve the cubes of the search space, or 0
+	 * if each length is solved by a single solver. Default is 0.
+	 */
+	private Integer cube_workers;
+	/**
+	 * Number of the first workflow steps whose tools are fixed by the cubes.
+	 * Default is 1.
+	 */
+	private Integer cube_depth;
+	/**
+	 * Number of threads that enumerate the partitions of the search space (given
+	 * by the cubes) in the current process, used when no worker processes are
+	 * used. Default is 1, i.e. each length is solved by a single solver.
+	 */
+	private Integer solver_threads;
+	/**
+	 * Relative tolerance of the approximate solution counts, i.e. an approximate
+	 * count is within the factor (1 + tolerance) of the exact one. Default is 0.8.
+	 */
+	private Double count_tolerance;
+	/**
+	 * Probability with which the approximate solution counts are within the
+	 * tolerance. Default is 0.8.
+	 */
+	private Double count_confidence;
+	/** Seed of the random choices of the solving. Default is 1. */
+	private Long random_seed;
+	/**
+	 * {@code true} if each next solution should avoid the tools used in the
+	 * solutions found before, so that the first solutions are diverse. Default is
+	 * {@code false}.
+	 */
+	private Boolean diverse_solutions;
+	/**
+	 * Number of the solutions that are sampled uniformly at random in each
+	 * length, instead of enumerating the solutions, or 0 if the solutions are
+	 * enumerated. Default is 0.
+	 */
+	private Integer sample_size;
+
 	/** Configurations used to read "ape.configuration" file. */
 	private JSONObject coreConfiguration;
 	
@@ -287,6 +448,34 @@ public class APEConfig {
 			return false;
 		}
 
+		try {
+			String tempFormat = coreConfiguration.getString(TOOL_ANNOTATIONS_FORMAT_TAG);
+			try {
+				this.tool_annotations_format = AnnotationFormat.valueOf(tempFormat.toUpperCase().replace(".", ""));
+			} catch (IllegalArgumentException e) {
+				System.err.println("Tag '" + TOOL_ANNOTATIONS_FORMAT_TAG + "':\nProvided value: \"" + tempFormat
+						+ "\" is not in a correct format.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.tool_annotations_format = AnnotationFormat.APE;
+		}
+
+		if (coreConfiguration.has(CONVERTED_ANNOTATIONS_TAG)) {
+			try {
+				this.converted_annotations_path = coreConfiguration.getString(CONVERTED_ANNOTATIONS_TAG);
+				if (!isValidConfigWriteFile(CONVERTED_ANNOTATIONS_TAG, this.converted_annotations_path)) {
+					return false;
+				}
+			} catch (JSONException JSONException) {
+				System.err.println(
+						"Tag '" + CONVERTED_ANNOTATIONS_TAG + "' in the configuration file is not provided correctly.");
+				return false;
+			}
+		} else {
+			this.converted_annotations_path = null;
+		}
+
 		try {
 			this.solution_path = coreConfiguration.getString(SOLUTION_PATH_TAG);
 			if (!isValidConfigWriteFile(SOLUTION_PATH_TAG, this.solution_path)) {
@@ -486,6 +675,253 @@ public class APEConfig {
 			return false;
 		}
 
+		try {
+			this.metrics_path = runConfiguration.getString(METRICS_PATH_TAG);
+			if (!isValidConfigWriteFile(METRICS_PATH_TAG, this.metrics_path)) {
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			/* Metrics are not exported to a file. */
+			this.metrics_path = null;
+		}
+
+		try {
+			this.metrics_export_interval = runConfiguration.getInt(METRICS_EXPORT_INTERVAL_TAG);
+			if (this.metrics_export_interval < 1) {
+				System.err.println("Tag '" + METRICS_EXPORT_INTERVAL_TAG
+						+ "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.metrics_export_interval = 10;
+		}
+
+		try {
+			this.timeout_sec = runConfiguration.getInt(TIMEOUT_TAG);
+			if (this.timeout_sec < 1) {
+				System.err.println("Tag '" + TIMEOUT_TAG + "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			/* The synthesis run is not time limited. */
+			this.timeout_sec = -1;
+		}
+
+		try {
+			this.rendering_threads = runConfiguration.getInt(RENDERING_THREADS_TAG);
+			if (this.rendering_threads < 1) {
+				System.err.println(
+						"Tag '" + RENDERING_THREADS_TAG + "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.rendering_threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		}
+
+		try {
+			this.render_during_synthesis = runConfiguration.getBoolean(RENDER_DURING_SYNTHESIS_TAG);
+		} catch (JSONException JSONException) {
+			this.render_during_synthesis = false;
+		}
+
+		try {
+			String tempFormat = runConfiguration.getString(SOLUTIONS_FORMAT_TAG);
+			try {
+				this.solutions_format = SolutionFormat.valueOf(tempFormat.toUpperCase());
+			} catch (IllegalArgumentException e) {
+				System.err.println("Tag '" + SOLUTIONS_FORMAT_TAG + "':\nProvided value: \"" + tempFormat
+						+ "\" is not in a correct format.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.solutions_format = SolutionFormat.TEXT;
+		}
+
+		try {
+			this.solutions_compressed = runConfiguration.getBoolean(SOLUTIONS_COMPRESSED_TAG);
+		} catch (JSONException JSONException) {
+			this.solutions_compressed = false;
+		}
+
+		try {
+			this.solutions_sync_interval = runConfiguration.getInt(SOLUTIONS_SYNC_INTERVAL_TAG);
+			if (this.solutions_sync_interval < 1) {
+				System.err.println("Tag '" + SOLUTIONS_SYNC_INTERVAL_TAG
+						+ "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			/* The solutions are synchronised only when the file is closed. */
+			this.solutions_sync_interval = -1;
+		}
+
+		try {
+			this.solutions_archive_path = runConfiguration.getString(SOLUTIONS_ARCHIVE_PATH_TAG);
+			if (!isValidConfigWriteFile(SOLUTIONS_ARCHIVE_PATH_TAG, this.solutions_archive_path)) {
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			/* The solutions are not archived. */
+			this.solutions_archive_path = null;
+		}
+
+		try {
+			this.execution_threads = runConfiguration.getInt(EXECUTION_THREADS_TAG);
+			if (this.execution_threads < 1) {
+				System.err.println(
+						"Tag '" + EXECUTION_THREADS_TAG + "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.execution_threads = Runtime.getRuntime().availableProcessors();
+		}
+
+		try {
+			this.execution_timeout_sec = runConfiguration.getInt(EXECUTION_TIMEOUT_TAG);
+			if (this.execution_timeout_sec < 1) {
+				System.err.println(
+						"Tag '" + EXECUTION_TIMEOUT_TAG + "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			/* The executions are not time limited. */
+			this.execution_timeout_sec = -1;
+		}
+
+		try {
+			this.execution_step_slots = runConfiguration.getInt(EXECUTION_STEP_SLOTS_TAG);
+			if (this.execution_step_slots < 1) {
+				System.err.println(
+						"Tag '" + EXECUTION_STEP_SLOTS_TAG + "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			/* The steps of a workflow are executed in sequence. */
+			this.execution_step_slots = -1;
+		}
+
+		try {
+			this.execution_cache_folder = runConfiguration.getString(EXECUTION_CACHE_FOLDER_TAG);
+			File cacheFolder = new File(this.execution_cache_folder);
+			/* The cache folder is created on the first use. */
+			if (!cacheFolder.exists() && !cacheFolder.mkdirs()) {
+				System.err.println("Tag '" + EXECUTION_CACHE_FOLDER_TAG + "':\nProvided path: \""
+						+ this.execution_cache_folder + "\" could not be created.");
+				return false;
+			}
+			if (!isValidConfigWriteFolder(EXECUTION_CACHE_FOLDER_TAG, this.execution_cache_folder)) {
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			/* The outputs of the steps are not cached. */
+			this.execution_cache_folder = null;
+		}
+
+		try {
+			this.execution_cache_size_mb = runConfiguration.getInt(EXECUTION_CACHE_SIZE_TAG);
+			if (this.execution_cache_size_mb < 1) {
+				System.err.println(
+						"Tag '" + EXECUTION_CACHE_SIZE_TAG + "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.execution_cache_size_mb = 1024;
+		}
+
+		this.execution_input_data = APEUtils.getListFromJson(runConfiguration, EXECUTION_INPUT_DATA_TAG, String.class);
+		for (String inputData : this.execution_input_data) {
+			if (!new File(inputData).exists()) {
+				System.err.println("Tag '" + EXECUTION_INPUT_DATA_TAG + "':\nProvided path: \"" + inputData
+						+ "\" does not exist.");
+				return false;
+			}
+		}
+
+		try {
+			this.cost_optimization = runConfiguration.getBoolean(COST_OPTIMIZATION_TAG);
+		} catch (JSONException JSONException) {
+			this.cost_optimization = false;
+		}
+
+		try {
+			this.cube_workers = runConfiguration.getInt(CUBE_WORKERS_TAG);
+			if (this.cube_workers < 0) {
+				System.err.println(
+						"Tag '" + CUBE_WORKERS_TAG + "' in the configuration file should be a non-negative number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			/* Each length is solved by a single solver. */
+			this.cube_workers = 0;
+		}
+
+		try {
+			this.cube_depth = runConfiguration.getInt(CUBE_DEPTH_TAG);
+			if (this.cube_depth < 1) {
+				System.err.println(
+						"Tag '" + CUBE_DEPTH_TAG + "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.cube_depth = 1;
+		}
+
+		try {
+			this.solver_threads = runConfiguration.getInt(SOLVER_THREADS_TAG);
+			if (this.solver_threads < 1) {
+				System.err.println(
+						"Tag '" + SOLVER_THREADS_TAG + "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.solver_threads = 1;
+		}
+
+		try {
+			this.count_tolerance = runConfiguration.getDouble(COUNT_TOLERANCE_TAG);
+			if (this.count_tolerance <= 0) {
+				System.err.println(
+						"Tag '" + COUNT_TOLERANCE_TAG + "' in the configuration file should be a positive number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.count_tolerance = 0.8;
+		}
+
+		try {
+			this.count_confidence = runConfiguration.getDouble(COUNT_CONFIDENCE_TAG);
+			if (this.count_confidence <= 0 || this.count_confidence >= 1) {
+				System.err.println("Tag '" + COUNT_CONFIDENCE_TAG
+						+ "' in the configuration file should be a number between 0 and 1.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.count_confidence = 0.8;
+		}
+
+		try {
+			this.random_seed = runConfiguration.getLong(RANDOM_SEED_TAG);
+		} catch (JSONException JSONException) {
+			this.random_seed = 1L;
+		}
+
+		try {
+			this.diverse_solutions = runConfiguration.getBoolean(DIVERSE_SOLUTIONS_TAG);
+		} catch (JSONException JSONException) {
+			this.diverse_solutions = false;
+		}
+
+		try {
+			this.sample_size = runConfiguration.getInt(SAMPLE_SIZE_TAG);
+			if (this.sample_size < 0) {
+				System.err.println(
+						"Tag '" + SAMPLE_SIZE_TAG + "' in the configuration file should be a non-negative number.");
+				return false;
+			}
+		} catch (JSONException JSONException) {
+			this.sample_size = 0;
+		}
+
 		try {
 			this.debug_mode = runConfiguration.getBoolean(DEBUG_MODE_TAG);
 		} catch (JSONException JSONException) {
@@ -532,6 +968,20 @@ public class APEConfig {
 		return tool_annotations_path;
 	}
 
+	/**
+	 * @return the {@link #tool_annotations_format}
+	 */
+	public AnnotationFormat getTool_annotations_format() {
+		return tool_annotations_format;
+	}
+
+	/**
+	 * @return the {@link #converted_annotations_path}
+	 */
+	public String getConverted_annotations_path() {
+		return converted_annotations_path;
+	}
+
 	/**
 	 * @return the {@link #constraints_path}
 	 */
@@ -651,6 +1101,174 @@ public class APEConfig {
 		return debug_mode;
 	}
 
+	/**
+	 * @return the {@link #metrics_path}
+	 */
+	public String getMetrics_path() {
+		return metrics_path;
+	}
+
+	/**
+	 * @return the {@link #metrics_export_interval}
+	 */
+	public Integer getMetrics_export_interval() {
+		return metrics_export_interval;
+	}
+
+	/**
+	 * @return the {@link #timeout_sec}
+	 */
+	public Integer getTimeout_sec() {
+		return timeout_sec;
+	}
+
+	/**
+	 * @return the {@link #rendering_threads}
+	 */
+	public Integer getRendering_threads() {
+		return rendering_threads;
+	}
+
+	/**
+	 * @return the {@link #render_during_synthesis}
+	 */
+	public Boolean getRender_during_synthesis() {
+		return render_during_synthesis;
+	}
+
+	/**
+	 * @return the {@link #solutions_format}
+	 */
+	public SolutionFormat getSolutions_format() {
+		return solutions_format;
+	}
+
+	/**
+	 * @return the {@link #solutions_compressed}
+	 */
+	public Boolean getSolutions_compressed() {
+		return solutions_compressed;
+	}
+
+	/**
+	 * @return the {@link #solutions_sync_interval}
+	 */
+	public Integer getSolutions_sync_interval() {
+		return solutions_sync_interval;
+	}
+
+	/**
+	 * @return the {@link #solutions_archive_path}
+	 */
+	public String getSolutions_archive_path() {
+		return solutions_archive_path;
+	}
+
+	/**
+	 * @return the {@link #execution_threads}
+	 */
+	public Integer getExecution_threads() {
+		return execution_threads;
+	}
+
+	/**
+	 * @return the {@link #execution_timeout_sec}
+	 */
+	public Integer getExecution_timeout_sec() {
+		return execution_timeout_sec;
+	}
+
+	/**
+	 * @return the {@link #execution_step_slots}
+	 */
+	public Integer getExecution_step_slots() {
+		return execution_step_slots;
+	}
+
+	/**
+	 * @return the {@link #execution_cache_folder}
+	 */
+	public String getExecution_cache_folder() {
+		return execution_cache_folder;
+	}
+
+	/**
+	 * @return the {@link #execution_cache_size_mb}
+	 */
+	public Integer getExecution_cache_size_mb() {
+		return execution_cache_size_mb;
+	}
+
+	/**
+	 * @return the {@link #execution_input_data}
+	 */
+	public List<String> getExecution_input_data() {
+		return execution_input_data;
+	}
+
+	/**
+	 * @return the {@link #cost_optimization}
+	 */
+	public Boolean getCost_optimization() {
+		return cost_optimization;
+	}
+
+	/**
+	 * @return the {@link #cube_workers}
+	 */
+	public Integer getCube_workers() {
+		return cube_workers;
+	}
+
+	/**
+	 * @return the {@link #cube_depth}
+	 */
+	public Integer getCube_depth() {
+		return cube_depth;
+	}
+
+	/**
+	 * @return the {@link #solver_threads}
+	 */
+	public Integer getSolver_threads() {
+		return solver_threads;
+	}
+
+	/**
+	 * @return the {@link #count_tolerance}
+	 */
+	public Double getCount_tolerance() {
+		return count_tolerance;
+	}
+
+	/**
+	 * @return the {@link #count_confidence}
+	 */
+	public Double getCount_confidence() {
+		return count_confidence;
+	}
+
+	/**
+	 * @return the {@link #random_seed}
+	 */
+	public Long getRandom_seed() {
+		return random_seed;
+	}
+
+	/**
+	 * @return the {@link #diverse_solutions}
+	 */
+	public Boolean getDiverse_solutions() {
+		return diverse_solutions;
+	}
+
+	/**
+	 * @return the {@link #sample_size}
+	 */
+	public Integer getSample_size() {
+		return sample_size;
+	}
+
 	/**
 	 * @return the {@link #configNode}
 	 */
@@ -688,6 +1306,8 @@ public class APEConfig {
 			return "implementation";
 		case "code":
 			return "code";
+		case "cost":
+			return "cost";
 		default:
 			return null;
 		}
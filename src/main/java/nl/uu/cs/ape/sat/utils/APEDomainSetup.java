@@ -4,9 +4,20 @@
 package nl.uu.cs.ape.sat.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
-import nl.uu.cs.ape.sat.automaton.Automaton;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.sat.automaton.Block;
 import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
 import nl.uu.cs.ape.sat.automaton.State;
 import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
@@ -14,9 +25,12 @@ import nl.uu.cs.ape.sat.constraints.ConstraintFactory;
 import nl.uu.cs.ape.sat.constraints.ConstraintTemplate;
 import nl.uu.cs.ape.sat.models.AbstractModule;
 import nl.uu.cs.ape.sat.models.AllModules;
+import nl.uu.cs.ape.sat.models.AllPredicates;
 import nl.uu.cs.ape.sat.models.AllTypes;
 import nl.uu.cs.ape.sat.models.AtomMappings;
 import nl.uu.cs.ape.sat.models.ConstraintData;
+import nl.uu.cs.ape.sat.models.DataInstance;
+import nl.uu.cs.ape.sat.models.Module;
 import nl.uu.cs.ape.sat.models.TaxonomyPredicateHelper;
 import nl.uu.cs.ape.sat.models.Type;
 import nl.uu.cs.ape.sat.models.enums.LogicOperation;
@@ -40,7 +54,11 @@ public class APEDomainSetup {
 	private ConstraintFactory constraintFactory;
 	/** List of data gathered from the constraint file. */
 	private List<ConstraintData> unformattedConstr;
-	private List<TaxonomyPredicateHelper> helperPredicates;
+	/**
+	 * Helper predicates, mapped by their logical operation and the IDs of their
+	 * sub-predicates, so that each group is represented by a single predicate.
+	 */
+	private Map<String, TaxonomyPredicateHelper> helperPredicates;
 	
 	
 	public APEDomainSetup(APEConfig config) {
@@ -48,7 +66,7 @@ public class APEDomainSetup {
 		allModules = new AllModules(config);
 		allTypes = new AllTypes(config);
 		constraintFactory = new ConstraintFactory();
-		helperPredicates =new ArrayList<TaxonomyPredicateHelper>();
+		helperPredicates = new LinkedHashMap<String, TaxonomyPredicateHelper>();
 	}
 
 
@@ -126,53 +144,437 @@ public class APEDomainSetup {
 	}
 	
 	
+	/**
+	 * Generate the predicate that represents the logical connection of the given
+	 * predicates. Each group of predicates is represented by a single helper
+	 * predicate, regardless of the order and repetitions of the predicates in the
+	 * group.
+	 * 
+	 * @param relatedTypes - predicates to be connected
+	 * @param logicOp      - logical operation that connects the predicates
+	 * @return The helper predicate, the predicate itself if the group consists of
+	 *         a single predicate, or {@code null} if the group is empty.
+	 */
 	public TaxonomyPredicate generateHelperPredicate(List<TaxonomyPredicate> relatedTypes, LogicOperation logicOp) {
-		if(relatedTypes.isEmpty()) {
-			return null;
+		return generateHelperPredicate(relatedTypes, logicOp, null);
+	}
+
+	/**
+	 * Generate the predicate that represents the logical connection of the given
+	 * predicates, and record the element of the workflow in which the predicate is
+	 * used. The defining clauses of the helper predicate are generated only for
+	 * the states of the recorded elements.
+	 * 
+	 * @param relatedTypes - predicates to be connected
+	 * @param logicOp      - logical operation that connects the predicates
+	 * @param usage        - element of the workflow in which the predicate is used
+	 *                     ({@link WorkflowElement#MODULE},
+	 *                     {@link WorkflowElement#MEMORY_TYPE} or
+	 *                     {@link WorkflowElement#USED_TYPE}), or {@code null} if
+	 *                     it can be used anywhere
+	 * @return The helper predicate, the predicate itself if the group consists of
+	 *         a single predicate, or {@code null} if the group is empty.
+	 */
+	public TaxonomyPredicate generateHelperPredicate(List<TaxonomyPredicate> relatedTypes, LogicOperation logicOp,
+			WorkflowElement usage) {
+		/* Sort the predicates and remove the repetitions. */
+		TreeMap<String, TaxonomyPredicate> members = new TreeMap<String, TaxonomyPredicate>();
+		for (TaxonomyPredicate predicate : relatedTypes) {
+			members.put(predicate.getPredicateID(), predicate);
 		}
-		if(relatedTypes.size() == 1) {
-			return relatedTypes.get(0);
+		if(members.isEmpty()) {
+			return null;
 		}
-		StringBuilder abstractLabel = new StringBuilder(logicOp.toString());
-		for(TaxonomyPredicate label : relatedTypes) {
-			abstractLabel = abstractLabel.append(label.getPredicateID());
+		if(members.size() == 1) {
+			return members.firstEntry().getValue();
 		}
+		String abstractLabel = helperPredicateID(logicOp, members.keySet());
+		TaxonomyPredicate first = members.firstEntry().getValue();
 		TaxonomyPredicate newAbsType; 
-		if(relatedTypes.get(0) instanceof Type) {
-			newAbsType = allTypes.addPredicate(new Type(abstractLabel.toString(), abstractLabel.toString(), relatedTypes.get(0).getRootNode(), NodeType.ABSTRACT));
+		if(first instanceof Type) {
+			newAbsType = allTypes.addPredicate(new Type(abstractLabel, abstractLabel, first.getRootNode(), NodeType.ABSTRACT));
 		} else {
-			newAbsType = allModules.addPredicate(new AbstractModule(abstractLabel.toString(), abstractLabel.toString(), relatedTypes.get(0).getRootNode(), NodeType.ABSTRACT));
+			newAbsType = allModules.addPredicate(new AbstractModule(abstractLabel, abstractLabel, first.getRootNode(), NodeType.ABSTRACT));
 		}
-		TaxonomyPredicateHelper helperPredicate = new TaxonomyPredicateHelper(newAbsType, logicOp);
-		
-		for(TaxonomyPredicate predicate : relatedTypes) {
-			helperPredicate.addSubPredicate(predicate);
+		TaxonomyPredicateHelper helperPredicate = helperPredicates.get(abstractLabel);
+		if (helperPredicate == null) {
+			helperPredicate = new TaxonomyPredicateHelper(newAbsType, logicOp);
+			for(TaxonomyPredicate predicate : members.values()) {
+				helperPredicate.addSubPredicate(predicate);
+			}
+			helperPredicates.put(abstractLabel, helperPredicate);
 		}
-		helperPredicates.add(helperPredicate);
+		helperPredicate.addUsage(usage);
 		return newAbsType;
 	}
+
+	/**
+	 * Create the ID of the helper predicate that connects the given predicates,
+	 * e.g. {@code OR(Type_1,Type_2)}. The IDs of the predicates are delimited and
+	 * escaped, so that different groups never share an ID.
+	 * 
+	 * @param logicOp   - logical operation that connects the predicates
+	 * @param memberIDs - sorted IDs of the predicates
+	 * @return ID of the helper predicate.
+	 */
+	private static String helperPredicateID(LogicOperation logicOp, Collection<String> memberIDs) {
+		StringBuilder helperID = new StringBuilder(logicOp.toString()).append("(");
+		String separator = "";
+		for (String memberID : memberIDs) {
+			helperID.append(separator).append(memberID.replace("\\", "\\\\").replace(",", "\\,")
+					.replace("(", "\\(").replace(")", "\\)"));
+			separator = ",";
+		}
+		return helperID.append(")").toString();
+	}
+
+	/**
+	 * Add the tool to the domain, or replace the tool with the same ID, based on
+	 * its annotation. The taxonomy terms and the types referenced by the
+	 * annotation are restored if they were trimmed, and the relevance of the
+	 * affected part of the taxonomy is updated, as if the domain was loaded with
+	 * the new annotation. If the annotation of a replaced tool does not specify
+	 * its taxonomy terms, the tool keeps its place in the tool taxonomy.
+	 * 
+	 * @param jsonModule - JSON representation of the tool, in the format of the
+	 *                   tool annotation file
+	 * @return The new tool, or {@code null} if the annotation is not valid.
+	 */
+	public synchronized Module updateModule(JSONObject jsonModule) {
+		String moduleID;
+		try {
+			moduleID = jsonModule.getString(APEConfig.getJsonTags("id"));
+		} catch (JSONException e) {
+			System.err.println("Error in the tool annotation, the tool ID is missing.");
+			return null;
+		}
+		Set<TaxonomyPredicate> formerTypes = new HashSet<TaxonomyPredicate>();
+		Set<TaxonomyPredicate> formerModules = new HashSet<TaxonomyPredicate>();
+		AbstractModule existing = allModules.get(moduleID);
+		if (existing instanceof Module) {
+			if (APEUtils.getListFromJson(jsonModule, APEConfig.getJsonTags("taxonomyTerms"), String.class).isEmpty()) {
+				jsonModule = new JSONObject(jsonModule.toMap());
+				jsonModule.put(APEConfig.getJsonTags("taxonomyTerms"), existing.getSuperPredicates());
+			}
+			formerTypes.addAll(getAnnotatedTypes((Module) existing));
+			formerModules.addAll(detachModule((Module) existing));
+		}
+
+		/* Restore the trimmed taxonomy terms and types referenced by the annotation. */
+		Set<TaxonomyPredicate> restoredModules = new LinkedHashSet<TaxonomyPredicate>(
+				allModules.restorePredicate(moduleID));
+		Set<TaxonomyPredicate> restoredTypes = new LinkedHashSet<TaxonomyPredicate>();
+		try {
+			for (String taxonomyTerm : APEUtils.getListFromJson(jsonModule, APEConfig.getJsonTags("taxonomyTerms"),
+					String.class)) {
+				restoredModules.addAll(allModules.restorePredicate(taxonomyTerm));
+			}
+			for (String tag : new String[] { "inputs", "outputs" }) {
+				for (JSONObject jsonData : APEUtils.getListFromJson(jsonModule, APEConfig.getJsonTags(tag),
+						JSONObject.class)) {
+					for (String dimension : jsonData.keySet()) {
+						for (String typeID : APEUtils.getListFromJson(jsonData, dimension, String.class)) {
+							restoredTypes.addAll(allTypes.restorePredicate(typeID));
+						}
+					}
+				}
+			}
+		} catch (JSONException e) {
+			/* The error is reported when the tool is created. */
+		}
+
+		Module module = null;
+		try {
+			module = Module.moduleFromJson(jsonModule, this);
+		} catch (JSONException e) {
+			System.err.println("Error in the annotation of the tool \"" + moduleID + "\": " + e.getMessage());
+		}
+		if (module != null) {
+			restoredTypes.addAll(getAnnotatedTypes(module));
+			restoredModules.add(module);
+		}
+		restoredTypes.addAll(formerTypes);
+		restoredModules.addAll(formerModules);
+		allTypes.refreshRelevance(restoredTypes, getAnnotatedTypes());
+		allModules.refreshRelevance(restoredModules, getTools());
+		return module;
+	}
+
+	/**
+	 * Remove the tool from the domain. The helper predicates used only by the
+	 * tool are removed, and the parts of the taxonomies that are no longer
+	 * relevant are trimmed, as if the domain was loaded without the tool.
+	 * 
+	 * @param moduleID - ID of the tool
+	 * @return {@code true} if the tool was removed, {@code false} if the tool
+	 *         does not exist.
+	 */
+	public synchronized boolean removeModule(String moduleID) {
+		AbstractModule module = allModules.get(moduleID);
+		if (!(module instanceof Module)) {
+			System.err.println("Tool \"" + moduleID + "\" cannot be removed, as it does not exist in the domain.");
+			return false;
+		}
+		Set<TaxonomyPredicate> formerTypes = getAnnotatedTypes((Module) module);
+		List<TaxonomyPredicate> formerModules = detachModule((Module) module);
+		allTypes.refreshRelevance(formerTypes, getAnnotatedTypes());
+		allModules.refreshRelevance(formerModules, getTools());
+		return true;
+	}
+
+	/**
+	 * Remove the tool from the tool taxonomy, and update the usages of the helper
+	 * predicates it used. The helper predicates that are no longer used are
+	 * removed.
+	 * 
+	 * @return The super-predicates of the tool that are in the taxonomy.
+	 */
+	private List<TaxonomyPredicate> detachModule(Module module) {
+		allModules.removePredicate(module.getPredicateID());
+		List<TaxonomyPredicate> superModules = new ArrayList<TaxonomyPredicate>();
+		for (String superModuleID : APEUtils.safe(module.getSuperPredicates())) {
+			TaxonomyPredicate superModule = allModules.get(superModuleID);
+			if (superModule != null) {
+				superModules.add(superModule);
+			}
+		}
+
+		Set<TaxonomyPredicateHelper> usedHelpers = new HashSet<TaxonomyPredicateHelper>();
+		for (DataInstance data : getDataInstances(module)) {
+			for (Type type : data.getTypes()) {
+				TaxonomyPredicateHelper helperPredicate = helperPredicates.get(type.getPredicateID());
+				if (helperPredicate != null) {
+					usedHelpers.add(helperPredicate);
+				}
+			}
+		}
+		if (usedHelpers.isEmpty()) {
+			return superModules;
+		}
+		for (TaxonomyPredicateHelper helperPredicate : usedHelpers) {
+			helperPredicate.clearUsages();
+		}
+		for (TaxonomyPredicate tool : getTools()) {
+			addHelperUsages(((Module) tool).getModuleInput(), usedHelpers, WorkflowElement.USED_TYPE);
+			addHelperUsages(((Module) tool).getModuleOutput(), usedHelpers, WorkflowElement.MEMORY_TYPE);
+		}
+		for (TaxonomyPredicateHelper helperPredicate : usedHelpers) {
+			if (!helperPredicate.isUsed()) {
+				helperPredicates.remove(helperPredicate.getPredicateID());
+				allTypes.removePredicate(helperPredicate.getPredicateID());
+			}
+		}
+		return superModules;
+	}
+
+	private void addHelperUsages(List<DataInstance> dataInstances, Set<TaxonomyPredicateHelper> helpers,
+			WorkflowElement usage) {
+		for (DataInstance data : APEUtils.safe(dataInstances)) {
+			for (Type type : data.getTypes()) {
+				TaxonomyPredicateHelper helperPredicate = helperPredicates.get(type.getPredicateID());
+				if (helperPredicate != null && helpers.contains(helperPredicate)) {
+					helperPredicate.addUsage(usage);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Add a term to the tool or the data taxonomy, as a sub-term of an existing
+	 * term. A data type that had no sub-types becomes abstract.
+	 * 
+	 * @param termID   - ID of the new term
+	 * @param label    - label of the new term
+	 * @param parentID - ID of the existing term the new term is a sub-term of
+	 * @return The new term, or {@code null} if it could not be added.
+	 */
+	public synchronized TaxonomyPredicate addTaxonomyTerm(String termID, String label, String parentID) {
+		if (existsTerm(allModules, termID) || existsTerm(allTypes, termID)) {
+			System.err.println("Taxonomy term \"" + termID + "\" already exists in the domain.");
+			return null;
+		}
+		TaxonomyPredicate parent = getTerm(allTypes, parentID);
+		TaxonomyPredicate term;
+		if (parent != null) {
+			if (parent.isEmptyPredicate() || helperPredicates.containsKey(parentID)) {
+				System.err.println("Taxonomy term \"" + termID + "\" cannot be added under \"" + parentID + "\".");
+				return null;
+			}
+			if (parent.isSimplePredicate()) {
+				parent.setNodeType(NodeType.ABSTRACT);
+			}
+			term = new Type(label, termID, parent.getRootNode(), NodeType.ABSTRACT);
+			term.setToSimplePredicate();
+			allTypes.addSubPredicate(term, parentID);
+			allTypes.refreshRelevance(Arrays.asList(term), getAnnotatedTypes());
+		} else if ((parent = getTerm(allModules, parentID)) != null) {
+			if (parent instanceof Module || helperPredicates.containsKey(parentID)) {
+				System.err.println("Taxonomy term \"" + termID + "\" cannot be added under \"" + parentID + "\".");
+				return null;
+			}
+			term = new AbstractModule(label, termID, parent.getRootNode(), NodeType.ABSTRACT);
+			allModules.addSubPredicate(term, parentID);
+			allModules.refreshRelevance(Arrays.asList(term), getTools());
+		} else {
+			System.err.println("Taxonomy term \"" + parentID + "\" does not exist in the domain.");
+			return null;
+		}
+		return term;
+	}
+
+	/**
+	 * Remove the term from the tool or the data taxonomy. Only the terms without
+	 * sub-terms, that are not used in the tool annotations, can be removed. The
+	 * data types that are left without sub-types become simple types.
+	 * 
+	 * @param termID - ID of the term
+	 * @return {@code true} if the term was removed, {@code false} otherwise.
+	 */
+	public synchronized boolean removeTaxonomyTerm(String termID) {
+		AllPredicates taxonomy = allTypes;
+		TaxonomyPredicate term = getTerm(allTypes, termID);
+		if (term == null) {
+			taxonomy = allModules;
+			term = getTerm(allModules, termID);
+		}
+		if (term == null) {
+			System.err.println("Taxonomy term \"" + termID + "\" does not exist in the domain.");
+			return false;
+		}
+		if (term instanceof Module) {
+			return removeModule(termID);
+		}
+		if (term.isRootPredicate() || term.isSubRootPredicate() || term.isEmptyPredicate()
+				|| helperPredicates.containsKey(termID) || taxonomy.hasSubPredicates(term)
+				|| getAnnotatedTypes().contains(term)) {
+			System.err.println("Taxonomy term \"" + termID
+					+ "\" cannot be removed, as it has sub-terms or it is used in the tool annotations.");
+			return false;
+		}
+		taxonomy.removePredicate(termID);
+		if (taxonomy == allTypes) {
+			for (String superTypeID : APEUtils.safe(term.getSuperPredicates())) {
+				TaxonomyPredicate superType = getTerm(allTypes, superTypeID);
+				if (superType != null && superType.getNodeType() == NodeType.ABSTRACT
+						&& !allTypes.hasSubPredicates(superType)) {
+					superType.setToSimplePredicate();
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The term in the taxonomy, or the trimmed one, or {@code null} if it
+	 *         does not exist.
+	 */
+	private static TaxonomyPredicate getTerm(AllPredicates taxonomy, String termID) {
+		TaxonomyPredicate term = taxonomy.get(termID);
+		return (term != null) ? term : taxonomy.getTrimmed(termID);
+	}
+
+	private static boolean existsTerm(AllPredicates taxonomy, String termID) {
+		return getTerm(taxonomy, termID) != null;
+	}
+
+	/**
+	 * @return All the tools in the domain.
+	 */
+	private List<TaxonomyPredicate> getTools() {
+		List<TaxonomyPredicate> tools = new ArrayList<TaxonomyPredicate>();
+		for (TaxonomyPredicate module : allModules.getModules()) {
+			if (module instanceof Module) {
+				tools.add(module);
+			}
+		}
+		return tools;
+	}
+
+	/**
+	 * @return The types used in the tool annotations, i.e. the empty type and the
+	 *         inputs and outputs of all the tools, see
+	 *         {@link #getAnnotatedTypes(Module)}.
+	 */
+	private Set<TaxonomyPredicate> getAnnotatedTypes() {
+		Set<TaxonomyPredicate> types = new HashSet<TaxonomyPredicate>();
+		types.add(allTypes.getEmptyType());
+		for (TaxonomyPredicate tool : getTools()) {
+			types.addAll(getAnnotatedTypes((Module) tool));
+		}
+		return types;
+	}
+
+	/**
+	 * @return The types used in the annotation of the tool, together with the
+	 *         types connected by the helper predicates it uses.
+	 */
+	private Set<TaxonomyPredicate> getAnnotatedTypes(Module module) {
+		Set<TaxonomyPredicate> types = new HashSet<TaxonomyPredicate>();
+		for (DataInstance data : getDataInstances(module)) {
+			for (Type type : data.getTypes()) {
+				types.add(type);
+				TaxonomyPredicateHelper helperPredicate = helperPredicates.get(type.getPredicateID());
+				if (helperPredicate != null) {
+					types.addAll(helperPredicate.getSubPredicates());
+				}
+			}
+		}
+		return types;
+	}
+
+	private static List<DataInstance> getDataInstances(Module module) {
+		List<DataInstance> dataInstances = new ArrayList<DataInstance>(APEUtils.safe(module.getModuleInput()));
+		dataInstances.addAll(APEUtils.safe(module.getModuleOutput()));
+		return dataInstances;
+	}
+
+	/**
+	 * @return Number of distinct helper predicates.
+	 */
+	public int getNumberOfHelperPredicates() {
+		return helperPredicates.size();
+	}
 	
-	
+	/**
+	 * Generate the clauses that define the helper predicates, in the states of the
+	 * workflow elements in which they are used.
+	 * 
+	 * @param mappings        - atom mappings
+	 * @param moduleAutomaton - module automaton
+	 * @param typeAutomaton   - type automaton
+	 * @return CNF representation of the definitions.
+	 */
 	public String getConstraintsForHelperPredicates(AtomMappings mappings, ModuleAutomaton moduleAutomaton, TypeAutomaton typeAutomaton) {
 		StringBuilder constraints = new StringBuilder();
-		Automaton automaton;
-		WorkflowElement workflowElem;
-		for (TaxonomyPredicateHelper helperPredicate : helperPredicates) {
+		for (TaxonomyPredicateHelper helperPredicate : helperPredicates.values()) {
+			List<State> states = new ArrayList<State>();
 			if(helperPredicate.getSubPredicates().get(0) instanceof Type) {
-				automaton = typeAutomaton;
-				workflowElem = WorkflowElement.MEMORY_TYPE;
+				if (helperPredicate.isUsedAs(WorkflowElement.MEMORY_TYPE)) {
+					for (Block memoryBlock : typeAutomaton.getMemoryTypesBlocks()) {
+						states.addAll(memoryBlock.getStates());
+					}
+				}
+				if (helperPredicate.isUsedAs(WorkflowElement.USED_TYPE)) {
+					for (Block usedBlock : typeAutomaton.getUsedTypesBlocks()) {
+						states.addAll(usedBlock.getStates());
+					}
+				}
 			} else {
-				automaton = moduleAutomaton;
-				workflowElem = WorkflowElement.MODULE;
+				states.addAll(moduleAutomaton.getModuleStates());
 			}
-			for (State currState : automaton.getAllStates()) {
+			for (State currState : states) {
+				/*
+				 * The atoms refer to the abstract predicate, as used by the tool annotations,
+				 * and to the element that corresponds to the state.
+				 */
+				WorkflowElement workflowElem = currState.getWorkflowStateType();
 				if (helperPredicate.getLogicOp() == LogicOperation.OR) {
 					/*
 					 * Ensures that if the abstract predicate is used, at least one of the
 					 * disjointLabels has to be used.
 					 */
 					constraints = constraints.append("-")
-							.append(mappings.add(helperPredicate, currState, workflowElem)).append(" ");
+							.append(mappings.add(helperPredicate.getAbstractPredicate(), currState, workflowElem)).append(" ");
 
 					for (TaxonomyPredicate subLabel : helperPredicate.getSubPredicates()) {
 						constraints = constraints.append(mappings.add(subLabel, currState, workflowElem)).append(" ");
@@ -186,7 +588,7 @@ public class APEDomainSetup {
 					for (TaxonomyPredicate subLabel : helperPredicate.getSubPredicates()) {
 						constraints = constraints.append("-").append(mappings.add(subLabel, currState, workflowElem))
 								.append(" ");
-						constraints = constraints.append(mappings.add(helperPredicate, currState, workflowElem))
+						constraints = constraints.append(mappings.add(helperPredicate.getAbstractPredicate(), currState, workflowElem))
 								.append(" 0\n");
 					}
 				} else if (helperPredicate.getLogicOp() == LogicOperation.AND) {
@@ -197,7 +599,7 @@ public class APEDomainSetup {
 					 */
 					for (TaxonomyPredicate subLabel : helperPredicate.getSubPredicates()) {
 						constraints = constraints.append("-")
-								.append(mappings.add(helperPredicate, currState, workflowElem)).append(" ");
+								.append(mappings.add(helperPredicate.getAbstractPredicate(), currState, workflowElem)).append(" ");
 
 						constraints = constraints.append(mappings.add(subLabel, currState, workflowElem))
 								.append(" 0\n");
@@ -211,7 +613,7 @@ public class APEDomainSetup {
 						constraints = constraints.append("-").append(mappings.add(subLabel, currState, workflowElem))
 								.append(" ");
 					}
-					constraints = constraints.append(mappings.add(helperPredicate, currState, workflowElem))
+					constraints = constraints.append(mappings.add(helperPredicate.getAbstractPredicate(), currState, workflowElem))
 							.append(" 0\n");
 				}
 			}
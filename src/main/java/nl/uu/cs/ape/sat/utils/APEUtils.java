@@ -4,16 +4,23 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -32,11 +39,16 @@ import nl.uu.cs.ape.sat.automaton.ModuleAutomaton;
 import nl.uu.cs.ape.sat.automaton.TypeAutomaton;
 import nl.uu.cs.ape.sat.constraints.ConstraintFactory;
 import nl.uu.cs.ape.sat.constraints.ConstraintParameter;
+import nl.uu.cs.ape.sat.core.implSAT.CostObjective;
 import nl.uu.cs.ape.sat.models.AllModules;
 import nl.uu.cs.ape.sat.models.AllTypes;
 import nl.uu.cs.ape.sat.models.AtomMappings;
 import nl.uu.cs.ape.sat.models.ConstraintData;
 import nl.uu.cs.ape.sat.models.Module;
+import nl.uu.cs.ape.sat.models.enums.AnnotationFormat;
+import nl.uu.cs.ape.sat.models.formulas.SLTL_compiler;
+import nl.uu.cs.ape.sat.models.formulas.SLTL_expression;
+import nl.uu.cs.ape.sat.models.formulas.SLTL_parser;
 import nl.uu.cs.ape.sat.models.logic.constructs.Atom;
 import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 
@@ -49,10 +61,17 @@ import nl.uu.cs.ape.sat.models.logic.constructs.TaxonomyPredicate;
 public final class APEUtils {
 
 	private final static String TOOLS_JSOM_TAG = "functions";
+	/** Tag of the tools in a page of the bio.tools API. */
+	private final static String BIO_TOOLS_JSON_TAG = "list";
+	/** Max number of tools per thread that are parsed ahead of the module creation. */
+	private final static int MAX_PARSED_TOOLS_PER_THREAD = 4;
 	private final static String CONSTR_JSON_TAG = "constraints";
 	private final static String CONSTR_ID_TAG = "constraintid";
 	private final static String CONSTR_PARAM_JSON_TAG = "parameters";
-	private final static Map<String, Long> timers = new HashMap<String, Long>();
+	private final static String CONSTR_WEIGHT_TAG = "weight";
+	private final static String CONSTR_FORMULA_TAG = "formula";
+	/** ID of the constraints given as an SLTL formula, instead of a template. */
+	public final static String SLTL_CONSTR_ID = "SLTL";
 
 	/** Private constructor is used to to prevent instantiation. */
 	private APEUtils() {
@@ -71,6 +90,8 @@ public final class APEUtils {
 		String constraintID;
 		int currNode = 0;
 		List<ConstraintParameter> parameters;
+		SLTL_expression formula;
+		Integer weight;
 		List<JSONObject> constraints = getListFromJson(constraintsPath, CONSTR_JSON_TAG);
 
 		for (JSONObject jsonConstraint : safe(constraints)) {
@@ -78,32 +99,78 @@ public final class APEUtils {
 			/* READ THE CONSTRAINT */
 			try {
 				constraintID = jsonConstraint.getString(CONSTR_ID_TAG);
-
-				List<JSONArray> jsonConstParam = getListFromJson(jsonConstraint, CONSTR_PARAM_JSON_TAG, JSONArray.class);
-				parameters = new ArrayList<ConstraintParameter>();
-				/* for each constraint parameter */
-				for (JSONArray jsonParam : jsonConstParam) {
-					ConstraintParameter currParameter = new ConstraintParameter();
-					for(String paramLabel : getListFromJsonList(jsonParam, String.class)) {
-						/* generate the corresponding ConstraintParameter object */
-						TaxonomyPredicate currLabel = domainSetup.getAllModules().get(paramLabel.toString());
-						if(currLabel == null) {
-							currLabel = domainSetup.getAllTypes().get(paramLabel.toString());
+				formula = null;
+				parameters = null;
+				if (constraintID.equals(SLTL_CONSTR_ID)) {
+					formula = SLTL_parser.parse(jsonConstraint.getString(CONSTR_FORMULA_TAG), domainSetup.getAllModules(),
+							domainSetup.getAllTypes());
+					if (formula == null) {
+						throw new JSONException("Invalid SLTL formula.");
+					}
+				} else {
+					List<JSONArray> jsonConstParam = getListFromJson(jsonConstraint, CONSTR_PARAM_JSON_TAG, JSONArray.class);
+					parameters = new ArrayList<ConstraintParameter>();
+					/* for each constraint parameter */
+					for (JSONArray jsonParam : jsonConstParam) {
+						Integer number = numberParameter(jsonParam, domainSetup);
+						if (number != null) {
+							parameters.add(new ConstraintParameter(number));
+							continue;
+						}
+						ConstraintParameter currParameter = new ConstraintParameter();
+						for(String paramLabel : getListFromJsonList(jsonParam, String.class)) {
+							/* generate the corresponding ConstraintParameter object */
+							TaxonomyPredicate currLabel = domainSetup.getAllModules().get(paramLabel.toString());
+							if(currLabel == null) {
+								currLabel = domainSetup.getAllTypes().get(paramLabel.toString());
+							}
+							currParameter.addParameter(currLabel);
 						}
-						currParameter.addParameter(currLabel);
+						parameters.add(currParameter);
 					}
-					parameters.add(currParameter);
+				}
+				/* Soft constraints have a (positive) weight. */
+				weight = jsonConstraint.has(CONSTR_WEIGHT_TAG) ? jsonConstraint.getInt(CONSTR_WEIGHT_TAG) : null;
+				if (weight != null && weight <= 0) {
+					throw new JSONException("The weight of a constraint should be a positive integer.");
 				}
 			} catch (Exception e) {
 				System.err.println("Error in file: " + constraintsPath + ", at constraint no: " + currNode
 						+ ". Constraint skipped.");
 				continue;
 			}
-			ConstraintData currConstr = new ConstraintData(constraintID, parameters);
+			ConstraintData currConstr = formula != null ? new ConstraintData(constraintID, formula, weight)
+					: new ConstraintData(constraintID, parameters, weight);
 			domainSetup.addConstraintData(currConstr);
 		}
 	}
 
+	/**
+	 * Get the value of a numeric constraint parameter, i.e. a parameter that
+	 * consists of a single number (given as a number or a string) that is not
+	 * an ID of a tool or a type.
+	 * 
+	 * @param jsonParam   - JSON representation of the parameter
+	 * @param domainSetup - object that represents the domain variables
+	 * @return Value of the parameter, or {@code null} if the parameter is not
+	 *         numeric.
+	 */
+	private static Integer numberParameter(JSONArray jsonParam, APEDomainSetup domainSetup) {
+		if (jsonParam.length() != 1) {
+			return null;
+		}
+		Object value = jsonParam.get(0);
+		if (value instanceof Number) {
+			return ((Number) value).intValue();
+		}
+		String label = value.toString();
+		if (!label.matches("-?\\d+") || domainSetup.getAllModules().get(label) != null
+				|| domainSetup.getAllTypes().get(label) != null) {
+			return null;
+		}
+		return Integer.parseInt(label);
+	}
+
 	/**
 	 * Returns the CNF representation of the SLTL constraints in our project
 	 * @param domainSetup
@@ -114,14 +181,40 @@ public final class APEUtils {
 	 */
 	public static String encodeAPEConstraints(APEDomainSetup domainSetup, AtomMappings mappings, ModuleAutomaton moduleAutomaton,
 			TypeAutomaton typeAutomaton) {
+		return encodeAPEConstraints(domainSetup, mappings, moduleAutomaton, typeAutomaton, null);
+	}
 
-		String cnf_SLTL = "";
+	/**
+	 * Returns the CNF representation of the SLTL constraints in our project. Soft
+	 * constraints are relaxed and added to the cost objective, if one is given,
+	 * otherwise they are encoded as hard constraints.
+	 * 
+	 * @param domainSetup     - domain information
+	 * @param mappings        - atom mappings
+	 * @param moduleAutomaton - module automaton
+	 * @param typeAutomaton   - type automaton
+	 * @param objective       - cost objective of the synthesis, or {@code null}
+	 * @return CNF representation of the constraints.
+	 */
+	public static String encodeAPEConstraints(APEDomainSetup domainSetup, AtomMappings mappings,
+			ModuleAutomaton moduleAutomaton, TypeAutomaton typeAutomaton, CostObjective objective) {
+
+		StringBuilder cnf_SLTL = new StringBuilder();
 		int currConst = 0;
+		/* The SLTL formulas share the encoding of their common sub-formulas. */
+		SLTL_compiler compiler = new SLTL_compiler(moduleAutomaton, typeAutomaton, mappings);
 
 		for (ConstraintData constraint : domainSetup.getUnformattedConstr()) {
 			currConst++;
 			/* ENCODE THE CONSTRAINT */
-			if (domainSetup.getConstraintTamplate(constraint.getConstraintID()) == null) {
+			if (constraint.getFormula() != null) {
+				String currConstrEncoding = compiler.compile(constraint.getFormula());
+				if (constraint.isSoft() && objective != null) {
+					cnf_SLTL.append(objective.relax(currConstrEncoding, constraint.getWeight()));
+				} else {
+					cnf_SLTL.append(currConstrEncoding);
+				}
+			} else if (domainSetup.getConstraintTamplate(constraint.getConstraintID()) == null) {
 				System.err.println("Constraint ID provided: '" + constraint.getConstraintID()
 						+ "' is not valid. Constraint skipped.");
 				continue;
@@ -132,13 +225,15 @@ public final class APEUtils {
 				if (currConstrEncoding == null) {
 					System.err
 							.println("Error in constraint file. Constraint no: " + currConst + ". Constraint skipped.");
+				} else if (constraint.isSoft() && objective != null) {
+					cnf_SLTL.append(objective.relax(currConstrEncoding, constraint.getWeight()));
 				} else {
-					cnf_SLTL += currConstrEncoding;
+					cnf_SLTL.append(currConstrEncoding);
 				}
 			}
 
 		}
-		return cnf_SLTL;
+		return cnf_SLTL.append(compiler.getDefinitions()).toString();
 	}
 
 	/**
@@ -185,33 +280,175 @@ public final class APEUtils {
 	/**
 	 * Updates the list of All Modules by annotating the existing ones (or adding
 	 * non-existing) using the I/O DataInstance from the @file. Returns the list of
-	 * Updated Modules.
+	 * Updated Modules.<br>
+	 * <br>
+	 * The tools are streamed from the file (see {@link JsonArrayReader}), so the
+	 * memory used does not depend on the size of the file. The JSON annotations
+	 * of the tools are parsed by several threads, while the modules are created
+	 * by the calling thread, one tool at a time and in the order of the file, so
+	 * that {@link AllModules} and {@link AllTypes} are updated as if the tools
+	 * were read sequentially.
 	 * 
-	 * @param file       - path to the .json file containing tool annotations
-	 * @param allModules - list of all existing modules
-	 * @param allTypes   - list of all existing types
+	 * @param file        - path to the .json file containing tool annotations
+	 * @param domainSetup - object that represents the domain variables
 	 * @return the list of all annotated Modules in the process (possibly empty
 	 *         list)
 	 */
 	public static List<Module> readModuleJson(String file, APEDomainSetup domainSetup) {
+		return readModules(file, TOOLS_JSOM_TAG, JSONObject::new, null, domainSetup);
+	}
+
+	/**
+	 * Updates the list of All Modules by annotating the existing ones (or adding
+	 * non-existing) using the tool descriptions in the bio.tools format, in a
+	 * single pass over the @file. Each tool description is converted to the APE
+	 * annotation (see {@link #convertBioTool2Ape(JSONObject)}) by the thread that
+	 * parses it, and the modules are created as in
+	 * {@link #readModuleJson(String, APEDomainSetup)}. The tools without a
+	 * function are skipped.
+	 * 
+	 * @param file                     - path to the .json file containing a
+	 *                                 bio.tools dump (a JSON array of tools) or a
+	 *                                 page of the bio.tools API
+	 * @param domainSetup              - object that represents the domain variables
+	 * @param convertedAnnotationsPath - path to the file the converted annotations
+	 *                                 are written to (as they are read), or
+	 *                                 {@code null}
+	 * @return the list of all annotated Modules in the process (possibly empty
+	 *         list)
+	 */
+	public static List<Module> readBioToolsJson(String file, APEDomainSetup domainSetup,
+			String convertedAnnotationsPath) {
+		if (convertedAnnotationsPath == null) {
+			return readModules(file, BIO_TOOLS_JSON_TAG, jsonText -> convertBioTool2Ape(new JSONObject(jsonText)), null,
+					domainSetup);
+		}
+		try (Writer convertedAnnotations = Files.newBufferedWriter(Paths.get(convertedAnnotationsPath),
+				StandardCharsets.UTF_8)) {
+			return readModules(file, BIO_TOOLS_JSON_TAG, jsonText -> convertBioTool2Ape(new JSONObject(jsonText)),
+					convertedAnnotations, domainSetup);
+		} catch (IOException e) {
+			System.err.println("Error writing the converted tool annotations to: " + convertedAnnotationsPath);
+			return new ArrayList<Module>();
+		}
+	}
+
+	/**
+	 * Stream the tool annotations from the file and create their modules.
+	 * 
+	 * @param file                 - path to the .json file containing the tools
+	 * @param key                  - key of the array of the tools
+	 * @param annotation           - creates the APE annotation of a tool from its
+	 *                             JSON text, or returns {@code null} if the tool
+	 *                             should be skipped
+	 * @param convertedAnnotations - writer the APE annotations are written to, or
+	 *                             {@code null}
+	 * @param domainSetup          - object that represents the domain variables
+	 * @return the list of all annotated Modules in the process (possibly empty
+	 *         list)
+	 */
+	private static List<Module> readModules(String file, String key, Function<String, JSONObject> annotation,
+			Writer convertedAnnotations, APEDomainSetup domainSetup) {
 		List<Module> modulesNew = new ArrayList<Module>();
+		int threads = Runtime.getRuntime().availableProcessors();
+		ExecutorService parsers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "APE-annotations");
+			thread.setDaemon(true);
+			return thread;
+		});
+		/* Tools that are being parsed, in the order of the file. */
+		Deque<Future<JSONObject>> jsonModules = new ArrayDeque<Future<JSONObject>>();
 		int currModule = 0;
-		for (JSONObject jsonModule : safe(getListFromJson(file, TOOLS_JSOM_TAG))) {
-			currModule++;
-			try {
-				Module tmpModule = Module.moduleFromJson(jsonModule, domainSetup);
-				if (tmpModule != null) {
-					modulesNew.add(tmpModule);
+		int converted = 0;
+		try (JsonArrayReader reader = new JsonArrayReader(
+				Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8), key)) {
+			if (convertedAnnotations != null) {
+				convertedAnnotations.write("{\"" + TOOLS_JSOM_TAG + "\": [");
+			}
+			String jsonText = reader.next();
+			while (jsonText != null || !jsonModules.isEmpty()) {
+				if (jsonText != null) {
+					String currJsonText = jsonText;
+					jsonModules.add(parsers.submit(() -> annotation.apply(currJsonText)));
+					jsonText = reader.next();
 				}
-			} catch (JSONException e) {
-				System.err.println("Error in file: " + file + ", at tool no: " + currModule + ". Tool skipped.");
-				continue;
+				if (jsonText != null && jsonModules.size() < MAX_PARSED_TOOLS_PER_THREAD * threads) {
+					continue;
+				}
+				currModule++;
+				JSONObject jsonModule = getParsedModule(jsonModules.poll(), currModule, file);
+				if (jsonModule == null) {
+					continue;
+				}
+				if (convertedAnnotations != null) {
+					convertedAnnotations.write((converted++ == 0 ? "\n" : ",\n") + jsonModule.toString());
+				}
+				try {
+					Module tmpModule = Module.moduleFromJson(jsonModule, domainSetup);
+					if (tmpModule != null) {
+						modulesNew.add(tmpModule);
+					}
+				} catch (JSONException e) {
+					System.err.println("Error in file: " + file + ", at tool no: " + currModule + ". Tool skipped.");
+				}
+			}
+			if (convertedAnnotations != null) {
+				convertedAnnotations.write((converted == 0 ? "" : "\n") + "]}\n");
 			}
+		} catch (IOException | JSONException e) {
+			System.err.println("Error processing the Json file: " + file + ", after tool no: " + currModule + ".");
+		} finally {
+			parsers.shutdownNow();
 		}
 
 		return modulesNew;
 	}
 
+	/**
+	 * Open a reader of the tools in the tool annotation file, that reads one tool
+	 * at a time (see {@link #getToolAnnotation(String, AnnotationFormat)}).
+	 * 
+	 * @param file   - path to the .json file containing the tools
+	 * @param format - format of the file
+	 * @return Reader of the JSON texts of the tools.
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static JsonArrayReader getToolsReader(String file, AnnotationFormat format) throws IOException {
+		return new JsonArrayReader(Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8),
+				(format == AnnotationFormat.BIOTOOLS) ? BIO_TOOLS_JSON_TAG : TOOLS_JSOM_TAG);
+	}
+
+	/**
+	 * Parse the JSON text of a tool, read by the reader given by
+	 * {@link #getToolsReader(String, AnnotationFormat)}, into the tool annotation
+	 * supported by the APE library.
+	 * 
+	 * @param jsonText - JSON text of the tool
+	 * @param format   - format of the tool annotation file
+	 * @return The tool annotation, or {@code null} if the tool should be skipped.
+	 */
+	public static JSONObject getToolAnnotation(String jsonText, AnnotationFormat format) throws JSONException {
+		JSONObject jsonTool = new JSONObject(jsonText);
+		return (format == AnnotationFormat.BIOTOOLS) ? convertBioTool2Ape(jsonTool) : jsonTool;
+	}
+
+	/**
+	 * Wait for the tool annotation to be parsed.
+	 * 
+	 * @return The parsed annotation, or {@code null} if the tool is skipped.
+	 */
+	private static JSONObject getParsedModule(Future<JSONObject> jsonModule, int currModule, String file) {
+		try {
+			return jsonModule.get();
+		} catch (ExecutionException e) {
+			System.err.println("Error in file: " + file + ", at tool no: " + currModule + ". Tool skipped.");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			System.err.println("Reading of the file: " + file + " was interrupted at tool no: " + currModule + ".");
+		}
+		return null;
+	}
+
 	/**
 	 * Transforms the propositional formula into the CNF form.
 	 * 
@@ -260,12 +497,13 @@ public final class APEUtils {
 	 *         exists returns empty list.
 	 */
 	public static List<JSONObject> getListFromJson(String jsonPath, String key) {
-		try {
-			String content = FileUtils.readFileToString(new File(jsonPath), "utf-8");
-			// Convert JSON string to JSONObject
-			JSONObject jsonObject = new JSONObject(content);
-
-			List<JSONObject> jsonArray = getListFromJson(jsonObject, key, JSONObject.class);
+		try (JsonArrayReader reader = new JsonArrayReader(
+				Files.newBufferedReader(Paths.get(jsonPath), StandardCharsets.UTF_8), key)) {
+			List<JSONObject> jsonArray = new ArrayList<JSONObject>();
+			String jsonText;
+			while ((jsonText = reader.next()) != null) {
+				jsonArray.add(new JSONObject(jsonText));
+			}
 
 			return jsonArray;
 
@@ -515,41 +753,6 @@ public final class APEUtils {
 		return new String(encoded, encoding);
 	}
 
-	public static void timerStart(String timerID, Boolean debugMode) {
-		if (debugMode) {
-			timers.put(timerID, System.currentTimeMillis());
-		} else {
-			timers.put(timerID, (long) -1);
-		}
-
-	}
-
-	public static void timerRestartAndPrint(String timerID, String printString) {
-		if (timers.get(timerID) == -1) {
-			return;
-		}
-		long printTime = System.currentTimeMillis() - timers.get(timerID);
-		System.out.println(printString + " setup time: " + (printTime / 1000F) + " sec.");
-		timers.put(timerID, System.currentTimeMillis());
-	}
-
-	public static void timerPrintSolutions(String timerID, int solutionsFound) {
-		if (timers.get(timerID) == -1) {
-			return;
-		}
-		long printTime = System.currentTimeMillis() - timers.get(timerID);
-		System.out.println(
-				"\nAPE found " + solutionsFound + " solutions. Total solving time: " + (printTime / 1000F) + " sec.");
-	}
-
-	public static void timerPrintText(String timerID, String text) {
-		if (timers.get(timerID) == -1) {
-			return;
-		}
-		long printTime = System.currentTimeMillis() - timers.get(timerID);
-		System.out.println("\n" + text + " Running time: " + (printTime / 1000F) + " sec.");
-	}
-
 	/**
 	 * Method converts tools annotated using 'bio.tools' standard (see <a href=
 	 * "https://biotools.readthedocs.io/en/latest/api_usage_guide.html">bio.tools
@@ -571,89 +774,104 @@ public final class APEUtils {
 
 		JSONArray apeToolsAnnotations = new JSONArray();
 		for (int i = 0; i < bioToolsAnotation.length(); i++) {
-			JSONObject apeJsonTool = new JSONObject();
-			JSONObject bioJsonTool = bioToolsAnotation.getJSONObject(i);
-			apeJsonTool.put("name", bioJsonTool.getString("name"));
-			apeJsonTool.put("operation", bioJsonTool.getString("biotoolsID"));
-
-			JSONArray apeTaxonomyTerms = new JSONArray();
-			List<JSONObject> functions = APEUtils.getListFromJson(bioJsonTool, "function", JSONObject.class);
-			JSONObject function = null;
-			if (functions.size() == 1) {
-				function = bioJsonTool.getJSONArray("function").getJSONObject(0);
-			} else if (functions.size() > 1){
-				System.err.println("A 'bio.tools' tool annotation '" + bioJsonTool.getString("biotoolsID")
-						+ "' cannot contain more than one function.");
-				function = bioJsonTool.getJSONArray("function").getJSONObject(0);
-			} else {
-				continue;
+			JSONObject apeJsonTool = convertBioTool2Ape(bioToolsAnotation.getJSONObject(i));
+			if (apeJsonTool != null) {
+				apeToolsAnnotations.put(apeJsonTool);
 			}
+		}
 
-			JSONArray operations = function.getJSONArray("operation");
-			for (int j = 0; j < operations.length(); j++) {
-				JSONObject bioOperation = operations.getJSONObject(j);
-				apeTaxonomyTerms.put(bioOperation.get("term"));
-			}
-			apeJsonTool.put("taxonomyTerms", apeTaxonomyTerms);
-//			reading inputs
-			JSONArray apeInputs = new JSONArray();
-			JSONArray bioInputs = function.getJSONArray("input");
-//			for each input
-			for (int j = 0; j < bioInputs.length(); j++) {
-				JSONObject bioInput = bioInputs.getJSONObject(j);
-				JSONObject apeInput = new JSONObject();
-				JSONArray apeInputTypes = new JSONArray();
-				JSONArray apeInputFormats = new JSONArray();
-//				add all data types
-				for (JSONObject bioType : APEUtils.getListFromJson(bioInput, "data", JSONObject.class)) {
-					apeInputTypes.put(bioType.getString("term"));
-				}
-				apeInput.put("Data", apeInputTypes);
-//				add all data formats (or just the first one)
-				boolean oneFormat = true;
-				for (JSONObject bioType : APEUtils.getListFromJson(bioInput, "format", JSONObject.class)) {
-//					if (oneFormat) {
-						apeInputFormats.put(bioType.getString("term"));
-//						oneFormat = false; }
-				}
-				apeInput.put("Format$OR$", apeInputFormats);
+		return new JSONObject().put("functions", apeToolsAnnotations);
+	}
+
+	/**
+	 * Method converts a tool annotation, in 'bio.tools' JSON format, into the
+	 * tool annotation supported by the APE library.
+	 * 
+	 * @param bioJsonTool - {@link JSONObject} of the tool annotation in
+	 *                    'bio.tools' format
+	 * @return {@link JSONObject} that represents the tool annotation supported by
+	 *         the APE library, or {@code null} if the tool has no function.
+	 */
+	public static JSONObject convertBioTool2Ape(JSONObject bioJsonTool) throws JSONException {
+		JSONObject apeJsonTool = new JSONObject();
+		apeJsonTool.put("name", bioJsonTool.getString("name"));
+		apeJsonTool.put("operation", bioJsonTool.getString("biotoolsID"));
+
+		JSONArray apeTaxonomyTerms = new JSONArray();
+		List<JSONObject> functions = APEUtils.getListFromJson(bioJsonTool, "function", JSONObject.class);
+		JSONObject function = null;
+		if (functions.size() == 1) {
+			function = bioJsonTool.getJSONArray("function").getJSONObject(0);
+		} else if (functions.size() > 1){
+			System.err.println("A 'bio.tools' tool annotation '" + bioJsonTool.getString("biotoolsID")
+					+ "' cannot contain more than one function.");
+			function = bioJsonTool.getJSONArray("function").getJSONObject(0);
+		} else {
+			return null;
+		}
 
-				apeInputs.put(apeInput);
+		JSONArray operations = function.getJSONArray("operation");
+		for (int j = 0; j < operations.length(); j++) {
+			JSONObject bioOperation = operations.getJSONObject(j);
+			apeTaxonomyTerms.put(bioOperation.get("term"));
+		}
+		apeJsonTool.put("taxonomyTerms", apeTaxonomyTerms);
+//		reading inputs
+		JSONArray apeInputs = new JSONArray();
+		JSONArray bioInputs = function.getJSONArray("input");
+//		for each input
+		for (int j = 0; j < bioInputs.length(); j++) {
+			JSONObject bioInput = bioInputs.getJSONObject(j);
+			JSONObject apeInput = new JSONObject();
+			JSONArray apeInputTypes = new JSONArray();
+			JSONArray apeInputFormats = new JSONArray();
+//		add all data types
+			for (JSONObject bioType : APEUtils.getListFromJson(bioInput, "data", JSONObject.class)) {
+				apeInputTypes.put(bioType.getString("term"));
 			}
-			apeJsonTool.put("inputs", apeInputs);
-
-//			reading outputs
-			JSONArray apeOutputs = new JSONArray();
-			JSONArray bioOutputs = function.getJSONArray("output");
-//			for each output
-			for (int j = 0; j < bioOutputs.length(); j++) {
-
-				JSONObject bioOutput = bioOutputs.getJSONObject(j);
-				JSONObject apeOutput = new JSONObject();
-				JSONArray apeOutputTypes = new JSONArray();
-				JSONArray apeOutputFormats = new JSONArray();
-//				add all data types
-				boolean oneFormat = true;
-				for (JSONObject bioType : APEUtils.getListFromJson(bioOutput, "data", JSONObject.class)) {
-					apeOutputTypes.put(bioType.getString("term"));
-				}
-				apeOutput.put("Data", apeOutputTypes);
-//				add all data formats
-				for (JSONObject bioType : APEUtils.getListFromJson(bioOutput, "format", JSONObject.class)) {
-//					if (oneFormat) {
-						apeOutputFormats.put(bioType.getString("term"));
-//						oneFormat = false; }
-				}
-				apeOutput.put("Format$OR$", apeOutputFormats);
+			apeInput.put("Data", apeInputTypes);
+//		add all data formats (or just the first one)
+			boolean oneFormat = true;
+			for (JSONObject bioType : APEUtils.getListFromJson(bioInput, "format", JSONObject.class)) {
+//			if (oneFormat) {
+					apeInputFormats.put(bioType.getString("term"));
+//				oneFormat = false; }
+			}
+			apeInput.put("Format$OR$", apeInputFormats);
 
-				apeOutputs.put(apeOutput);
+			apeInputs.put(apeInput);
+		}
+		apeJsonTool.put("inputs", apeInputs);
+
+//		reading outputs
+		JSONArray apeOutputs = new JSONArray();
+		JSONArray bioOutputs = function.getJSONArray("output");
+//		for each output
+		for (int j = 0; j < bioOutputs.length(); j++) {
+
+			JSONObject bioOutput = bioOutputs.getJSONObject(j);
+			JSONObject apeOutput = new JSONObject();
+			JSONArray apeOutputTypes = new JSONArray();
+			JSONArray apeOutputFormats = new JSONArray();
+//		add all data types
+			boolean oneFormat = true;
+			for (JSONObject bioType : APEUtils.getListFromJson(bioOutput, "data", JSONObject.class)) {
+				apeOutputTypes.put(bioType.getString("term"));
+			}
+			apeOutput.put("Data", apeOutputTypes);
+//		add all data formats
+			for (JSONObject bioType : APEUtils.getListFromJson(bioOutput, "format", JSONObject.class)) {
+//			if (oneFormat) {
+					apeOutputFormats.put(bioType.getString("term"));
+//				oneFormat = false; }
 			}
-			apeJsonTool.put("outputs", apeOutputs);
+			apeOutput.put("Format$OR$", apeOutputFormats);
 
-			apeToolsAnnotations.put(apeJsonTool);
+			apeOutputs.put(apeOutput);
 		}
+		apeJsonTool.put("outputs", apeOutputs);
 
-		return new JSONObject().put("functions", apeToolsAnnotations);
+		return apeJsonTool;
 	}
 
 	/**
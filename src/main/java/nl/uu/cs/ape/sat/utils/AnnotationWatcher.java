@@ -0,0 +1,215 @@
+package nl.uu.cs.ape.sat.utils;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import nl.uu.cs.ape.sat.models.enums.AnnotationFormat;
+
+/**
+ * The {@code AnnotationWatcher} class keeps the domain up to date with the tool
+ * annotation file. Whenever the file is saved, the tools that were added,
+ * changed or removed are applied to the domain (see
+ * {@link APEDomainSetup#updateModule(JSONObject)} and
+ * {@link APEDomainSetup#removeModule(String)}), without reloading the ontology
+ * or the unchanged tools.<br>
+ * <br>
+ * The tools are compared by the digests of their annotations, so that only the
+ * digests are kept in memory. The domain is expected to correspond to the
+ * content of the file at the time the watcher is created.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class AnnotationWatcher implements Closeable {
+
+	/** Time without changes of the file, after which the file is read. */
+	private static final long SETTLE_TIME_MILLIS = 200;
+
+	/** Domain that is updated. */
+	private final APEDomainSetup domainSetup;
+	/** Path to the tool annotation file. */
+	private final Path annotationsPath;
+	/** Format of the tool annotation file. */
+	private final AnnotationFormat format;
+	/** Digest of the annotation of each tool, mapped by the tool ID. */
+	private Map<String, String> toolDigests;
+	/** Service that reports the changes of the directory of the file. */
+	private final WatchService watchService;
+	/** Thread that applies the changes of the file. */
+	private final Thread watcherThread;
+
+	/**
+	 * Start watching the tool annotation file.
+	 *
+	 * @param domainSetup     - domain that corresponds to the current content of
+	 *                        the file
+	 * @param annotationsPath - path to the tool annotation file
+	 * @param format          - format of the tool annotation file
+	 * @throws IOException if the file cannot be read or watched
+	 */
+	public AnnotationWatcher(APEDomainSetup domainSetup, String annotationsPath, AnnotationFormat format)
+			throws IOException {
+		this.domainSetup = domainSetup;
+		this.annotationsPath = Paths.get(annotationsPath).toAbsolutePath();
+		this.format = format;
+		this.toolDigests = readToolDigests(null);
+		if (toolDigests == null) {
+			throw new IOException("Error reading the tool annotation file: " + annotationsPath);
+		}
+		this.watchService = this.annotationsPath.getFileSystem().newWatchService();
+		this.annotationsPath.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+		this.watcherThread = new Thread(this::watch, "APE-annotation-watcher");
+		this.watcherThread.setDaemon(true);
+		this.watcherThread.start();
+	}
+
+	/**
+	 * Wait for the changes of the file and apply them, until the watcher is
+	 * closed.
+	 */
+	private void watch() {
+		try {
+			while (true) {
+				boolean changed = isAnnotationsChange(watchService.take());
+				/* Wait until the file is written completely, merging the following changes. */
+				WatchKey key;
+				while ((key = watchService.poll(SETTLE_TIME_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+					changed |= isAnnotationsChange(key);
+				}
+				if (changed) {
+					applyChanges();
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			/* The watcher was closed. */
+		}
+	}
+
+	/**
+	 * @return {@code true} if the events of the key include a change of the tool
+	 *         annotation file.
+	 */
+	private boolean isAnnotationsChange(WatchKey key) {
+		boolean changed = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (annotationsPath.getFileName().equals(event.context())) {
+				changed = true;
+			}
+		}
+		key.reset();
+		return changed;
+	}
+
+	/**
+	 * Read the tool annotation file and apply the tools that were added, changed
+	 * or removed since the file was last read to the domain. If the file cannot
+	 * be read (e.g. it is not saved completely), the domain is not changed.
+	 *
+	 * @return {@code true} if the file was read, {@code false} otherwise.
+	 */
+	public synchronized boolean applyChanges() {
+		Map<String, JSONObject> changedTools = new LinkedHashMap<String, JSONObject>();
+		Map<String, String> digests = readToolDigests(changedTools);
+		if (digests == null) {
+			return false;
+		}
+		List<String> removedTools = new ArrayList<String>();
+		for (String toolID : toolDigests.keySet()) {
+			if (!digests.containsKey(toolID)) {
+				removedTools.add(toolID);
+			}
+		}
+		int added = 0;
+		synchronized (domainSetup) {
+			for (String toolID : removedTools) {
+				domainSetup.removeModule(toolID);
+			}
+			for (Map.Entry<String, JSONObject> tool : changedTools.entrySet()) {
+				if (!toolDigests.containsKey(tool.getKey())) {
+					added++;
+				}
+				if (domainSetup.updateModule(tool.getValue()) == null) {
+					/* Read the tool again once its annotation is fixed. */
+					digests.remove(tool.getKey());
+				}
+			}
+		}
+		toolDigests = digests;
+		if (!changedTools.isEmpty() || !removedTools.isEmpty()) {
+			System.out.println("Tool annotations updated: " + added + " added, " + (changedTools.size() - added)
+					+ " changed, " + removedTools.size() + " removed.");
+		}
+		return true;
+	}
+
+	/**
+	 * Read the digests of the tool annotations from the file.
+	 *
+	 * @param changedTools - map the annotations of the tools that differ from
+	 *                     {@link #toolDigests} are added to, or {@code null}
+	 * @return The digest of each tool, mapped by the tool ID, or {@code null} if
+	 *         the file cannot be read.
+	 */
+	private Map<String, String> readToolDigests(Map<String, JSONObject> changedTools) {
+		Map<String, String> digests = new HashMap<String, String>();
+		try (JsonArrayReader reader = APEUtils.getToolsReader(annotationsPath.toString(), format)) {
+			String jsonText;
+			while ((jsonText = reader.next()) != null) {
+				JSONObject jsonTool = APEUtils.getToolAnnotation(jsonText, format);
+				if (jsonTool == null) {
+					continue;
+				}
+				String toolID = jsonTool.getString(APEConfig.getJsonTags("id"));
+				String digest = digest(jsonText);
+				digests.put(toolID, digest);
+				if (changedTools != null && !digest.equals(toolDigests.get(toolID))) {
+					changedTools.put(toolID, jsonTool);
+				}
+			}
+		} catch (IOException | JSONException e) {
+			System.err.println("Error reading the tool annotation file: " + annotationsPath + ". " + e.getMessage());
+			return null;
+		}
+		return digests;
+	}
+
+	private static String digest(String text) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Stop watching the tool annotation file.
+	 */
+	@Override
+	public void close() throws IOException {
+		watcherThread.interrupt();
+		watchService.close();
+	}
+}
@@ -0,0 +1,440 @@
+package nl.uu.cs.ape.sat.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The {@code DomainGenerator} class is used to generate synthetic domains that
+ * can be used for scale and stress testing. A generated domain consists of an
+ * OWL taxonomy (tool and data taxonomies), tool annotations, constraints and an
+ * APE configuration file that ties them together. The generation is
+ * deterministic for a given configuration (including the seed).
+ * <br>
+ * <br>
+ * The generator is configured using a JSON object, where all the tags are
+ * optional:
+ * <ul>
+ * <li>{@code seed} - seed of the random generator</li>
+ * <li>{@code tools} - number of annotated tools</li>
+ * <li>{@code types} - number of concrete data types per dimension</li>
+ * <li>{@code dimensions} - number of data dimensions (e.g. types and
+ * formats)</li>
+ * <li>{@code taxonomy_depth} - depth of the abstract part of each taxonomy</li>
+ * <li>{@code taxonomy_fanout} - number of subclasses of each abstract
+ * class</li>
+ * <li>{@code input_arity}, {@code output_arity} - relative weights of tools
+ * having 0, 1, 2, ... inputs/outputs</li>
+ * <li>{@code or_ratio}, {@code and_ratio} - ratio of data dimensions annotated
+ * using an {@code $OR$}/{@code $AND$} group of types</li>
+ * <li>{@code constraints} - number of constraints that should be generated for
+ * each constraint template ID (e.g. <code>{"ite_m": 2, "use_t": 1}</code>)</li>
+ * <li>{@code solution_max_length}, {@code max_solutions} - values used in the
+ * generated APE configuration</li>
+ * </ul>
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class DomainGenerator {
+
+	/** Tags used in the generator configuration. */
+	private static final String SEED_TAG = "seed";
+	private static final String TOOLS_TAG = "tools";
+	private static final String TYPES_TAG = "types";
+	private static final String DIMENSIONS_TAG = "dimensions";
+	private static final String DEPTH_TAG = "taxonomy_depth";
+	private static final String FANOUT_TAG = "taxonomy_fanout";
+	private static final String INPUT_ARITY_TAG = "input_arity";
+	private static final String OUTPUT_ARITY_TAG = "output_arity";
+	private static final String OR_RATIO_TAG = "or_ratio";
+	private static final String AND_RATIO_TAG = "and_ratio";
+	private static final String CONSTRAINTS_TAG = "constraints";
+	private static final String MAX_LENGTH_TAG = "solution_max_length";
+	private static final String MAX_SOLUTIONS_TAG = "max_solutions";
+
+	/** Names of the generated files. */
+	public static final String ONTOLOGY_FILE = "ontology.owl";
+	public static final String TOOL_ANNOTATIONS_FILE = "tool_annotations.json";
+	public static final String CONSTRAINTS_FILE = "constraints.json";
+	public static final String CONFIGURATION_FILE = "ape.configuration";
+
+	/** Names of the taxonomy roots. */
+	public static final String TOOLS_ROOT = "ToolsTaxonomy";
+	public static final String DATA_ROOT = "DataTaxonomy";
+	private static final String[] DIMENSION_ROOTS = { "TypesTaxonomy", "FormatsTaxonomy" };
+	private static final String NAMESPACE = "http://www.co-ode.org/ontologies/ont.owl#";
+
+	/** Maximum number of inputs and outputs per tool supported by the encoding. */
+	private static final int MAX_ARITY = 3;
+
+	private long seed = 1;
+	private int noTools = 100;
+	private int noTypes = 50;
+	private int noDimensions = 1;
+	private int taxonomyDepth = 3;
+	private int taxonomyFanout = 3;
+	private double[] inputArity = { 0.05, 0.55, 0.3, 0.1 };
+	private double[] outputArity = { 0, 0.7, 0.2, 0.1 };
+	private double orRatio = 0.1;
+	private double andRatio = 0.05;
+	private Map<String, Integer> constraintMix = new LinkedHashMap<String, Integer>();
+	private int solutionMaxLength = 5;
+	private int maxSolutions = 100;
+
+	/** Random generator, reinitialised with the seed at each generation. */
+	private Random random;
+
+	/**
+	 * Create a generator with the default configuration.
+	 */
+	public DomainGenerator() {
+	}
+
+	/**
+	 * Create a generator using the given configuration. Tags that are not
+	 * provided keep their default values.
+	 *
+	 * @param generatorConfig - JSON object that configures the generator
+	 * @throws JSONException error in case of a badly formatted configuration
+	 */
+	public DomainGenerator(JSONObject generatorConfig) throws JSONException {
+		seed = generatorConfig.optLong(SEED_TAG, seed);
+		noTools = generatorConfig.optInt(TOOLS_TAG, noTools);
+		noTypes = generatorConfig.optInt(TYPES_TAG, noTypes);
+		noDimensions = generatorConfig.optInt(DIMENSIONS_TAG, noDimensions);
+		taxonomyDepth = generatorConfig.optInt(DEPTH_TAG, taxonomyDepth);
+		taxonomyFanout = generatorConfig.optInt(FANOUT_TAG, taxonomyFanout);
+		inputArity = readWeights(generatorConfig, INPUT_ARITY_TAG, inputArity);
+		outputArity = readWeights(generatorConfig, OUTPUT_ARITY_TAG, outputArity);
+		orRatio = generatorConfig.optDouble(OR_RATIO_TAG, orRatio);
+		andRatio = generatorConfig.optDouble(AND_RATIO_TAG, andRatio);
+		solutionMaxLength = generatorConfig.optInt(MAX_LENGTH_TAG, solutionMaxLength);
+		maxSolutions = generatorConfig.optInt(MAX_SOLUTIONS_TAG, maxSolutions);
+		JSONObject constraints = generatorConfig.optJSONObject(CONSTRAINTS_TAG);
+		if (constraints != null) {
+			for (String constraintID : constraints.keySet()) {
+				constraintMix.put(constraintID, constraints.getInt(constraintID));
+			}
+		}
+
+		if (noTools < 1 || noTypes < 1 || taxonomyDepth < 1 || taxonomyFanout < 1 || noDimensions < 1) {
+			throw new JSONException("Number of tools, types, dimensions, taxonomy depth and fan-out have to be positive.");
+		}
+	}
+
+	/**
+	 * Generate the domain and write all the files to the given folder. The
+	 * folder is created if it does not exist.
+	 *
+	 * @param folder - folder where the domain files will be written
+	 * @return {@code true} if the domain was successfully written, {@code false}
+	 *         otherwise.
+	 */
+	public boolean generate(File folder) {
+		if (!folder.isDirectory() && !folder.mkdirs()) {
+			System.err.println("Folder \"" + folder.getPath() + "\" cannot be created.");
+			return false;
+		}
+		random = new Random(seed);
+
+		StringBuilder owl = new StringBuilder();
+		owl.append("<?xml version=\"1.0\"?>\n")
+				.append("<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"\n")
+				.append("     xmlns:owl=\"http://www.w3.org/2002/07/owl#\"\n")
+				.append("     xmlns:rdfs=\"http://www.w3.org/2000/01/rdf-schema#\">\n")
+				.append("    <owl:Ontology rdf:about=\"http://www.co-ode.org/ontologies/ont.owl\"/>\n");
+		appendClass(owl, TOOLS_ROOT, null);
+		appendClass(owl, DATA_ROOT, null);
+
+		Taxonomy operations = new Taxonomy(owl, TOOLS_ROOT, "Operation", 0);
+		List<Taxonomy> dimensions = new ArrayList<Taxonomy>();
+		for (int i = 0; i < noDimensions; i++) {
+			String dimensionRoot = getDimensionRoot(i);
+			appendClass(owl, dimensionRoot, DATA_ROOT);
+			dimensions.add(new Taxonomy(owl, dimensionRoot, dimensionRoot.replace("Taxonomy", ""), noTypes));
+		}
+		owl.append("</rdf:RDF>\n");
+
+		/* Generate the tool annotations. */
+		List<String> tools = new ArrayList<String>();
+		JSONArray jsonTools = new JSONArray();
+		JSONArray workflowInputs = new JSONArray(), workflowOutputs = new JSONArray();
+		for (int i = 0; i < noTools; i++) {
+			String toolID = "Tool_" + i;
+			tools.add(toolID);
+			JSONObject jsonTool = new JSONObject();
+			jsonTool.put("operation", toolID);
+			jsonTool.put("name", toolID);
+			jsonTool.put("taxonomyTerms", new JSONArray().put(operations.randomAbstractLeaf()));
+
+			/* The first tool has at least one input and output and defines a realizable workflow. */
+			int noInputs = Math.max(i == 0 ? 1 : 0, sampleArity(inputArity));
+			int noOutputs = Math.max(i == 0 ? 1 : 0, sampleArity(outputArity));
+			JSONArray inputs = new JSONArray(), outputs = new JSONArray();
+			for (int j = 0; j < noInputs; j++) {
+				inputs.put(generateDataInstance(dimensions, i != 0));
+			}
+			for (int j = 0; j < noOutputs; j++) {
+				outputs.put(generateDataInstance(dimensions, i != 0));
+			}
+			if (i == 0) {
+				workflowInputs = inputs;
+				workflowOutputs.put(outputs.get(0));
+			}
+			jsonTool.put("inputs", inputs);
+			jsonTool.put("outputs", outputs);
+			jsonTools.put(jsonTool);
+		}
+
+		/* Generate the constraints. */
+		JSONArray jsonConstraints = new JSONArray();
+		for (Map.Entry<String, Integer> entry : constraintMix.entrySet()) {
+			String constraintID = entry.getKey();
+			boolean moduleConstraint = constraintID.endsWith("_m");
+			for (int i = 0; i < entry.getValue(); i++) {
+				JSONArray parameters = new JSONArray();
+				for (int p = 0; p < getNoOfParameters(constraintID); p++) {
+					String label;
+					if (moduleConstraint) {
+						label = (random.nextBoolean() && !operations.classes.isEmpty()) ? operations.randomClass()
+								: tools.get(random.nextInt(tools.size()));
+					} else {
+						label = dimensions.get(random.nextInt(dimensions.size())).randomClass();
+					}
+					parameters.put(new JSONArray().put(label));
+				}
+				jsonConstraints.put(new JSONObject().put("constraintid", constraintID).put("parameters", parameters));
+			}
+		}
+
+		boolean succRun = true;
+		succRun &= APEUtils.write2file(owl.toString(), new File(folder, ONTOLOGY_FILE), false);
+		succRun &= APEUtils.write2file(new JSONObject().put("functions", jsonTools).toString(2),
+				new File(folder, TOOL_ANNOTATIONS_FILE), false);
+		succRun &= APEUtils.write2file(new JSONObject().put("constraints", jsonConstraints).toString(2),
+				new File(folder, CONSTRAINTS_FILE), false);
+		succRun &= APEUtils.write2file(generateConfiguration(folder, workflowInputs, workflowOutputs).toString(2),
+				new File(folder, CONFIGURATION_FILE), false);
+		return succRun;
+	}
+
+	/**
+	 * Generate the APE configuration (both core and run configuration) that
+	 * corresponds to the generated domain.
+	 */
+	private JSONObject generateConfiguration(File folder, JSONArray inputs, JSONArray outputs) {
+		JSONArray subRoots = new JSONArray();
+		for (int i = 0; i < noDimensions; i++) {
+			subRoots.put(getDimensionRoot(i));
+		}
+		JSONObject config = new JSONObject();
+		config.put("ontology_path", new File(folder, ONTOLOGY_FILE).getAbsolutePath());
+		config.put("toolsTaxonomyRoot", TOOLS_ROOT);
+		config.put("dataTaxonomyRoot", DATA_ROOT);
+		config.put("dataSubTaxonomyRoot", subRoots);
+		config.put("tool_annotations_path", new File(folder, TOOL_ANNOTATIONS_FILE).getAbsolutePath());
+		config.put("constraints_path", new File(folder, CONSTRAINTS_FILE).getAbsolutePath());
+		config.put("solutions_path", new File(folder, "solutions.txt").getAbsolutePath());
+		config.put("shared_memory", true);
+		config.put("solution_min_length", 1);
+		config.put("solution_max_length", solutionMaxLength);
+		config.put("max_solutions", maxSolutions);
+		config.put("inputs", inputs);
+		config.put("outputs", outputs);
+		config.put("use_workflow_input", "all");
+		config.put("use_all_generated_data", "one");
+		config.put("debug_mode", false);
+		return config;
+	}
+
+	/**
+	 * Generate a data instance annotation, i.e. one (group of) type(s) per
+	 * dimension. Workflow I/O do not support logical groups, thus they can be
+	 * excluded.
+	 */
+	private JSONObject generateDataInstance(List<Taxonomy> dimensions, boolean allowGroups) {
+		JSONObject dataInstance = new JSONObject();
+		for (Taxonomy dimension : dimensions) {
+			double groupSample = allowGroups ? random.nextDouble() : 1;
+			String leaf = dimension.randomLeaf();
+			if (groupSample < orRatio) {
+				JSONArray group = new JSONArray().put(leaf);
+				for (int i = random.nextInt(2); i >= 0; i--) {
+					group.put(dimension.randomLeaf());
+				}
+				dataInstance.put(dimension.root + "$OR$", group);
+			} else if (groupSample < orRatio + andRatio && dimension.getParent(leaf) != null) {
+				/* Conjunction of a type and one of its superclasses is always satisfiable. */
+				dataInstance.put(dimension.root + "$AND$", new JSONArray().put(leaf).put(dimension.getParent(leaf)));
+			} else {
+				dataInstance.put(dimension.root, new JSONArray().put(leaf));
+			}
+		}
+		return dataInstance;
+	}
+
+	/**
+	 * Return the number of parameters of the constraint template with the given
+	 * ID, see {@link nl.uu.cs.ape.sat.constraints.ConstraintFactory}.
+	 */
+	private static int getNoOfParameters(String constraintID) {
+		switch (constraintID) {
+		case "ite_m":
+		case "itn_m":
+		case "depend_m":
+		case "next_m":
+		case "prev_m":
+		case "use_ite_t":
+		case "gen_ite_t":
+		case "use_itn_t":
+		case "gen_itn_t":
+			return 2;
+		default:
+			return 1;
+		}
+	}
+
+	private int sampleArity(double[] weights) {
+		double total = 0;
+		for (double weight : weights) {
+			total += weight;
+		}
+		double sample = random.nextDouble() * total;
+		for (int i = 0; i < weights.length; i++) {
+			sample -= weights[i];
+			if (sample < 0) {
+				return i;
+			}
+		}
+		return weights.length - 1;
+	}
+
+	private static double[] readWeights(JSONObject generatorConfig, String tag, double[] defaultWeights) {
+		JSONArray jsonWeights = generatorConfig.optJSONArray(tag);
+		if (jsonWeights == null) {
+			return defaultWeights;
+		}
+		if (jsonWeights.length() == 0 || jsonWeights.length() > MAX_ARITY + 1) {
+			throw new JSONException("Tag '" + tag + "' has to contain between 1 and " + (MAX_ARITY + 1) + " weights.");
+		}
+		double[] weights = new double[jsonWeights.length()];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = jsonWeights.getDouble(i);
+		}
+		return weights;
+	}
+
+	private static String getDimensionRoot(int index) {
+		return index < DIMENSION_ROOTS.length ? DIMENSION_ROOTS[index] : "Dimension" + index + "Taxonomy";
+	}
+
+	private static void appendClass(StringBuilder owl, String classID, String superClassID) {
+		owl.append("    <owl:Class rdf:about=\"").append(NAMESPACE).append(classID).append("\"");
+		if (superClassID == null) {
+			owl.append("/>\n");
+		} else {
+			owl.append(">\n        <rdfs:subClassOf rdf:resource=\"").append(NAMESPACE).append(superClassID)
+					.append("\"/>\n    </owl:Class>\n");
+		}
+	}
+
+	/**
+	 * Balanced taxonomy of abstract classes, where the concrete classes (leaves)
+	 * are distributed at random over the lowest level of abstract classes.
+	 */
+	private class Taxonomy {
+
+		private final String root;
+		/** All the generated classes, excluding the root. */
+		private final List<String> classes = new ArrayList<String>();
+		/** Lowest level of the abstract classes. */
+		private final List<String> abstractLeaves;
+		private final List<String> leaves = new ArrayList<String>();
+		private final Map<String, String> parents = new HashMap<String, String>();
+
+		Taxonomy(StringBuilder owl, String root, String prefix, int noLeaves) {
+			this.root = root;
+			List<String> level = new ArrayList<String>();
+			level.add(root);
+			for (int depth = 1; depth < taxonomyDepth; depth++) {
+				List<String> nextLevel = new ArrayList<String>();
+				for (String parent : level) {
+					for (int i = 0; i < taxonomyFanout; i++) {
+						String child = (parent.equals(root) ? prefix + "Class" : parent) + "_" + i;
+						appendClass(owl, child, parent);
+						parents.put(child, parent.equals(root) ? null : parent);
+						classes.add(child);
+						nextLevel.add(child);
+					}
+				}
+				level = nextLevel;
+			}
+			abstractLeaves = level;
+			for (int i = 0; i < noLeaves; i++) {
+				String leaf = prefix + "_" + i;
+				String parent = abstractLeaves.get(random.nextInt(abstractLeaves.size()));
+				appendClass(owl, leaf, parent);
+				parents.put(leaf, parent.equals(root) ? null : parent);
+				classes.add(leaf);
+				leaves.add(leaf);
+			}
+		}
+
+		String getParent(String classID) {
+			return parents.get(classID);
+		}
+
+		String randomLeaf() {
+			return leaves.get(random.nextInt(leaves.size()));
+		}
+
+		String randomAbstractLeaf() {
+			return abstractLeaves.get(random.nextInt(abstractLeaves.size()));
+		}
+
+		String randomClass() {
+			return classes.get(random.nextInt(classes.size()));
+		}
+	}
+
+	/**
+	 * Generate a domain from the command line.
+	 *
+	 * @param args - output folder, optionally followed by the path to the
+	 *             generator configuration file
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length > 2) {
+			System.err.println("Usage: <output folder> [generator configuration file]");
+			return;
+		}
+		DomainGenerator generator;
+		try {
+			if (args.length == 2) {
+				generator = new DomainGenerator(new JSONObject(APEUtils.readFile(args[1], Charset.defaultCharset())));
+			} else {
+				generator = new DomainGenerator();
+			}
+		} catch (JSONException e) {
+			System.err.println("Error in parsing the generator configuration file. " + e.getMessage());
+			return;
+		} catch (IOException e) {
+			System.err.println("Error in reading the generator configuration file.");
+			return;
+		}
+		if (generator.generate(new File(args[0]))) {
+			System.out.println("Domain generated in: " + new File(args[0], CONFIGURATION_FILE).getAbsolutePath());
+		}
+	}
+}
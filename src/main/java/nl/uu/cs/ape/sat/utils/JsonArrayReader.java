@@ -0,0 +1,234 @@
+package nl.uu.cs.ape.sat.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * The {@code JsonArrayReader} class reads the elements of a JSON array one at a
+ * time, without loading the whole JSON document in memory. The array is given
+ * by its key in the top-level JSON object (e.g. {@code "functions"} in the tool
+ * annotation file). If the key corresponds to a single value instead of an
+ * array, that value is the only element. If the document is an array itself
+ * (e.g. a bio.tools dump), its elements are read and the key is ignored.<br>
+ * <br>
+ * The elements are returned as JSON text, which is only checked for matching
+ * brackets and quotes. The text can then be parsed into a {@link JSONObject} by
+ * another thread, while the reader continues with the following elements.
+ *
+ * @author Vedran Kasalica
+ *
+ */
+public class JsonArrayReader implements Closeable {
+
+	/** Value of {@link #peeked} when no character was peeked. */
+	private static final int NONE = -2;
+
+	/** Reader of the JSON document. */
+	private final Reader reader;
+	/** Key of the array in the top-level JSON object. */
+	private final String key;
+	/** Character that was read, but not consumed yet, or {@link #NONE}. */
+	private int peeked;
+	/** {@code true} once the reader is positioned within the array. */
+	private boolean started;
+	/** {@code true} once all the elements were read. */
+	private boolean finished;
+
+	/**
+	 * Create a reader of the array elements.
+	 *
+	 * @param reader - reader of the JSON document (preferably buffered)
+	 * @param key    - key of the array in the top-level JSON object (ignored if
+	 *               the document is an array)
+	 */
+	public JsonArrayReader(Reader reader, String key) {
+		this.reader = reader;
+		this.key = key;
+		this.peeked = NONE;
+		this.started = false;
+		this.finished = false;
+	}
+
+	/**
+	 * Read the next element of the array.
+	 *
+	 * @return JSON text of the next element, or {@code null} if there are no more
+	 *         elements (or the key does not exist).
+	 * @throws IOException   if the document cannot be read
+	 * @throws JSONException if the document is not a valid JSON object
+	 */
+	public String next() throws IOException, JSONException {
+		if (finished) {
+			return null;
+		}
+		int c;
+		if (!started) {
+			started = true;
+			c = nextClean();
+			if (c != '[') {
+				if (c != '{') {
+					throw syntaxError("Expected a JSON object or array");
+				}
+				if (!findKey()) {
+					finished = true;
+					return null;
+				}
+				c = nextClean();
+				if (c != '[') {
+					finished = true;
+					return readValue(c);
+				}
+			}
+			c = nextClean();
+		} else {
+			c = nextClean();
+			if (c == ',') {
+				c = nextClean();
+			} else if (c != ']') {
+				throw syntaxError("Expected ',' or ']' after an element of '" + key + "'");
+			}
+		}
+		if (c == ']') {
+			finished = true;
+			return null;
+		}
+		return readValue(c);
+	}
+
+	/**
+	 * Move the reader to the value of the {@link #key} in the top-level object,
+	 * after its opening bracket.
+	 *
+	 * @return {@code true} if the key was found, {@code false} otherwise.
+	 */
+	private boolean findKey() throws IOException {
+		int c = nextClean();
+		while (c != '}') {
+			if (c != '"') {
+				throw syntaxError("Expected a key");
+			}
+			String currKey = new JSONTokener(readValue(c)).nextValue().toString();
+			if (nextClean() != ':') {
+				throw syntaxError("Expected ':' after the key '" + currKey + "'");
+			}
+			if (currKey.equals(key)) {
+				return true;
+			}
+			skipValue(nextClean(), null);
+			c = nextClean();
+			if (c == ',') {
+				c = nextClean();
+			} else if (c != '}') {
+				throw syntaxError("Expected ',' or '}' after the value of '" + currKey + "'");
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param first - first character of the value
+	 * @return JSON text of the value.
+	 */
+	private String readValue(int first) throws IOException {
+		StringBuilder value = new StringBuilder();
+		skipValue(first, value);
+		return value.toString();
+	}
+
+	/**
+	 * Read a value, given its first character.
+	 *
+	 * @param first - first character of the value
+	 * @param value - builder the text of the value is appended to, or
+	 *              {@code null} if it is not needed
+	 */
+	private void skipValue(int first, StringBuilder value) throws IOException {
+		int c = first;
+		if (c == '"' || c == '{' || c == '[') {
+			int depth = 0;
+			do {
+				append(value, c);
+				if (c == '"') {
+					skipString(value);
+				} else if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					depth--;
+				}
+				if (depth > 0) {
+					c = read();
+				}
+			} while (depth > 0);
+			return;
+		}
+		/* Number, boolean or null. */
+		while (c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+			append(value, c);
+			c = read();
+		}
+		peeked = c;
+	}
+
+	/**
+	 * Read the rest of a string, after its opening quote.
+	 */
+	private void skipString(StringBuilder value) throws IOException {
+		int c;
+		while ((c = read()) != '"') {
+			append(value, c);
+			if (c == '\\') {
+				append(value, read());
+			}
+		}
+		append(value, c);
+	}
+
+	private static void append(StringBuilder value, int c) {
+		if (value != null) {
+			value.append((char) c);
+		}
+	}
+
+	/**
+	 * @return The next character that is not a whitespace.
+	 */
+	private int nextClean() throws IOException {
+		int c;
+		do {
+			c = read();
+		} while (Character.isWhitespace(c));
+		return c;
+	}
+
+	/**
+	 * @return The next character.
+	 * @throws JSONException if the document ended
+	 */
+	private int read() throws IOException {
+		int c;
+		if (peeked != NONE) {
+			c = peeked;
+			peeked = NONE;
+		} else {
+			c = reader.read();
+		}
+		if (c < 0) {
+			throw syntaxError("Unexpected end of the JSON document");
+		}
+		return c;
+	}
+
+	private JSONException syntaxError(String message) {
+		return new JSONException(message + " while reading '" + key + "'.");
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}